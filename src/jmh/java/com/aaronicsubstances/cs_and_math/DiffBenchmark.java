@@ -0,0 +1,122 @@
+package com.aaronicsubstances.cs_and_math;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures diffing of a file of source-code-like lines against a revision with scattered
+ * edits, each of which changes, deletes or inserts a few lines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiffBenchmark {
+    @Param({ "lcs", "myers", "myersLinearSpace", "myersLinearSpaceParallel",
+        "patience", "histogram" })
+    public String algorithm;
+
+    @Param({ "2000" })
+    public int lineCount;
+
+    @Param({ "20" })
+    public int editCount;
+
+    @Param({ "false", "true" })
+    public boolean anchorUniqueLines;
+
+    private List<String> original;
+    private List<String> revised;
+    private DiffOptions options;
+
+    @Setup
+    public void setUp() {
+        Random randGen = new Random(lineCount);
+        original = new ArrayList<>();
+        for (int i = 0; i < lineCount; i++) {
+            original.add(randomLine(randGen));
+        }
+        // copy lines, as if files were read separately.
+        revised = new ArrayList<>();
+        for (String line : original) {
+            revised.add(new String(line));
+        }
+        for (int i = 0; i < editCount; i++) {
+            int index = randGen.nextInt(revised.size());
+            int length = 1 + randGen.nextInt(3);
+            for (int j = 0; j < length && index < revised.size(); j++) {
+                switch (randGen.nextInt(3)) {
+                    case 0:
+                        revised.set(index++, randomLine(randGen));
+                        break;
+                    case 1:
+                        revised.remove(index);
+                        break;
+                    default:
+                        revised.add(index++, randomLine(randGen));
+                        break;
+                }
+            }
+        }
+        options = new DiffOptions();
+        options.setAlgorithm(createDiffAlgorithm(algorithm));
+        options.setAnchorUniqueLines(anchorUniqueLines);
+    }
+
+    static DiffAlgorithm createDiffAlgorithm(String algorithm) {
+        switch (algorithm) {
+            case "lcs":
+                return DiffAlgorithm.LCS;
+            case "myers":
+                return DiffAlgorithm.MYERS;
+            case "myersLinearSpace":
+                return DiffAlgorithm.MYERS_LINEAR_SPACE;
+            case "myersLinearSpaceParallel":
+                return DiffAlgorithm.MYERS_LINEAR_SPACE_PARALLEL;
+            case "patience":
+                return DiffAlgorithm.PATIENCE;
+            case "histogram":
+                return DiffAlgorithm.HISTOGRAM;
+            default:
+                throw new IllegalArgumentException("unknown diff algorithm: " + algorithm);
+        }
+    }
+
+    private static String randomLine(Random randGen) {
+        // mostly distinct lines, with some frequently repeated ones as in source code.
+        switch (randGen.nextInt(8)) {
+            case 0:
+                return "\n";
+            case 1:
+                return "    }\n";
+            default:
+                return "    int v" + randGen.nextInt(1_000_000) + " = compute(" +
+                    randGen.nextInt(100) + ");\n";
+        }
+    }
+
+    @Benchmark
+    public String printNormalDiff() throws IOException {
+        StringWriter writer = new StringWriter();
+        Diff.printNormalDiff(original, revised, writer, options);
+        return writer.toString();
+    }
+}
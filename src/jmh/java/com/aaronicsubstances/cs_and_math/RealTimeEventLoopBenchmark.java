@@ -0,0 +1,88 @@
+package com.aaronicsubstances.cs_and_math;
+
+import java.util.Random;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the cost of scheduling and cancelling a timer from another thread, with many
+ * timers pending, against {@link ScheduledThreadPoolExecutor} with removal on cancellation
+ * (without which cancelled timers accumulate until due).
+ * <p>
+ * Timers are due far in the future, as with typical timeouts, which are mostly cancelled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RealTimeEventLoopBenchmark {
+    private static final int MIN_DELAY = 3_600_000;
+
+    @Param({ "1000", "1000000" })
+    public int pendingTimerCount;
+
+    private RealTimeEventLoop eventLoop;
+    private ScheduledThreadPoolExecutor executor;
+    private int[] delays;
+    private int delayIndex;
+    private final Runnable callback = () -> { };
+
+    @Setup
+    public void setUp() {
+        Random randGen = new Random(pendingTimerCount);
+        delays = new int[1 << 16];
+        for (int i = 0; i < delays.length; i++) {
+            delays[i] = MIN_DELAY + randGen.nextInt(MIN_DELAY);
+        }
+        eventLoop = new RealTimeEventLoop();
+        executor = new ScheduledThreadPoolExecutor(1);
+        executor.setRemoveOnCancelPolicy(true);
+        for (int i = 0; i < pendingTimerCount; i++) {
+            eventLoop.setTimeout(callback, nextDelay());
+            executor.schedule(callback, nextDelay(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        eventLoop.shutdown();
+        executor.shutdownNow();
+        eventLoop.awaitTermination(10, TimeUnit.SECONDS);
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private int nextDelay() {
+        return delays[delayIndex++ & (delays.length - 1)];
+    }
+
+    @Benchmark
+    public Object realTimeEventLoop() {
+        Object handle = eventLoop.setTimeout(callback, nextDelay());
+        eventLoop.clearTimeout(handle);
+        return handle;
+    }
+
+    @Benchmark
+    public Object scheduledThreadPoolExecutor() {
+        ScheduledFuture<?> future = executor.schedule(callback, nextDelay(),
+            TimeUnit.MILLISECONDS);
+        future.cancel(false);
+        return future;
+    }
+}
@@ -0,0 +1,72 @@
+package com.aaronicsubstances.cs_and_math;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares loading an initial workload into an event loop one callback at a time, against
+ * loading it in bulk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScheduleAllBenchmark {
+    @Param({ "heap", "timingWheel", "calendar", "persistent" })
+    public String eventQueueType;
+
+    @Param({ "1000000" })
+    public int eventCount;
+
+    // arrival times are usually generated in order.
+    @Param({ "true", "false" })
+    public boolean sorted;
+
+    private long[] timestamps;
+    private Runnable[] callbacks;
+
+    @Setup
+    public void setUp() {
+        Random randGen = new Random(eventCount);
+        timestamps = new long[eventCount];
+        callbacks = new Runnable[eventCount];
+        long t = 0;
+        for (int i = 0; i < eventCount; i++) {
+            t += randGen.nextInt(10);
+            timestamps[i] = sorted ? t : randGen.nextInt(10 * eventCount);
+            callbacks[i] = () -> { };
+        }
+    }
+
+    @Benchmark
+    public VirtualEventLoop setTimeoutLoop() {
+        VirtualEventLoop eventLoop = new VirtualEventLoop(
+            VirtualEventLoopBenchmark.createEventQueue(eventQueueType));
+        for (int i = 0; i < eventCount; i++) {
+            eventLoop.setTimeout(callbacks[i], (int) timestamps[i]);
+        }
+        return eventLoop;
+    }
+
+    @Benchmark
+    public VirtualEventLoop scheduleAll() {
+        VirtualEventLoop eventLoop = new VirtualEventLoop(
+            VirtualEventLoopBenchmark.createEventQueue(eventQueueType));
+        eventLoop.scheduleAll(timestamps, callbacks);
+        return eventLoop;
+    }
+}
@@ -0,0 +1,94 @@
+package com.aaronicsubstances.cs_and_math;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aaronicsubstances.cs_and_math.simulation.CalendarEventQueue;
+import com.aaronicsubstances.cs_and_math.simulation.EventQueue;
+import com.aaronicsubstances.cs_and_math.simulation.HeapEventQueue;
+import com.aaronicsubstances.cs_and_math.simulation.PersistentEventQueue;
+import com.aaronicsubstances.cs_and_math.simulation.TimingWheelEventQueue;
+
+/**
+ * Measures the classic hold model of event set performance: each executed event schedules
+ * a replacement event at a random delay, which keeps the number of pending events fixed.
+ * <p>
+ * Delays average the number of pending events, so that advancing time by one unit executes
+ * one event on average.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VirtualEventLoopBenchmark {
+    @Param({ "heap", "timingWheel", "calendar", "persistent" })
+    public String eventQueueType;
+
+    @Param({ "1000", "1000000" })
+    public int pendingEventCount;
+
+    private VirtualEventLoop eventLoop;
+    private int[] delays;
+    private int delayIndex;
+    private Runnable holdCallback;
+
+    @Setup
+    public void setUp() {
+        Random randGen = new Random(pendingEventCount);
+        delays = new int[1 << 16];
+        for (int i = 0; i < delays.length; i++) {
+            delays[i] = 1 + randGen.nextInt(2 * pendingEventCount);
+        }
+        eventLoop = new VirtualEventLoop(createEventQueue(eventQueueType));
+        holdCallback = () -> eventLoop.setTimeout(this.holdCallback, nextDelay());
+        for (int i = 0; i < pendingEventCount; i++) {
+            eventLoop.setTimeout(holdCallback, nextDelay());
+        }
+    }
+
+    static EventQueue createEventQueue(String eventQueueType) {
+        switch (eventQueueType) {
+            case "heap":
+                return new HeapEventQueue();
+            case "timingWheel":
+                return new TimingWheelEventQueue();
+            case "calendar":
+                return new CalendarEventQueue();
+            case "persistent":
+                return new PersistentEventQueue();
+            default:
+                throw new IllegalArgumentException("unknown event queue type: " + eventQueueType);
+        }
+    }
+
+    private int nextDelay() {
+        return delays[delayIndex++ & (delays.length - 1)];
+    }
+
+    @Benchmark
+    public long hold() {
+        eventLoop.advanceTimeTo(eventLoop.getCurrentTimestamp() + 1);
+        return eventLoop.getCurrentTimestamp();
+    }
+
+    @Benchmark
+    public Object scheduleAndCancel() {
+        Object handle = eventLoop.setTimeout(holdCallback, nextDelay());
+        eventLoop.clearTimeout(handle);
+        return handle;
+    }
+}
@@ -0,0 +1,55 @@
+package com.aaronicsubstances.cs_and_math.collections;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Common interface over the queues under comparison.
+ */
+interface BoundedQueue<E> {
+    boolean offer(E item);
+    E poll();
+    int offerAll(List<E> items);
+    int drainTo(Collection<E> target, int maxItems);
+
+    static <E> BoundedQueue<E> create(String queueType, int capacity) {
+        switch (queueType) {
+            case "spsc": {
+                SpscArrayQueue<E> q = new SpscArrayQueue<>(capacity);
+                return new BoundedQueue<E>() {
+                    public boolean offer(E item) { return q.offer(item); }
+                    public E poll() { return q.poll(); }
+                    public int offerAll(List<E> items) { return q.offerAll(items); }
+                    public int drainTo(Collection<E> target, int maxItems) { return q.drainTo(target, maxItems); }
+                };
+            }
+            case "mpsc": {
+                MpscArrayQueue<E> q = new MpscArrayQueue<>(capacity);
+                return new BoundedQueue<E>() {
+                    public boolean offer(E item) { return q.offer(item); }
+                    public E poll() { return q.poll(); }
+                    public int offerAll(List<E> items) { return q.offerAll(items); }
+                    public int drainTo(Collection<E> target, int maxItems) { return q.drainTo(target, maxItems); }
+                };
+            }
+            case "arrayBlocking": {
+                ArrayBlockingQueue<E> q = new ArrayBlockingQueue<>(capacity);
+                return new BoundedQueue<E>() {
+                    public boolean offer(E item) { return q.offer(item); }
+                    public E poll() { return q.poll(); }
+                    public int offerAll(List<E> items) {
+                        int count = 0;
+                        while (count < items.size() && q.offer(items.get(count))) {
+                            count++;
+                        }
+                        return count;
+                    }
+                    public int drainTo(Collection<E> target, int maxItems) { return q.drainTo(target, maxItems); }
+                };
+            }
+            default:
+                throw new IllegalArgumentException("unknown queue type: " + queueType);
+        }
+    }
+}
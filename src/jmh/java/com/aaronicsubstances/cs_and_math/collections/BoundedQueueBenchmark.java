@@ -0,0 +1,92 @@
+package com.aaronicsubstances.cs_and_math.collections;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Control;
+
+/**
+ * Compares lock-free bounded queues against ArrayBlockingQueue for hand-off between
+ * one producer thread and one consumer thread, item by item and in batches.
+ * <p>
+ * Operations are retried until they succeed, so scores count items transferred rather
+ * than attempts on a full or empty queue.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoundedQueueBenchmark {
+    private static final Integer ITEM = 1;
+    private static final int BATCH_SIZE = 32;
+
+    @Param({ "spsc", "mpsc", "arrayBlocking" })
+    public String queueType;
+
+    @Param({ "1024" })
+    public int capacity;
+
+    private BoundedQueue<Integer> queue;
+    private final List<Integer> offerBatch = Collections.nCopies(BATCH_SIZE, ITEM);
+    private final List<Integer> drainBatch = new ArrayList<>(BATCH_SIZE);
+
+    @Setup
+    public void setUp() {
+        queue = BoundedQueue.create(queueType, capacity);
+    }
+
+    @Benchmark
+    @Group("handOff")
+    @GroupThreads(1)
+    public void offer(Control control) {
+        while (!queue.offer(ITEM) && !control.stopMeasurement) {
+        }
+    }
+
+    @Benchmark
+    @Group("handOff")
+    @GroupThreads(1)
+    public Integer poll(Control control) {
+        Integer item;
+        while ((item = queue.poll()) == null && !control.stopMeasurement) {
+        }
+        return item;
+    }
+
+    @Benchmark
+    @Group("batchHandOff")
+    @GroupThreads(1)
+    public int offerAll(Control control) {
+        int offered;
+        while ((offered = queue.offerAll(offerBatch)) == 0 && !control.stopMeasurement) {
+        }
+        return offered;
+    }
+
+    @Benchmark
+    @Group("batchHandOff")
+    @GroupThreads(1)
+    public int drainTo(Control control) {
+        drainBatch.clear();
+        while (queue.drainTo(drainBatch, BATCH_SIZE) == 0 && !control.stopMeasurement) {
+        }
+        return drainBatch.size();
+    }
+}
@@ -0,0 +1,63 @@
+package com.aaronicsubstances.cs_and_math.collections;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Control;
+
+/**
+ * Compares MpscArrayQueue against ArrayBlockingQueue with several producer threads
+ * contending for one consumer thread.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MpscQueueBenchmark {
+    private static final Integer ITEM = 1;
+
+    @Param({ "mpsc", "arrayBlocking" })
+    public String queueType;
+
+    @Param({ "1024" })
+    public int capacity;
+
+    private BoundedQueue<Integer> queue;
+
+    @Setup
+    public void setUp() {
+        queue = BoundedQueue.create(queueType, capacity);
+    }
+
+    @Benchmark
+    @Group("contendedHandOff")
+    @GroupThreads(3)
+    public void offer(Control control) {
+        while (!queue.offer(ITEM) && !control.stopMeasurement) {
+        }
+    }
+
+    @Benchmark
+    @Group("contendedHandOff")
+    @GroupThreads(1)
+    public Integer poll(Control control) {
+        Integer item;
+        while ((item = queue.poll()) == null && !control.stopMeasurement) {
+        }
+        return item;
+    }
+}
@@ -0,0 +1,128 @@
+package com.aaronicsubstances.cs_and_math.collections;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares skip lists against ConcurrentSkipListMap for lookups, rank queries
+ * and range scans.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SkipListBenchmark {
+    private static final int RANGE_LENGTH = 100;
+
+    @Param({ "100000" })
+    public int size;
+
+    private long[] queries;
+    private int queryIndex;
+    private LongSkipList<Long> indexedSkipList;
+    private ConcurrentLongSkipList<Long> concurrentSkipList;
+    private ConcurrentSkipListMap<Long, Long> jdkSkipList;
+
+    @Setup
+    public void setUp() {
+        Random randGen = new Random(size);
+        indexedSkipList = new LongSkipList<>();
+        concurrentSkipList = new ConcurrentLongSkipList<>();
+        jdkSkipList = new ConcurrentSkipListMap<>();
+        for (int i = 0; i < size; i++) {
+            long key = randGen.nextInt(size * 4);
+            indexedSkipList.put(key, key);
+            concurrentSkipList.put(key, key);
+            jdkSkipList.put(key, key);
+        }
+        queries = new long[1 << 12];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = randGen.nextInt(size * 4);
+        }
+    }
+
+    private long nextQuery() {
+        return queries[queryIndex++ & (queries.length - 1)];
+    }
+
+    @Benchmark
+    public Long getIndexed() {
+        return indexedSkipList.get(nextQuery());
+    }
+
+    @Benchmark
+    public Long getConcurrent() {
+        return concurrentSkipList.get(nextQuery());
+    }
+
+    @Benchmark
+    public Long getJdk() {
+        return jdkSkipList.get(nextQuery());
+    }
+
+    @Benchmark
+    public int rankIndexed() {
+        return indexedSkipList.rank(nextQuery());
+    }
+
+    @Benchmark
+    public int rankConcurrent() {
+        return concurrentSkipList.rank(nextQuery());
+    }
+
+    @Benchmark
+    public int rankJdk() {
+        return jdkSkipList.headMap(nextQuery()).size();
+    }
+
+    @Benchmark
+    public long rangeScanIndexed() {
+        long from = nextQuery();
+        long sum = 0;
+        Iterator<LongSkipList.Entry<Long>> it = indexedSkipList.rangeIterator(
+            from, from + RANGE_LENGTH);
+        while (it.hasNext()) {
+            sum += it.next().getKey();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long rangeScanConcurrent() {
+        long from = nextQuery();
+        long sum = 0;
+        Iterator<LongSkipList.Entry<Long>> it = concurrentSkipList.rangeIterator(
+            from, from + RANGE_LENGTH);
+        while (it.hasNext()) {
+            sum += it.next().getKey();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long rangeScanJdk() {
+        long from = nextQuery();
+        long sum = 0;
+        for (Map.Entry<Long, Long> e : jdkSkipList.subMap(from, from + RANGE_LENGTH).entrySet()) {
+            sum += e.getKey();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,72 @@
+package com.aaronicsubstances.cs_and_math.sorting;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures in-memory sorting of a single chunk, by configuring external sort
+ * such that all input fits into one chunk and storage is never touched.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkSortBenchmark {
+
+    @Param({ "10000", "1000000" })
+    public int size;
+
+    @Param({ "random", "partiallySorted" })
+    public String ordering;
+
+    private List<Integer> input;
+    private SortConfiguration sortConfig;
+    private ExternalStorage storage;
+
+    @Setup
+    public void setUp() {
+        Random randGen = new Random(size);
+        input = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (ordering.equals("random")) {
+                input.add(randGen.nextInt());
+            }
+            else {
+                // runs of ascending items with occasional disorder.
+                input.add(randGen.nextInt(100) < 90 ? i : randGen.nextInt(size));
+            }
+        }
+        storage = new InMemoryStorage();
+        sortConfig = new SortConfiguration();
+        sortConfig.setMaximumRamUsage(Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public void sortChunk(Blackhole blackhole) {
+        Comparator<Integer> sortFunc = Integer::compare;
+        Iterator<Integer> result = ExternalSort.sort(input.iterator(), sortFunc,
+            sortConfig, storage);
+        while (result.hasNext()) {
+            blackhole.consume(result.next());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.aaronicsubstances.cs_and_math.sorting;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures end-to-end external sorting, including chunk creation and
+ * all merge passes, over different storages.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExternalSortBenchmark {
+    private static final int ITEM_COUNT = 1 << 18;
+
+    @Param({ "memory", "file", "pooledFile" })
+    public String storageType;
+
+    private List<Integer> input;
+    private SortConfiguration sortConfig;
+    private File directory;
+    private ExternalStorage storage;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random randGen = new Random(ITEM_COUNT);
+        input = new ArrayList<>();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            input.add(randGen.nextInt());
+        }
+
+        // 16 initial chunks merged 4 at a time, ie 2 merge passes.
+        sortConfig = new SortConfiguration(64 * 1024, 16 * 1024);
+        sortConfig.setClassOfItem(Integer.class);
+
+        directory = Files.createTempDirectory("external-sort-bench").toFile();
+        if (storageType.equals("memory")) {
+            storage = new InMemoryStorage();
+        }
+        else if (storageType.equals("file")) {
+            storage = new FileStorage(directory);
+        }
+        else {
+            storage = new PooledExternalStorage(new FileStorage(directory));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (storage instanceof PooledExternalStorage) {
+            ((PooledExternalStorage)storage).close();
+        }
+        File[] leftovers = directory.listFiles();
+        if (leftovers != null) {
+            for (File f : leftovers) {
+                f.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public void sort(Blackhole blackhole) throws Exception {
+        try (CloseableIterator<Integer> result = ExternalSort.sort(input.iterator(),
+                Integer::compare, sortConfig, storage)) {
+            while (result.hasNext()) {
+                blackhole.consume(result.next());
+            }
+        }
+    }
+}
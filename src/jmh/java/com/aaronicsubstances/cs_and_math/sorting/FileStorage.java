@@ -0,0 +1,100 @@
+package com.aaronicsubstances.cs_and_math.sorting;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Stores Integer items in temporary files, one file per bucket.
+ */
+public class FileStorage implements ExternalStorage {
+    private final File directory;
+    private int autoInc;
+
+    public FileStorage(File directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public String createBucket() {
+        String bucketId = "" + (++autoInc);
+        try {
+            if (!new File(directory, bucketId).createNewFile()) {
+                throw new IOException("bucket file already exists: " + bucketId);
+            }
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bucketId;
+    }
+
+    @Override
+    public void deleteBucket(String bucketId) {
+        new File(directory, bucketId).delete();
+    }
+
+    @Override
+    public Object openStream(String bucketId, boolean openForWriting,
+            boolean truncateBeforeWriting, int bufferSize) {
+        File file = new File(directory, bucketId);
+        bufferSize = Math.max(bufferSize, 512);
+        try {
+            if (openForWriting) {
+                return new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(file, !truncateBeforeWriting), bufferSize));
+            }
+            return new DataInputStream(new BufferedInputStream(
+                new FileInputStream(file), bufferSize));
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void closeStream(Object stream) {
+        try {
+            ((Closeable)stream).close();
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public Object deserializeFrom(Object stream, Class<?> classOfItem) {
+        try {
+            return ((DataInputStream)stream).readInt();
+        }
+        catch (EOFException ex) {
+            return null;
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void serializeTo(Object stream, Object item) {
+        try {
+            ((DataOutputStream)stream).writeInt((Integer)item);
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public int estimateSerializedSize(Object item) {
+        return Integer.BYTES;
+    }
+}
@@ -0,0 +1,69 @@
+package com.aaronicsubstances.cs_and_math.sorting;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps buckets as lists on the heap, so that benchmarks measure
+ * sorting and merging work without any I/O.
+ */
+public class InMemoryStorage implements ExternalStorage {
+    private final Map<String, List<Object>> buckets = new HashMap<>();
+    private int autoInc;
+
+    @Override
+    public String createBucket() {
+        String bucketId = "" + (++autoInc);
+        buckets.put(bucketId, new ArrayList<>());
+        return bucketId;
+    }
+
+    @Override
+    public void deleteBucket(String bucketId) {
+        buckets.remove(bucketId);
+    }
+
+    @Override
+    public Object openStream(String bucketId, boolean openForWriting,
+            boolean truncateBeforeWriting, int bufferSize) {
+        List<Object> list = buckets.get(bucketId);
+        if (openForWriting && truncateBeforeWriting) {
+            list.clear();
+        }
+        return new Stream(list);
+    }
+
+    @Override
+    public void closeStream(Object stream) {
+    }
+
+    @Override
+    public Object deserializeFrom(Object stream, Class<?> classOfItem) {
+        Stream s = (Stream)stream;
+        if (s.readIndex == s.list.size()) {
+            return null;
+        }
+        return s.list.get(s.readIndex++);
+    }
+
+    @Override
+    public void serializeTo(Object stream, Object item) {
+        ((Stream)stream).list.add(item);
+    }
+
+    @Override
+    public int estimateSerializedSize(Object item) {
+        return Integer.BYTES;
+    }
+
+    private static class Stream {
+        public final List<Object> list;
+        public int readIndex;
+
+        public Stream(List<Object> list) {
+            this.list = list;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.aaronicsubstances.cs_and_math.sorting;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares stable merge sort against the JDK's stable sort.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MergeSortBenchmark {
+    private static final Comparator<Integer> SORT_FUNC = Integer::compare;
+
+    @Param({ "1000000" })
+    public int size;
+
+    @Param({ "random", "partiallySorted" })
+    public String ordering;
+
+    private Integer[] input;
+
+    @Setup
+    public void setUp() {
+        Random randGen = new Random(size);
+        input = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            if (ordering.equals("random")) {
+                input[i] = randGen.nextInt();
+            }
+            else {
+                input[i] = randGen.nextInt(100) < 90 ? i : randGen.nextInt(size);
+            }
+        }
+    }
+
+    @Benchmark
+    public Integer[] jdkSort() {
+        Integer[] a = input.clone();
+        Arrays.sort(a, SORT_FUNC);
+        return a;
+    }
+
+    @Benchmark
+    public Integer[] mergeSort() {
+        Integer[] a = input.clone();
+        MergeSort.sort(a, SORT_FUNC);
+        return a;
+    }
+
+    @Benchmark
+    public Integer[] parallelMergeSort() {
+        Integer[] a = input.clone();
+        MergeSort.parallelSort(a, SORT_FUNC);
+        return a;
+    }
+}
@@ -0,0 +1,100 @@
+package com.aaronicsubstances.cs_and_math.sorting;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures merge throughput per merged item, for boxed values and for records
+ * holding their sort key in a primitive field.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultiWayMergeBenchmark {
+    private static final int ITEM_COUNT = 1 << 16;
+
+    @Param({ "2", "16", "128" })
+    public int k;
+
+    private List<List<Long>> boxedInputs;
+    private List<List<LongRecord>> recordInputs;
+
+    @Setup
+    public void setUp() {
+        Random randGen = new Random(k);
+        boxedInputs = new ArrayList<>();
+        recordInputs = new ArrayList<>();
+        for (int i = 0; i < k; i++) {
+            long[] keys = new long[ITEM_COUNT / k];
+            for (int j = 0; j < keys.length; j++) {
+                keys[j] = randGen.nextLong();
+            }
+            Arrays.sort(keys);
+            List<Long> boxed = new ArrayList<>();
+            List<LongRecord> records = new ArrayList<>();
+            for (long key : keys) {
+                boxed.add(key);
+                records.add(new LongRecord(key));
+            }
+            boxedInputs.add(boxed);
+            recordInputs.add(records);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEM_COUNT)
+    public void mergeBoxed(Blackhole blackhole) {
+        consume(MultiWayMerge.merge(iterators(boxedInputs), Long::compare), blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEM_COUNT)
+    public void mergePrimitiveRecords(Blackhole blackhole) {
+        Comparator<LongRecord> sortFunc = (a, b) -> Long.compare(a.key, b.key);
+        consume(MultiWayMerge.merge(iterators(recordInputs), sortFunc), blackhole);
+    }
+
+    private static <T> List<Iterator<T>> iterators(List<List<T>> inputs) {
+        List<Iterator<T>> iterators = new ArrayList<>();
+        for (List<T> input : inputs) {
+            iterators.add(input.iterator());
+        }
+        return iterators;
+    }
+
+    private static <T> void consume(Iterator<T> merged, Blackhole blackhole) {
+        while (merged.hasNext()) {
+            blackhole.consume(merged.next());
+        }
+    }
+
+    public static final class LongRecord {
+        public final long key;
+
+        public LongRecord(long key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.aaronicsubstances.cs_and_math.sorting;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures cost of replaying games from a leaf to the root, as a function of
+ * the number of leaves (k).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TournamentLoserTreeBenchmark {
+    private static final int INCREMENT_COUNT = 1 << 12;
+
+    @Param({ "2", "8", "64", "512", "4096" })
+    public int k;
+
+    private TournamentLoserTree<Long> tree;
+    private int[] increments;
+    private int incrementIndex;
+
+    @Setup
+    public void setUp() {
+        Random randGen = new Random(k);
+        List<Long> initialElements = new ArrayList<>();
+        for (int i = 0; i < k; i++) {
+            initialElements.add((long)randGen.nextInt(1000));
+        }
+        increments = new int[INCREMENT_COUNT];
+        for (int i = 0; i < increments.length; i++) {
+            increments[i] = randGen.nextInt(1000);
+        }
+        tree = new TournamentLoserTree<>(Long::compare);
+        tree.restart(initialElements);
+    }
+
+    @Benchmark
+    public Long replayWithReplacement() {
+        // replace winner with a larger value, the way a merge
+        // of sorted inputs does.
+        Long winner = tree.getCurrentWinner();
+        int increment = increments[incrementIndex++ & (INCREMENT_COUNT - 1)];
+        tree.continueWithReplacement(winner + increment);
+        return winner;
+    }
+}
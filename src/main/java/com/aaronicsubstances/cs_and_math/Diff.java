@@ -21,65 +21,82 @@ public class Diff {
     
     /**
      * Generates normal diff output in normal format. Aims to mimick Unix diff command exactly.
+     * Uses {@link DiffAlgorithm#MYERS}, like Unix diff.
      * @param x lines in original file. Each line should include its terminator. 
      * @param y lines in revised file. Each line should include its terminator.
      * @param writer destination of diff
      * @throws IOException
      */
     public static void printNormalDiff(List<String> x, List<String> y, Writer writer) throws IOException {
+        printNormalDiff(x, y, writer, DiffAlgorithm.MYERS);
+    }
+
+    /**
+     * Generates normal diff output in normal format, with a given algorithm for finding
+     * differing lines.
+     * @param x lines in original file. Each line should include its terminator. 
+     * @param y lines in revised file. Each line should include its terminator.
+     * @param writer destination of diff
+     * @param algorithm algorithm for finding differing lines. E.g. {@link DiffAlgorithm#LCS},
+     * {@link DiffAlgorithm#MYERS}.
+     * @throws IOException
+     */
+    public static void printNormalDiff(List<String> x, List<String> y, Writer writer,
+            DiffAlgorithm algorithm) throws IOException {
+        DiffOptions options = new DiffOptions();
+        options.setAlgorithm(algorithm);
+        printNormalDiff(x, y, writer, options);
+    }
+
+    /**
+     * Generates normal diff output in normal format, with given options.
+     * <p>
+     * Common prefix and suffix of files are stripped first, and the remaining lines are
+     * interned, ie replaced by int ids which are equal if and only if lines are equal after any
+     * normalization requested by options. Hence algorithms compare lines in O(1) time, and
+     * each line is only hashed once. Algorithms also skip lines which do not occur in the other
+     * file.
+     * @param x lines in original file. Each line should include its terminator. 
+     * @param y lines in revised file. Each line should include its terminator.
+     * @param writer destination of diff
+     * @param options diff options
+     * @throws IOException
+     */
+    public static void printNormalDiff(List<String> x, List<String> y, Writer writer,
+            DiffOptions options) throws IOException {
         // number of lines of each file
         int m = x.size();
         int n = y.size();
 
-        // opt[i][j] = length of LCS of x[i..m] and y[j..n]
-        int[][] opt = new int[m+1][n+1];
+        boolean[] xChanged = new boolean[m];
+        boolean[] yChanged = new boolean[n];
+        DiffPreprocessor.findChanges(x, y, options, xChanged, yChanged);
 
-        // compute length of LCS and all subproblems via dynamic programming
-        for (int i = m-1; i >= 0; i--) {
-            for (int j = n-1; j >= 0; j--) {
-                if (x.get(i).equals(y.get(j)))
-                    opt[i][j] = opt[i+1][j+1] + 1;
-                else 
-                    opt[i][j] = Math.max(opt[i+1][j], opt[i][j+1]);
-            }
-        }
-
-        // recover LCS itself and print out non-matching lines to standard output
+        // print out runs of changed lines between unchanged ones, which pair up in order.
         int i = 0, j = 0;
         List<String> xLines = new ArrayList<>();
         List<String> yLines = new ArrayList<>();
         int[] xLineRange = new int[]{0, 0};
         int[] yLineRange = new int[]{0, 0};
-        while (i < m && j < n) {
-            if (x.get(i).equals(y.get(j))) {
-                printDiffLines(writer, xLines, yLines, xLineRange, yLineRange);
-                xLines.clear();
-                yLines.clear();
-                
-                xLineRange[0] = ++i;
-                yLineRange[0] = ++j;
-            }
-            else if (opt[i+1][j] >= opt[i][j+1]) {
+        while (i < m || j < n) {
+            xLineRange[0] = i;
+            yLineRange[0] = j;
+            while (i < m && xChanged[i]) {
                 xLineRange[1] = i;
                 xLines.add(x.get(i++));
             }
-            else {
+            while (j < n && yChanged[j]) {
                 yLineRange[1] = j;
                 yLines.add(y.get(j++));
             }
+            printDiffLines(writer, xLines, yLines, xLineRange, yLineRange);
+            xLines.clear();
+            yLines.clear();
+
+            // skip unchanged line of each file.
+            i++;
+            j++;
         }
-        
-        while (i < m) {
-            xLineRange[1] = i;
-            xLines.add(x.get(i++));
-        }
-        
-        while (j < n) {
-            yLineRange[1] = j;
-            yLines.add(y.get(j++));
-        }
-        
-        printDiffLines(writer, xLines, yLines, xLineRange, yLineRange);
         writer.flush();
     }
     
@@ -0,0 +1,75 @@
+package com.aaronicsubstances.cs_and_math;
+
+/**
+ * Finds the lines which differ between two files, for printing by {@link Diff}.
+ * <p>
+ * Algorithms work on ids of lines, which {@link Diff} assigns such that lines have equal ids
+ * if and only if they are equal, possibly after normalization (see {@link DiffOptions}).
+ * <p>
+ * Differing lines are reported as lines which are not part of a common subsequence of the
+ * lines of both files. Implementations differ in the common subsequence they choose: some
+ * find a longest one, and hence a shortest edit script, while others trade length for speed
+ * or for readability of output.
+ */
+public interface DiffAlgorithm {
+
+    /**
+     * Dynamic programming over all pairs of lines, which finds a longest common subsequence in
+     * O(mn) time and memory. Impractical for large files, but preferring deletions over
+     * insertions wherever a choice of common subsequence exists.
+     */
+    DiffAlgorithm LCS = new LcsDiffAlgorithm();
+
+    /**
+     * Myers' greedy algorithm, which finds a longest common subsequence in O((m + n)d) time,
+     * where d is the size of the shortest edit script. Hence it takes near-linear time for
+     * similar files. Uses O(m + n + d<sup>2</sup>) memory for small d, and switches to
+     * {@link #MYERS_LINEAR_SPACE} once d exceeds about a thousand, so that memory use stays
+     * bounded for files with many differences.
+     */
+    DiffAlgorithm MYERS = new MyersDiffAlgorithm();
+
+    /**
+     * Linear-space variant of {@link #MYERS}, which finds a longest common subsequence by
+     * divide and conquer, in O((m + n)d) time and O(m + n) memory. Slower than
+     * {@link #MYERS} by a small constant factor, but suits files with many differences.
+     */
+    DiffAlgorithm MYERS_LINEAR_SPACE = new LinearSpaceMyersDiffAlgorithm(false);
+
+    /**
+     * Same as {@link #MYERS_LINEAR_SPACE}, except that independent subproblems of large files
+     * are solved in parallel in the common fork/join pool. Memory use grows with the number
+     * of threads of the pool.
+     */
+    DiffAlgorithm MYERS_LINEAR_SPACE_PARALLEL = new LinearSpaceMyersDiffAlgorithm(true);
+
+    /**
+     * Patience diff, which recursively matches lines occurring exactly once in each file, and
+     * falls back to {@link #MYERS} between matched lines without such lines. Tends to align
+     * hunks with distinctive lines of code rather than with blank lines and braces, at the
+     * cost of edit scripts which need not be shortest.
+     */
+    DiffAlgorithm PATIENCE = new PatienceDiffAlgorithm();
+
+    /**
+     * Histogram diff, as used by git, which extends {@link #PATIENCE} by recursively matching
+     * the common runs of lines whose rarest line occurs fewest times, so that lines need not
+     * be unique. Usually faster than {@link #MYERS} on files with many differences, such as
+     * large refactorings, with similarly readable output as {@link #PATIENCE}. Edit scripts
+     * need not be shortest.
+     */
+    DiffAlgorithm HISTOGRAM = new HistogramDiffAlgorithm();
+
+    /**
+     * Marks the lines of two files which are not part of a common subsequence of their lines.
+     * Hence the unmarked lines of each file are equal, in order, to those of the other file.
+     * @param x lines of original file, as ids of distinct lines
+     * @param y lines of revised file, as ids of distinct lines. Equal lines of both files
+     * have equal ids.
+     * @param xChanged receives true at indices of lines of x which are deleted or changed.
+     * Must have the same length as x, and be all false initially.
+     * @param yChanged receives true at indices of lines of y which are inserted or changed.
+     * Must have the same length as y, and be all false initially.
+     */
+    void findChanges(int[] x, int[] y, boolean[] xChanged, boolean[] yChanged);
+}
@@ -0,0 +1,63 @@
+package com.aaronicsubstances.cs_and_math;
+
+/**
+ * Options for generating diffs with {@link Diff}.
+ */
+public class DiffOptions {
+    private DiffAlgorithm algorithm = DiffAlgorithm.MYERS;
+    private boolean ignoreCase;
+    private boolean ignoreWhitespace;
+    private boolean anchorUniqueLines;
+
+    public DiffOptions() {
+    }
+
+    /**
+     * Gets algorithm for finding differing lines. Defaults to {@link DiffAlgorithm#MYERS}.
+     */
+    public DiffAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(DiffAlgorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * Gets whether lines which differ only in case are considered equal, like the -i option of
+     * Unix diff.
+     */
+    public boolean isIgnoreCase() {
+        return ignoreCase;
+    }
+
+    public void setIgnoreCase(boolean ignoreCase) {
+        this.ignoreCase = ignoreCase;
+    }
+
+    /**
+     * Gets whether lines which differ only in whitespace are considered equal, like the -w
+     * option of Unix diff. Line terminators count as whitespace.
+     */
+    public boolean isIgnoreWhitespace() {
+        return ignoreWhitespace;
+    }
+
+    public void setIgnoreWhitespace(boolean ignoreWhitespace) {
+        this.ignoreWhitespace = ignoreWhitespace;
+    }
+
+    /**
+     * Gets whether lines which occur exactly once in each file are matched before running the
+     * algorithm, as in patience diff, so that the algorithm only runs on the windows between
+     * matched lines. Speeds up diffs of large files with many changes, but the edit script
+     * found may then be longer than the shortest one. Defaults to false.
+     */
+    public boolean isAnchorUniqueLines() {
+        return anchorUniqueLines;
+    }
+
+    public void setAnchorUniqueLines(boolean anchorUniqueLines) {
+        this.anchorUniqueLines = anchorUniqueLines;
+    }
+}
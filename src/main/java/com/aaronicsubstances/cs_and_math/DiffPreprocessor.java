@@ -0,0 +1,392 @@
+package com.aaronicsubstances.cs_and_math;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.aaronicsubstances.cs_and_math.collections.IntDeque;
+import com.aaronicsubstances.cs_and_math.searching.BinarySearch;
+
+/**
+ * Shrinks the input of a {@link DiffAlgorithm} before running it, since real diffs usually
+ * change small regions of large files. In order,
+ * <ol>
+ *   <li>common prefix and suffix of files are stripped, by comparing lines directly. Hence
+ *   only lines in between are interned.
+ *   <li>lines which do not occur in the other file are marked as changed and discarded, since
+ *   they cannot be part of any common subsequence.
+ *   <li>optionally, remaining lines which occur exactly once in each file are matched as
+ *   anchors, by finding a longest increasing subsequence of their positions as in patience
+ *   diff. The algorithm then runs only on the windows between consecutive anchors.
+ * </ol>
+ * The first two steps preserve the length of a longest common subsequence, and hence do not
+ * make the edit script found by an algorithm any longer. The third step need not.
+ * <p>
+ * Afterwards, runs of changes are slid over equal lines as in GNU diff, since the first
+ * two steps can lead algorithms to different choices among equally long edit scripts.
+ */
+class DiffPreprocessor {
+
+    /**
+     * Marks the lines of two files which are not part of a common subsequence found by the
+     * algorithm of given options, after preprocessing.
+     * @see DiffAlgorithm#findChanges(int[], int[], boolean[], boolean[])
+     */
+    public static void findChanges(List<String> x, List<String> y, DiffOptions options,
+            boolean[] xChanged, boolean[] yChanged) {
+        LineInterner interner = new LineInterner(options.isIgnoreCase(),
+            options.isIgnoreWhitespace());
+        int m = x.size();
+        int n = y.size();
+        int prefix = 0;
+        while (prefix < m && prefix < n && interner.areEqual(x.get(prefix), y.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < m - prefix && suffix < n - prefix &&
+                interner.areEqual(x.get(m - 1 - suffix), y.get(n - 1 - suffix))) {
+            suffix++;
+        }
+        int[] xIds = interner.internAll(x.subList(prefix, m - suffix));
+        int[] yIds = interner.internAll(y.subList(prefix, n - suffix));
+
+        int distinctCount = interner.getDistinctCount();
+        int[] xCounts = countOccurrences(xIds, distinctCount);
+        int[] yCounts = countOccurrences(yIds, distinctCount);
+        int[] xIndices = discardUnmatched(xIds, yCounts, prefix, xChanged);
+        int[] yIndices = discardUnmatched(yIds, xCounts, prefix, yChanged);
+        int[] xKeptIds = gather(xIds, xIndices, prefix);
+        int[] yKeptIds = gather(yIds, yIndices, prefix);
+
+        DiffAlgorithm algorithm = options.getAlgorithm();
+        if (!options.isAnchorUniqueLines()) {
+            findChangesInWindow(algorithm, xKeptIds, 0, xKeptIds.length, xIndices,
+                yKeptIds, 0, yKeptIds.length, yIndices, xChanged, yChanged);
+        }
+        else {
+            int[][] anchors = findUniqueAnchors(xKeptIds, 0, xKeptIds.length,
+                yKeptIds, 0, yKeptIds.length, xCounts, yCounts, new int[distinctCount]);
+            int xLo = 0, yLo = 0;
+            for (int k = 0; k <= anchors[0].length; k++) {
+                int xHi = k < anchors[0].length ? anchors[0][k] : xKeptIds.length;
+                int yHi = k < anchors[0].length ? anchors[1][k] : yKeptIds.length;
+                findChangesInWindow(algorithm, xKeptIds, xLo, xHi, xIndices,
+                    yKeptIds, yLo, yHi, yIndices, xChanged, yChanged);
+                xLo = xHi + 1;
+                yLo = yHi + 1;
+            }
+        }
+
+        shiftBoundaries(x, xIds, prefix, interner, xChanged, yChanged);
+        shiftBoundaries(y, yIds, prefix, interner, yChanged, xChanged);
+    }
+
+    /**
+     * Slides runs of changed lines of a file over equal unchanged lines, which does not change
+     * the common subsequence, but makes the edit script independent of choices made by
+     * algorithms (and made differently once unmatched lines have been discarded). Runs which
+     * can be merged are merged, and the rest are moved as far forward as possible, unless they
+     * can be aligned with a run of changes in the other file.
+     * <p>
+     * Based on shift_boundaries function in analyze.c of GNU diffutils.
+     * @param lines lines of file
+     * @param ids ids of lines of file from prefix onwards, excluding common suffix
+     * @param prefix length of common prefix
+     * @param interner used to compare lines of common prefix and suffix
+     * @param changed changes of file
+     * @param otherChanged changes of other file
+     */
+    private static void shiftBoundaries(List<String> lines, int[] ids, int prefix,
+            LineInterner interner, boolean[] changed, boolean[] otherChanged) {
+        int lineCount = changed.length;
+        // pad arrays with unchanged line at each end, so that c[i + 1] is change of line i.
+        boolean[] c = new boolean[lineCount + 2];
+        boolean[] oc = new boolean[otherChanged.length + 2];
+        System.arraycopy(changed, 0, c, 1, lineCount);
+        System.arraycopy(otherChanged, 0, oc, 1, otherChanged.length);
+        int i = 0, j = 0;
+        while (true) {
+            // scan forward to find beginning of another run of changes, and
+            // keep track of the corresponding point in the other file.
+            while (i < lineCount && !c[i + 1]) {
+                while (oc[1 + j++]) {
+                }
+                i++;
+            }
+            if (i == lineCount) {
+                break;
+            }
+            int start = i;
+
+            // find end of run.
+            while (c[1 + ++i]) {
+            }
+            while (oc[j + 1]) {
+                j++;
+            }
+
+            int runLength, corresponding;
+            do {
+                runLength = i - start;
+
+                // move run back while the previous unchanged line equals the last changed
+                // line, which merges it with previous runs.
+                while (start > 0 && areEqual(lines, ids, prefix, interner, start - 1, i - 1)) {
+                    c[1 + --start] = true;
+                    c[1 + --i] = false;
+                    while (c[start]) {
+                        start--;
+                    }
+                    while (oc[1 + --j]) {
+                    }
+                }
+
+                // end of run at the last point where it corresponds to a run of changes
+                // in the other file, or lineCount if there is no such point.
+                corresponding = oc[j] ? i : lineCount;
+
+                // move run forward while the first changed line equals the next unchanged
+                // line, which merges it with following runs. This is done second, so that
+                // runs which cannot be merged end up as far forward as possible.
+                while (i != lineCount && areEqual(lines, ids, prefix, interner, start, i)) {
+                    c[1 + start++] = false;
+                    c[1 + i++] = true;
+                    while (c[i + 1]) {
+                        i++;
+                    }
+                    while (oc[1 + ++j]) {
+                        corresponding = i;
+                    }
+                }
+            } while (runLength != i - start);
+
+            // move fully merged run back to align with a corresponding run in the other file.
+            while (corresponding < i) {
+                c[1 + --start] = true;
+                c[1 + --i] = false;
+                while (oc[1 + --j]) {
+                }
+            }
+        }
+        System.arraycopy(c, 1, changed, 0, lineCount);
+    }
+
+    private static boolean areEqual(List<String> lines, int[] ids, int prefix,
+            LineInterner interner, int a, int b) {
+        if (a >= prefix && b >= prefix && a - prefix < ids.length && b - prefix < ids.length) {
+            return ids[a - prefix] == ids[b - prefix];
+        }
+        return interner.areEqual(lines.get(a), lines.get(b));
+    }
+
+    private static int[] countOccurrences(int[] ids, int distinctCount) {
+        int[] counts = new int[distinctCount];
+        for (int id : ids) {
+            counts[id]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Marks lines which do not occur in the other file as changed.
+     * @return indices in file of the other lines.
+     */
+    private static int[] discardUnmatched(int[] ids, int[] otherCounts, int offset,
+            boolean[] changed) {
+        int[] indices = new int[ids.length];
+        int keptCount = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (otherCounts[ids[i]] == 0) {
+                changed[offset + i] = true;
+            }
+            else {
+                indices[keptCount++] = offset + i;
+            }
+        }
+        return Arrays.copyOf(indices, keptCount);
+    }
+
+    private static int[] gather(int[] ids, int[] indices, int offset) {
+        int[] result = new int[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            result[i] = ids[indices[i] - offset];
+        }
+        return result;
+    }
+
+    /**
+     * Runs algorithm on lines of x from xLo (inclusive) to xHi (exclusive) and lines of y
+     * from yLo (inclusive) to yHi (exclusive), and marks changes at the file indices of
+     * these lines.
+     */
+    private static void findChangesInWindow(DiffAlgorithm algorithm,
+            int[] x, int xLo, int xHi, int[] xIndices,
+            int[] y, int yLo, int yHi, int[] yIndices,
+            boolean[] xChanged, boolean[] yChanged) {
+        if (xLo == xHi && yLo == yHi) {
+            return;
+        }
+        boolean[] xWindowChanged = new boolean[xHi - xLo];
+        boolean[] yWindowChanged = new boolean[yHi - yLo];
+        algorithm.findChanges(Arrays.copyOfRange(x, xLo, xHi), Arrays.copyOfRange(y, yLo, yHi),
+            xWindowChanged, yWindowChanged);
+        for (int i = 0; i < xWindowChanged.length; i++) {
+            if (xWindowChanged[i]) {
+                xChanged[xIndices[xLo + i]] = true;
+            }
+        }
+        for (int j = 0; j < yWindowChanged.length; j++) {
+            if (yWindowChanged[j]) {
+                yChanged[yIndices[yLo + j]] = true;
+            }
+        }
+    }
+
+    /**
+     * Gets one more than the largest id of two files, for sizing arrays indexed by id.
+     */
+    static int getIdLimit(int[] x, int[] y) {
+        int limit = 0;
+        for (int id : x) {
+            limit = Math.max(limit, id + 1);
+        }
+        for (int id : y) {
+            limit = Math.max(limit, id + 1);
+        }
+        return limit;
+    }
+
+    /**
+     * Runs algorithm on lines of x from xLo (inclusive) to xHi (exclusive) and lines of y
+     * from yLo (inclusive) to yHi (exclusive), and marks changes at the same indices.
+     */
+    static void findChangesInRange(DiffAlgorithm algorithm,
+            int[] x, int xLo, int xHi, int[] y, int yLo, int yHi,
+            boolean[] xChanged, boolean[] yChanged) {
+        boolean[] xRangeChanged = new boolean[xHi - xLo];
+        boolean[] yRangeChanged = new boolean[yHi - yLo];
+        algorithm.findChanges(Arrays.copyOfRange(x, xLo, xHi), Arrays.copyOfRange(y, yLo, yHi),
+            xRangeChanged, yRangeChanged);
+        for (int i = 0; i < xRangeChanged.length; i++) {
+            if (xRangeChanged[i]) {
+                xChanged[xLo + i] = true;
+            }
+        }
+        for (int j = 0; j < yRangeChanged.length; j++) {
+            if (yRangeChanged[j]) {
+                yChanged[yLo + j] = true;
+            }
+        }
+    }
+
+    /**
+     * Trims common prefix and suffix of lines of x from range[0] (inclusive) to range[1]
+     * (exclusive) and lines of y from range[2] (inclusive) to range[3] (exclusive), by
+     * updating range. If either trimmed range is empty, marks the other as changed.
+     * @return true if both trimmed ranges are nonempty, and hence changes between them are
+     * left to find.
+     */
+    static boolean trimRange(int[] x, int[] y, int[] range,
+            boolean[] xChanged, boolean[] yChanged) {
+        int xLo = range[0], xHi = range[1], yLo = range[2], yHi = range[3];
+        while (xLo < xHi && yLo < yHi && x[xLo] == y[yLo]) {
+            xLo++;
+            yLo++;
+        }
+        while (xLo < xHi && yLo < yHi && x[xHi - 1] == y[yHi - 1]) {
+            xHi--;
+            yHi--;
+        }
+        range[0] = xLo;
+        range[1] = xHi;
+        range[2] = yLo;
+        range[3] = yHi;
+        if (xLo == xHi || yLo == yHi) {
+            Arrays.fill(xChanged, xLo, xHi, true);
+            Arrays.fill(yChanged, yLo, yHi, true);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Pushes ranges of x and y onto a stack of ranges left to process.
+     */
+    static void addRange(IntDeque ranges, int xLo, int xHi, int yLo, int yHi) {
+        ranges.addLast(xLo);
+        ranges.addLast(xHi);
+        ranges.addLast(yLo);
+        ranges.addLast(yHi);
+    }
+
+    /**
+     * Pops ranges of x and y pushed by {@link #addRange} into range, as xLo, xHi, yLo and yHi.
+     */
+    static void removeRange(IntDeque ranges, int[] range) {
+        for (int k = range.length - 1; k >= 0; k--) {
+            range[k] = ranges.removeLast();
+        }
+    }
+
+    /**
+     * Matches lines which occur exactly once within each of two ranges, such that the
+     * matches do not cross, and are as many as possible.
+     * @param xCounts number of occurrences of each id in range of x
+     * @param yCounts number of occurrences of each id in range of y
+     * @param yIndexOfId scratch space with an element for each id, which receives y index of
+     * each id occurring in range of y. Only elements of unique ids are read back.
+     * @return indices of matched lines in x followed by those in y, both in increasing order.
+     */
+    static int[][] findUniqueAnchors(int[] x, int xLo, int xHi, int[] y, int yLo, int yHi,
+            int[] xCounts, int[] yCounts, int[] yIndexOfId) {
+        for (int j = yLo; j < yHi; j++) {
+            yIndexOfId[y[j]] = j;
+        }
+        int[] xUnique = new int[xHi - xLo];
+        int[] yOfXUnique = new int[xHi - xLo];
+        int uniqueCount = 0;
+        for (int i = xLo; i < xHi; i++) {
+            int id = x[i];
+            if (xCounts[id] == 1 && yCounts[id] == 1) {
+                xUnique[uniqueCount] = i;
+                yOfXUnique[uniqueCount++] = yIndexOfId[id];
+            }
+        }
+        int[] lis = findLongestIncreasingSubsequence(yOfXUnique, uniqueCount);
+        int[][] anchors = new int[2][lis.length];
+        for (int k = 0; k < lis.length; k++) {
+            anchors[0][k] = xUnique[lis[k]];
+            anchors[1][k] = yOfXUnique[lis[k]];
+        }
+        return anchors;
+    }
+
+    /**
+     * Finds a longest increasing subsequence of distinct values in O(n log n) time by patience
+     * sorting, ie by dealing values onto piles whose tops increase from left to right, with
+     * each value placed on the leftmost pile whose top is larger, and linked to the top of the
+     * pile to its left.
+     * @return indices of subsequence in increasing order.
+     */
+    static int[] findLongestIncreasingSubsequence(int[] values, int count) {
+        // index and value at top of each pile.
+        int[] pileTops = new int[count];
+        int[] pileTopValues = new int[count];
+        int[] predecessors = new int[count];
+        int pileCount = 0;
+        for (int i = 0; i < count; i++) {
+            int pile = BinarySearch.lowerBound(pileTopValues, 0, pileCount, values[i]);
+            predecessors[i] = pile > 0 ? pileTops[pile - 1] : -1;
+            pileTops[pile] = i;
+            pileTopValues[pile] = values[i];
+            if (pile == pileCount) {
+                pileCount++;
+            }
+        }
+        int[] result = new int[pileCount];
+        for (int k = pileCount - 1, i = pileCount > 0 ? pileTops[pileCount - 1] : -1; k >= 0;
+                k--, i = predecessors[i]) {
+            result[k] = i;
+        }
+        return result;
+    }
+}
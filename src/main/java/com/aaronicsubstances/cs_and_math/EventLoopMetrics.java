@@ -0,0 +1,212 @@
+package com.aaronicsubstances.cs_and_math;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects performance metrics of a {@link VirtualEventLoop}, when set on it with
+ * {@link VirtualEventLoop#setMetrics(EventLoopMetrics)}. Event loops without metrics skip all
+ * measurements, and only pay for checking that metrics are absent.
+ * <p>
+ * Collected metrics are
+ * <ul>
+ *   <li>number of callbacks fired, and wall-clock time spent advancing time, which give
+ *   the throughput of the event loop.
+ *   <li>number of callbacks cancelled, relative to number of callbacks fired.
+ *   <li>histogram of number of pending callbacks at each firing.
+ *   <li>histogram of wall-clock time taken by each callback, and totals of wall-clock time per
+ *   class of callback. Callbacks created from lambda expressions have synthetic classes whose
+ *   names start with the name of the class containing the lambda expression.
+ * </ul>
+ * Histograms have logarithmic buckets: bucket 0 counts zero values, and bucket i &gt; 0 counts
+ * values from 2<sup>i-1</sup> (inclusive) to 2<sup>i</sup> (exclusive).
+ * <p>
+ * Not thread-safe: should only be accessed by the thread advancing time of event loop.
+ */
+public class EventLoopMetrics {
+    private static final int BUCKET_COUNT = 64;
+
+    private long firedCount;
+    private long cancelledCount;
+    private long elapsedNanos;
+    private int advanceDepth;
+    private long advanceStartNanos;
+    private final long[] queueDepthHistogram = new long[BUCKET_COUNT];
+    private final long[] callbackNanosHistogram = new long[BUCKET_COUNT];
+    private final Map<Class<?>, CallbackClassStatistics> callbackClassStatistics = new HashMap<>();
+
+    void advanceStarted() {
+        // only time outermost advance, since callbacks can advance time too.
+        if (advanceDepth++ == 0) {
+            advanceStartNanos = System.nanoTime();
+        }
+    }
+
+    void advanceEnded() {
+        if (--advanceDepth == 0) {
+            elapsedNanos += System.nanoTime() - advanceStartNanos;
+        }
+    }
+
+    void runCallback(Runnable callback, int queueDepth) {
+        queueDepthHistogram[bucketOf(queueDepth)]++;
+        firedCount++;
+        long startNanos = System.nanoTime();
+        try {
+            callback.run();
+        }
+        finally {
+            long nanos = System.nanoTime() - startNanos;
+            callbackNanosHistogram[bucketOf(nanos)]++;
+            CallbackClassStatistics statistics = callbackClassStatistics.get(callback.getClass());
+            if (statistics == null) {
+                statistics = new CallbackClassStatistics(callback.getClass());
+                callbackClassStatistics.put(callback.getClass(), statistics);
+            }
+            statistics.count++;
+            statistics.totalNanos += nanos;
+            statistics.maxNanos = Math.max(statistics.maxNanos, nanos);
+        }
+    }
+
+    void recordCancellation() {
+        cancelledCount++;
+    }
+
+    static int bucketOf(long value) {
+        return value <= 0 ? 0 : BUCKET_COUNT - Long.numberOfLeadingZeros(value);
+    }
+
+    /**
+     * Gets the smallest value counted by a histogram bucket.
+     */
+    public static long getBucketLowerBound(int bucket) {
+        return bucket == 0 ? 0 : 1L << (bucket - 1);
+    }
+
+    public long getFiredCount() {
+        return firedCount;
+    }
+
+    public long getCancelledCount() {
+        return cancelledCount;
+    }
+
+    /**
+     * Gets number of cancelled callbacks divided by number of fired callbacks, or NaN if no
+     * callback has been fired.
+     */
+    public double getCancelledToFiredRatio() {
+        return firedCount == 0 ? Double.NaN : (double) cancelledCount / firedCount;
+    }
+
+    /**
+     * Gets wall-clock time spent advancing time, in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Gets number of callbacks fired per second of wall-clock time spent advancing time, or NaN
+     * if no time has been spent.
+     */
+    public double getFiredPerSecond() {
+        return elapsedNanos == 0 ? Double.NaN : firedCount * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Gets histogram of number of pending callbacks (including the one being fired) at each
+     * firing of a callback.
+     */
+    public long[] getQueueDepthHistogram() {
+        return queueDepthHistogram.clone();
+    }
+
+    /**
+     * Gets histogram of wall-clock time taken by callbacks, in nanoseconds.
+     */
+    public long[] getCallbackNanosHistogram() {
+        return callbackNanosHistogram.clone();
+    }
+
+    /**
+     * Gets statistics of classes of callbacks which took the most wall-clock time in total.
+     * @param limit maximum number of classes to return
+     * @return statistics of classes in descending order of total time
+     */
+    public List<CallbackClassStatistics> getSlowestCallbackClasses(int limit) {
+        List<CallbackClassStatistics> result = new ArrayList<>();
+        for (CallbackClassStatistics statistics : callbackClassStatistics.values()) {
+            result.add(statistics.copy());
+        }
+        result.sort(Comparator.comparingLong(CallbackClassStatistics::getTotalNanos).reversed());
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    /**
+     * Clears all metrics.
+     */
+    public void reset() {
+        firedCount = 0;
+        cancelledCount = 0;
+        elapsedNanos = 0;
+        advanceStartNanos = System.nanoTime();
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            queueDepthHistogram[i] = 0;
+            callbackNanosHistogram[i] = 0;
+        }
+        callbackClassStatistics.clear();
+    }
+
+    /**
+     * Wall-clock time taken by callbacks of a class.
+     */
+    public static class CallbackClassStatistics {
+        private final Class<?> callbackClass;
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+
+        CallbackClassStatistics(Class<?> callbackClass) {
+            this.callbackClass = callbackClass;
+        }
+
+        CallbackClassStatistics copy() {
+            CallbackClassStatistics copy = new CallbackClassStatistics(callbackClass);
+            copy.count = count;
+            copy.totalNanos = totalNanos;
+            copy.maxNanos = maxNanos;
+            return copy;
+        }
+
+        public Class<?> getCallbackClass() {
+            return callbackClass;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public double getMeanNanos() {
+            return (double) totalNanos / count;
+        }
+
+        @Override
+        public String toString() {
+            return callbackClass.getName() + "{count=" + count + ", totalNanos=" + totalNanos +
+                ", maxNanos=" + maxNanos + "}";
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.aaronicsubstances.cs_and_math;
+
+import java.util.Arrays;
+
+import com.aaronicsubstances.cs_and_math.collections.IntDeque;
+
+/**
+ * Implements {@link DiffAlgorithm#HISTOGRAM}.
+ * <p>
+ * Extends {@link PatienceDiffAlgorithm} to lines which are not unique. Within a range, the
+ * occurrences of each line of x are counted, and common regions (runs of lines equal in both
+ * files) are grown around occurrences of lines no more frequent in x than the rarest line of
+ * the best region so far. As in JGit, a region replaces the best one if its rarest line is
+ * rarer, or if it is longer, even when its rarest line is more frequent. The best region is
+ * kept unchanged, and the ranges before and after it are processed in the same way after
+ * trimming their common prefix and suffix. Hence unique lines are matched first as in
+ * patience diff, but ranges without unique lines are still split at rare lines. Ranges whose
+ * common lines all occur more than {@value #MAX_CHAIN_LENGTH} times in x fall back to
+ * {@link DiffAlgorithm#MYERS}.
+ * <p>
+ * Based on histogram diff of JGit, which git also uses.
+ */
+class HistogramDiffAlgorithm implements DiffAlgorithm {
+    // number of occurrences in x above which a line is not used to split a range.
+    static final int MAX_CHAIN_LENGTH = 64;
+
+    @Override
+    public void findChanges(int[] x, int[] y, boolean[] xChanged, boolean[] yChanged) {
+        int idLimit = DiffPreprocessor.getIdLimit(x, y);
+        // number of occurrences in range of x of each id, reset after each range.
+        int[] counts = new int[idLimit];
+        // last occurrence in range of x of each id, and previous occurrence of each line of x.
+        int[] lastIndexOfId = new int[idLimit];
+        int[] previousIndices = new int[x.length];
+        int[] region = new int[4];
+
+        // ranges left to process, as xLo, xHi, yLo and yHi.
+        IntDeque ranges = new IntDeque();
+        DiffPreprocessor.addRange(ranges, 0, x.length, 0, y.length);
+        int[] range = new int[4];
+        while (!ranges.isEmpty()) {
+            DiffPreprocessor.removeRange(ranges, range);
+            if (!DiffPreprocessor.trimRange(x, y, range, xChanged, yChanged)) {
+                continue;
+            }
+            int xLo = range[0], xHi = range[1], yLo = range[2], yHi = range[3];
+
+            for (int i = xLo; i < xHi; i++) {
+                int id = x[i];
+                previousIndices[i] = counts[id] > 0 ? lastIndexOfId[id] : -1;
+                lastIndexOfId[id] = i;
+                counts[id]++;
+            }
+            int rarestCount = findRegion(x, xLo, xHi, y, yLo, yHi, counts, lastIndexOfId,
+                previousIndices, region);
+            for (int i = xLo; i < xHi; i++) {
+                counts[x[i]] = 0;
+            }
+
+            if (rarestCount == 0) {
+                Arrays.fill(xChanged, xLo, xHi, true);
+                Arrays.fill(yChanged, yLo, yHi, true);
+            }
+            else if (rarestCount > MAX_CHAIN_LENGTH) {
+                DiffPreprocessor.findChangesInRange(DiffAlgorithm.MYERS, x, xLo, xHi,
+                    y, yLo, yHi, xChanged, yChanged);
+            }
+            else {
+                DiffPreprocessor.addRange(ranges, xLo, region[0], yLo, region[2]);
+                DiffPreprocessor.addRange(ranges, region[1], xHi, region[3], yHi);
+            }
+        }
+    }
+
+    /**
+     * Finds common region of a range whose rarest line occurs few times in range of x, trying
+     * only occurrences of lines no more frequent than the rarest line of the best region so
+     * far, and replacing that region with any which is longer or has a rarer line.
+     * @param region receives start (inclusive) and end (exclusive) of region in x, followed by
+     * those in y.
+     * @return number of occurrences in range of x of rarest line of region, or 0 if ranges
+     * have no common lines, or a number larger than {@link #MAX_CHAIN_LENGTH} if common lines
+     * all occur more often than that.
+     */
+    private static int findRegion(int[] x, int xLo, int xHi, int[] y, int yLo, int yHi,
+            int[] counts, int[] lastIndexOfId, int[] previousIndices, int[] region) {
+        int bestCount = MAX_CHAIN_LENGTH + 1;
+        int bestLength = 0;
+        boolean hasCommonLines = false;
+        int j = yLo;
+        while (j < yHi) {
+            int id = y[j];
+            int nextJ = j + 1;
+            if (counts[id] > 0) {
+                hasCommonLines = true;
+                // stop trying occurrences once the line is more frequent than the rarest line
+                // of the best region.
+                for (int i = lastIndexOfId[id]; i >= 0 && counts[id] <= bestCount;
+                        i = previousIndices[i]) {
+                    int xStart = i, xEnd = i + 1, yStart = j, yEnd = j + 1;
+                    int rarest = counts[id];
+                    while (xStart > xLo && yStart > yLo && x[xStart - 1] == y[yStart - 1]) {
+                        xStart--;
+                        yStart--;
+                        rarest = Math.min(rarest, counts[x[xStart]]);
+                    }
+                    while (xEnd < xHi && yEnd < yHi && x[xEnd] == y[yEnd]) {
+                        rarest = Math.min(rarest, counts[x[xEnd]]);
+                        xEnd++;
+                        yEnd++;
+                    }
+                    // lines of y within region need not be tried again.
+                    nextJ = Math.max(nextJ, yEnd);
+                    if (xEnd - xStart > bestLength || rarest < bestCount) {
+                        region[0] = xStart;
+                        region[1] = xEnd;
+                        region[2] = yStart;
+                        region[3] = yEnd;
+                        bestLength = xEnd - xStart;
+                        bestCount = rarest;
+                    }
+                }
+            }
+            j = nextJ;
+        }
+        return hasCommonLines ? bestCount : 0;
+    }
+}
@@ -0,0 +1,48 @@
+package com.aaronicsubstances.cs_and_math;
+
+/**
+ * Implements {@link DiffAlgorithm#LCS}.
+ */
+class LcsDiffAlgorithm implements DiffAlgorithm {
+
+    @Override
+    public void findChanges(int[] x, int[] y, boolean[] xChanged, boolean[] yChanged) {
+        // number of lines of each file
+        int m = x.length;
+        int n = y.length;
+
+        // opt[i][j] = length of LCS of x[i..m] and y[j..n]
+        int[][] opt = new int[m+1][n+1];
+
+        // compute length of LCS and all subproblems via dynamic programming
+        for (int i = m-1; i >= 0; i--) {
+            for (int j = n-1; j >= 0; j--) {
+                if (x[i] == y[j])
+                    opt[i][j] = opt[i+1][j+1] + 1;
+                else
+                    opt[i][j] = Math.max(opt[i+1][j], opt[i][j+1]);
+            }
+        }
+
+        // recover LCS itself and mark non-matching lines
+        int i = 0, j = 0;
+        while (i < m && j < n) {
+            if (x[i] == y[j]) {
+                i++;
+                j++;
+            }
+            else if (opt[i+1][j] >= opt[i][j+1]) {
+                xChanged[i++] = true;
+            }
+            else {
+                yChanged[j++] = true;
+            }
+        }
+        while (i < m) {
+            xChanged[i++] = true;
+        }
+        while (j < n) {
+            yChanged[j++] = true;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.aaronicsubstances.cs_and_math;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Assigns an int id to each distinct line, so that diff algorithms can compare lines with a
+ * single int comparison, instead of comparing their characters over and over again.
+ * <p>
+ * Lines are equal if they are equal after normalization, which can ignore case, and can
+ * ignore whitespace (including line terminators). Normalization is applied while hashing
+ * and comparing lines, without creating normalized copies of lines. Ids are kept in an open
+ * addressing hash table with linear probing, which maps hash codes to ids without boxing.
+ */
+class LineInterner {
+    private static final int MIN_CAPACITY = 16;
+
+    private final boolean ignoreCase;
+    private final boolean ignoreWhitespace;
+    // 1 + id of line in each slot, or 0 for empty slots.
+    private int[] slots = new int[MIN_CAPACITY];
+    // hash code and first line seen, of each id.
+    private int[] hashes = new int[MIN_CAPACITY];
+    private final List<String> representatives = new ArrayList<>();
+
+    public LineInterner(boolean ignoreCase, boolean ignoreWhitespace) {
+        this.ignoreCase = ignoreCase;
+        this.ignoreWhitespace = ignoreWhitespace;
+    }
+
+    /**
+     * Gets number of distinct lines interned so far, which is one more than the largest id.
+     */
+    public int getDistinctCount() {
+        return representatives.size();
+    }
+
+    public int[] internAll(List<String> lines) {
+        int[] ids = new int[lines.size()];
+        int i = 0;
+        for (String line : lines) {
+            ids[i++] = intern(line);
+        }
+        return ids;
+    }
+
+    /**
+     * Gets id of a line, which is assigned in order of first appearance.
+     */
+    public int intern(String line) {
+        int hash = hash(line);
+        int mask = slots.length - 1;
+        int slot = spread(hash) & mask;
+        while (slots[slot] != 0) {
+            int id = slots[slot] - 1;
+            if (hashes[id] == hash && areEqual(representatives.get(id), line)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int id = representatives.size();
+        if (id == hashes.length) {
+            int[] newHashes = new int[hashes.length << 1];
+            System.arraycopy(hashes, 0, newHashes, 0, id);
+            hashes = newHashes;
+        }
+        hashes[id] = hash;
+        representatives.add(line);
+        slots[slot] = id + 1;
+        // keep load factor at most 1/2.
+        if (representatives.size() > slots.length >>> 1) {
+            rehash();
+        }
+        return id;
+    }
+
+    private void rehash() {
+        int[] newSlots = new int[slots.length << 1];
+        int mask = newSlots.length - 1;
+        for (int id = 0; id < representatives.size(); id++) {
+            int slot = spread(hashes[id]) & mask;
+            while (newSlots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newSlots[slot] = id + 1;
+        }
+        slots = newSlots;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private int hash(String line) {
+        if (!ignoreCase && !ignoreWhitespace) {
+            // cached by string.
+            return line.hashCode();
+        }
+        int hash = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (ignoreWhitespace && Character.isWhitespace(c)) {
+                continue;
+            }
+            hash = 31 * hash + (ignoreCase ? foldCase(c) : c);
+        }
+        return hash;
+    }
+
+    /**
+     * Determines whether lines are equal after normalization.
+     */
+    public boolean areEqual(String a, String b) {
+        if (!ignoreCase && !ignoreWhitespace) {
+            return a.equals(b);
+        }
+        int i = 0, j = 0;
+        while (true) {
+            if (ignoreWhitespace) {
+                while (i < a.length() && Character.isWhitespace(a.charAt(i))) {
+                    i++;
+                }
+                while (j < b.length() && Character.isWhitespace(b.charAt(j))) {
+                    j++;
+                }
+            }
+            if (i == a.length() || j == b.length()) {
+                return i == a.length() && j == b.length();
+            }
+            char c = a.charAt(i++), d = b.charAt(j++);
+            if (c != d && (!ignoreCase || foldCase(c) != foldCase(d))) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Maps characters which are equal ignoring case to the same character, in the same way as
+     * {@link String#equalsIgnoreCase(String)}.
+     */
+    private static char foldCase(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+}
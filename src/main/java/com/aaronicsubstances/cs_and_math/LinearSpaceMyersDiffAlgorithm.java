@@ -0,0 +1,162 @@
+package com.aaronicsubstances.cs_and_math;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Implements {@link DiffAlgorithm#MYERS_LINEAR_SPACE} and
+ * {@link DiffAlgorithm#MYERS_LINEAR_SPACE_PARALLEL}.
+ * <p>
+ * Instead of keeping the furthest reaching paths of every round like
+ * {@link MyersDiffAlgorithm}, runs the greedy algorithm forward from the start and backward
+ * from the end of the edit graph at the same time, until the paths overlap. The snake (run of
+ * diagonal edges) at which they overlap is the middle of a shortest path, which splits the
+ * problem into two independent subproblems above and below it, each with about half the
+ * edits. These are solved recursively, after trimming their common prefix and suffix. Finding
+ * the middle snake takes O(m + n) memory, and the recursion still takes O((m + n)d) time.
+ * <p>
+ * Based on section 4b of "An O(ND) Difference Algorithm and Its Variations" by
+ * Eugene W. Myers.
+ */
+class LinearSpaceMyersDiffAlgorithm implements DiffAlgorithm {
+    // total number of lines of a subproblem below which it is solved sequentially.
+    private static final int MIN_PARALLEL_SIZE = 1 << 12;
+
+    private final boolean parallel;
+
+    public LinearSpaceMyersDiffAlgorithm(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    @Override
+    public void findChanges(int[] x, int[] y, boolean[] xChanged, boolean[] yChanged) {
+        DiffTask task = new DiffTask(x, 0, x.length, y, 0, y.length, xChanged, yChanged);
+        if (parallel && ForkJoinPool.getCommonPoolParallelism() > 1 &&
+                x.length + y.length >= MIN_PARALLEL_SIZE) {
+            ForkJoinPool.commonPool().invoke(task);
+        }
+        else {
+            task.compute();
+        }
+    }
+
+    /**
+     * Marks changes within a subproblem, ie between lines of x from xLo (inclusive) to xHi
+     * (exclusive), and lines of y from yLo (inclusive) to yHi (exclusive). Subproblems
+     * mark disjoint ranges of the arrays of changes.
+     */
+    private class DiffTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] x, y;
+        private int xLo, xHi, yLo, yHi;
+        private final boolean[] xChanged, yChanged;
+
+        public DiffTask(int[] x, int xLo, int xHi, int[] y, int yLo, int yHi,
+                boolean[] xChanged, boolean[] yChanged) {
+            this.x = x;
+            this.xLo = xLo;
+            this.xHi = xHi;
+            this.y = y;
+            this.yLo = yLo;
+            this.yHi = yHi;
+            this.xChanged = xChanged;
+            this.yChanged = yChanged;
+        }
+
+        @Override
+        protected void compute() {
+            int[] range = { xLo, xHi, yLo, yHi };
+            if (!DiffPreprocessor.trimRange(x, y, range, xChanged, yChanged)) {
+                return;
+            }
+            xLo = range[0];
+            xHi = range[1];
+            yLo = range[2];
+            yHi = range[3];
+
+            // since first and last lines differ after trimming, there are at least two
+            // edits, and hence both subproblems are smaller.
+            int[] snake = findMiddleSnake();
+            DiffTask above = new DiffTask(x, xLo, snake[0], y, yLo, snake[1],
+                xChanged, yChanged);
+            DiffTask below = new DiffTask(x, snake[2], xHi, y, snake[3], yHi,
+                xChanged, yChanged);
+            if (parallel && (xHi - xLo) + (yHi - yLo) >= MIN_PARALLEL_SIZE) {
+                invokeAll(above, below);
+            }
+            else {
+                above.compute();
+                below.compute();
+            }
+        }
+
+        /**
+         * Finds middle snake of a shortest path through edit graph of subproblem.
+         * @return start and end of snake, as x and y indices of start followed by x and y
+         * indices of end.
+         */
+        private int[] findMiddleSnake() {
+            int n = xHi - xLo;
+            int m = yHi - yLo;
+            int delta = n - m;
+            boolean odd = (delta & 1) != 0;
+            int max = (n + m + 1) / 2;
+            int offset = max + 1;
+            // forward[offset + k] = relative x of furthest reaching forward path on
+            // diagonal k = x - y.
+            int[] forward = new int[2 * max + 3];
+            // backward[offset + k] = distance from end in x of furthest reaching backward path
+            // on diagonal k of reversed edit graph, which is diagonal delta - k of edit graph.
+            int[] backward = new int[2 * max + 3];
+            for (int d = 0; d <= max; d++) {
+                for (int k = -d; k <= d; k += 2) {
+                    int i;
+                    if (k == -d || (k != d && forward[offset + k - 1] < forward[offset + k + 1])) {
+                        i = forward[offset + k + 1];
+                    }
+                    else {
+                        i = forward[offset + k - 1] + 1;
+                    }
+                    int j = i - k;
+                    int snakeStartI = i, snakeStartJ = j;
+                    while (i < n && j < m && x[xLo + i] == y[yLo + j]) {
+                        i++;
+                        j++;
+                    }
+                    forward[offset + k] = i;
+                    // with odd delta, paths can only meet after forward round, against
+                    // backward paths of previous round.
+                    int reverseK = delta - k;
+                    if (odd && reverseK >= -(d - 1) && reverseK <= d - 1 &&
+                            i + backward[offset + reverseK] >= n) {
+                        return new int[]{ xLo + snakeStartI, yLo + snakeStartJ, xLo + i, yLo + j };
+                    }
+                }
+                for (int k = -d; k <= d; k += 2) {
+                    int i;
+                    if (k == -d || (k != d && backward[offset + k - 1] < backward[offset + k + 1])) {
+                        i = backward[offset + k + 1];
+                    }
+                    else {
+                        i = backward[offset + k - 1] + 1;
+                    }
+                    int j = i - k;
+                    int snakeStartI = i, snakeStartJ = j;
+                    while (i < n && j < m &&
+                            x[xHi - 1 - i] == y[yHi - 1 - j]) {
+                        i++;
+                        j++;
+                    }
+                    backward[offset + k] = i;
+                    int forwardK = delta - k;
+                    if (!odd && forwardK >= -d && forwardK <= d &&
+                            i + forward[offset + forwardK] >= n) {
+                        return new int[]{ xHi - i, yHi - j, xHi - snakeStartI, yHi - snakeStartJ };
+                    }
+                }
+            }
+            throw new AssertionError("paths did not meet");
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.aaronicsubstances.cs_and_math;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Implements {@link DiffAlgorithm#MYERS}.
+ * <p>
+ * The edit graph of two files has a vertex (i, j) for every pair of prefixes of x of length i
+ * and of y of length j, with horizontal edges for deletions, vertical edges for insertions,
+ * and free diagonal edges for matching lines. A path from (0, 0) to (m, n) with the fewest
+ * non-diagonal edges gives a shortest edit script. Round d of the algorithm finds, for each
+ * diagonal k = i - j, the furthest reaching path with d non-diagonal edges ending on diagonal
+ * k, by extending a furthest reaching path of round d-1 on an adjacent diagonal with one edge,
+ * and then following diagonal edges as far as possible. The results of every round are kept
+ * for recovering the path backwards once it reaches (m, n). Since that takes O(d<sup>2</sup>)
+ * memory, the algorithm gives up on keeping the trace after {@value #MAX_TRACED_EDITS} rounds,
+ * and finds the changes with {@link LinearSpaceMyersDiffAlgorithm} instead.
+ * <p>
+ * Based on "An O(ND) Difference Algorithm and Its Variations" by Eugene W. Myers.
+ */
+class MyersDiffAlgorithm implements DiffAlgorithm {
+    // number of rounds after which trace (of about 4 MB by then) is abandoned.
+    static final int MAX_TRACED_EDITS = 1 << 10;
+
+    @Override
+    public void findChanges(int[] x, int[] y, boolean[] xChanged, boolean[] yChanged) {
+        int m = x.length;
+        int n = y.length;
+        int max = m + n;
+        // v[offset + k] = i of furthest reaching path on diagonal k found so far.
+        int offset = max + 1;
+        int[] v = new int[2 * max + 3];
+        // trace.get(d)[d + k] = v[offset + k] after round d, for k from -d to d.
+        List<int[]> trace = new ArrayList<>();
+        for (int d = 0; d <= max; d++) {
+            if (d > MAX_TRACED_EDITS) {
+                DiffAlgorithm.MYERS_LINEAR_SPACE.findChanges(x, y, xChanged, yChanged);
+                return;
+            }
+            for (int k = -d; k <= d; k += 2) {
+                int i;
+                if (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])) {
+                    // insertion, ie move down from diagonal k+1.
+                    i = v[offset + k + 1];
+                }
+                else {
+                    // deletion, ie move right from diagonal k-1.
+                    i = v[offset + k - 1] + 1;
+                }
+                int j = i - k;
+                while (i < m && j < n && x[i] == y[j]) {
+                    i++;
+                    j++;
+                }
+                v[offset + k] = i;
+                if (i >= m && j >= n) {
+                    markChanges(trace, d, m, n, xChanged, yChanged);
+                    return;
+                }
+            }
+            trace.add(Arrays.copyOfRange(v, offset - d, offset + d + 1));
+        }
+    }
+
+    private static void markChanges(List<int[]> trace, int editCount, int m, int n,
+            boolean[] xChanged, boolean[] yChanged) {
+        int i = m, j = n;
+        for (int d = editCount; d > 0; d--) {
+            int[] previous = trace.get(d - 1);
+            int k = i - j;
+            // repeat decision of round d.
+            int previousK;
+            if (k == -d || (k != d && previous[d - 1 + k - 1] < previous[d - 1 + k + 1])) {
+                previousK = k + 1;
+            }
+            else {
+                previousK = k - 1;
+            }
+            int previousI = previous[d - 1 + previousK];
+            int previousJ = previousI - previousK;
+            if (previousK == k + 1) {
+                yChanged[previousJ] = true;
+            }
+            else {
+                xChanged[previousI] = true;
+            }
+            i = previousI;
+            j = previousJ;
+        }
+    }
+}
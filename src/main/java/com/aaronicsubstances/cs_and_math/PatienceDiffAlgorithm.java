@@ -0,0 +1,68 @@
+package com.aaronicsubstances.cs_and_math;
+
+import com.aaronicsubstances.cs_and_math.collections.IntDeque;
+
+/**
+ * Implements {@link DiffAlgorithm#PATIENCE}.
+ * <p>
+ * Matches lines which occur exactly once in each file, taking as many of them as possible
+ * such that matches do not cross, by finding a longest increasing subsequence of their
+ * positions. Such lines are usually distinctive lines of code rather than blank lines or
+ * braces, and hence keep hunks aligned with the structure of the files. The same is then done
+ * within the ranges between matched lines, after trimming their common prefix and suffix,
+ * since lines repeated across whole files can be unique within ranges. Ranges without unique
+ * lines fall back to {@link DiffAlgorithm#MYERS}.
+ * <p>
+ * Based on patience diff by Bram Cohen, as implemented in Bazaar and git.
+ */
+class PatienceDiffAlgorithm implements DiffAlgorithm {
+
+    @Override
+    public void findChanges(int[] x, int[] y, boolean[] xChanged, boolean[] yChanged) {
+        int idLimit = DiffPreprocessor.getIdLimit(x, y);
+        // number of occurrences of each id within current range, reset after each range.
+        int[] xCounts = new int[idLimit];
+        int[] yCounts = new int[idLimit];
+        int[] yIndexOfId = new int[idLimit];
+
+        // ranges left to process, as xLo, xHi, yLo and yHi.
+        IntDeque ranges = new IntDeque();
+        DiffPreprocessor.addRange(ranges, 0, x.length, 0, y.length);
+        int[] range = new int[4];
+        while (!ranges.isEmpty()) {
+            DiffPreprocessor.removeRange(ranges, range);
+            if (!DiffPreprocessor.trimRange(x, y, range, xChanged, yChanged)) {
+                continue;
+            }
+            int xLo = range[0], xHi = range[1], yLo = range[2], yHi = range[3];
+
+            for (int i = xLo; i < xHi; i++) {
+                xCounts[x[i]]++;
+            }
+            for (int j = yLo; j < yHi; j++) {
+                yCounts[y[j]]++;
+            }
+            int[][] anchors = DiffPreprocessor.findUniqueAnchors(x, xLo, xHi, y, yLo, yHi,
+                xCounts, yCounts, yIndexOfId);
+            for (int i = xLo; i < xHi; i++) {
+                xCounts[x[i]] = 0;
+            }
+            for (int j = yLo; j < yHi; j++) {
+                yCounts[y[j]] = 0;
+            }
+
+            if (anchors[0].length == 0) {
+                DiffPreprocessor.findChangesInRange(DiffAlgorithm.MYERS, x, xLo, xHi,
+                    y, yLo, yHi, xChanged, yChanged);
+                continue;
+            }
+            for (int k = 0; k <= anchors[0].length; k++) {
+                int anchorX = k < anchors[0].length ? anchors[0][k] : xHi;
+                int anchorY = k < anchors[0].length ? anchors[1][k] : yHi;
+                DiffPreprocessor.addRange(ranges, xLo, anchorX, yLo, anchorY);
+                xLo = anchorX + 1;
+                yLo = anchorY + 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.aaronicsubstances.cs_and_math;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+import com.aaronicsubstances.cs_and_math.simulation.ScheduledEvent;
+import com.aaronicsubstances.cs_and_math.simulation.TimingWheelEventQueue;
+
+/**
+ * Runs callbacks at wall-clock times on a dedicated thread, with the same
+ * {@link #setTimeout(Runnable, int)}, {@link #postCallback(Runnable)} and
+ * {@link #clearTimeout(Object)} contract as {@link VirtualEventLoop}, so that code prototyped
+ * against a simulated clock can run against the real one.
+ * <p>
+ * Time is measured with {@link System#nanoTime()} in ticks of a tolerance fixed at
+ * construction, and pending callbacks are kept in a {@link TimingWheelEventQueue} keyed by
+ * tick, in which scheduling and cancellation take O(1) time regardless of the number of
+ * pending callbacks. A callback is due at the first tick boundary at or after its deadline,
+ * so that it never runs early, and runs at most one tolerance late plus scheduling latency.
+ * Callbacks due at the same tick are coalesced: they run one after the other in FIFO order
+ * in a single wakeup of the thread.
+ * <p>
+ * All methods are thread-safe. Calls made by callbacks, ie on the event loop thread, update
+ * the timing wheel directly. Calls made on other threads push onto a lock-free inbox, which
+ * the event loop thread drains into the timing wheel whenever it wakes up. Wakeups are
+ * batched: a sleeping event loop thread is only woken up by a new callback due before the
+ * thread is due to wake up anyway, or when the inbox has accumulated a batch of submissions.
+ * <p>
+ * A callback which throws an exception does not stop the event loop: the exception is passed
+ * to the uncaught exception handler of the event loop thread, and the next callback is run.
+ * <p>
+ * Unlike a {@link VirtualEventLoop}, an instance starts its thread on construction, and the
+ * thread runs until {@link #shutdown()} is called. The thread is a daemon thread, and hence
+ * does not prevent the JVM from exiting.
+ */
+public class RealTimeEventLoop {
+    private static final int WAKEUP_BATCH_SIZE = 1024;
+    private static final long AWAKE = Long.MIN_VALUE;
+
+    private static final AtomicReferenceFieldUpdater<RealTimeEventLoop, Submission> INBOX_UPDATER =
+        AtomicReferenceFieldUpdater.newUpdater(RealTimeEventLoop.class, Submission.class, "inbox");
+
+    private final long toleranceNanos;
+    private final long originNanos;
+    private final Thread thread;
+    // accessed only by event loop thread.
+    private final TimingWheelEventQueue timingWheel = new TimingWheelEventQueue();
+    private long idSeq = 0;
+    private long lastPolledTick = 0;
+
+    // top of stack of submissions by other threads, most recent first.
+    private volatile Submission inbox;
+    // tick at which sleeping event loop thread is due to wake up, or AWAKE if it is not sleeping.
+    private volatile long wakeupTick = AWAKE;
+    private volatile boolean shutdownRequested;
+
+    /**
+     * Constructs a new instance with a tolerance of 1 millisecond, and starts its thread.
+     */
+    public RealTimeEventLoop() {
+        this(1, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Constructs a new instance, and starts its thread.
+     * @param tolerance length of window within which deadlines of callbacks are coalesced. Must
+     * be positive.
+     * @param unit unit of tolerance
+     */
+    public RealTimeEventLoop(long tolerance, TimeUnit unit) {
+        if (tolerance < 1) {
+            throw new IllegalArgumentException("tolerance must be positive: " + tolerance);
+        }
+        this.toleranceNanos = unit.toNanos(tolerance);
+        this.originNanos = System.nanoTime();
+        this.thread = new Thread(this::run, "RealTimeEventLoop");
+        // an instance which is never shut down should not keep the JVM alive.
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public long getToleranceNanos() {
+        return toleranceNanos;
+    }
+
+    /**
+     * Gets the thread which runs callbacks.
+     */
+    public Thread getThread() {
+        return thread;
+    }
+
+    /**
+     * Schedules callback to be run in this instance as soon as possible.
+     * @param cb the callback to run
+     * @return handle which can be used to cancel callback with {@link #clearTimeout(Object)}.
+     */
+    public Object postCallback(Runnable cb) {
+        return setTimeout(cb, 0);
+    }
+
+    /**
+     * Schedules callback to be run in this instance after a given delay. Callbacks with the same
+     * deadline run in the order of scheduling, and so do callbacks whose deadlines fall within
+     * the same tolerance window.
+     * @param cb the callback to run
+     * @param millis the wall-clock time delay in milliseconds after which the callback will be
+     * executed
+     * @return handle which can be used to cancel callback with {@link #clearTimeout(Object)}.
+     * @throws IllegalStateException if instance has been shut down.
+     */
+    public Object setTimeout(Runnable cb, int millis) {
+        if (cb == null) {
+            throw new IllegalArgumentException("null cb");
+        }
+        if (millis < 0) {
+            throw new IllegalArgumentException("negative timeout value: " + millis);
+        }
+        if (shutdownRequested) {
+            throw new IllegalStateException("event loop has been shut down");
+        }
+        long deadlineNanos = System.nanoTime() - originNanos + millis * 1_000_000L;
+        // round up so that callback never runs early.
+        long tick = (deadlineNanos + toleranceNanos - 1) / toleranceNanos;
+        TimerTask task = new TimerTask(this, tick, cb);
+        if (Thread.currentThread() == thread) {
+            schedule(task);
+        }
+        else {
+            submit(new Submission(task, false), tick);
+        }
+        return task;
+    }
+
+    /**
+     * Used to cancel the execution of a callback scheduled with {@link #setTimeout(Runnable, int)}
+     * or {@link #postCallback(Runnable)}. The callback is guaranteed not to run afterwards,
+     * unless it has already started running.
+     *
+     * @param timeoutHandle cancellation handle returned from {@link #setTimeout(Runnable, int)}.
+     * No exception is thrown if handle is invalid or if callback execution has already been cancelled.
+     * @return true if this call cancelled the callback before it started running; false if
+     * handle is invalid, or callback has already been cancelled or started running.
+     */
+    public boolean clearTimeout(Object timeoutHandle) {
+        if (!(timeoutHandle instanceof TimerTask)) {
+            return false;
+        }
+        TimerTask task = (TimerTask) timeoutHandle;
+        if (task.owner != this || !task.cancel()) {
+            return false;
+        }
+        if (Thread.currentThread() == thread) {
+            unschedule(task);
+        }
+        else {
+            // let event loop thread remove task from timing wheel at its next wakeup,
+            // since task will be discarded if it becomes due before then.
+            submit(new Submission(task, true), Long.MAX_VALUE);
+        }
+        return true;
+    }
+
+    /**
+     * Stops the event loop thread once any running callback completes. Pending callbacks are
+     * discarded, and new ones are rejected.
+     */
+    public void shutdown() {
+        shutdownRequested = true;
+        LockSupport.unpark(thread);
+    }
+
+    public boolean isShutdown() {
+        return shutdownRequested;
+    }
+
+    /**
+     * Waits for event loop thread to stop after {@link #shutdown()}.
+     * @return true if thread stopped within timeout, false otherwise.
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        unit.timedJoin(thread, timeout);
+        return !thread.isAlive();
+    }
+
+    private void submit(Submission submission, long tick) {
+        Submission top;
+        do {
+            top = inbox;
+            submission.next = top;
+            submission.depth = top == null ? 1 : top.depth + 1;
+        } while (!INBOX_UPDATER.compareAndSet(this, top, submission));
+        // event loop thread publishes its wakeup tick before checking inbox for the last time,
+        // so either it will see this submission or this thread will see its wakeup tick.
+        if (tick < wakeupTick || submission.depth % WAKEUP_BATCH_SIZE == 0) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void run() {
+        while (!shutdownRequested) {
+            drainInbox();
+            runDueCallbacks();
+            long nextTick = timingWheel.getEarliestScheduledAtBound();
+            wakeupTick = nextTick;
+            if (inbox != null || shutdownRequested) {
+                wakeupTick = AWAKE;
+                continue;
+            }
+            if (nextTick == Long.MAX_VALUE) {
+                LockSupport.park(this);
+            }
+            else {
+                long delayNanos = originNanos + nextTick * toleranceNanos - System.nanoTime();
+                if (delayNanos > 0) {
+                    LockSupport.parkNanos(this, delayNanos);
+                }
+            }
+            wakeupTick = AWAKE;
+        }
+    }
+
+    private void drainInbox() {
+        // take everything at once, and reverse to get order of submission.
+        Submission top = INBOX_UPDATER.getAndSet(this, null);
+        Submission reversed = null;
+        while (top != null) {
+            Submission next = top.next;
+            top.next = reversed;
+            reversed = top;
+            top = next;
+        }
+        for (Submission s = reversed; s != null; s = s.next) {
+            if (s.cancellation) {
+                unschedule(s.task);
+            }
+            else if (s.task.state == TimerTask.PENDING) {
+                schedule(s.task);
+            }
+        }
+    }
+
+    private void runDueCallbacks() {
+        long currentTick = (System.nanoTime() - originNanos) / toleranceNanos;
+        lastPolledTick = currentTick;
+        ScheduledEvent event;
+        while (!shutdownRequested && (event = timingWheel.pollDue(currentTick)) != null) {
+            TimerTask task = (TimerTask) event;
+            task.inTimingWheel = false;
+            if (!task.fire()) {
+                continue;
+            }
+            Runnable callback = task.callback;
+            // release callback for garbage collection, since handle may be retained.
+            task.callback = null;
+            try {
+                callback.run();
+            }
+            catch (Throwable ex) {
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, ex);
+            }
+        }
+    }
+
+    private void schedule(TimerTask task) {
+        // a task submitted by another thread may be overdue by the time it is drained, and
+        // is then due immediately. Scheduling it earlier would make timing wheel rewind.
+        task.reschedule(idSeq++, Math.max(task.getScheduledAt(), lastPolledTick));
+        timingWheel.add(task);
+        task.inTimingWheel = true;
+    }
+
+    private void unschedule(TimerTask task) {
+        if (task.inTimingWheel) {
+            timingWheel.remove(task);
+            task.inTimingWheel = false;
+        }
+    }
+
+    private static class TimerTask extends ScheduledEvent {
+        static final int PENDING = 0;
+        static final int CANCELLED = 1;
+        static final int FIRED = 2;
+
+        private static final AtomicIntegerFieldUpdater<TimerTask> STATE_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(TimerTask.class, "state");
+
+        final RealTimeEventLoop owner;
+        Runnable callback;
+        volatile int state = PENDING;
+        // accessed only by event loop thread.
+        boolean inTimingWheel;
+
+        TimerTask(RealTimeEventLoop owner, long tick, Runnable callback) {
+            super(0, tick);
+            this.owner = owner;
+            this.callback = callback;
+        }
+
+        @Override
+        public void reschedule(long id, long scheduledAt) {
+            super.reschedule(id, scheduledAt);
+        }
+
+        boolean cancel() {
+            if (STATE_UPDATER.compareAndSet(this, PENDING, CANCELLED)) {
+                callback = null;
+                return true;
+            }
+            return false;
+        }
+
+        boolean fire() {
+            return STATE_UPDATER.compareAndSet(this, PENDING, FIRED);
+        }
+    }
+
+    private static class Submission {
+        final TimerTask task;
+        final boolean cancellation;
+        Submission next;
+        // number of submissions in inbox up to and including this one.
+        int depth;
+
+        Submission(TimerTask task, boolean cancellation) {
+            this.task = task;
+            this.cancellation = cancellation;
+        }
+    }
+}
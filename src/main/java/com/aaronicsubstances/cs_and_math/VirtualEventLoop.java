@@ -1,23 +1,137 @@
 package com.aaronicsubstances.cs_and_math;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import com.aaronicsubstances.cs_and_math.simulation.EventQueue;
+import com.aaronicsubstances.cs_and_math.simulation.EventTraceWriter;
+import com.aaronicsubstances.cs_and_math.simulation.HeapEventQueue;
+import com.aaronicsubstances.cs_and_math.simulation.PersistentEventQueue;
+import com.aaronicsubstances.cs_and_math.simulation.ScheduledEvent;
+import com.aaronicsubstances.cs_and_math.simulation.TimingWheelEventQueue;
 
 /**
  * Implements a discrete-event simulator.
+ * <p>
+ * Pending callbacks are kept in an {@link EventQueue} ordered by scheduled time and then
+ * by order of scheduling, so that callbacks scheduled for the same time run in FIFO order.
+ * By default the queue is a {@link HeapEventQueue}, in which scheduling and execution of a
+ * callback each take O(log n) time. A {@link TimingWheelEventQueue} can be supplied instead
+ * for O(1) scheduling, which suits timer-heavy simulations.
+ * <p>
+ * Cancellation takes O(1) time regardless of queue: it only marks a callback as cancelled,
+ * and leaves it in the queue to be discarded when it reaches the front. Once cancelled
+ * callbacks outnumber live ones (and exceed a minimum count), they are purged from the queue
+ * all at once, so that the cost of purging is amortized over the cancellations.
+ * <p>
+ * Instances are not thread-safe, except for {@link #submitTimeout(Runnable, int)} and
+ * {@link #submitCallback(Runnable)}, which other threads can call at any time. These push
+ * callbacks onto a lock-free inbox, which the thread advancing time drains into the event
+ * queue before running each callback. Thus the other methods pay no synchronization cost
+ * beyond checking whether the inbox is empty.
+ * <p>
+ * Performance metrics can be collected by setting an {@link EventLoopMetrics} instance, and
+ * fired callbacks can be recorded by setting an {@link EventTraceWriter} instance.
+ * <p>
+ * Instances which use a {@link PersistentEventQueue} can be forked, for what-if analysis of
+ * alternative continuations of a simulation. See {@link #snapshot()}.
  */
 public class VirtualEventLoop {
-    private final List<TaskDescriptor> taskQueue = new ArrayList<>();
+    private static final int MIN_CANCELLED_COUNT_FOR_COMPACTION = 64;
+
+    private static final AtomicReferenceFieldUpdater<VirtualEventLoop, Submission> INBOX_UPDATER =
+        AtomicReferenceFieldUpdater.newUpdater(VirtualEventLoop.class, Submission.class, "inbox");
+
+    private final EventQueue eventQueue;
+    // non-null if instance can be forked, in which case task descriptors are never modified once
+    // scheduled, since they may be shared with forks. Cancellation then removes descriptors
+    // from event queue immediately instead of marking them.
+    private final PersistentEventQueue persistentEventQueue;
+    // for instances which can be forked, maps handles of intervals to their pending occurrences.
+    private final PersistentEventQueue intervalOccurrences;
+    // shared by an instance and its forks, so that handles are valid across forks.
+    private final Object family;
     private int cancelledTaskCount = 0;
-    private int idSeq = 0;
+    private long idSeq = 0;
     private long currentTimestamp;
+    // top of stack of callbacks submitted by other threads, most recent first.
+    private volatile Submission inbox;
+    private EventLoopMetrics metrics;
+    private EventTraceWriter traceWriter;
 
     /**
-     * Constructs a new instance with a current virtual timestamp of zero.
+     * Constructs a new instance with a current virtual timestamp of zero, which uses
+     * a {@link HeapEventQueue}.
      */
     public VirtualEventLoop() {
+        this(new HeapEventQueue());
+    }
+
+    /**
+     * Constructs a new instance with a current virtual timestamp of zero.
+     * @param eventQueue empty event queue to hold pending callbacks. E.g.
+     * {@link HeapEventQueue}, {@link TimingWheelEventQueue}.
+     */
+    public VirtualEventLoop(EventQueue eventQueue) {
+        Objects.requireNonNull(eventQueue, "eventQueue");
+        if (eventQueue.size() != 0) {
+            throw new IllegalArgumentException("event queue is not empty");
+        }
+        this.eventQueue = eventQueue;
+        if (eventQueue instanceof PersistentEventQueue) {
+            this.persistentEventQueue = (PersistentEventQueue) eventQueue;
+            this.intervalOccurrences = new PersistentEventQueue();
+        }
+        else {
+            this.persistentEventQueue = null;
+            this.intervalOccurrences = null;
+        }
+        this.family = this;
+    }
+
+    private VirtualEventLoop(Snapshot snapshot) {
+        this.persistentEventQueue = snapshot.eventQueue.snapshot();
+        this.eventQueue = persistentEventQueue;
+        this.intervalOccurrences = snapshot.intervalOccurrences.snapshot();
+        this.family = snapshot.family;
+        this.idSeq = snapshot.idSeq;
+        this.currentTimestamp = snapshot.currentTimestamp;
+    }
+
+    /**
+     * Captures the pending callbacks and current virtual timestamp of this instance, from which
+     * any number of independent copies of this instance can be forked. Requires this instance
+     * to use a {@link PersistentEventQueue}, which makes taking the snapshot, and forking from it,
+     * take O(1) time, by sharing structure of event queue.
+     * <p>
+     * Handles of callbacks scheduled before snapshot remain valid in forks, and cancelling
+     * a callback in one instance does not affect others. Callbacks themselves are shared,
+     * and so should look up any state which differs between forks through the event loop
+     * running them, rather than capture it.
+     * <p>
+     * Should be called between advances of time rather than from a callback. Excludes callbacks
+     * submitted by other threads which have not yet been drained, metrics and trace writer.
+     * @throws IllegalStateException if event queue of this instance is not a
+     * {@link PersistentEventQueue}.
+     */
+    public Snapshot snapshot() {
+        if (persistentEventQueue == null) {
+            throw new IllegalStateException("forking requires a persistent event queue");
+        }
+        return new Snapshot(this);
+    }
+
+    /**
+     * Creates an independent copy of this instance. Equivalent to calling
+     * {@link Snapshot#fork()} on result of {@link #snapshot()}.
+     */
+    public VirtualEventLoop fork() {
+        return snapshot().fork();
     }
 
     /**
@@ -35,10 +149,38 @@ public class VirtualEventLoop {
     }
 
     /**
-     * Returns the current number of callbacks awaiting execution.
+     * Returns the current number of callbacks awaiting execution. Excludes callbacks submitted
+     * by other threads which have not yet been drained into the event queue.
      */
     public int getPendingEventCount() {
-        return taskQueue.size() - cancelledTaskCount;
+        return eventQueue.size() - cancelledTaskCount;
+    }
+
+    public EventLoopMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets or clears collector of performance metrics. Takes effect from the next call to
+     * {@link #advanceTimeBy(int)} or {@link #advanceTimeTo(long)}.
+     * @param metrics collector of metrics, or null to stop collecting metrics.
+     */
+    public void setMetrics(EventLoopMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public EventTraceWriter getTraceWriter() {
+        return traceWriter;
+    }
+
+    /**
+     * Sets or clears recorder of fired callbacks. Takes effect from the next call to
+     * {@link #advanceTimeBy(int)} or {@link #advanceTimeTo(long)}.
+     * @param traceWriter recorder of fired callbacks, or null to stop recording. Not closed by
+     * this instance.
+     */
+    public void setTraceWriter(EventTraceWriter traceWriter) {
+        this.traceWriter = traceWriter;
     }
 
     /**
@@ -67,34 +209,65 @@ public class VirtualEventLoop {
         if (newTimestamp < 0) {
             throw new IllegalArgumentException("negative timestamp value: " + newTimestamp);
         }
-        triggerActions(newTimestamp);
+        EventLoopMetrics metrics = this.metrics;
+        if (metrics == null) {
+            triggerActions(newTimestamp, null);
+            return;
+        }
+        metrics.advanceStarted();
+        try {
+            triggerActions(newTimestamp, metrics);
+        }
+        finally {
+            metrics.advanceEnded();
+        }
     }
 
     /**
      * Work horse of real time simulation up to some virtual timestamp.
      * @param stoppageTimestamp The virtual timestamp at which to stop simulations.
+     * @param metrics collector of metrics, or null if metrics are not being collected.
      */
-    private void triggerActions(long stoppageTimestamp) {
-        // invoke task queue actions starting with tail of queue
-        // and stop if item's time is in the future.
-        // use tail instead of head since removing at end of array-backed list
-        // is faster that from front, because of the shifting required
-        while (!taskQueue.isEmpty()) {
-            TaskDescriptor earliestTaskDescriptor = taskQueue.get(taskQueue.size() - 1);
-            if (!earliestTaskDescriptor.cancelled &&
-                    earliestTaskDescriptor.scheduledAt > stoppageTimestamp) {
+    private void triggerActions(long stoppageTimestamp, EventLoopMetrics metrics) {
+        // invoke actions in order and stop if earliest item's time is in the future.
+        EventTraceWriter traceWriter = this.traceWriter;
+        TaskDescriptor earliestTaskDescriptor;
+        while (true) {
+            if (inbox != null) {
+                drainInbox();
+            }
+            earliestTaskDescriptor = (TaskDescriptor) eventQueue.pollDue(stoppageTimestamp);
+            if (earliestTaskDescriptor == null) {
                 break;
             }
-
-            taskQueue.remove(taskQueue.size() - 1);
-
-            if (earliestTaskDescriptor.cancelled) {
-                cancelledTaskCount--;
+            if (persistentEventQueue == null) {
+                if (earliestTaskDescriptor.cancelled) {
+                    cancelledTaskCount--;
+                    continue;
+                }
+                earliestTaskDescriptor.pending = false;
             }
-            else {
-                currentTimestamp = earliestTaskDescriptor.scheduledAt;
+            currentTimestamp = earliestTaskDescriptor.getScheduledAt();
+            if (traceWriter != null) {
+                traceWriter.write(currentTimestamp, earliestTaskDescriptor.getId(),
+                    earliestTaskDescriptor.callback);
+            }
+            if (metrics == null) {
                 earliestTaskDescriptor.callback.run();
             }
+            else {
+                // include descriptor being fired in depth.
+                metrics.runCallback(earliestTaskDescriptor.callback,
+                    eventQueue.size() - cancelledTaskCount + 1);
+            }
+            if (earliestTaskDescriptor.period > 0) {
+                if (persistentEventQueue != null) {
+                    scheduleNextOccurrence(earliestTaskDescriptor);
+                }
+                else if (!earliestTaskDescriptor.cancelled) {
+                    rescheduleInterval(earliestTaskDescriptor);
+                }
+            }
         }
         currentTimestamp = stoppageTimestamp;
     }
@@ -130,27 +303,209 @@ public class VirtualEventLoop {
         if (millis < 0) {
             throw new IllegalArgumentException("negative timeout value: " + millis);
         }
-        TaskDescriptor taskDescriptor = new TaskDescriptor();
-        taskDescriptor.id = idSeq++;
-        taskDescriptor.callback = cb;
-        taskDescriptor.scheduledAt = currentTimestamp + millis;
-        taskDescriptor.cancelled = false;
-        insertIntoSortedTasks(taskDescriptor);
+        TaskDescriptor taskDescriptor = new TaskDescriptor(family, idSeq++,
+            currentTimestamp + millis, cb);
+        eventQueue.add(taskDescriptor);
         return taskDescriptor;
     }
-    
-    private void insertIntoSortedTasks(TaskDescriptor taskDescriptor) {
-        // stable sort in reverse order since we will be retrieving from end of list.
-        // for speed, leverage already sorted nature of queue, and use inner loop
-        // of insertion sort.
-        int insertIdx = 0;
-        for (int i = taskQueue.size() - 1; i >= 0; i--) {
-            if (taskQueue.get(i).scheduledAt > taskDescriptor.scheduledAt) {
-                insertIdx = i + 1;
-                break;
+
+    /**
+     * Schedules many callbacks at once, e.g. to load the initial workload of a simulation.
+     * <p>
+     * Callbacks are added to the event queue in bulk, which for a {@link HeapEventQueue} takes
+     * linear time when there are at least as many callbacks as already scheduled, and for a
+     * {@link PersistentEventQueue} rebuilds the treap once instead of copying a path per
+     * callback. Callbacks scheduled for the same time run in the order given, after callbacks
+     * already scheduled for that time.
+     * @param timestamps virtual timestamps at which to run callbacks, which must not be before
+     * the current virtual timestamp.
+     * @param callbacks callbacks to run, as many as timestamps
+     * @return handles which can be used to cancel callbacks with {@link #clearTimeout(Object)},
+     * in the order of callbacks.
+     */
+    public Object[] scheduleAll(long[] timestamps, Runnable[] callbacks) {
+        if (timestamps.length != callbacks.length) {
+            throw new IllegalArgumentException("timestamps and callbacks differ in length: " +
+                timestamps.length + " != " + callbacks.length);
+        }
+        int count = timestamps.length;
+        for (int i = 0; i < count; i++) {
+            if (callbacks[i] == null) {
+                throw new IllegalArgumentException("null cb at index " + i);
+            }
+            if (timestamps[i] < currentTimestamp) {
+                throw new IllegalArgumentException("timestamp at index " + i +
+                    " is before current timestamp: " + timestamps[i]);
+            }
+        }
+        Object[] handles = new Object[count];
+        ScheduledEvent[] events = new ScheduledEvent[count];
+        for (int i = 0; i < count; i++) {
+            TaskDescriptor taskDescriptor = new TaskDescriptor(family, idSeq++, timestamps[i],
+                callbacks[i]);
+            handles[i] = taskDescriptor;
+            events[i] = taskDescriptor;
+        }
+        eventQueue.addAll(events, 0, count);
+        return handles;
+    }
+
+    /**
+     * Schedules many callbacks at once. Equivalent to
+     * {@link #scheduleAll(long[], Runnable[])} with the items of the given iterators.
+     * @param timestamps virtual timestamps at which to run callbacks, which must not be before
+     * the current virtual timestamp.
+     * @param callbacks callbacks to run, as many as timestamps
+     * @return handles which can be used to cancel callbacks with {@link #clearTimeout(Object)},
+     * in the order of callbacks.
+     */
+    public List<Object> scheduleAll(PrimitiveIterator.OfLong timestamps,
+            Iterator<? extends Runnable> callbacks) {
+        long[] timestampArray = new long[16];
+        List<Runnable> callbackList = new ArrayList<>();
+        while (timestamps.hasNext()) {
+            if (!callbacks.hasNext()) {
+                throw new IllegalArgumentException("fewer callbacks than timestamps");
+            }
+            if (callbackList.size() == timestampArray.length) {
+                timestampArray = Arrays.copyOf(timestampArray, timestampArray.length << 1);
             }
+            timestampArray[callbackList.size()] = timestamps.nextLong();
+            callbackList.add(callbacks.next());
+        }
+        if (callbacks.hasNext()) {
+            throw new IllegalArgumentException("fewer timestamps than callbacks");
+        }
+        Object[] handles = scheduleAll(Arrays.copyOf(timestampArray, callbackList.size()),
+            callbackList.toArray(new Runnable[0]));
+        return Arrays.asList(handles);
+    }
+
+    /**
+     * Schedules callback to be run in this instance repeatedly at fixed rate, ie at multiples of
+     * a given period after the current virtual time, until cancelled.
+     * <p>
+     * It is equivalent to invoking {@link #setInterval(Runnable, int, int, boolean)} with
+     * an initial delay equal to the period.
+     * @param cb the callback to run
+     * @param period the virtual time between executions of callback. Must be positive.
+     * @return handle which can be used to cancel interval with {@link #clearInterval(Object)}.
+     */
+    public Object setInterval(Runnable cb, int period) {
+        return setInterval(cb, period, period, true);
+    }
+
+    /**
+     * Schedules callback to be run in this instance repeatedly until cancelled.
+     * <p>
+     * The same handle is rescheduled after every execution instead of allocating a new one,
+     * so that a periodic callback costs no more than one pending callback. If an execution
+     * of the callback throws an exception, the callback is not rescheduled.
+     * @param cb the callback to run
+     * @param initialDelay the virtual time delay after the current virtual time by which time
+     * the callback will be executed for the first time
+     * @param period the virtual time between executions of callback. Must be positive.
+     * @param fixedRate if true, each execution is scheduled a period after the scheduled
+     * time of the previous execution. If false, each execution is scheduled a period after
+     * the virtual time at which the previous execution completed, which is later only
+     * if the callback advances time itself (e.g. to model service time).
+     * @return handle which can be used to cancel interval with {@link #clearInterval(Object)}.
+     */
+    public Object setInterval(Runnable cb, int initialDelay, int period, boolean fixedRate) {
+        if (period < 1) {
+            throw new IllegalArgumentException("period must be positive: " + period);
+        }
+        TaskDescriptor taskDescriptor = (TaskDescriptor) setTimeout(cb, initialDelay);
+        taskDescriptor.period = period;
+        taskDescriptor.fixedRate = fixedRate;
+        if (persistentEventQueue != null) {
+            taskDescriptor.interval = taskDescriptor;
+            intervalOccurrences.add(new IntervalOccurrence(taskDescriptor, taskDescriptor));
+        }
+        return taskDescriptor;
+    }
+
+    private void rescheduleInterval(TaskDescriptor taskDescriptor) {
+        long base = taskDescriptor.fixedRate ? taskDescriptor.getScheduledAt() : currentTimestamp;
+        taskDescriptor.reschedule(idSeq++, base + taskDescriptor.period);
+        taskDescriptor.pending = true;
+        eventQueue.add(taskDescriptor);
+    }
+
+    private IntervalOccurrence findIntervalOccurrence(TaskDescriptor interval) {
+        IntervalOccurrence entry = (IntervalOccurrence) intervalOccurrences.find(0, interval.getId());
+        // handles of intervals created in other forks can have the same id.
+        return entry != null && entry.interval == interval ? entry : null;
+    }
+
+    /**
+     * Counterpart of {@link #rescheduleInterval(TaskDescriptor)} for instances which can be
+     * forked, which schedules a new descriptor instead of modifying executed one.
+     */
+    private void scheduleNextOccurrence(TaskDescriptor occurrence) {
+        TaskDescriptor interval = occurrence.interval;
+        IntervalOccurrence entry = findIntervalOccurrence(interval);
+        if (entry == null || entry.occurrence != occurrence) {
+            // cancelled during execution.
+            return;
+        }
+        long base = interval.fixedRate ? occurrence.getScheduledAt() : currentTimestamp;
+        TaskDescriptor next = new TaskDescriptor(family, idSeq++, base + interval.period,
+            interval.callback);
+        next.period = interval.period;
+        next.interval = interval;
+        eventQueue.add(next);
+        intervalOccurrences.remove(entry);
+        intervalOccurrences.add(new IntervalOccurrence(interval, next));
+    }
+
+    /**
+     * Thread-safe version of {@link #postCallback(Runnable)}, which can be called from any thread.
+     * @param cb the callback to run
+     */
+    public void submitCallback(Runnable cb) {
+        submitTimeout(cb, 0);
+    }
+
+    /**
+     * Thread-safe version of {@link #setTimeout(Runnable, int)}, which can be called from any thread.
+     * <p>
+     * The callback is scheduled when the thread advancing time next drains submissions, and
+     * so the delay is relative to the current virtual time at that point. Callbacks submitted
+     * by the same thread are scheduled in the order of submission. Submitted callbacks cannot
+     * be cancelled.
+     * @param cb the callback to run
+     * @param millis the virtual time delay after the current virtual time at scheduling by which
+     * time the callback will be executed
+     */
+    public void submitTimeout(Runnable cb, int millis) {
+        if (cb == null) {
+            throw new IllegalArgumentException("null cb");
+        }
+        if (millis < 0) {
+            throw new IllegalArgumentException("negative timeout value: " + millis);
+        }
+        Submission submission = new Submission(cb, millis);
+        Submission top;
+        do {
+            top = inbox;
+            submission.next = top;
+        } while (!INBOX_UPDATER.compareAndSet(this, top, submission));
+    }
+
+    private void drainInbox() {
+        // take everything at once, and reverse to get order of submission.
+        Submission top = INBOX_UPDATER.getAndSet(this, null);
+        Submission reversed = null;
+        while (top != null) {
+            Submission next = top.next;
+            top.next = reversed;
+            reversed = top;
+            top = next;
+        }
+        for (Submission s = reversed; s != null; s = s.next) {
+            setTimeout(s.callback, s.millis);
         }
-        taskQueue.add(insertIdx, taskDescriptor);
     }
 
     /**
@@ -162,66 +517,159 @@ public class VirtualEventLoop {
     public void clearTimeout(Object timeoutHandle) {
         if (timeoutHandle instanceof TaskDescriptor) {
             TaskDescriptor taskDescriptor = (TaskDescriptor)timeoutHandle;
-            cancelTask(taskDescriptor.id, taskDescriptor.scheduledAt);
-        }
-    }
-
-    private void cancelTask(int targetId, long targetScheduledAt) {
-        // leverage already sorted nature of queue and
-        // use binary search to quickly locate desired id.
-        TaskDescriptor searchKey = new TaskDescriptor();
-        searchKey.scheduledAt = targetScheduledAt;
-        int idxToSearchAround = Collections.binarySearch(taskQueue, searchKey,
-            new Comparator<TaskDescriptor>() {
-                @Override
-                public int compare(TaskDescriptor t1, TaskDescriptor t2) {
-                    // reverse order.
-                    return Long.compare(t2.scheduledAt, t1.scheduledAt);
-                }
-            });
-        if (idxToSearchAround < 0) {
-            return;
-        }
-
-        // search forwards and backwards from binary search result for desired id.
-        int indexToCancel = -1;
-        // search forward
-        for (int i = idxToSearchAround; i < taskQueue.size(); i++) {
-            TaskDescriptor task = taskQueue.get(i);
-            if (task.scheduledAt != targetScheduledAt) {
-                break;
+            if (taskDescriptor.family != family) {
+                return;
             }
-            if (task.id == targetId) {
-                indexToCancel = i;
-                break;
+            if (persistentEventQueue != null) {
+                cancelForkable(taskDescriptor);
             }
-        }
-        if (indexToCancel == -1) {
-            // search backward
-            for (int i = idxToSearchAround - 1; i >= 0; i--) {
-                TaskDescriptor task = taskQueue.get(i);
-                if (task.scheduledAt != targetScheduledAt) {
-                    break;
+            else if (taskDescriptor.pending) {
+                taskDescriptor.pending = false;
+                taskDescriptor.cancelled = true;
+                // release callback for garbage collection while descriptor awaits removal.
+                taskDescriptor.callback = null;
+                cancelledTaskCount++;
+                if (metrics != null) {
+                    metrics.recordCancellation();
                 }
-                if (task.id == targetId) {
-                    indexToCancel = i;
-                    break;
+                if (cancelledTaskCount >= MIN_CANCELLED_COUNT_FOR_COMPACTION &&
+                        cancelledTaskCount > eventQueue.size() - cancelledTaskCount) {
+                    compactEventQueue();
+                }
+            }
+            else if (taskDescriptor.period > 0 && !taskDescriptor.cancelled) {
+                // interval is being executed, and hence is not in event queue.
+                // just prevent its rescheduling.
+                taskDescriptor.cancelled = true;
+                taskDescriptor.callback = null;
+                if (metrics != null) {
+                    metrics.recordCancellation();
                 }
             }
         }
-        if (indexToCancel != -1) {
-            TaskDescriptor task = taskQueue.get(indexToCancel);
-            if (!task.cancelled) {
-                task.cancelled = true;
-                cancelledTaskCount++;
+    }
+
+    private void cancelForkable(TaskDescriptor taskDescriptor) {
+        if (taskDescriptor.interval == null) {
+            if (!persistentEventQueue.contains(taskDescriptor)) {
+                return;
             }
+            persistentEventQueue.remove(taskDescriptor);
+        }
+        else {
+            IntervalOccurrence entry = findIntervalOccurrence(taskDescriptor);
+            if (entry == null) {
+                return;
+            }
+            intervalOccurrences.remove(entry);
+            // does nothing if occurrence is being executed.
+            persistentEventQueue.remove(entry.occurrence);
+        }
+        if (metrics != null) {
+            metrics.recordCancellation();
+        }
+    }
+
+    /**
+     * Used to cancel the repeated execution of a callback scheduled with
+     * {@link #setInterval(Runnable, int)} or {@link #setInterval(Runnable, int, int, boolean)}.
+     * Can be called from the callback itself. Equivalent to {@link #clearTimeout(Object)}.
+     *
+     * @param intervalHandle cancellation handle returned from setInterval.
+     * No exception is thrown if handle is invalid or if callback execution has already been cancelled.
+     */
+    public void clearInterval(Object intervalHandle) {
+        clearTimeout(intervalHandle);
+    }
+
+    private void compactEventQueue() {
+        eventQueue.removeIf(e -> ((TaskDescriptor) e).cancelled);
+        cancelledTaskCount = 0;
+    }
+
+    /**
+     * Pending callbacks and current virtual timestamp of an event loop at some point,
+     * from which copies of the event loop can be forked.
+     */
+    public static class Snapshot {
+        private final Object family;
+        private final PersistentEventQueue eventQueue;
+        private final PersistentEventQueue intervalOccurrences;
+        private final long idSeq;
+        private final long currentTimestamp;
+
+        private Snapshot(VirtualEventLoop eventLoop) {
+            this.family = eventLoop.family;
+            this.eventQueue = eventLoop.persistentEventQueue.snapshot();
+            this.intervalOccurrences = eventLoop.intervalOccurrences.snapshot();
+            this.idSeq = eventLoop.idSeq;
+            this.currentTimestamp = eventLoop.currentTimestamp;
+        }
+
+        public long getCurrentTimestamp() {
+            return currentTimestamp;
+        }
+
+        public int getPendingEventCount() {
+            return eventQueue.size();
+        }
+
+        /**
+         * Creates a new event loop with the pending callbacks and current virtual timestamp
+         * of this snapshot, in O(1) time.
+         */
+        public VirtualEventLoop fork() {
+            return new VirtualEventLoop(this);
         }
     }
 
-    private static class TaskDescriptor {
-        public int id;
+    private static class TaskDescriptor extends ScheduledEvent {
+        public final Object family;
         public Runnable callback;
-        public long scheduledAt;
-        public boolean cancelled;
+        public boolean pending = true;
+        public boolean cancelled = false;
+        // positive for intervals.
+        public int period = 0;
+        public boolean fixedRate;
+        // in instances which can be forked, handle of interval of which descriptor is an
+        // occurrence. Handle is the first occurrence.
+        public TaskDescriptor interval;
+
+        public TaskDescriptor(Object family, long id, long scheduledAt,
+                Runnable callback) {
+            super(id, scheduledAt);
+            this.family = family;
+            this.callback = callback;
+        }
+
+        @Override
+        public void reschedule(long id, long scheduledAt) {
+            super.reschedule(id, scheduledAt);
+        }
+    }
+
+    /**
+     * Entry of map from intervals to their pending occurrences, keyed by id of interval handle.
+     */
+    private static class IntervalOccurrence extends ScheduledEvent {
+        public final TaskDescriptor interval;
+        public final TaskDescriptor occurrence;
+
+        public IntervalOccurrence(TaskDescriptor interval, TaskDescriptor occurrence) {
+            super(interval.getId(), 0);
+            this.interval = interval;
+            this.occurrence = occurrence;
+        }
+    }
+
+    private static class Submission {
+        public final Runnable callback;
+        public final int millis;
+        public Submission next;
+
+        public Submission(Runnable callback, int millis) {
+            this.callback = callback;
+            this.millis = millis;
+        }
     }
 }
@@ -0,0 +1,495 @@
+package com.aaronicsubstances.cs_and_math.collections;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe sorted dictionary with primitive long keys, based on a lock-free skip list.
+ * <p>
+ * Insertions, removals and lookups never block. Nodes are linked in with compare-and-swap,
+ * bottom level first, so a node is visible to readers as soon as its bottom level link
+ * succeeds, and the upper levels only serve to speed up searches. A key is removed by clearing
+ * the value of its node, after which the links out of the node are marked, level by level, by
+ * replacing them with marker nodes. Insertions cannot link in after a marked node, and
+ * searches unlink marked nodes they come across, so memory of removed keys is reclaimed.
+ * <p>
+ * Rank and index-based operations are answered by an indexable {@link LongSkipList} of the
+ * keys, maintained under a lock. Updates record the nodes they change in a lock-free queue,
+ * which is applied to the index by rank queries, and by updates which find the lock free once
+ * enough changes are pending. Hence rank queries see all updates which completed before they
+ * started, and possibly some concurrent ones, while updates still never wait for the lock.
+ * <p>
+ * Iterators are weakly consistent: they never fail, and reflect some but not necessarily all
+ * concurrent updates.
+ * <p>
+ * Based on chapter 14 of "The Art of Multiprocessor Programming" by Herlihy and Shavit, with
+ * marker nodes instead of marked pointers as in {@link java.util.concurrent.ConcurrentSkipListMap}.
+ */
+public class ConcurrentLongSkipList<V> implements Iterable<LongSkipList.Entry<V>> {
+    // enough for upper levels to stay sparse at any size an int rank can count.
+    private static final int MAX_LEVEL = 32;
+    // number of pending changes to rank index at which updates try to apply them.
+    private static final int MAX_PENDING_CHANGES = 1 << 8;
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<Node, Object> VALUE_UPDATER =
+        AtomicReferenceFieldUpdater.newUpdater(Node.class, Object.class, "value");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<Node, Node> NEXT_UPDATER =
+        AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "next");
+
+    private final Node<V> head = new Node<>(Long.MIN_VALUE, null, MAX_LEVEL);
+    // highest level of nodes so far, at which lookups start.
+    private final AtomicInteger level = new AtomicInteger(1);
+    private final LongAdder size = new LongAdder();
+
+    // nodes inserted or removed since last applied to rank index.
+    private final ConcurrentLinkedQueue<Node<V>> pendingChanges = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingChangeCount = new AtomicInteger();
+    // guards rank index, and indexed flags of nodes.
+    private final ReentrantLock rankLock = new ReentrantLock();
+    private final LongSkipList<Node<V>> rankIndex = new LongSkipList<>();
+
+    public ConcurrentLongSkipList() {
+    }
+
+    /**
+     * Gets number of keys with values. Not exact if there are concurrent updates.
+     */
+    public long size() {
+        return size.sum();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    public V get(long key) {
+        Node<V> x = findPredecessor(key).successor(0);
+        return x != null && x.key == key ? x.value : null;
+    }
+
+    /**
+     * Locates the last node with key less than given key, traversing through removed nodes
+     * without unlinking them.
+     */
+    private Node<V> findPredecessor(long key) {
+        Node<V> x = head;
+        for (int i = level.get() - 1; i >= 0; i--) {
+            Node<V> next = x.successor(i);
+            while (next != null && next.key < key) {
+                x = next;
+                next = x.successor(i);
+            }
+        }
+        return x;
+    }
+
+    /**
+     * Associates a value with a key.
+     * @param value non-null value
+     * @return previous value associated with key, or null if key was absent.
+     */
+    public V put(long key, V value) {
+        return doPut(key, value, false);
+    }
+
+    /**
+     * Associates a value with a key, only if key is absent.
+     * @param value non-null value
+     * @return current value associated with key, or null if key was absent.
+     */
+    public V putIfAbsent(long key, V value) {
+        return doPut(key, value, true);
+    }
+
+    /**
+     * Removes a key.
+     * @return value which was associated with key, or null if key was absent.
+     */
+    public V remove(long key) {
+        Node<V>[] preds = Node.newArray(MAX_LEVEL);
+        Node<V>[] succs = Node.newArray(MAX_LEVEL);
+        findPredecessors(key, preds, succs);
+        Node<V> node = succs[0];
+        if (node == null || node.key != key) {
+            return null;
+        }
+        while (true) {
+            V oldValue = node.value;
+            if (oldValue == null) {
+                return null;
+            }
+            // clearing value is what removes key.
+            if (VALUE_UPDATER.compareAndSet(node, oldValue, null)) {
+                size.decrement();
+                markLinks(node);
+                findPredecessors(key, preds, succs);
+                addPendingChange(node);
+                return oldValue;
+            }
+        }
+    }
+
+    private V doPut(long key, V value, boolean onlyIfAbsent) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        Node<V>[] preds = Node.newArray(MAX_LEVEL);
+        Node<V>[] succs = Node.newArray(MAX_LEVEL);
+        int nodeLevel = randomLevel();
+        Node<V> node = null;
+        while (true) {
+            findPredecessors(key, preds, succs);
+            Node<V> existing = succs[0];
+            if (existing != null && existing.key == key) {
+                V oldValue = existing.value;
+                if (oldValue == null) {
+                    // help concurrent removal along, so that key can be inserted anew.
+                    markLinks(existing);
+                    continue;
+                }
+                if (onlyIfAbsent || VALUE_UPDATER.compareAndSet(existing, oldValue, value)) {
+                    return oldValue;
+                }
+                continue;
+            }
+            if (node == null) {
+                node = new Node<>(key, value, nodeLevel);
+            }
+            for (int i = 0; i < nodeLevel; i++) {
+                node.setNext(i, succs[i]);
+            }
+            // linking at bottom level is what makes node part of the list.
+            if (preds[0].casNext(0, succs[0], node)) {
+                break;
+            }
+        }
+        size.increment();
+        int currentLevel;
+        while ((currentLevel = level.get()) < nodeLevel &&
+                !level.compareAndSet(currentLevel, nodeLevel)) {
+        }
+        linkUpperLevels(node, preds, succs);
+        addPendingChange(node);
+        return null;
+    }
+
+    /**
+     * Links node at its upper levels, refreshing predecessors whenever a concurrent update
+     * gets in the way. Gives up if node is removed meanwhile.
+     */
+    private void linkUpperLevels(Node<V> node, Node<V>[] preds, Node<V>[] succs) {
+        for (int i = 1; i < node.level(); i++) {
+            while (true) {
+                Node<V> next = node.getNext(i);
+                if (next != null && next.isMarker) {
+                    return;
+                }
+                if (next != succs[i] && !node.casNext(i, next, succs[i])) {
+                    continue;
+                }
+                if (preds[i].casNext(i, succs[i], node)) {
+                    break;
+                }
+                findPredecessors(node.key, preds, succs);
+                if (succs[0] != node) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks the links out of a node whose value has been cleared, from top level down.
+     */
+    private static <V> void markLinks(Node<V> node) {
+        for (int i = node.level() - 1; i >= 0; i--) {
+            while (true) {
+                Node<V> next = node.getNext(i);
+                if ((next != null && next.isMarker) ||
+                        node.casNext(i, next, new Node<>(next))) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Locates the last node with key less than given key at every level, and its successor,
+     * unlinking marked nodes along the way.
+     */
+    private void findPredecessors(long key, Node<V>[] preds, Node<V>[] succs) {
+        retry:
+        while (true) {
+            Node<V> pred = head;
+            for (int i = MAX_LEVEL - 1; i >= 0; i--) {
+                Node<V> curr = pred.getNext(i);
+                while (curr != null) {
+                    if (curr.isMarker) {
+                        // pred has been removed meanwhile.
+                        continue retry;
+                    }
+                    Node<V> succ = curr.getNext(i);
+                    if (succ != null && succ.isMarker) {
+                        if (!pred.casNext(i, curr, succ.next)) {
+                            continue retry;
+                        }
+                        curr = succ.next;
+                    }
+                    else if (curr.key < key) {
+                        pred = curr;
+                        curr = succ;
+                    }
+                    else {
+                        break;
+                    }
+                }
+                preds[i] = pred;
+                succs[i] = curr;
+            }
+            return;
+        }
+    }
+
+    private void addPendingChange(Node<V> node) {
+        pendingChanges.add(node);
+        if (pendingChangeCount.incrementAndGet() >= MAX_PENDING_CHANGES && rankLock.tryLock()) {
+            try {
+                applyPendingChanges();
+            }
+            finally {
+                rankLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Brings rank index up to date with the nodes changed so far. Must hold rank lock.
+     * <p>
+     * A node is in the index exactly when its indexed flag is set, so each node is
+     * reconciled with its current state, regardless of the order in which changes of
+     * different nodes with the same key were queued.
+     */
+    private void applyPendingChanges() {
+        Node<V> node;
+        while ((node = pendingChanges.poll()) != null) {
+            pendingChangeCount.decrementAndGet();
+            boolean live = node.value != null;
+            if (live && !node.indexed) {
+                Node<V> replaced = rankIndex.put(node.key, node);
+                if (replaced != null) {
+                    replaced.indexed = false;
+                }
+                node.indexed = true;
+            }
+            else if (!live && node.indexed) {
+                rankIndex.remove(node.key);
+                node.indexed = false;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of keys less than given key. If key is present, this is its
+     * index in sorted order.
+     */
+    public int rank(long key) {
+        rankLock.lock();
+        try {
+            applyPendingChanges();
+            return rankIndex.rank(key);
+        }
+        finally {
+            rankLock.unlock();
+        }
+    }
+
+    /**
+     * Gets entry at a given index in sorted order. Its value is null if it is removed
+     * concurrently.
+     */
+    public LongSkipList.Entry<V> getEntryAt(int index) {
+        rankLock.lock();
+        try {
+            applyPendingChanges();
+            Node<V> node = rankIndex.getEntryAt(index).getValue();
+            return new SnapshotEntry<>(node.key, node.value);
+        }
+        finally {
+            rankLock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<LongSkipList.Entry<V>> iterator() {
+        return new NodeIterator<>(head.successor(0), Long.MAX_VALUE, true);
+    }
+
+    /**
+     * Iterates over entries with keys in a given range, in ascending order of keys.
+     * @param fromKey lowest key (inclusive)
+     * @param toKey highest key (exclusive)
+     */
+    public Iterator<LongSkipList.Entry<V>> rangeIterator(long fromKey, long toKey) {
+        return new NodeIterator<>(findPredecessor(fromKey).successor(0), toKey, false);
+    }
+
+    private static int randomLevel() {
+        // as in ConcurrentSkipListMap, a quarter of nodes get upper levels, and each further
+        // level with probability 1/2, which measured faster lookups than 1/4 per level.
+        int r = ThreadLocalRandom.current().nextInt();
+        if ((r & 3) != 0) {
+            return 1;
+        }
+        int nodeLevel = 2 + Integer.numberOfTrailingZeros(~(r >>> 2));
+        return Math.min(nodeLevel, MAX_LEVEL);
+    }
+
+    private static class Node<V> {
+        public final long key;
+        public volatile V value;
+        // link at bottom level, kept in node for scans.
+        public volatile Node<V> next;
+        // links at levels above bottom, or null if node has bottom level only.
+        public final AtomicReferenceArray<Node<V>> upperNext;
+        // marker nodes replace the links out of a removed node, and link to its successors.
+        public final boolean isMarker;
+        // guarded by rank lock.
+        public boolean indexed;
+
+        public Node(long key, V value, int level) {
+            this.key = key;
+            this.value = value;
+            this.upperNext = level > 1 ? new AtomicReferenceArray<>(level - 1) : null;
+            this.isMarker = false;
+        }
+
+        /**
+         * Creates a marker node.
+         */
+        public Node(Node<V> next) {
+            this.key = 0;
+            this.next = next;
+            this.upperNext = null;
+            this.isMarker = true;
+        }
+
+        @SuppressWarnings("unchecked")
+        static <V> Node<V>[] newArray(int length) {
+            return (Node<V>[]) new Node<?>[length];
+        }
+
+        public int level() {
+            return upperNext != null ? upperNext.length() + 1 : 1;
+        }
+
+        public Node<V> getNext(int i) {
+            return i == 0 ? next : upperNext.get(i - 1);
+        }
+
+        public void setNext(int i, Node<V> node) {
+            if (i == 0) {
+                next = node;
+            }
+            else {
+                upperNext.set(i - 1, node);
+            }
+        }
+
+        public boolean casNext(int i, Node<V> expected, Node<V> node) {
+            return i == 0 ? NEXT_UPDATER.compareAndSet(this, expected, node) :
+                upperNext.compareAndSet(i - 1, expected, node);
+        }
+
+        /**
+         * Gets next node at a level, looking past the marker of a removed node.
+         */
+        public Node<V> successor(int i) {
+            Node<V> n = getNext(i);
+            return n != null && n.isMarker ? n.next : n;
+        }
+    }
+
+    private static class NodeIterator<V> implements Iterator<LongSkipList.Entry<V>> {
+        private final long toKey;
+        private final boolean toEnd;
+        private Node<V> current;
+        private V currentValue;
+
+        public NodeIterator(Node<V> start, long toKey, boolean toEnd) {
+            this.toKey = toKey;
+            this.toEnd = toEnd;
+            advance(start);
+        }
+
+        /**
+         * Skips nodes of removed keys, and takes snapshot of value of next node
+         * so that hasNext() and next() agree.
+         */
+        private void advance(Node<V> x) {
+            while (x != null && (toEnd || x.key < toKey)) {
+                V value = x.value;
+                if (value != null) {
+                    current = x;
+                    currentValue = value;
+                    return;
+                }
+                x = x.successor(0);
+            }
+            current = null;
+            currentValue = null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return current != null;
+        }
+
+        @Override
+        public LongSkipList.Entry<V> next() {
+            if (current == null) {
+                throw new NoSuchElementException();
+            }
+            LongSkipList.Entry<V> result = new SnapshotEntry<>(current.key, currentValue);
+            advance(current.successor(0));
+            return result;
+        }
+    }
+
+    private static class SnapshotEntry<V> implements LongSkipList.Entry<V> {
+        private final long key;
+        private final V value;
+
+        public SnapshotEntry(long key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public long getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.aaronicsubstances.cs_and_math.collections;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Double-ended queue of primitive ints, based on a circular array. Serves as a stack with
+ * {@link #addLast(int)} and {@link #removeLast()}, and as a queue with {@link #addLast(int)}
+ * and {@link #removeFirst()}.
+ * <p>
+ * Array length is always a power of two, so that wrapping around is done with a bit mask
+ * rather than a division or a branch. A growable deque doubles its array when full. A
+ * fixed-capacity deque never allocates after construction; its add methods throw
+ * {@link IllegalStateException} and its offer methods return false when it is full.
+ * <p>
+ * Not thread-safe.
+ */
+public class IntDeque {
+    static final int DEFAULT_CAPACITY = 16;
+    static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private final boolean fixedCapacity;
+    private final int capacityLimit;
+    private int[] elements;
+    private int mask;
+    private int head;
+    private int size;
+
+    /**
+     * Creates a growable deque with default initial capacity.
+     */
+    public IntDeque() {
+        this(DEFAULT_CAPACITY, false);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param capacity initial capacity if growable, else maximum number of items.
+     * @param fixedCapacity true for a deque which never grows.
+     */
+    public IntDeque(int capacity, boolean fixedCapacity) {
+        if (capacity < 1 || capacity > MAXIMUM_CAPACITY) {
+            throw new IllegalArgumentException("invalid capacity: " + capacity);
+        }
+        this.fixedCapacity = fixedCapacity;
+        this.capacityLimit = fixedCapacity ? capacity : MAXIMUM_CAPACITY;
+        this.elements = new int[roundUpToPowerOfTwo(capacity)];
+        this.mask = elements.length - 1;
+    }
+
+    static int roundUpToPowerOfTwo(int n) {
+        return n == 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isFull() {
+        return size == capacityLimit;
+    }
+
+    public boolean isFixedCapacity() {
+        return fixedCapacity;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    public void addFirst(int item) {
+        if (!offerFirst(item)) {
+            throw new IllegalStateException("deque is full");
+        }
+    }
+
+    public void addLast(int item) {
+        if (!offerLast(item)) {
+            throw new IllegalStateException("deque is full");
+        }
+    }
+
+    public boolean offerFirst(int item) {
+        if (!ensureRoomForOneMore()) {
+            return false;
+        }
+        head = (head - 1) & mask;
+        elements[head] = item;
+        size++;
+        return true;
+    }
+
+    public boolean offerLast(int item) {
+        if (!ensureRoomForOneMore()) {
+            return false;
+        }
+        elements[(head + size) & mask] = item;
+        size++;
+        return true;
+    }
+
+    public int removeFirst() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        int item = elements[head];
+        head = (head + 1) & mask;
+        size--;
+        return item;
+    }
+
+    public int removeLast() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        size--;
+        return elements[(head + size) & mask];
+    }
+
+    public int getFirst() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return elements[head];
+    }
+
+    public int getLast() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return elements[(head + size - 1) & mask];
+    }
+
+    /**
+     * Gets item at a given distance from the front.
+     */
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("" + index);
+        }
+        return elements[(head + index) & mask];
+    }
+
+    /**
+     * Copies items into a new array, from front to back.
+     */
+    public int[] toArray() {
+        int[] result = new int[size];
+        int firstPart = Math.min(size, elements.length - head);
+        System.arraycopy(elements, head, result, 0, firstPart);
+        System.arraycopy(elements, 0, result, firstPart, size - firstPart);
+        return result;
+    }
+
+    private boolean ensureRoomForOneMore() {
+        if (size < elements.length) {
+            return size < capacityLimit;
+        }
+        if (fixedCapacity || elements.length == MAXIMUM_CAPACITY) {
+            return false;
+        }
+        // unwrap items into front of doubled array.
+        int[] newElements = new int[elements.length << 1];
+        int firstPart = elements.length - head;
+        System.arraycopy(elements, head, newElements, 0, firstPart);
+        System.arraycopy(elements, 0, newElements, firstPart, head);
+        elements = newElements;
+        mask = newElements.length - 1;
+        head = 0;
+        return true;
+    }
+}
@@ -0,0 +1,318 @@
+package com.aaronicsubstances.cs_and_math.collections;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sorted dictionary with primitive long keys, based on an indexable skip list.
+ * <p>
+ * Every forward link records its width, ie the number of bottom level links it spans. This
+ * supports looking up items by their index in sorted order, and computing the rank of keys,
+ * in O(log n) expected time, in addition to the usual O(log n) search, insertion and deletion.
+ * <p>
+ * Not thread-safe. Use {@link ConcurrentLongSkipList} for use by many threads.
+ * <p>
+ * Based on "Skip Lists: A Probabilistic Alternative to Balanced Trees" by William Pugh
+ * (resources/skiplists.pdf), and the section on indexable skip lists in
+ * "A Skip List Cookbook" by the same author.
+ */
+public class LongSkipList<V> implements Iterable<LongSkipList.Entry<V>> {
+    static final int MAX_LEVEL = 16;
+
+    private final Node<V> head = new Node<>(0, null, MAX_LEVEL);
+    private int level = 1;
+    private int size;
+
+    // reused across updates to avoid allocations.
+    private final Node<V>[] update = Node.newArray(MAX_LEVEL);
+    private final int[] updatePositions = new int[MAX_LEVEL];
+
+    public LongSkipList() {
+        for (int i = 0; i < MAX_LEVEL; i++) {
+            head.widths[i] = 1;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return findNode(key) != null;
+    }
+
+    public V get(long key) {
+        Node<V> node = findNode(key);
+        return node != null ? node.value : null;
+    }
+
+    private Node<V> findNode(long key) {
+        Node<V> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && x.next[i].key < key) {
+                x = x.next[i];
+            }
+        }
+        x = x.next[0];
+        return x != null && x.key == key ? x : null;
+    }
+
+    /**
+     * Locates the last node with key less than given key at every level, and the
+     * positions of those nodes.
+     * @return position of bottom level predecessor. Equals number of keys less than given key.
+     */
+    private int findPredecessors(long key) {
+        Node<V> x = head;
+        int pos = 0;
+        for (int i = MAX_LEVEL - 1; i >= 0; i--) {
+            if (i < level) {
+                while (x.next[i] != null && x.next[i].key < key) {
+                    pos += x.widths[i];
+                    x = x.next[i];
+                }
+            }
+            update[i] = x;
+            updatePositions[i] = pos;
+        }
+        return pos;
+    }
+
+    /**
+     * Associates a value with a key.
+     * @return previous value associated with key, or null if key was absent.
+     */
+    public V put(long key, V value) {
+        int predecessorPos = findPredecessors(key);
+        Node<V> x = update[0].next[0];
+        if (x != null && x.key == key) {
+            V oldValue = x.value;
+            x.value = value;
+            return oldValue;
+        }
+
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) {
+            level = nodeLevel;
+        }
+        Node<V> node = new Node<>(key, value, nodeLevel);
+        int nodePos = predecessorPos + 1;
+        for (int i = 0; i < MAX_LEVEL; i++) {
+            Node<V> pred = update[i];
+            if (i < nodeLevel) {
+                // split predecessor's link in two at new node.
+                node.next[i] = pred.next[i];
+                node.widths[i] = updatePositions[i] + pred.widths[i] + 1 - nodePos;
+                pred.next[i] = node;
+                if (i == 0) {
+                    node.bottomNext = node.next[0];
+                    pred.bottomNext = node;
+                }
+                pred.widths[i] = nodePos - updatePositions[i];
+            }
+            else {
+                // predecessor's link spans new node.
+                pred.widths[i]++;
+            }
+        }
+        size++;
+        return null;
+    }
+
+    /**
+     * Removes a key.
+     * @return value which was associated with key, or null if key was absent.
+     */
+    public V remove(long key) {
+        findPredecessors(key);
+        Node<V> x = update[0].next[0];
+        if (x == null || x.key != key) {
+            return null;
+        }
+        for (int i = 0; i < MAX_LEVEL; i++) {
+            Node<V> pred = update[i];
+            if (i < x.next.length) {
+                pred.next[i] = x.next[i];
+                if (i == 0) {
+                    pred.bottomNext = x.next[0];
+                }
+                pred.widths[i] += x.widths[i] - 1;
+            }
+            else {
+                pred.widths[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        size--;
+        return x.value;
+    }
+
+    /**
+     * Gets the number of keys less than given key. If key is present, this is its
+     * index in sorted order.
+     */
+    public int rank(long key) {
+        Node<V> x = head;
+        int pos = 0;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && x.next[i].key < key) {
+                pos += x.widths[i];
+                x = x.next[i];
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * Gets entry at a given index in sorted order.
+     */
+    public Entry<V> getEntryAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("" + index);
+        }
+        return nodeAt(index);
+    }
+
+    private Node<V> nodeAt(int index) {
+        int targetPos = index + 1;
+        Node<V> x = head;
+        int pos = 0;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && pos + x.widths[i] <= targetPos) {
+                pos += x.widths[i];
+                x = x.next[i];
+            }
+        }
+        return x;
+    }
+
+    public long firstKey() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return head.next[0].key;
+    }
+
+    public long lastKey() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return nodeAt(size - 1).key;
+    }
+
+    @Override
+    public Iterator<Entry<V>> iterator() {
+        return new NodeIterator<>(head.next[0], Long.MAX_VALUE, true);
+    }
+
+    /**
+     * Iterates over entries with keys in a given range, in ascending order of keys.
+     * @param fromKey lowest key (inclusive)
+     * @param toKey highest key (exclusive)
+     */
+    public Iterator<Entry<V>> rangeIterator(long fromKey, long toKey) {
+        Node<V> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && x.next[i].key < fromKey) {
+                x = x.next[i];
+            }
+        }
+        return new NodeIterator<>(x.next[0], toKey, false);
+    }
+
+    /**
+     * Iterates over entries in ascending order of keys, starting from a given index.
+     */
+    public Iterator<Entry<V>> iteratorFromIndex(int index) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("" + index);
+        }
+        Node<V> start = index == size ? null : nodeAt(index);
+        return new NodeIterator<>(start, Long.MAX_VALUE, true);
+    }
+
+    private static int randomLevel() {
+        // probability of 1/4 per extra level, as recommended by Pugh.
+        int r = ThreadLocalRandom.current().nextInt();
+        int nodeLevel = 1 + Integer.numberOfTrailingZeros(r | (1 << 30)) / 2;
+        return Math.min(nodeLevel, MAX_LEVEL);
+    }
+
+    /**
+     * Key value pair stored in skip list.
+     */
+    public interface Entry<V> {
+        long getKey();
+        V getValue();
+    }
+
+    private static class Node<V> implements Entry<V> {
+        public final long key;
+        public V value;
+        public final Node<V>[] next;
+        public final int[] widths;
+        // same as next[0], kept in node for scans.
+        public Node<V> bottomNext;
+
+        public Node(long key, V value, int level) {
+            this.key = key;
+            this.value = value;
+            this.next = newArray(level);
+            this.widths = new int[level];
+        }
+
+        @SuppressWarnings("unchecked")
+        static <V> Node<V>[] newArray(int length) {
+            return (Node<V>[]) new Node<?>[length];
+        }
+
+        @Override
+        public long getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    private static class NodeIterator<V> implements Iterator<Entry<V>> {
+        private final long toKey;
+        private final boolean toEnd;
+        private Node<V> current;
+
+        public NodeIterator(Node<V> start, long toKey, boolean toEnd) {
+            this.current = start;
+            this.toKey = toKey;
+            this.toEnd = toEnd;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return current != null && (toEnd || current.key < toKey);
+        }
+
+        @Override
+        public Entry<V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Node<V> result = current;
+            current = current.bottomNext;
+            return result;
+        }
+    }
+}
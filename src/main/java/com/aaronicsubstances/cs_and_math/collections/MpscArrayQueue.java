@@ -0,0 +1,232 @@
+package com.aaronicsubstances.cs_and_math.collections;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for any number of producer threads and one consumer thread, based
+ * on a circular array.
+ * <p>
+ * Producers claim slots by compare-and-swap on the producer sequence counter, and then publish
+ * items into claimed slots with ordered stores. The consumer detects published items by their
+ * slots becoming non-null, so that it never contends with producers on the producer counter.
+ * Producers share a cached limit on the producer counter, and only read the consumer counter
+ * when the limit is reached. Counters are padded onto separate cache lines through the class
+ * hierarchy to avoid false sharing.
+ * <p>
+ * Null items are not permitted. Poll, peek and drain methods must only be called from the
+ * consumer thread.
+ * <p>
+ * Based on the MPSC queues of the JCTools library.
+ * @see SpscArrayQueue
+ */
+public class MpscArrayQueue<E> extends MpscArrayQueuePad2 {
+    private static final AtomicLongFieldUpdater<MpscArrayQueueProducerFields> PRODUCER_INDEX =
+        AtomicLongFieldUpdater.newUpdater(MpscArrayQueueProducerFields.class, "producerIndex");
+    private static final AtomicLongFieldUpdater<MpscArrayQueueConsumerFields> CONSUMER_INDEX =
+        AtomicLongFieldUpdater.newUpdater(MpscArrayQueueConsumerFields.class, "consumerIndex");
+
+    private final AtomicReferenceArray<E> elements;
+    private final int mask;
+    private final int capacity;
+
+    /**
+     * Creates a new instance.
+     * @param capacity maximum number of items.
+     */
+    public MpscArrayQueue(int capacity) {
+        if (capacity < 1 || capacity > IntDeque.MAXIMUM_CAPACITY) {
+            throw new IllegalArgumentException("invalid capacity: " + capacity);
+        }
+        this.capacity = capacity;
+        this.elements = new AtomicReferenceArray<>(IntDeque.roundUpToPowerOfTwo(capacity));
+        this.mask = elements.length() - 1;
+        this.producerLimit = capacity;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets number of items, including those whose slots have been claimed by producers but
+     * are yet to be published. Only an estimate if producers and consumer are active.
+     */
+    public int size() {
+        long after = consumerIndex;
+        while (true) {
+            long before = after;
+            long currentProducerIndex = producerIndex;
+            after = consumerIndex;
+            if (before == after) {
+                return (int) (currentProducerIndex - after);
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return consumerIndex == producerIndex;
+    }
+
+    /**
+     * Adds an item to the back of the queue.
+     * @return false if queue is full.
+     */
+    public boolean offer(E item) {
+        Objects.requireNonNull(item, "item");
+        long limit = producerLimit;
+        long currentProducerIndex;
+        do {
+            currentProducerIndex = producerIndex;
+            if (currentProducerIndex >= limit) {
+                limit = consumerIndex + capacity;
+                if (currentProducerIndex >= limit) {
+                    return false;
+                }
+                // racy update is fine, since any computed limit is a lower bound
+                // of the true limit.
+                producerLimit = limit;
+            }
+        } while (!PRODUCER_INDEX.compareAndSet(this, currentProducerIndex,
+            currentProducerIndex + 1));
+        elements.lazySet((int) currentProducerIndex & mask, item);
+        return true;
+    }
+
+    /**
+     * Adds as many items as possible from the front of a list. Slots for all the items are
+     * claimed with a single compare-and-swap.
+     * @param items items to add. Must not contain nulls.
+     * @return number of items added.
+     */
+    public int offerAll(List<? extends E> items) {
+        // validate up front, since the consumer would wait forever
+        // on a claimed slot which is never published.
+        for (E item : items) {
+            Objects.requireNonNull(item, "items contains null");
+        }
+        if (items.isEmpty()) {
+            return 0;
+        }
+        long limit = producerLimit;
+        long currentProducerIndex;
+        int count;
+        do {
+            currentProducerIndex = producerIndex;
+            long available = limit - currentProducerIndex;
+            if (available < items.size()) {
+                limit = consumerIndex + capacity;
+                producerLimit = limit;
+                available = limit - currentProducerIndex;
+                if (available <= 0) {
+                    return 0;
+                }
+            }
+            count = (int) Math.min(items.size(), available);
+        } while (!PRODUCER_INDEX.compareAndSet(this, currentProducerIndex,
+            currentProducerIndex + count));
+        for (int i = 0; i < count; i++) {
+            elements.lazySet((int) (currentProducerIndex + i) & mask, items.get(i));
+        }
+        return count;
+    }
+
+    /**
+     * Removes item at the front of the queue. Consumer thread only.
+     * @return removed item or null if queue is empty.
+     */
+    public E poll() {
+        long currentConsumerIndex = consumerIndex;
+        int offset = (int) currentConsumerIndex & mask;
+        E item = waitForItem(currentConsumerIndex, offset);
+        if (item == null) {
+            return null;
+        }
+        elements.lazySet(offset, null);
+        CONSUMER_INDEX.lazySet(this, currentConsumerIndex + 1);
+        return item;
+    }
+
+    /**
+     * Gets item at the front of the queue without removing it. Consumer thread only.
+     * @return front item or null if queue is empty.
+     */
+    public E peek() {
+        long currentConsumerIndex = consumerIndex;
+        return waitForItem(currentConsumerIndex, (int) currentConsumerIndex & mask);
+    }
+
+    private E waitForItem(long currentConsumerIndex, int offset) {
+        E item = elements.get(offset);
+        if (item == null) {
+            if (currentConsumerIndex == producerIndex) {
+                return null;
+            }
+            // slot has been claimed by a producer which is yet to publish its item.
+            do {
+                item = elements.get(offset);
+            } while (item == null);
+        }
+        return item;
+    }
+
+    /**
+     * Removes all published items and adds them to a collection. Consumer thread only.
+     * @return number of items transferred.
+     */
+    public int drainTo(Collection<? super E> target) {
+        return drainTo(target, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Removes at most a given number of published items, and adds them to a collection.
+     * Unlike {@link #poll()}, stops at the first slot claimed by a producer which is yet to
+     * publish its item, rather than waiting for the producer. Items are released to producers
+     * all at once. Consumer thread only.
+     * @return number of items transferred.
+     */
+    public int drainTo(Collection<? super E> target, int maxItems) {
+        long currentConsumerIndex = consumerIndex;
+        int i = 0;
+        try {
+            for (; i < maxItems; i++) {
+                int offset = (int) (currentConsumerIndex + i) & mask;
+                E item = elements.get(offset);
+                if (item == null) {
+                    break;
+                }
+                target.add(item);
+                elements.lazySet(offset, null);
+            }
+        }
+        finally {
+            CONSUMER_INDEX.lazySet(this, currentConsumerIndex + i);
+        }
+        return i;
+    }
+}
+
+abstract class MpscArrayQueuePad0 {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+}
+
+abstract class MpscArrayQueueProducerFields extends MpscArrayQueuePad0 {
+    volatile long producerIndex;
+    // shared by producers: index beyond which slots may still be in use by consumer.
+    volatile long producerLimit;
+}
+
+abstract class MpscArrayQueuePad1 extends MpscArrayQueueProducerFields {
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+}
+
+abstract class MpscArrayQueueConsumerFields extends MpscArrayQueuePad1 {
+    volatile long consumerIndex;
+}
+
+abstract class MpscArrayQueuePad2 extends MpscArrayQueueConsumerFields {
+    long p20, p21, p22, p23, p24, p25, p26, p27;
+}
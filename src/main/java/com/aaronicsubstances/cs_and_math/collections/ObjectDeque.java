@@ -0,0 +1,236 @@
+package com.aaronicsubstances.cs_and_math.collections;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Double-ended queue based on a circular array, like {@link java.util.ArrayDeque} but with
+ * optional fixed capacity and indexed access. Serves as a stack with {@link #addLast(Object)}
+ * and {@link #removeLast()}, and as a queue with {@link #addLast(Object)} and
+ * {@link #removeFirst()}.
+ * <p>
+ * See {@link IntDeque} for details of capacity management. Null items are not permitted,
+ * so that poll and peek methods can use null to indicate an empty deque.
+ * <p>
+ * Not thread-safe.
+ */
+public class ObjectDeque<T> implements Iterable<T> {
+    private static final int DEFAULT_CAPACITY = IntDeque.DEFAULT_CAPACITY;
+    private static final int MAXIMUM_CAPACITY = IntDeque.MAXIMUM_CAPACITY;
+
+    private final boolean fixedCapacity;
+    private final int capacityLimit;
+    private Object[] elements;
+    private int mask;
+    private int head;
+    private int size;
+    private int modCount;
+
+    /**
+     * Creates a growable deque with default initial capacity.
+     */
+    public ObjectDeque() {
+        this(DEFAULT_CAPACITY, false);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param capacity initial capacity if growable, else maximum number of items.
+     * @param fixedCapacity true for a deque which never grows.
+     */
+    public ObjectDeque(int capacity, boolean fixedCapacity) {
+        if (capacity < 1 || capacity > MAXIMUM_CAPACITY) {
+            throw new IllegalArgumentException("invalid capacity: " + capacity);
+        }
+        this.fixedCapacity = fixedCapacity;
+        this.capacityLimit = fixedCapacity ? capacity : MAXIMUM_CAPACITY;
+        this.elements = new Object[IntDeque.roundUpToPowerOfTwo(capacity)];
+        this.mask = elements.length - 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isFull() {
+        return size == capacityLimit;
+    }
+
+    public boolean isFixedCapacity() {
+        return fixedCapacity;
+    }
+
+    public void clear() {
+        // release references for garbage collection.
+        for (int i = 0; i < size; i++) {
+            elements[(head + i) & mask] = null;
+        }
+        head = 0;
+        size = 0;
+        modCount++;
+    }
+
+    public void addFirst(T item) {
+        if (!offerFirst(item)) {
+            throw new IllegalStateException("deque is full");
+        }
+    }
+
+    public void addLast(T item) {
+        if (!offerLast(item)) {
+            throw new IllegalStateException("deque is full");
+        }
+    }
+
+    public boolean offerFirst(T item) {
+        Objects.requireNonNull(item, "item");
+        if (!ensureRoomForOneMore()) {
+            return false;
+        }
+        head = (head - 1) & mask;
+        elements[head] = item;
+        size++;
+        modCount++;
+        return true;
+    }
+
+    public boolean offerLast(T item) {
+        Objects.requireNonNull(item, "item");
+        if (!ensureRoomForOneMore()) {
+            return false;
+        }
+        elements[(head + size) & mask] = item;
+        size++;
+        modCount++;
+        return true;
+    }
+
+    public T removeFirst() {
+        T item = pollFirst();
+        if (item == null) {
+            throw new NoSuchElementException();
+        }
+        return item;
+    }
+
+    public T removeLast() {
+        T item = pollLast();
+        if (item == null) {
+            throw new NoSuchElementException();
+        }
+        return item;
+    }
+
+    /**
+     * Removes first item.
+     * @return removed item or null if deque is empty.
+     */
+    public T pollFirst() {
+        if (size == 0) {
+            return null;
+        }
+        T item = elementAt(head);
+        elements[head] = null;
+        head = (head + 1) & mask;
+        size--;
+        modCount++;
+        return item;
+    }
+
+    /**
+     * Removes last item.
+     * @return removed item or null if deque is empty.
+     */
+    public T pollLast() {
+        if (size == 0) {
+            return null;
+        }
+        size--;
+        int index = (head + size) & mask;
+        T item = elementAt(index);
+        elements[index] = null;
+        modCount++;
+        return item;
+    }
+
+    /**
+     * Gets first item without removing it.
+     * @return first item or null if deque is empty.
+     */
+    public T peekFirst() {
+        return size == 0 ? null : elementAt(head);
+    }
+
+    /**
+     * Gets last item without removing it.
+     * @return last item or null if deque is empty.
+     */
+    public T peekLast() {
+        return size == 0 ? null : elementAt((head + size - 1) & mask);
+    }
+
+    /**
+     * Gets item at a given distance from the front.
+     */
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("" + index);
+        }
+        return elementAt((head + index) & mask);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T elementAt(int arrayIndex) {
+        return (T) elements[arrayIndex];
+    }
+
+    private boolean ensureRoomForOneMore() {
+        if (size < elements.length) {
+            return size < capacityLimit;
+        }
+        if (fixedCapacity || elements.length == MAXIMUM_CAPACITY) {
+            return false;
+        }
+        Object[] newElements = new Object[elements.length << 1];
+        int firstPart = elements.length - head;
+        System.arraycopy(elements, head, newElements, 0, firstPart);
+        System.arraycopy(elements, 0, newElements, firstPart, head);
+        elements = newElements;
+        mask = newElements.length - 1;
+        head = 0;
+        return true;
+    }
+
+    /**
+     * Iterates from front to back. Fails fast on modification of deque during iteration.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private final int expectedModCount = modCount;
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public T next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+                return elementAt((head + index++) & mask);
+            }
+        };
+    }
+}
@@ -0,0 +1,344 @@
+package com.aaronicsubstances.cs_and_math.collections;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sorted dictionary based on an indexable skip list. See {@link LongSkipList} for a
+ * specialization for primitive long keys.
+ * <p>
+ * Every forward link records its width, ie the number of bottom level links it spans. This
+ * supports looking up items by their index in sorted order, and computing the rank of keys,
+ * in O(log n) expected time, in addition to the usual O(log n) search, insertion and deletion.
+ * <p>
+ * Based on "Skip Lists: A Probabilistic Alternative to Balanced Trees" by William Pugh
+ * (resources/skiplists.pdf), and the section on indexable skip lists in
+ * "A Skip List Cookbook" by the same author.
+ */
+public class SkipList<K, V> implements Iterable<Map.Entry<K, V>> {
+    private static final int MAX_LEVEL = LongSkipList.MAX_LEVEL;
+
+    private final Comparator<? super K> sortFunc;
+    private final Node<K, V> head = new Node<>(null, null, MAX_LEVEL);
+    private int level = 1;
+    private int size;
+
+    // reused across updates to avoid allocations.
+    private final Node<K, V>[] update = Node.newArray(MAX_LEVEL);
+    private final int[] updatePositions = new int[MAX_LEVEL];
+
+    public SkipList(Comparator<? super K> sortFunc) {
+        this.sortFunc = Objects.requireNonNull(sortFunc, "sortFunc");
+        for (int i = 0; i < MAX_LEVEL; i++) {
+            head.widths[i] = 1;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(K key) {
+        return findNode(key) != null;
+    }
+
+    public V get(K key) {
+        Node<K, V> node = findNode(key);
+        return node != null ? node.value : null;
+    }
+
+    private Node<K, V> findNode(K key) {
+        Node<K, V> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && sortFunc.compare(x.next[i].key, key) < 0) {
+                x = x.next[i];
+            }
+        }
+        x = x.next[0];
+        return x != null && sortFunc.compare(x.key, key) == 0 ? x : null;
+    }
+
+    /**
+     * Locates the last node with key less than given key at every level, and the
+     * positions of those nodes.
+     * @return position of bottom level predecessor. Equals number of keys less than given key.
+     */
+    private int findPredecessors(K key) {
+        Node<K, V> x = head;
+        int pos = 0;
+        for (int i = MAX_LEVEL - 1; i >= 0; i--) {
+            if (i < level) {
+                while (x.next[i] != null && sortFunc.compare(x.next[i].key, key) < 0) {
+                    pos += x.widths[i];
+                    x = x.next[i];
+                }
+            }
+            update[i] = x;
+            updatePositions[i] = pos;
+        }
+        return pos;
+    }
+
+    /**
+     * Associates a value with a key.
+     * @return previous value associated with key, or null if key was absent.
+     */
+    public V put(K key, V value) {
+        int predecessorPos = findPredecessors(key);
+        Node<K, V> x = update[0].next[0];
+        if (x != null && sortFunc.compare(x.key, key) == 0) {
+            V oldValue = x.value;
+            x.value = value;
+            return oldValue;
+        }
+
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) {
+            level = nodeLevel;
+        }
+        Node<K, V> node = new Node<>(key, value, nodeLevel);
+        int nodePos = predecessorPos + 1;
+        for (int i = 0; i < MAX_LEVEL; i++) {
+            Node<K, V> pred = update[i];
+            if (i < nodeLevel) {
+                // split predecessor's link in two at new node.
+                node.next[i] = pred.next[i];
+                node.widths[i] = updatePositions[i] + pred.widths[i] + 1 - nodePos;
+                pred.next[i] = node;
+                if (i == 0) {
+                    node.bottomNext = node.next[0];
+                    pred.bottomNext = node;
+                }
+                pred.widths[i] = nodePos - updatePositions[i];
+            }
+            else {
+                // predecessor's link spans new node.
+                pred.widths[i]++;
+            }
+        }
+        size++;
+        return null;
+    }
+
+    /**
+     * Removes a key.
+     * @return value which was associated with key, or null if key was absent.
+     */
+    public V remove(K key) {
+        findPredecessors(key);
+        Node<K, V> x = update[0].next[0];
+        if (x == null || sortFunc.compare(x.key, key) != 0) {
+            return null;
+        }
+        for (int i = 0; i < MAX_LEVEL; i++) {
+            Node<K, V> pred = update[i];
+            if (i < x.next.length) {
+                pred.next[i] = x.next[i];
+                if (i == 0) {
+                    pred.bottomNext = x.next[0];
+                }
+                pred.widths[i] += x.widths[i] - 1;
+            }
+            else {
+                pred.widths[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        size--;
+        return x.value;
+    }
+
+    /**
+     * Gets the number of keys less than given key. If key is present, this is its
+     * index in sorted order.
+     */
+    public int rank(K key) {
+        Node<K, V> x = head;
+        int pos = 0;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && sortFunc.compare(x.next[i].key, key) < 0) {
+                pos += x.widths[i];
+                x = x.next[i];
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * Gets entry at a given index in sorted order.
+     */
+    public Map.Entry<K, V> getEntryAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("" + index);
+        }
+        return nodeAt(index);
+    }
+
+    private Node<K, V> nodeAt(int index) {
+        int targetPos = index + 1;
+        Node<K, V> x = head;
+        int pos = 0;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && pos + x.widths[i] <= targetPos) {
+                pos += x.widths[i];
+                x = x.next[i];
+            }
+        }
+        return x;
+    }
+
+    public K firstKey() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return head.next[0].key;
+    }
+
+    public K lastKey() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return nodeAt(size - 1).key;
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new NodeIterator<>(head.next[0], null, true);
+    }
+
+    /**
+     * Iterates over entries with keys in a given range, in ascending order of keys.
+     * @param fromKey lowest key (inclusive)
+     * @param toKey highest key (exclusive)
+     */
+    public Iterator<Map.Entry<K, V>> rangeIterator(K fromKey, K toKey) {
+        Node<K, V> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && sortFunc.compare(x.next[i].key, fromKey) < 0) {
+                x = x.next[i];
+            }
+        }
+        return new NodeIterator<>(x.next[0], toKey, false, sortFunc);
+    }
+
+    /**
+     * Iterates over entries in ascending order of keys, starting from a given index.
+     */
+    public Iterator<Map.Entry<K, V>> iteratorFromIndex(int index) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("" + index);
+        }
+        Node<K, V> start = index == size ? null : nodeAt(index);
+        return new NodeIterator<>(start, null, true);
+    }
+
+    private static int randomLevel() {
+        // probability of 1/4 per extra level, as recommended by Pugh.
+        int r = ThreadLocalRandom.current().nextInt();
+        int nodeLevel = 1 + Integer.numberOfTrailingZeros(r | (1 << 30)) / 2;
+        return Math.min(nodeLevel, MAX_LEVEL);
+    }
+
+    private static class Node<K, V> implements Map.Entry<K, V> {
+        public final K key;
+        public V value;
+        public final Node<K, V>[] next;
+        public final int[] widths;
+        // same as next[0], kept in node for scans.
+        public Node<K, V> bottomNext;
+
+        public Node(K key, V value, int level) {
+            this.key = key;
+            this.value = value;
+            this.next = newArray(level);
+            this.widths = new int[level];
+        }
+
+        @SuppressWarnings("unchecked")
+        static <K, V> Node<K, V>[] newArray(int length) {
+            return (Node<K, V>[]) new Node<?, ?>[length];
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            V oldValue = this.value;
+            this.value = value;
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) obj;
+            return Objects.equals(key, other.getKey()) &&
+                Objects.equals(value, other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            // as specified by Map.Entry
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    private static class NodeIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+        private final K toKey;
+        private final boolean toEnd;
+        private final Comparator<? super K> sortFunc;
+        private Node<K, V> current;
+
+        public NodeIterator(Node<K, V> start, K toKey, boolean toEnd) {
+            this(start, toKey, toEnd, null);
+        }
+
+        public NodeIterator(Node<K, V> start, K toKey, boolean toEnd,
+                Comparator<? super K> sortFunc) {
+            this.current = start;
+            this.toKey = toKey;
+            this.toEnd = toEnd;
+            this.sortFunc = sortFunc;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return current != null && (toEnd || sortFunc.compare(current.key, toKey) < 0);
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Node<K, V> result = current;
+            current = current.bottomNext;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.aaronicsubstances.cs_and_math.collections;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Bounded lock-free queue for exactly one producer thread and one consumer thread, based on
+ * a circular array.
+ * <p>
+ * Producer and consumer each own a monotonically increasing sequence counter, which is
+ * published with an ordered store (lazySet) rather than a full volatile write. Each side also
+ * keeps a private cache of the other side's counter, and only reads the other side's counter
+ * when the cache indicates the queue is full or empty. The counters are padded onto separate
+ * cache lines through the class hierarchy to avoid false sharing.
+ * <p>
+ * Null items are not permitted. Methods other than {@link #size()}, {@link #isEmpty()} and
+ * {@link #capacity()} must only be called from the producer thread (offer methods) or the
+ * consumer thread (poll, peek and drain methods).
+ * <p>
+ * Based on the FastFlow queue and the SPSC queues of the JCTools library.
+ */
+public class SpscArrayQueue<E> extends SpscArrayQueuePad2 {
+    private static final AtomicLongFieldUpdater<SpscArrayQueueProducerFields> PRODUCER_INDEX =
+        AtomicLongFieldUpdater.newUpdater(SpscArrayQueueProducerFields.class, "producerIndex");
+    private static final AtomicLongFieldUpdater<SpscArrayQueueConsumerFields> CONSUMER_INDEX =
+        AtomicLongFieldUpdater.newUpdater(SpscArrayQueueConsumerFields.class, "consumerIndex");
+
+    private final Object[] elements;
+    private final int mask;
+    private final int capacity;
+
+    /**
+     * Creates a new instance.
+     * @param capacity maximum number of items.
+     */
+    public SpscArrayQueue(int capacity) {
+        if (capacity < 1 || capacity > IntDeque.MAXIMUM_CAPACITY) {
+            throw new IllegalArgumentException("invalid capacity: " + capacity);
+        }
+        this.capacity = capacity;
+        this.elements = new Object[IntDeque.roundUpToPowerOfTwo(capacity)];
+        this.mask = elements.length - 1;
+        this.producerLimit = capacity;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets number of items. Only an estimate if producer and consumer are active.
+     */
+    public int size() {
+        long after = consumerIndex;
+        while (true) {
+            long before = after;
+            long currentProducerIndex = producerIndex;
+            after = consumerIndex;
+            if (before == after) {
+                return (int) (currentProducerIndex - after);
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return consumerIndex == producerIndex;
+    }
+
+    /**
+     * Adds an item to the back of the queue. Producer thread only.
+     * @return false if queue is full.
+     */
+    public boolean offer(E item) {
+        Objects.requireNonNull(item, "item");
+        long currentProducerIndex = producerIndex;
+        if (currentProducerIndex >= producerLimit) {
+            producerLimit = consumerIndex + capacity;
+            if (currentProducerIndex >= producerLimit) {
+                return false;
+            }
+        }
+        elements[(int) currentProducerIndex & mask] = item;
+        PRODUCER_INDEX.lazySet(this, currentProducerIndex + 1);
+        return true;
+    }
+
+    /**
+     * Adds as many items as possible from the front of a list, publishing them to the
+     * consumer all at once. Producer thread only.
+     * @param items items to add. Must not contain nulls.
+     * @return number of items added.
+     */
+    public int offerAll(List<? extends E> items) {
+        for (E item : items) {
+            Objects.requireNonNull(item, "items contains null");
+        }
+        long currentProducerIndex = producerIndex;
+        long available = producerLimit - currentProducerIndex;
+        if (available < items.size()) {
+            producerLimit = consumerIndex + capacity;
+            available = producerLimit - currentProducerIndex;
+        }
+        int count = (int) Math.min(items.size(), available);
+        for (int i = 0; i < count; i++) {
+            elements[(int) (currentProducerIndex + i) & mask] = items.get(i);
+        }
+        PRODUCER_INDEX.lazySet(this, currentProducerIndex + count);
+        return count;
+    }
+
+    /**
+     * Removes item at the front of the queue. Consumer thread only.
+     * @return removed item or null if queue is empty.
+     */
+    public E poll() {
+        long currentConsumerIndex = consumerIndex;
+        if (currentConsumerIndex >= producerIndexCache) {
+            producerIndexCache = producerIndex;
+            if (currentConsumerIndex >= producerIndexCache) {
+                return null;
+            }
+        }
+        int offset = (int) currentConsumerIndex & mask;
+        E item = elementAt(offset);
+        elements[offset] = null;
+        CONSUMER_INDEX.lazySet(this, currentConsumerIndex + 1);
+        return item;
+    }
+
+    /**
+     * Gets item at the front of the queue without removing it. Consumer thread only.
+     * @return front item or null if queue is empty.
+     */
+    public E peek() {
+        long currentConsumerIndex = consumerIndex;
+        if (currentConsumerIndex >= producerIndexCache) {
+            producerIndexCache = producerIndex;
+            if (currentConsumerIndex >= producerIndexCache) {
+                return null;
+            }
+        }
+        return elementAt((int) currentConsumerIndex & mask);
+    }
+
+    /**
+     * Removes all available items and adds them to a collection. Consumer thread only.
+     * @return number of items transferred.
+     */
+    public int drainTo(Collection<? super E> target) {
+        return drainTo(target, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Removes at most a given number of available items, and adds them to a collection.
+     * Items are released to the producer all at once. Consumer thread only.
+     * @return number of items transferred.
+     */
+    public int drainTo(Collection<? super E> target, int maxItems) {
+        long currentConsumerIndex = consumerIndex;
+        long available = producerIndexCache - currentConsumerIndex;
+        if (available < maxItems) {
+            producerIndexCache = producerIndex;
+            available = producerIndexCache - currentConsumerIndex;
+        }
+        int count = (int) Math.min(maxItems, available);
+        int i = 0;
+        try {
+            for (; i < count; i++) {
+                int offset = (int) (currentConsumerIndex + i) & mask;
+                target.add(elementAt(offset));
+                elements[offset] = null;
+            }
+        }
+        finally {
+            CONSUMER_INDEX.lazySet(this, currentConsumerIndex + i);
+        }
+        return count;
+    }
+
+    @SuppressWarnings("unchecked")
+    private E elementAt(int offset) {
+        return (E) elements[offset];
+    }
+}
+
+abstract class SpscArrayQueuePad0 {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+}
+
+abstract class SpscArrayQueueProducerFields extends SpscArrayQueuePad0 {
+    volatile long producerIndex;
+    // producer's cache: index beyond which slots may still be in use by consumer.
+    long producerLimit;
+}
+
+abstract class SpscArrayQueuePad1 extends SpscArrayQueueProducerFields {
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+}
+
+abstract class SpscArrayQueueConsumerFields extends SpscArrayQueuePad1 {
+    volatile long consumerIndex;
+    // consumer's cache of producer index.
+    long producerIndexCache;
+}
+
+abstract class SpscArrayQueuePad2 extends SpscArrayQueueConsumerFields {
+    long p20, p21, p22, p23, p24, p25, p26, p27;
+}
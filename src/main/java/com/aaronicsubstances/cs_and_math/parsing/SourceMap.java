@@ -1,10 +1,11 @@
 package com.aaronicsubstances.cs_and_math.parsing;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
+import com.aaronicsubstances.cs_and_math.searching.BinarySearch;
+
 /**
  * Used to save position-adjusting information need to reconcile positions between a 
  * source text and a destination text after replacments are made in the former to
@@ -75,21 +76,17 @@ public class SourceMap {
     public int getSrcIndex(int destIndex) {
         // Since destRanges are sorted, look for a range which contains
         // destIndex using binary search.
-        SubstringRange destIndexKey = new SubstringRange(destIndex, destIndex);
-        int rIdx = Collections.binarySearch(destRanges, destIndexKey, 
-                (p1, p2) -> {
-                    if (p1.start < p2.start &&
-                            p1.end < p2.end) {
+        int rIdx = BinarySearch.binarySearch(0, destRanges.size(), 
+                i -> {
+                    SubstringRange p = destRanges.get(i);
+                    if (p.end < destIndex) {
                         return -1;
                     }
-                    if (p1.start > p2.start &&
-                            p1.end > p2.end) {
+                    if (p.start > destIndex) {
                         return 1;
                     }
                     // we leverage fact that items of destRanges don't overlap
-                    // to conclude upon getting here that p1 and p2 compare as equal.
-                    // This will enable finding substring range which covers
-                    // destIndex. 
+                    // to conclude upon getting here that p covers destIndex.
                     return 0;
                 });
         if (rIdx >= 0) { // containing range found.
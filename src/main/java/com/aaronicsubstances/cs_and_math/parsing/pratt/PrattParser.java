@@ -1,11 +1,10 @@
 package com.aaronicsubstances.cs_and_math.parsing.pratt;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 
+import com.aaronicsubstances.cs_and_math.collections.ObjectDeque;
 import com.aaronicsubstances.cs_and_math.parsing.GenericToken;
 
 /**
@@ -15,7 +14,7 @@ import com.aaronicsubstances.cs_and_math.parsing.GenericToken;
  */
 public abstract class PrattParser<T extends GenericToken, E> {
     private final Iterator<T> mTokens;
-    private final List<T> mRead = new ArrayList<>();
+    private final ObjectDeque<T> mRead = new ObjectDeque<>();
     private final Map<Integer, PrefixParselet<T, E>> mPrefixParselets = new HashMap<>();
     private final Map<Integer, InfixParselet<T, E>> mInfixParselets = new HashMap<>();
 
@@ -152,7 +151,7 @@ public abstract class PrattParser<T extends GenericToken, E> {
         // Make sure we've read the token.
         lookAhead(0);
     
-        return mRead.remove(0);
+        return mRead.removeFirst();
     }
   
     private T lookAhead(int distance) {
@@ -161,7 +160,7 @@ public abstract class PrattParser<T extends GenericToken, E> {
             if (!mTokens.hasNext()) {
                 throw createEndOfTokensException();
             }
-            mRead.add(mTokens.next());
+            mRead.addLast(mTokens.next());
         }
 
         // Get the queued token.
@@ -2,12 +2,12 @@ package com.aaronicsubstances.cs_and_math.regex;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import com.aaronicsubstances.cs_and_math.FiniteStateAutomaton;
+import com.aaronicsubstances.cs_and_math.collections.IntDeque;
 
 /**
  * Converts an NFA to a DFA.
@@ -129,7 +129,10 @@ public class NfaToDfaConvertor {
         // NB: resembles breadth first search graph algorithm.
         Set<Integer> closureResult = FiniteStateAutomaton.newSet();
         closureResult.addAll(startStates);
-        LinkedList<Integer> processedStates = new LinkedList<>(startStates);
+        IntDeque processedStates = new IntDeque();
+        for (int state : startStates) {
+            processedStates.addLast(state);
+        }
         while (!processedStates.isEmpty()) {
             int t = processedStates.removeFirst();
             if (emptyStringGraph.containsKey(t)) {
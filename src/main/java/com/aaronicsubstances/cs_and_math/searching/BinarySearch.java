@@ -0,0 +1,294 @@
+package com.aaronicsubstances.cs_and_math.searching;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Binary search for sorted arrays and lists.
+ * <p>
+ * Lower bound of a key is the index of the first item which is not less than the key, and
+ * upper bound of a key is the index of the first item which is greater than the key. In both
+ * cases the end of the searched range is returned if there is no such item.
+ * <p>
+ * The branch-free variants perform a fixed number of iterations for a given range length,
+ * and leave the loop body with a conditional move instead of a hard to predict branch.
+ * They are faster for small to medium sized arrays, where the cost of branch mispredictions
+ * dominates.
+ */
+public class BinarySearch {
+
+    public static int lowerBound(int[] a, int key) {
+        return lowerBound(a, 0, a.length, key);
+    }
+
+    public static int lowerBound(int[] a, int fromIndex, int toIndex, int key) {
+        int lo = fromIndex, hi = toIndex;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < key) {
+                lo = mid + 1;
+            }
+            else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    public static int upperBound(int[] a, int key) {
+        return upperBound(a, 0, a.length, key);
+    }
+
+    public static int upperBound(int[] a, int fromIndex, int toIndex, int key) {
+        int lo = fromIndex, hi = toIndex;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] <= key) {
+                lo = mid + 1;
+            }
+            else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    public static int lowerBound(long[] a, long key) {
+        return lowerBound(a, 0, a.length, key);
+    }
+
+    public static int lowerBound(long[] a, int fromIndex, int toIndex, long key) {
+        int lo = fromIndex, hi = toIndex;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < key) {
+                lo = mid + 1;
+            }
+            else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    public static int upperBound(long[] a, long key) {
+        return upperBound(a, 0, a.length, key);
+    }
+
+    public static int upperBound(long[] a, int fromIndex, int toIndex, long key) {
+        int lo = fromIndex, hi = toIndex;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] <= key) {
+                lo = mid + 1;
+            }
+            else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    public static int lowerBoundBranchFree(int[] a, int key) {
+        return lowerBoundBranchFree(a, 0, a.length, key);
+    }
+
+    public static int lowerBoundBranchFree(int[] a, int fromIndex, int toIndex, int key) {
+        int len = toIndex - fromIndex;
+        if (len == 0) {
+            return fromIndex;
+        }
+        // invariant: lower bound lies in [base, base + len].
+        int base = fromIndex;
+        while (len > 1) {
+            int half = len >>> 1;
+            base = a[base + half] < key ? base + half : base;
+            len -= half;
+        }
+        return a[base] < key ? base + 1 : base;
+    }
+
+    public static int upperBoundBranchFree(int[] a, int key) {
+        return upperBoundBranchFree(a, 0, a.length, key);
+    }
+
+    public static int upperBoundBranchFree(int[] a, int fromIndex, int toIndex, int key) {
+        int len = toIndex - fromIndex;
+        if (len == 0) {
+            return fromIndex;
+        }
+        int base = fromIndex;
+        while (len > 1) {
+            int half = len >>> 1;
+            base = a[base + half] <= key ? base + half : base;
+            len -= half;
+        }
+        return a[base] <= key ? base + 1 : base;
+    }
+
+    public static int lowerBoundBranchFree(long[] a, long key) {
+        return lowerBoundBranchFree(a, 0, a.length, key);
+    }
+
+    public static int lowerBoundBranchFree(long[] a, int fromIndex, int toIndex, long key) {
+        int len = toIndex - fromIndex;
+        if (len == 0) {
+            return fromIndex;
+        }
+        int base = fromIndex;
+        while (len > 1) {
+            int half = len >>> 1;
+            base = a[base + half] < key ? base + half : base;
+            len -= half;
+        }
+        return a[base] < key ? base + 1 : base;
+    }
+
+    public static int upperBoundBranchFree(long[] a, long key) {
+        return upperBoundBranchFree(a, 0, a.length, key);
+    }
+
+    public static int upperBoundBranchFree(long[] a, int fromIndex, int toIndex, long key) {
+        int len = toIndex - fromIndex;
+        if (len == 0) {
+            return fromIndex;
+        }
+        int base = fromIndex;
+        while (len > 1) {
+            int half = len >>> 1;
+            base = a[base + half] <= key ? base + half : base;
+            len -= half;
+        }
+        return a[base] <= key ? base + 1 : base;
+    }
+
+    public static <T> int lowerBound(List<? extends T> list, T key, Comparator<? super T> sortFunc) {
+        int lo = 0, hi = list.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sortFunc.compare(list.get(mid), key) < 0) {
+                lo = mid + 1;
+            }
+            else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    public static <T> int upperBound(List<? extends T> list, T key, Comparator<? super T> sortFunc) {
+        int lo = 0, hi = list.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sortFunc.compare(list.get(mid), key) <= 0) {
+                lo = mid + 1;
+            }
+            else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Searches a sorted range for an item without materializing a search key. Mirrors
+     * {@link java.util.Collections#binarySearch(List, Object, Comparator)}, including which
+     * of several equal items is found.
+     * @param fromIndex start of range (inclusive)
+     * @param toIndex end of range (exclusive)
+     * @param comparisonAtIndex given an index, returns negative value, zero or positive value
+     * if item at index is less than, equal to, or greater than the (implied) search key.
+     * @return index of an item equal to search key if found; else (-(insertion point) - 1).
+     */
+    public static int binarySearch(int fromIndex, int toIndex, IntUnaryOperator comparisonAtIndex) {
+        int lo = fromIndex, hi = toIndex - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = comparisonAtIndex.applyAsInt(mid);
+            if (cmp < 0) {
+                lo = mid + 1;
+            }
+            else if (cmp > 0) {
+                hi = mid - 1;
+            }
+            else {
+                return mid;
+            }
+        }
+        return -(lo + 1);
+    }
+
+    /**
+     * Computes lower bounds of many keys at once.
+     * <p>
+     * Since keys are sorted, the search for each key starts from the result for the previous
+     * key, and uses exponential search to bracket the result before finishing with binary search.
+     * Hence for m keys in an array of n items, the total cost is O(m log(n/m)) rather than
+     * O(m log n).
+     * @param a sorted array
+     * @param sortedKeys keys in ascending order
+     * @param results receives lower bound of each key at key's index. Can be the same as
+     * sortedKeys.
+     */
+    public static void lowerBounds(int[] a, int[] sortedKeys, int[] results) {
+        int start = 0;
+        for (int i = 0; i < sortedKeys.length; i++) {
+            int key = sortedKeys[i];
+            int step = 1, lo = start, hi = start;
+            // gallop until a[hi] is not less than key.
+            while (hi < a.length && a[hi] < key) {
+                lo = hi + 1;
+                hi = a.length - hi > step ? hi + step : a.length;
+                step <<= 1;
+            }
+            start = lowerBound(a, lo, hi, key);
+            results[i] = start;
+        }
+    }
+
+    public static void upperBounds(int[] a, int[] sortedKeys, int[] results) {
+        int start = 0;
+        for (int i = 0; i < sortedKeys.length; i++) {
+            int key = sortedKeys[i];
+            int step = 1, lo = start, hi = start;
+            while (hi < a.length && a[hi] <= key) {
+                lo = hi + 1;
+                hi = a.length - hi > step ? hi + step : a.length;
+                step <<= 1;
+            }
+            start = upperBound(a, lo, hi, key);
+            results[i] = start;
+        }
+    }
+
+    public static void lowerBounds(long[] a, long[] sortedKeys, int[] results) {
+        int start = 0;
+        for (int i = 0; i < sortedKeys.length; i++) {
+            long key = sortedKeys[i];
+            int step = 1, lo = start, hi = start;
+            while (hi < a.length && a[hi] < key) {
+                lo = hi + 1;
+                hi = a.length - hi > step ? hi + step : a.length;
+                step <<= 1;
+            }
+            start = lowerBound(a, lo, hi, key);
+            results[i] = start;
+        }
+    }
+
+    public static void upperBounds(long[] a, long[] sortedKeys, int[] results) {
+        int start = 0;
+        for (int i = 0; i < sortedKeys.length; i++) {
+            long key = sortedKeys[i];
+            int step = 1, lo = start, hi = start;
+            while (hi < a.length && a[hi] <= key) {
+                lo = hi + 1;
+                hi = a.length - hi > step ? hi + step : a.length;
+                step <<= 1;
+            }
+            start = upperBound(a, lo, hi, key);
+            results[i] = start;
+        }
+    }
+}
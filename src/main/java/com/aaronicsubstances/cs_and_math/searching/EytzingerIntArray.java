@@ -0,0 +1,136 @@
+package com.aaronicsubstances.cs_and_math.searching;
+
+/**
+ * Read-only copy of a sorted int array in Eytzinger (breadth-first search) order, for
+ * cache-friendly binary search over data which is searched far more often than it changes.
+ * <p>
+ * The root of the implicit search tree is stored at index 1, and the children of the item at
+ * index k are stored at indices 2k and 2k+1. So the first few levels of the tree, which every
+ * search visits, share a few cache lines, and the 16 descendants which a search can reach
+ * four levels below index k occupy the contiguous block starting at index 16k. The search loop
+ * only walks forward in memory with a predictable stride, which suits hardware prefetchers.
+ * <p>
+ * Since the tree is complete, tree indices and indices in sorted order are converted into
+ * each other in O(1) time with bit arithmetic, without storing either mapping.
+ * <p>
+ * Based on https://algorithmica.org/en/eytzinger
+ */
+public class EytzingerIntArray {
+    /**
+     * Maximum number of items, such that 2k+1 does not overflow for any tree index k.
+     */
+    public static final int MAX_SIZE = (1 << 30) - 1;
+
+    private final int[] items;
+    private final int size;
+    // depth of last level of tree, with root at depth 0.
+    private final int height;
+    // number of items in last level of tree.
+    private final int lastLevelCount;
+
+    /**
+     * Creates a new instance.
+     * @param sortedItems items in ascending order
+     * @throws IllegalArgumentException if there are more than {@link #MAX_SIZE} items.
+     */
+    public EytzingerIntArray(int[] sortedItems) {
+        if (sortedItems.length > MAX_SIZE) {
+            throw new IllegalArgumentException("too many items: " + sortedItems.length);
+        }
+        size = sortedItems.length;
+        height = size == 0 ? 0 : 31 - Integer.numberOfLeadingZeros(size);
+        lastLevelCount = size - ((1 << height) - 1);
+        items = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            items[toTreeIndex(i)] = sortedItems[i];
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets item by its index in sorted order.
+     */
+    public int get(int sortedIndex) {
+        if (sortedIndex < 0 || sortedIndex >= size) {
+            throw new IndexOutOfBoundsException("" + sortedIndex);
+        }
+        return items[toTreeIndex(sortedIndex)];
+    }
+
+    /**
+     * Finds index (in sorted order) of first item which is not less than key.
+     * @return size of array if there is no such item.
+     */
+    public int lowerBound(int key) {
+        return toSortedIndex(findLowerBoundNode(key));
+    }
+
+    /**
+     * Finds index (in sorted order) of first item which is greater than key.
+     * @return size of array if there is no such item.
+     */
+    public int upperBound(int key) {
+        int k = 1;
+        while (k <= size) {
+            k = 2 * k + (items[k] <= key ? 1 : 0);
+        }
+        return toSortedIndex(lastLeftTurn(k));
+    }
+
+    public boolean contains(int key) {
+        int k = findLowerBoundNode(key);
+        return k != 0 && items[k] == key;
+    }
+
+    /**
+     * Gets tree index of first item which is not less than key, or 0 if there is none.
+     */
+    private int findLowerBoundNode(int key) {
+        int k = 1;
+        while (k <= size) {
+            k = 2 * k + (items[k] < key ? 1 : 0);
+        }
+        return lastLeftTurn(k);
+    }
+
+    private static int lastLeftTurn(int k) {
+        // k encodes search path in its bits, with 1 for every right turn.
+        // The answer is the node at which the last left turn was taken,
+        // so strip trailing ones and then the zero preceding them.
+        return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+    }
+
+    /**
+     * Converts tree index to index in sorted order, ie in-order rank of node.
+     * @return size of array if tree index is 0.
+     */
+    private int toSortedIndex(int k) {
+        if (k == 0) {
+            return size;
+        }
+        // rank if last level were full: nodes at depth d and position j within their level
+        // have rank (2j + 1) * 2^(height - d) - 1.
+        int depth = 31 - Integer.numberOfLeadingZeros(k);
+        int j = k - (1 << depth);
+        int rank = ((2 * j + 1) << (height - depth)) - 1;
+        // in that full tree, last level nodes take the even ranks before it, and those beyond
+        // lastLevelCount are missing.
+        int lastLevelBefore = (rank + 1) >>> 1;
+        return rank - Math.max(0, lastLevelBefore - lastLevelCount);
+    }
+
+    /**
+     * Converts index in sorted order to tree index, inverting {@link #toSortedIndex(int)}.
+     */
+    private int toTreeIndex(int sortedIndex) {
+        // rank if last level were full, which skips ranks of missing last level nodes.
+        int rank = sortedIndex < 2 * lastLevelCount ? sortedIndex :
+            2 * sortedIndex - 2 * lastLevelCount + 1;
+        // rank + 1 = (2j + 1) * 2^(height - depth).
+        int shift = Integer.numberOfTrailingZeros(rank + 1) + 1;
+        return ((rank + 1) | (1 << (height + 1))) >>> shift;
+    }
+}
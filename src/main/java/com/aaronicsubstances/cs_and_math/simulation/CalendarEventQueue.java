@@ -0,0 +1,265 @@
+package com.aaronicsubstances.cs_and_math.simulation;
+
+import java.util.function.Predicate;
+
+/**
+ * Event queue based on a calendar queue, which gives amortized O(1) addition and retrieval
+ * when scheduled times are fairly uniformly distributed.
+ * <p>
+ * Events are hashed by scheduled time into an array of buckets ("days") of equal width, which
+ * wraps around every "year". Each bucket is a doubly-linked list sorted by scheduled time and
+ * id. Retrieval scans forward from the bucket of the last retrieved event for an event in the
+ * current year, and falls back to a search of all bucket heads if a whole year goes by empty.
+ * <p>
+ * The number of buckets is doubled or halved to keep it within a factor of two of the number
+ * of events. Bucket width is set to 3 times the average separation between consecutively
+ * retrieved events (or between the scheduled times of all events, until enough events have
+ * been retrieved), and is revised whenever the number of buckets changes, or whenever the
+ * observed separation drifts far from the one the width is based on.
+ * <p>
+ * Based on "Calendar Queues: A Fast O(1) Priority Queue Implementation for the Simulation
+ * Event Set Problem" by Randy Brown.
+ */
+public class CalendarEventQueue implements EventQueue {
+    private static final int MIN_BUCKET_COUNT = 16;
+    private static final int MAX_BUCKET_COUNT = 1 << 30;
+    // weight of each newly observed separation in its moving average.
+    private static final double SEPARATION_SMOOTHING_FACTOR = 1.0 / 64;
+
+    private ScheduledEvent[] bucketHeads;
+    private ScheduledEvent[] bucketTails;
+    private int bucketMask;
+    private long bucketWidth = 1;
+    private int size = 0;
+
+    // position of calendar: bucket of earliest event at last retrieval, and end of
+    // that bucket's range of times in current year.
+    private long lastTime = 0;
+    private int lastBucket = 0;
+    private long lastBucketTop = 1;
+
+    private double averageSeparation;
+    private long lastPolledTime = -1;
+    private int separationCount = 0;
+    private int pollCountSinceResize = 0;
+
+    public CalendarEventQueue() {
+        allocateBuckets(MIN_BUCKET_COUNT);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void add(ScheduledEvent event) {
+        if (event.getScheduledAt() < lastTime) {
+            moveCalendarTo(event.getScheduledAt());
+        }
+        insert(event);
+        size++;
+        if (size > 2 * bucketHeads.length && bucketHeads.length < MAX_BUCKET_COUNT) {
+            resize(bucketHeads.length << 1);
+        }
+    }
+
+    @Override
+    public void remove(ScheduledEvent event) {
+        unlink(event);
+        size--;
+        shrinkIfSparse();
+    }
+
+    @Override
+    public int removeIf(Predicate<? super ScheduledEvent> filter) {
+        int removedCount = 0;
+        for (int i = 0; i < bucketHeads.length; i++) {
+            ScheduledEvent event = bucketHeads[i];
+            while (event != null) {
+                ScheduledEvent next = event.queueNext;
+                if (filter.test(event)) {
+                    unlink(event);
+                    removedCount++;
+                }
+                event = next;
+            }
+        }
+        size -= removedCount;
+        shrinkIfSparse();
+        return removedCount;
+    }
+
+    @Override
+    public ScheduledEvent pollDue(long maxScheduledAt) {
+        ScheduledEvent earliest = findEarliest();
+        if (earliest == null || earliest.getScheduledAt() > maxScheduledAt) {
+            return null;
+        }
+        unlink(earliest);
+        size--;
+        recordSeparation(earliest.getScheduledAt());
+        shrinkIfSparse();
+        return earliest;
+    }
+
+    private ScheduledEvent findEarliest() {
+        if (size == 0) {
+            return null;
+        }
+        int bucket = lastBucket;
+        long bucketTop = lastBucketTop;
+        for (int i = 0; i < bucketHeads.length; i++) {
+            ScheduledEvent head = bucketHeads[bucket];
+            if (head != null && head.getScheduledAt() < bucketTop) {
+                lastBucket = bucket;
+                lastBucketTop = bucketTop;
+                lastTime = head.getScheduledAt();
+                return head;
+            }
+            bucket = (bucket + 1) & bucketMask;
+            bucketTop = saturatedAdd(bucketTop, bucketWidth);
+        }
+
+        // an entire year went by without finding an event, so
+        // resort to direct search of earliest event.
+        ScheduledEvent earliest = null;
+        for (ScheduledEvent head : bucketHeads) {
+            if (head != null && (earliest == null || ScheduledEvent.isBefore(head, earliest))) {
+                earliest = head;
+            }
+        }
+        moveCalendarTo(earliest.getScheduledAt());
+        return earliest;
+    }
+
+    private void moveCalendarTo(long time) {
+        lastTime = time;
+        lastBucket = (int) (time / bucketWidth) & bucketMask;
+        lastBucketTop = saturatedAdd(time - time % bucketWidth, bucketWidth);
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        return a > Long.MAX_VALUE - b ? Long.MAX_VALUE : a + b;
+    }
+
+    private void recordSeparation(long polledTime) {
+        if (lastPolledTime >= 0 && polledTime >= lastPolledTime) {
+            double separation = polledTime - lastPolledTime;
+            if (separationCount == 0) {
+                averageSeparation = separation;
+            }
+            else {
+                averageSeparation += (separation - averageSeparation) * SEPARATION_SMOOTHING_FACTOR;
+            }
+            separationCount++;
+        }
+        lastPolledTime = polledTime;
+
+        // revise width if it is far from ideal, even though size is stable.
+        if (++pollCountSinceResize >= 2 * bucketHeads.length) {
+            pollCountSinceResize = 0;
+            long idealWidth = computeBucketWidth();
+            if (idealWidth > 4 * bucketWidth || 4 * idealWidth < bucketWidth) {
+                resize(bucketHeads.length);
+            }
+        }
+    }
+
+    private void shrinkIfSparse() {
+        if (size < bucketHeads.length / 2 && bucketHeads.length > MIN_BUCKET_COUNT) {
+            resize(bucketHeads.length >> 1);
+        }
+    }
+
+    /**
+     * Computes bucket width as 3 times average separation of events, so that
+     * buckets near the front of the queue hold few events each.
+     */
+    private long computeBucketWidth() {
+        double separation;
+        if (separationCount >= MIN_BUCKET_COUNT) {
+            separation = averageSeparation;
+        }
+        else {
+            // not enough retrievals yet, so estimate from spread of pending events.
+            long minTime = Long.MAX_VALUE, maxTime = Long.MIN_VALUE;
+            for (ScheduledEvent head : bucketHeads) {
+                for (ScheduledEvent event = head; event != null; event = event.queueNext) {
+                    minTime = Math.min(minTime, event.getScheduledAt());
+                    maxTime = Math.max(maxTime, event.getScheduledAt());
+                }
+            }
+            separation = size > 1 ? (double) (maxTime - minTime) / (size - 1) : 1;
+        }
+        return Math.max(1, (long) Math.min(3 * separation, Long.MAX_VALUE / 4));
+    }
+
+    private void resize(int newBucketCount) {
+        long newBucketWidth = computeBucketWidth();
+        ScheduledEvent[] oldBucketHeads = bucketHeads;
+        allocateBuckets(newBucketCount);
+        bucketWidth = newBucketWidth;
+        pollCountSinceResize = 0;
+        for (ScheduledEvent head : oldBucketHeads) {
+            ScheduledEvent event = head;
+            while (event != null) {
+                ScheduledEvent next = event.queueNext;
+                insert(event);
+                event = next;
+            }
+        }
+        moveCalendarTo(lastTime);
+    }
+
+    private void allocateBuckets(int bucketCount) {
+        bucketHeads = new ScheduledEvent[bucketCount];
+        bucketTails = new ScheduledEvent[bucketCount];
+        bucketMask = bucketCount - 1;
+    }
+
+    private void insert(ScheduledEvent event) {
+        int bucket = (int) (event.getScheduledAt() / bucketWidth) & bucketMask;
+        event.queueIndex = bucket;
+
+        // search from tail, since later events are usually scheduled later.
+        ScheduledEvent predecessor = bucketTails[bucket];
+        while (predecessor != null && ScheduledEvent.isBefore(event, predecessor)) {
+            predecessor = predecessor.queuePrevious;
+        }
+        event.queuePrevious = predecessor;
+        if (predecessor == null) {
+            event.queueNext = bucketHeads[bucket];
+            bucketHeads[bucket] = event;
+        }
+        else {
+            event.queueNext = predecessor.queueNext;
+            predecessor.queueNext = event;
+        }
+        if (event.queueNext == null) {
+            bucketTails[bucket] = event;
+        }
+        else {
+            event.queueNext.queuePrevious = event;
+        }
+    }
+
+    private void unlink(ScheduledEvent event) {
+        int bucket = event.queueIndex;
+        if (event.queuePrevious == null) {
+            bucketHeads[bucket] = event.queueNext;
+        }
+        else {
+            event.queuePrevious.queueNext = event.queueNext;
+        }
+        if (event.queueNext == null) {
+            bucketTails[bucket] = event.queuePrevious;
+        }
+        else {
+            event.queueNext.queuePrevious = event.queuePrevious;
+        }
+        event.queueIndex = -1;
+        event.queuePrevious = null;
+        event.queueNext = null;
+    }
+}
@@ -0,0 +1,56 @@
+package com.aaronicsubstances.cs_and_math.simulation;
+
+import java.util.function.Predicate;
+
+/**
+ * Pending event set of a discrete-event simulator, ordered as defined by {@link ScheduledEvent}.
+ * <p>
+ * Implementations in this package locate events for removal through bookkeeping fields of
+ * {@link ScheduledEvent} which are only accessible within this package. Implementations
+ * elsewhere have to maintain their own index of events if they need fast removal.
+ */
+public interface EventQueue {
+
+    /**
+     * Gets number of events in queue.
+     */
+    int size();
+
+    /**
+     * Adds an event, which must not currently be in any queue.
+     */
+    void add(ScheduledEvent event);
+
+    /**
+     * Adds many events at once, which must not currently be in any queue. The default
+     * implementation adds them one by one.
+     * @param events array containing events, in any order. Implementations may reorder
+     * events within range.
+     * @param fromIndex start of range of events in array (inclusive)
+     * @param toIndex end of range of events in array (exclusive)
+     */
+    default void addAll(ScheduledEvent[] events, int fromIndex, int toIndex) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            add(events[i]);
+        }
+    }
+
+    /**
+     * Removes an event, which must currently be in this queue.
+     */
+    void remove(ScheduledEvent event);
+
+    /**
+     * Removes all events which satisfy a predicate, in O(n) time.
+     * @return number of events removed.
+     */
+    int removeIf(Predicate<? super ScheduledEvent> filter);
+
+    /**
+     * Removes and returns the earliest event, if it is scheduled at or before a given time.
+     * @param maxScheduledAt latest time of interest
+     * @return earliest event or null if queue is empty or earliest event is scheduled
+     * after maxScheduledAt.
+     */
+    ScheduledEvent pollDue(long maxScheduledAt);
+}
@@ -0,0 +1,142 @@
+package com.aaronicsubstances.cs_and_math.simulation;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads records of a trace file written by {@link EventTraceWriter} in order, through a direct
+ * buffer filled from a file channel, so that no objects are created per record.
+ * <p>
+ * Not thread-safe.
+ */
+public class EventTraceReader implements Closeable {
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(EventTraceWriter.BUFFER_SIZE);
+    private final long recordCount;
+    private long recordIndex = -1;
+    private long scheduledAt;
+    private long id;
+    private int tag;
+
+    /**
+     * Opens a trace file.
+     * @param path path of trace file
+     * @throws IOException if file cannot be opened or is not a trace file.
+     */
+    public EventTraceReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            buffer.limit(0);
+            if (size < EventTraceWriter.HEADER_SIZE || !fill(EventTraceWriter.HEADER_SIZE) ||
+                    buffer.getInt() != EventTraceWriter.MAGIC) {
+                throw new IOException("not an event trace file: " + path);
+            }
+            int version = buffer.getInt();
+            if (version != EventTraceWriter.VERSION) {
+                throw new IOException("unsupported event trace version: " + version);
+            }
+            recordCount = (size - EventTraceWriter.HEADER_SIZE) / EventTraceWriter.RECORD_SIZE;
+        }
+        catch (IOException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Ensures buffer has a given number of bytes remaining, by reading from file if necessary.
+     * @return false if file ends first.
+     */
+    private boolean fill(int byteCount) throws IOException {
+        if (buffer.remaining() >= byteCount) {
+            return true;
+        }
+        buffer.compact();
+        while (buffer.position() < byteCount) {
+            if (channel.read(buffer) < 0) {
+                buffer.flip();
+                return false;
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+
+    /**
+     * Gets total number of records in file.
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Gets zero-based index of current record, or -1 before first call to {@link #next()}.
+     */
+    public long getRecordIndex() {
+        return recordIndex;
+    }
+
+    /**
+     * Advances to next record.
+     * @return true if there is a next record; false if end of file has been reached.
+     * @throws EOFException if file ends with an incomplete record.
+     */
+    public boolean next() throws IOException {
+        if (!fill(EventTraceWriter.RECORD_SIZE)) {
+            if (buffer.hasRemaining()) {
+                throw new EOFException("incomplete record at end of event trace");
+            }
+            return false;
+        }
+        scheduledAt = buffer.getLong();
+        id = buffer.getLong();
+        tag = buffer.getInt();
+        recordIndex++;
+        return true;
+    }
+
+    public long getScheduledAt() {
+        return scheduledAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int getTag() {
+        return tag;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Compares two trace files record by record, e.g. to check that a simulation behaves the
+     * same across versions of its code.
+     * @return index of first record which differs, or which is present in only one of the files;
+     * or -1 if files have identical records.
+     */
+    public static long findFirstDifference(Path path1, Path path2) throws IOException {
+        try (EventTraceReader reader1 = new EventTraceReader(path1);
+                EventTraceReader reader2 = new EventTraceReader(path2)) {
+            while (true) {
+                boolean hasNext1 = reader1.next(), hasNext2 = reader2.next();
+                if (!hasNext1 && !hasNext2) {
+                    return -1;
+                }
+                if (hasNext1 != hasNext2 || reader1.scheduledAt != reader2.scheduledAt ||
+                        reader1.id != reader2.id || reader1.tag != reader2.tag) {
+                    return Math.max(reader1.recordIndex, reader2.recordIndex);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.aaronicsubstances.cs_and_math.simulation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+
+import com.aaronicsubstances.cs_and_math.VirtualEventLoop;
+
+/**
+ * Replays the schedule recorded in a trace file in a {@link VirtualEventLoop}, e.g. to drive a
+ * model under test with the events of an earlier run.
+ * <p>
+ * Records are read lazily: only the next record is scheduled in the event loop at any time,
+ * and its callback schedules the record after it. Hence traces of any length can be replayed
+ * without holding them in memory, and replay proceeds as time is advanced in the event loop.
+ * Records are replayed in recorded order; a record whose time is before the current time of
+ * the event loop (e.g. because the recorded run moved time backward) is replayed immediately.
+ */
+public class EventTraceReplayer {
+
+    /**
+     * Receives replayed records.
+     */
+    @FunctionalInterface
+    public interface Handler {
+        void handle(long scheduledAt, long id, int tag);
+    }
+
+    private final EventTraceReader reader;
+    private final VirtualEventLoop eventLoop;
+    private final Handler handler;
+
+    /**
+     * Creates a new instance.
+     * @param reader source of records. Replay starts from its next record, and it is not
+     * closed by this instance.
+     * @param eventLoop event loop in which to replay
+     * @param handler receives each record at its scheduled time.
+     */
+    public EventTraceReplayer(EventTraceReader reader, VirtualEventLoop eventLoop, Handler handler) {
+        Objects.requireNonNull(reader, "reader");
+        Objects.requireNonNull(eventLoop, "eventLoop");
+        Objects.requireNonNull(handler, "handler");
+        this.reader = reader;
+        this.eventLoop = eventLoop;
+        this.handler = handler;
+    }
+
+    /**
+     * Schedules first record. Subsequent records are scheduled as time is advanced in event loop.
+     * @throws UncheckedIOException if reading fails, then or during replay.
+     */
+    public void start() {
+        scheduleNext();
+    }
+
+    private void scheduleNext() {
+        try {
+            if (!reader.next()) {
+                return;
+            }
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        long scheduledAt = reader.getScheduledAt();
+        long id = reader.getId();
+        int tag = reader.getTag();
+        scheduleAt(scheduledAt, () -> {
+            handler.handle(scheduledAt, id, tag);
+            scheduleNext();
+        });
+    }
+
+    private void scheduleAt(long scheduledAt, Runnable callback) {
+        long delay = Math.max(scheduledAt - eventLoop.getCurrentTimestamp(), 0);
+        if (delay > Integer.MAX_VALUE) {
+            // too far for one timeout, so hop.
+            eventLoop.setTimeout(() -> scheduleAt(scheduledAt, callback), Integer.MAX_VALUE);
+        }
+        else {
+            eventLoop.setTimeout(callback, (int) delay);
+        }
+    }
+}
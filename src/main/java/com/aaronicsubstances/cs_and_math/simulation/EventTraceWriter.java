@@ -0,0 +1,129 @@
+package com.aaronicsubstances.cs_and_math.simulation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.function.ToIntFunction;
+
+/**
+ * Records fired events of a simulation in a compact binary trace file, for comparison of runs
+ * with {@link EventTraceReader} and replay with {@link EventTraceReplayer}. Records are
+ * written by {@link com.aaronicsubstances.cs_and_math.VirtualEventLoop} once set on it with
+ * {@link com.aaronicsubstances.cs_and_math.VirtualEventLoop#setTraceWriter(EventTraceWriter)}.
+ * <p>
+ * A trace file consists of an 8-byte header (magic number and version), followed by a 20-byte
+ * record per event: scheduled time and id as longs, and a tag identifying the callback as an
+ * int. Records are accumulated in a direct buffer and written to a file channel whenever the
+ * buffer is full, so that no objects are created per record.
+ * <p>
+ * Not thread-safe.
+ */
+public class EventTraceWriter implements Closeable {
+    static final int MAGIC = 0x56454C54;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final int RECORD_SIZE = 20;
+    static final int BUFFER_SIZE = RECORD_SIZE << 12;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final ToIntFunction<? super Runnable> tagFunction;
+    private long recordCount;
+
+    /**
+     * Creates (or truncates) a trace file in which all callbacks are tagged with 0, so that
+     * traces of runs only differ in times and ids of events. Callbacks are not tagged by class,
+     * since most callbacks are lambdas, whose class names vary between JVM runs and code
+     * versions. Use {@link #EventTraceWriter(Path, ToIntFunction)} to tag callbacks.
+     * @param path path of trace file
+     * @throws IOException if file cannot be opened
+     */
+    public EventTraceWriter(Path path) throws IOException {
+        this(path, cb -> 0);
+    }
+
+    /**
+     * Creates (or truncates) a trace file.
+     * @param path path of trace file
+     * @param tagFunction computes tag of a callback. Should be deterministic across runs and
+     * code versions, and hence should not use identity hash codes or class names of lambdas.
+     * @throws IOException if file cannot be opened
+     */
+    public EventTraceWriter(Path path, ToIntFunction<? super Runnable> tagFunction)
+            throws IOException {
+        Objects.requireNonNull(path, "path");
+        Objects.requireNonNull(tagFunction, "tagFunction");
+        this.tagFunction = tagFunction;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+    }
+
+    /**
+     * Gets number of records written so far.
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Writes a record for a fired callback.
+     * @throws UncheckedIOException if writing to file fails.
+     */
+    public void write(long scheduledAt, long id, Runnable callback) {
+        write(scheduledAt, id, tagFunction.applyAsInt(callback));
+    }
+
+    /**
+     * Writes a record.
+     * @throws UncheckedIOException if writing to file fails.
+     */
+    public void write(long scheduledAt, long id, int tag) {
+        if (buffer.remaining() < RECORD_SIZE) {
+            try {
+                drainBuffer();
+            }
+            catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        buffer.putLong(scheduledAt);
+        buffer.putLong(id);
+        buffer.putInt(tag);
+        recordCount++;
+    }
+
+    private void drainBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Writes buffered records to file.
+     */
+    public void flush() throws IOException {
+        drainBuffer();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            drainBuffer();
+        }
+        finally {
+            channel.close();
+        }
+    }
+}
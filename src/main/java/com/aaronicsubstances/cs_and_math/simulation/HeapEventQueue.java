@@ -0,0 +1,160 @@
+package com.aaronicsubstances.cs_and_math.simulation;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * Event queue based on an array-based 4-ary min-heap. Addition, removal and retrieval of an
+ * event each take O(log n) time, regardless of the distribution of scheduled times.
+ */
+public class HeapEventQueue implements EventQueue {
+    // 4 children per node makes heap shallower than a binary heap, and keeps
+    // siblings compared during sift down within one or two cache lines.
+    private static final int HEAP_ARITY_SHIFT = 2;
+    private static final int HEAP_ARITY = 1 << HEAP_ARITY_SHIFT;
+
+    private ScheduledEvent[] heap = new ScheduledEvent[16];
+    private int size = 0;
+
+    public HeapEventQueue() {
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void add(ScheduledEvent event) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, heap.length << 1);
+        }
+        siftUp(size++, event);
+    }
+
+    @Override
+    public void remove(ScheduledEvent event) {
+        removeAt(event.queueIndex);
+    }
+
+    @Override
+    public int removeIf(Predicate<? super ScheduledEvent> filter) {
+        int newSize = 0;
+        for (int i = 0; i < size; i++) {
+            ScheduledEvent event = heap[i];
+            if (filter.test(event)) {
+                event.queueIndex = -1;
+            }
+            else {
+                event.queueIndex = newSize;
+                heap[newSize++] = event;
+            }
+        }
+        int removedCount = size - newSize;
+        Arrays.fill(heap, newSize, size, null);
+        size = newSize;
+        if (removedCount > 0) {
+            heapify();
+        }
+        return removedCount;
+    }
+
+    /**
+     * Adds events in O(n + m) time if their number m is not less than the number n of
+     * events already in queue, by appending them and then rebuilding heap. Otherwise adds
+     * them one by one.
+     */
+    @Override
+    public void addAll(ScheduledEvent[] events, int fromIndex, int toIndex) {
+        int count = toIndex - fromIndex;
+        if (heap.length - size < count) {
+            heap = Arrays.copyOf(heap, Math.max(heap.length << 1, size + count));
+        }
+        if (count < size) {
+            for (int i = fromIndex; i < toIndex; i++) {
+                siftUp(size++, events[i]);
+            }
+            return;
+        }
+        for (int i = fromIndex; i < toIndex; i++) {
+            ScheduledEvent event = events[i];
+            event.queueIndex = size;
+            heap[size++] = event;
+        }
+        heapify();
+    }
+
+    /**
+     * Restores heap property bottom-up in O(n) time with Floyd's method,
+     * starting from parent of last item.
+     */
+    private void heapify() {
+        for (int i = (size - 2) >> HEAP_ARITY_SHIFT; i >= 0; i--) {
+            siftDown(i, heap[i]);
+        }
+    }
+
+    @Override
+    public ScheduledEvent pollDue(long maxScheduledAt) {
+        if (size == 0 || heap[0].getScheduledAt() > maxScheduledAt) {
+            return null;
+        }
+        ScheduledEvent earliest = heap[0];
+        removeAt(0);
+        return earliest;
+    }
+
+    private void removeAt(int heapIndex) {
+        ScheduledEvent removed = heap[heapIndex];
+        removed.queueIndex = -1;
+        size--;
+        ScheduledEvent last = heap[size];
+        heap[size] = null;
+        if (heapIndex != size) {
+            siftDown(heapIndex, last);
+            if (heap[heapIndex] == last) {
+                siftUp(heapIndex, last);
+            }
+        }
+    }
+
+    private void siftUp(int heapIndex, ScheduledEvent event) {
+        while (heapIndex > 0) {
+            int parentIndex = (heapIndex - 1) >>> HEAP_ARITY_SHIFT;
+            ScheduledEvent parent = heap[parentIndex];
+            if (!ScheduledEvent.isBefore(event, parent)) {
+                break;
+            }
+            heap[heapIndex] = parent;
+            parent.queueIndex = heapIndex;
+            heapIndex = parentIndex;
+        }
+        heap[heapIndex] = event;
+        event.queueIndex = heapIndex;
+    }
+
+    private void siftDown(int heapIndex, ScheduledEvent event) {
+        while (true) {
+            int firstChildIndex = (heapIndex << HEAP_ARITY_SHIFT) + 1;
+            if (firstChildIndex >= size) {
+                break;
+            }
+            int endChildIndex = Math.min(firstChildIndex + HEAP_ARITY, size);
+            int minChildIndex = firstChildIndex;
+            for (int i = firstChildIndex + 1; i < endChildIndex; i++) {
+                if (ScheduledEvent.isBefore(heap[i], heap[minChildIndex])) {
+                    minChildIndex = i;
+                }
+            }
+            ScheduledEvent minChild = heap[minChildIndex];
+            if (!ScheduledEvent.isBefore(minChild, event)) {
+                break;
+            }
+            heap[heapIndex] = minChild;
+            minChild.queueIndex = heapIndex;
+            heapIndex = minChildIndex;
+        }
+        heap[heapIndex] = event;
+        event.queueIndex = heapIndex;
+    }
+}
@@ -0,0 +1,108 @@
+package com.aaronicsubstances.cs_and_math.simulation;
+
+/**
+ * Accumulates count, mean, variance, minimum and maximum of a stream of values in O(1) space,
+ * with Welford's numerically stable update.
+ * <p>
+ * Instances can be merged, so that values can be accumulated in parts (e.g. by different
+ * threads) and then combined, with the pairwise update of Chan, Golub and LeVeque.
+ */
+public class OnlineStatistics {
+    private long count;
+    private double mean;
+    // sum of squares of differences from mean.
+    private double m2;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        if (count == 1) {
+            min = value;
+            max = value;
+        }
+        else {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+    }
+
+    /**
+     * Adds values accumulated by another instance to this one.
+     */
+    public void merge(OnlineStatistics other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            m2 = other.m2;
+            min = other.min;
+            max = other.max;
+            return;
+        }
+        long newCount = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / newCount;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / newCount);
+        count = newCount;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets mean of values, or NaN if there are no values.
+     */
+    public double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /**
+     * Gets sample variance of values (ie with Bessel's correction), or NaN if there are less than
+     * two values.
+     */
+    public double getVariance() {
+        return count < 2 ? Double.NaN : m2 / (count - 1);
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Gets estimated standard deviation of mean, ie standard deviation divided by square root of
+     * count. Confidence intervals of mean are multiples of this value on either side of mean,
+     * e.g. 1.96 times this value for a 95% confidence interval with many values.
+     */
+    public double getStandardError() {
+        return Math.sqrt(getVariance() / count);
+    }
+
+    /**
+     * Gets minimum of values, or NaN if there are no values.
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * Gets maximum of values, or NaN if there are no values.
+     */
+    public double getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "OnlineStatistics{count=" + count + ", mean=" + getMean() + ", variance=" +
+            getVariance() + ", min=" + min + ", max=" + max + "}";
+    }
+}
@@ -0,0 +1,139 @@
+package com.aaronicsubstances.cs_and_math.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Estimates a quantile (e.g. the median or 95th percentile) of a stream of values in O(1) space,
+ * without storing the values.
+ * <p>
+ * Five markers track the minimum, the maximum, the desired quantile and the quantiles midway
+ * between it and the extremes. After every value, markers which have drifted from their
+ * desired positions are moved by one position, and their heights adjusted with a piecewise
+ * parabolic (hence P-squared) formula.
+ * <p>
+ * Based on "The P-Square Algorithm for Dynamic Calculation of Quantiles and Histograms
+ * Without Storing Observations" by Raj Jain and Imrich Chlamtac.
+ */
+public class P2QuantileEstimator {
+    private static final int MARKER_COUNT = 5;
+
+    private final double quantile;
+    private final double[] heights = new double[MARKER_COUNT];
+    private final int[] positions = new int[MARKER_COUNT];
+    private final double[] desiredPositions = new double[MARKER_COUNT];
+    private final double[] increments = new double[MARKER_COUNT];
+    private long count;
+
+    /**
+     * Creates a new instance.
+     * @param quantile quantile to estimate, between 0 and 1 inclusive. E.g. 0.5 for median.
+     */
+    public P2QuantileEstimator(double quantile) {
+        if (!(quantile >= 0 && quantile <= 1)) {
+            throw new IllegalArgumentException("quantile must be between 0 and 1: " + quantile);
+        }
+        this.quantile = quantile;
+        for (int i = 0; i < MARKER_COUNT; i++) {
+            positions[i] = i;
+        }
+        desiredPositions[0] = 0;
+        desiredPositions[1] = 2 * quantile;
+        desiredPositions[2] = 4 * quantile;
+        desiredPositions[3] = 2 + 2 * quantile;
+        desiredPositions[4] = 4;
+        increments[0] = 0;
+        increments[1] = quantile / 2;
+        increments[2] = quantile;
+        increments[3] = (1 + quantile) / 2;
+        increments[4] = 1;
+    }
+
+    public double getQuantile() {
+        return quantile;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void add(double value) {
+        if (count < MARKER_COUNT) {
+            heights[(int) count++] = value;
+            if (count == MARKER_COUNT) {
+                Arrays.sort(heights);
+            }
+            return;
+        }
+        count++;
+
+        // find cell containing value, extending extremes if necessary.
+        int k;
+        if (value < heights[0]) {
+            heights[0] = value;
+            k = 0;
+        }
+        else if (value >= heights[MARKER_COUNT - 1]) {
+            heights[MARKER_COUNT - 1] = value;
+            k = MARKER_COUNT - 2;
+        }
+        else {
+            k = 0;
+            while (value >= heights[k + 1]) {
+                k++;
+            }
+        }
+        for (int i = k + 1; i < MARKER_COUNT; i++) {
+            positions[i]++;
+        }
+        for (int i = 0; i < MARKER_COUNT; i++) {
+            desiredPositions[i] += increments[i];
+        }
+
+        // adjust middle markers.
+        for (int i = 1; i < MARKER_COUNT - 1; i++) {
+            double d = desiredPositions[i] - positions[i];
+            if ((d >= 1 && positions[i + 1] - positions[i] > 1) ||
+                    (d <= -1 && positions[i - 1] - positions[i] < -1)) {
+                int sign = d > 0 ? 1 : -1;
+                double candidate = parabolic(i, sign);
+                if (heights[i - 1] < candidate && candidate < heights[i + 1]) {
+                    heights[i] = candidate;
+                }
+                else {
+                    heights[i] = linear(i, sign);
+                }
+                positions[i] += sign;
+            }
+        }
+    }
+
+    private double parabolic(int i, int sign) {
+        double n = positions[i], nPrev = positions[i - 1], nNext = positions[i + 1];
+        return heights[i] + sign / (nNext - nPrev) * (
+            (n - nPrev + sign) * (heights[i + 1] - heights[i]) / (nNext - n) +
+            (nNext - n - sign) * (heights[i] - heights[i - 1]) / (n - nPrev));
+    }
+
+    private double linear(int i, int sign) {
+        return heights[i] + sign * (heights[i + sign] - heights[i]) /
+            (positions[i + sign] - positions[i]);
+    }
+
+    /**
+     * Gets estimate of quantile, or NaN if there are no values. Exact if there are at most five
+     * values.
+     */
+    public double getEstimate() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (count <= MARKER_COUNT) {
+            double[] sorted = Arrays.copyOf(heights, (int) count);
+            Arrays.sort(sorted);
+            // nearest rank.
+            int rank = (int) Math.ceil(quantile * count);
+            return sorted[Math.max(rank - 1, 0)];
+        }
+        return heights[2];
+    }
+}
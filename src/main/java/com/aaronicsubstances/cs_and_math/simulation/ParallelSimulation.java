@@ -0,0 +1,242 @@
+package com.aaronicsubstances.cs_and_math.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.aaronicsubstances.cs_and_math.VirtualEventLoop;
+
+/**
+ * Conservative parallel discrete-event simulation, in which each of several
+ * {@link VirtualEventLoop} instances is a logical process run on its own thread.
+ * <p>
+ * Logical processes interact only by sending timestamped messages with
+ * {@link #send(int, int, int, Runnable)}, whose delays must not be less than a lookahead
+ * fixed at construction. Time is advanced in windows of the lookahead's length: every logical
+ * process runs the events of a window independently of the others, and then waits at a
+ * barrier for all of them to finish the window. Since a message sent during a window is due
+ * after the window ends, no logical process can receive a message in its past, and messages
+ * are delivered at the barrier. Hence the larger the lookahead relative to the time between
+ * events, the more events are run in parallel per barrier.
+ * <p>
+ * Messages are buffered per pair of sender and receiver, in buffers which alternate between
+ * consecutive windows, so that sending requires no synchronization. Messages to a logical
+ * process are delivered in order of sender index and then order of sending, so that results
+ * are deterministic regardless of thread scheduling.
+ * <p>
+ * Based on the "YAWNS" windowing protocol described in "Parallel and Distributed
+ * Simulation Systems" by Richard Fujimoto.
+ */
+public class ParallelSimulation {
+    private final List<VirtualEventLoop> logicalProcesses;
+    private final int lookahead;
+    // indexed by window parity, sender index and then receiver index.
+    private final List<List<List<Message>>> outboxes = new ArrayList<>();
+    private final int[] windowParities;
+    private final Thread[] threads;
+    private long currentTimestamp;
+    // decided once per window by barrier action, so that all threads agree on it.
+    private boolean stopRequested;
+
+    /**
+     * Creates a new instance.
+     * @param logicalProcesses event loops of logical processes. All must be at the same
+     * current timestamp, and should not be accessed by any thread other than their own
+     * during calls to {@link #runUntil(long)}.
+     * @param lookahead minimum delay of messages between logical processes. Must be positive.
+     */
+    public ParallelSimulation(List<VirtualEventLoop> logicalProcesses, int lookahead) {
+        Objects.requireNonNull(logicalProcesses, "logicalProcesses");
+        if (logicalProcesses.isEmpty()) {
+            throw new IllegalArgumentException("no logical processes");
+        }
+        if (lookahead < 1) {
+            throw new IllegalArgumentException("lookahead must be positive: " + lookahead);
+        }
+        this.currentTimestamp = logicalProcesses.get(0).getCurrentTimestamp();
+        for (VirtualEventLoop logicalProcess : logicalProcesses) {
+            if (logicalProcess.getCurrentTimestamp() != currentTimestamp) {
+                throw new IllegalArgumentException("logical processes have different " +
+                    "current timestamps");
+            }
+        }
+        this.logicalProcesses = new ArrayList<>(logicalProcesses);
+        this.lookahead = lookahead;
+        int count = logicalProcesses.size();
+        for (int parity = 0; parity < 2; parity++) {
+            List<List<Message>> senderOutboxes = new ArrayList<>();
+            for (int i = 0; i < count * count; i++) {
+                senderOutboxes.add(new ArrayList<>());
+            }
+            outboxes.add(senderOutboxes);
+        }
+        this.windowParities = new int[count];
+        this.threads = new Thread[count];
+    }
+
+    public int getLogicalProcessCount() {
+        return logicalProcesses.size();
+    }
+
+    public VirtualEventLoop getLogicalProcess(int index) {
+        return logicalProcesses.get(index);
+    }
+
+    public int getLookahead() {
+        return lookahead;
+    }
+
+    /**
+     * Gets the timestamp up to which all logical processes have been run.
+     */
+    public long getCurrentTimestamp() {
+        return currentTimestamp;
+    }
+
+    /**
+     * Sends a message from one logical process to another (or to itself). Must be called by
+     * a callback of the sending logical process during {@link #runUntil(long)}.
+     * @param senderIndex index of sending logical process
+     * @param receiverIndex index of receiving logical process
+     * @param delay delay after current timestamp of sender at which message is due. Must not
+     * be less than lookahead.
+     * @param callback callback to run in receiving logical process when message is due.
+     */
+    public void send(int senderIndex, int receiverIndex, int delay, Runnable callback) {
+        if (callback == null) {
+            throw new IllegalArgumentException("null callback");
+        }
+        if (delay < lookahead) {
+            throw new IllegalArgumentException("delay less than lookahead: " + delay);
+        }
+        if (receiverIndex < 0 || receiverIndex >= logicalProcesses.size()) {
+            throw new IllegalArgumentException("invalid receiver index: " + receiverIndex);
+        }
+        if (senderIndex < 0 || senderIndex >= logicalProcesses.size() ||
+                threads[senderIndex] != Thread.currentThread()) {
+            throw new IllegalStateException("send must be called from thread of sender " +
+                "during run: " + senderIndex);
+        }
+        long dueTimestamp = logicalProcesses.get(senderIndex).getCurrentTimestamp() + delay;
+        outboxes.get(windowParities[senderIndex])
+            .get(senderIndex * logicalProcesses.size() + receiverIndex)
+            .add(new Message(dueTimestamp, callback));
+    }
+
+    /**
+     * Runs all logical processes in parallel, up to and including a given timestamp. The
+     * calling thread runs the first logical process, and a new thread is started for each
+     * of the others.
+     * @param endTimestamp timestamp to advance all logical processes to. Must not be less than
+     * current timestamp.
+     * @throws RuntimeException if a callback of any logical process fails, after all threads
+     * have stopped.
+     */
+    public void runUntil(long endTimestamp) throws InterruptedException {
+        if (endTimestamp < currentTimestamp) {
+            throw new IllegalArgumentException("end timestamp is before current timestamp: " +
+                endTimestamp);
+        }
+        int count = logicalProcesses.size();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        stopRequested = false;
+        CyclicBarrier barrier = new CyclicBarrier(count,
+            () -> stopRequested = failure.get() != null);
+        for (int i = 1; i < count; i++) {
+            int index = i;
+            threads[i] = new Thread(() -> runLogicalProcess(index, endTimestamp, barrier, failure),
+                "ParallelSimulation-" + i);
+        }
+        threads[0] = Thread.currentThread();
+        try {
+            for (int i = 1; i < count; i++) {
+                threads[i].start();
+            }
+            runLogicalProcess(0, endTimestamp, barrier, failure);
+            for (int i = 1; i < count; i++) {
+                threads[i].join();
+            }
+        }
+        finally {
+            for (int i = 0; i < count; i++) {
+                threads[i] = null;
+            }
+        }
+        Throwable error = failure.get();
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        if (error instanceof Error) {
+            throw (Error) error;
+        }
+        if (error != null) {
+            throw new RuntimeException(error);
+        }
+        currentTimestamp = endTimestamp;
+    }
+
+    private void runLogicalProcess(int index, long endTimestamp, CyclicBarrier barrier,
+            AtomicReference<Throwable> failure) {
+        VirtualEventLoop logicalProcess = logicalProcesses.get(index);
+        // start with a window for events scheduled at current timestamp since last run,
+        // since messages they send are due as early as the end of the first full window.
+        long windowEnd = currentTimestamp;
+        while (true) {
+            if (failure.get() == null) {
+                try {
+                    logicalProcess.advanceTimeTo(windowEnd);
+                }
+                catch (Throwable ex) {
+                    failure.compareAndSet(null, ex);
+                }
+            }
+            try {
+                barrier.await();
+            }
+            catch (InterruptedException | BrokenBarrierException ex) {
+                failure.compareAndSet(null, ex);
+                barrier.reset();
+                return;
+            }
+            // a fast thread may fail in next window before a slow one gets here,
+            // so failure is not checked directly.
+            if (stopRequested) {
+                return;
+            }
+            deliverMessages(index);
+            if (windowEnd == endTimestamp) {
+                return;
+            }
+            windowEnd = Math.min(windowEnd + lookahead, endTimestamp);
+        }
+    }
+
+    private void deliverMessages(int receiverIndex) {
+        int count = logicalProcesses.size();
+        int parity = windowParities[receiverIndex];
+        VirtualEventLoop receiver = logicalProcesses.get(receiverIndex);
+        for (int senderIndex = 0; senderIndex < count; senderIndex++) {
+            List<Message> inbox = outboxes.get(parity).get(senderIndex * count + receiverIndex);
+            for (Message message : inbox) {
+                // messages are due after end of window, and hence the delay fits in an int.
+                receiver.setTimeout(message.callback,
+                    (int) (message.dueTimestamp - receiver.getCurrentTimestamp()));
+            }
+            inbox.clear();
+        }
+        windowParities[receiverIndex] = 1 - parity;
+    }
+
+    private static class Message {
+        public final long dueTimestamp;
+        public final Runnable callback;
+
+        public Message(long dueTimestamp, Runnable callback) {
+            this.dueTimestamp = dueTimestamp;
+            this.callback = callback;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.aaronicsubstances.cs_and_math.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Event queue based on a persistent treap, ie a treap whose nodes are never modified once
+ * created. Addition, removal and retrieval of an event each take O(log n) expected time, and
+ * copy only the O(log n) nodes on the path to the affected node.
+ * <p>
+ * Hence {@link #snapshot()} takes O(1) time: a snapshot shares all nodes with the queue it was
+ * taken from, and the two evolve independently afterwards. Since an event can then be in many
+ * queues at once, events must not be rescheduled while in any queue.
+ * <p>
+ * Node priorities are derived from the scheduled time and id of events, so that the shape of
+ * the treap, and hence performance, is reproducible.
+ */
+public class PersistentEventQueue implements EventQueue {
+    private Node root;
+
+    public PersistentEventQueue() {
+    }
+
+    private PersistentEventQueue(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Creates a copy of this queue in O(1) time.
+     */
+    public PersistentEventQueue snapshot() {
+        return new PersistentEventQueue(root);
+    }
+
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * Determines whether an event is in this queue.
+     */
+    public boolean contains(ScheduledEvent event) {
+        Node node = root;
+        while (node != null) {
+            int cmp = ScheduledEvent.compare(event, node.event);
+            if (cmp == 0) {
+                return node.event == event;
+            }
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    /**
+     * Finds event with a given scheduled time and id.
+     * @return event or null if not found.
+     */
+    public ScheduledEvent find(long scheduledAt, long id) {
+        Node node = root;
+        while (node != null) {
+            ScheduledEvent event = node.event;
+            int cmp = Long.compare(scheduledAt, event.getScheduledAt());
+            if (cmp == 0) {
+                cmp = Long.compare(id, event.getId());
+            }
+            if (cmp == 0) {
+                return event;
+            }
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    @Override
+    public void add(ScheduledEvent event) {
+        root = insert(root, event, priorityOf(event));
+    }
+
+    private static Node insert(Node node, ScheduledEvent event, int priority) {
+        if (node == null) {
+            return new Node(event, priority, null, null);
+        }
+        if (ScheduledEvent.isBefore(event, node.event)) {
+            Node left = insert(node.left, event, priority);
+            if (left.priority > node.priority) {
+                // rotate right.
+                return new Node(left.event, left.priority, left.left,
+                    new Node(node.event, node.priority, left.right, node.right));
+            }
+            return new Node(node.event, node.priority, left, node.right);
+        }
+        else {
+            Node right = insert(node.right, event, priority);
+            if (right.priority > node.priority) {
+                // rotate left.
+                return new Node(right.event, right.priority,
+                    new Node(node.event, node.priority, node.left, right.left), right.right);
+            }
+            return new Node(node.event, node.priority, node.left, right);
+        }
+    }
+
+    /**
+     * Adds events in O(n + m log m) time if their number m is not much less than the number n
+     * of events already in queue, by sorting them, merging them with events in queue and then
+     * rebuilding treap. Otherwise adds them one by one, which preserves more of the nodes
+     * shared with snapshots.
+     */
+    @Override
+    public void addAll(ScheduledEvent[] events, int fromIndex, int toIndex) {
+        int count = toIndex - fromIndex;
+        int size = size();
+        if (count < size >>> 4) {
+            for (int i = fromIndex; i < toIndex; i++) {
+                add(events[i]);
+            }
+            return;
+        }
+        Arrays.sort(events, fromIndex, toIndex, ScheduledEvent::compare);
+        List<ScheduledEvent> existing = new ArrayList<>(size);
+        collect(root, e -> false, existing);
+        List<ScheduledEvent> merged = new ArrayList<>(size + count);
+        int i = 0, j = fromIndex;
+        while (i < size && j < toIndex) {
+            if (ScheduledEvent.isBefore(events[j], existing.get(i))) {
+                merged.add(events[j++]);
+            }
+            else {
+                merged.add(existing.get(i++));
+            }
+        }
+        merged.addAll(existing.subList(i, size));
+        while (j < toIndex) {
+            merged.add(events[j++]);
+        }
+        root = build(merged);
+    }
+
+    /**
+     * Removes an event. Does nothing if event is not in this queue.
+     */
+    @Override
+    public void remove(ScheduledEvent event) {
+        if (contains(event)) {
+            root = delete(root, event);
+        }
+    }
+
+    private static Node delete(Node node, ScheduledEvent event) {
+        int cmp = ScheduledEvent.compare(event, node.event);
+        if (cmp < 0) {
+            return new Node(node.event, node.priority, delete(node.left, event), node.right);
+        }
+        if (cmp > 0) {
+            return new Node(node.event, node.priority, node.left, delete(node.right, event));
+        }
+        return merge(node.left, node.right);
+    }
+
+    /**
+     * Joins two treaps, all of whose events in the first come before those in the second.
+     */
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            return new Node(left.event, left.priority, left.left, merge(left.right, right));
+        }
+        return new Node(right.event, right.priority, merge(left, right.left), right.right);
+    }
+
+    @Override
+    public int removeIf(Predicate<? super ScheduledEvent> filter) {
+        List<ScheduledEvent> kept = new ArrayList<>();
+        collect(root, filter, kept);
+        int removedCount = size() - kept.size();
+        if (removedCount > 0) {
+            root = build(kept);
+        }
+        return removedCount;
+    }
+
+    private static void collect(Node node, Predicate<? super ScheduledEvent> filter,
+            List<ScheduledEvent> kept) {
+        if (node == null) {
+            return;
+        }
+        collect(node.left, filter, kept);
+        if (!filter.test(node.event)) {
+            kept.add(node.event);
+        }
+        collect(node.right, filter, kept);
+    }
+
+    /**
+     * Builds treap from events in order in O(n) time, by building Cartesian tree of priorities
+     * with a stack of nodes on the rightmost path.
+     */
+    private static Node build(List<ScheduledEvent> sortedEvents) {
+        // nodes are mutable during building only, by being rebuilt when their
+        // right child changes.
+        List<Node> rightPath = new ArrayList<>();
+        for (ScheduledEvent event : sortedEvents) {
+            int priority = priorityOf(event);
+            Node lastPopped = null;
+            while (!rightPath.isEmpty() && rightPath.get(rightPath.size() - 1).priority < priority) {
+                Node top = rightPath.remove(rightPath.size() - 1);
+                lastPopped = new Node(top.event, top.priority, top.left, lastPopped);
+            }
+            rightPath.add(new Node(event, priority, lastPopped, null));
+        }
+        Node result = null;
+        for (int i = rightPath.size() - 1; i >= 0; i--) {
+            Node node = rightPath.get(i);
+            result = new Node(node.event, node.priority, node.left, result);
+        }
+        return result;
+    }
+
+    @Override
+    public ScheduledEvent pollDue(long maxScheduledAt) {
+        if (root == null) {
+            return null;
+        }
+        Node earliest = root;
+        while (earliest.left != null) {
+            earliest = earliest.left;
+        }
+        if (earliest.event.getScheduledAt() > maxScheduledAt) {
+            return null;
+        }
+        root = deleteFirst(root);
+        return earliest.event;
+    }
+
+    private static Node deleteFirst(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        return new Node(node.event, node.priority, deleteFirst(node.left), node.right);
+    }
+
+    private static int priorityOf(ScheduledEvent event) {
+        // murmur3 finalizer.
+        long h = event.getId() * 31 + event.getScheduledAt();
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private static class Node {
+        public final ScheduledEvent event;
+        public final int priority;
+        public final Node left, right;
+        public final int size;
+
+        public Node(ScheduledEvent event, int priority, Node left, Node right) {
+            this.event = event;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.size = 1 + PersistentEventQueue.size(left) + PersistentEventQueue.size(right);
+        }
+    }
+}
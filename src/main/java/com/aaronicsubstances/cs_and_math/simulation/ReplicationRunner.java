@@ -0,0 +1,202 @@
+package com.aaronicsubstances.cs_and_math.simulation;
+
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+import com.aaronicsubstances.cs_and_math.VirtualEventLoop;
+
+/**
+ * Runs independent replications of a simulation in parallel on a fork/join pool, and
+ * aggregates the metrics they produce as they complete.
+ * <p>
+ * Every replication gets a fresh {@link VirtualEventLoop} and its own random number generator,
+ * split from a generator seeded by the caller. Generators are split in order of replication
+ * before any replication runs, so that replication i sees the same random numbers for the
+ * same seed regardless of thread scheduling.
+ * <p>
+ * Metrics of replications are aggregated online, ie without being stored, into an
+ * {@link OnlineStatistics} instance per metric, and a {@link P2QuantileEstimator} per metric
+ * and requested quantile. Aggregation order follows order of completion, and so the
+ * aggregates can differ across runs in rounding and in quantile estimates.
+ */
+public class ReplicationRunner {
+
+    /**
+     * Simulation model to be replicated.
+     */
+    @FunctionalInterface
+    public interface Model {
+
+        /**
+         * Builds model into an event loop, runs the simulation and returns its metrics.
+         * @param eventLoop fresh event loop dedicated to replication
+         * @param random random number generator dedicated to replication
+         * @return values of metrics, in the same order and of the same count for every replication
+         */
+        double[] run(VirtualEventLoop eventLoop, SplittableRandom random);
+    }
+
+    private final ForkJoinPool pool;
+    private final Supplier<VirtualEventLoop> eventLoopFactory;
+    private final double[] quantiles;
+
+    /**
+     * Creates an instance which uses the common fork/join pool and default event loops.
+     * @param quantiles quantiles of metrics to estimate. E.g. 0.5, 0.95
+     */
+    public ReplicationRunner(double... quantiles) {
+        this(ForkJoinPool.commonPool(), VirtualEventLoop::new, quantiles);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param pool fork/join pool to run replications on
+     * @param eventLoopFactory creates event loop of each replication, e.g. to use a particular
+     * {@link EventQueue}.
+     * @param quantiles quantiles of metrics to estimate. E.g. 0.5, 0.95
+     */
+    public ReplicationRunner(ForkJoinPool pool, Supplier<VirtualEventLoop> eventLoopFactory,
+            double... quantiles) {
+        Objects.requireNonNull(pool, "pool");
+        Objects.requireNonNull(eventLoopFactory, "eventLoopFactory");
+        for (double quantile : quantiles) {
+            if (!(quantile >= 0 && quantile <= 1)) {
+                throw new IllegalArgumentException("quantile must be between 0 and 1: " + quantile);
+            }
+        }
+        this.pool = pool;
+        this.eventLoopFactory = eventLoopFactory;
+        this.quantiles = quantiles.clone();
+    }
+
+    /**
+     * Runs replications of a model and waits for all of them to complete.
+     * @param replicationCount number of replications
+     * @param seed seed of generator from which the generators of replications are split
+     * @param metricCount number of metrics returned by each replication
+     * @param model model to replicate
+     * @return aggregates of metrics
+     * @throws RuntimeException if any replication fails, or returns the wrong number of metrics.
+     */
+    public Summary run(int replicationCount, long seed, int metricCount, Model model) {
+        if (replicationCount < 0) {
+            throw new IllegalArgumentException("negative replication count: " + replicationCount);
+        }
+        if (metricCount < 0) {
+            throw new IllegalArgumentException("negative metric count: " + metricCount);
+        }
+        Objects.requireNonNull(model, "model");
+        SplittableRandom seedGenerator = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[replicationCount];
+        for (int i = 0; i < randoms.length; i++) {
+            randoms[i] = seedGenerator.split();
+        }
+        Summary summary = new Summary(metricCount, quantiles);
+        if (replicationCount > 0) {
+            pool.invoke(new ReplicationTask(randoms, 0, replicationCount, model, summary));
+        }
+        return summary;
+    }
+
+    private class ReplicationTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final SplittableRandom[] randoms;
+        private final int lo, hi;
+        private final Model model;
+        private final Summary summary;
+
+        public ReplicationTask(SplittableRandom[] randoms, int lo, int hi, Model model,
+                Summary summary) {
+            this.randoms = randoms;
+            this.lo = lo;
+            this.hi = hi;
+            this.model = model;
+            this.summary = summary;
+        }
+
+        @Override
+        protected void compute() {
+            // replications are coarse grained enough to be forked one by one.
+            if (hi - lo == 1) {
+                double[] metrics = model.run(eventLoopFactory.get(), randoms[lo]);
+                summary.add(lo, metrics);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new ReplicationTask(randoms, lo, mid, model, summary),
+                new ReplicationTask(randoms, mid, hi, model, summary));
+        }
+    }
+
+    /**
+     * Aggregates of metrics of replications.
+     */
+    public static class Summary {
+        private final OnlineStatistics[] statistics;
+        private final double[] quantiles;
+        // indexed by metric index, then by quantile index.
+        private final P2QuantileEstimator[][] quantileEstimators;
+        private long replicationCount;
+
+        Summary(int metricCount, double[] quantiles) {
+            this.quantiles = quantiles;
+            statistics = new OnlineStatistics[metricCount];
+            quantileEstimators = new P2QuantileEstimator[metricCount][quantiles.length];
+            for (int i = 0; i < metricCount; i++) {
+                statistics[i] = new OnlineStatistics();
+                for (int j = 0; j < quantiles.length; j++) {
+                    quantileEstimators[i][j] = new P2QuantileEstimator(quantiles[j]);
+                }
+            }
+        }
+
+        synchronized void add(int replicationIndex, double[] metrics) {
+            if (metrics == null || metrics.length != statistics.length) {
+                throw new IllegalStateException("replication " + replicationIndex +
+                    " did not return " + statistics.length + " metrics");
+            }
+            replicationCount++;
+            for (int i = 0; i < metrics.length; i++) {
+                statistics[i].add(metrics[i]);
+                for (P2QuantileEstimator estimator : quantileEstimators[i]) {
+                    estimator.add(metrics[i]);
+                }
+            }
+        }
+
+        public int getMetricCount() {
+            return statistics.length;
+        }
+
+        public synchronized long getReplicationCount() {
+            return replicationCount;
+        }
+
+        /**
+         * Gets count, mean, variance, etc of a metric.
+         */
+        public synchronized OnlineStatistics getStatistics(int metricIndex) {
+            OnlineStatistics copy = new OnlineStatistics();
+            copy.merge(statistics[metricIndex]);
+            return copy;
+        }
+
+        /**
+         * Gets estimate of a quantile of a metric.
+         * @param metricIndex index of metric
+         * @param quantile one of the quantiles given at construction of runner.
+         */
+        public synchronized double getQuantile(int metricIndex, double quantile) {
+            for (int j = 0; j < quantiles.length; j++) {
+                if (quantiles[j] == quantile) {
+                    return quantileEstimators[metricIndex][j].getEstimate();
+                }
+            }
+            throw new IllegalArgumentException("quantile was not requested: " + quantile);
+        }
+    }
+}
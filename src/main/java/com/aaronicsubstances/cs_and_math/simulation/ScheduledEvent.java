@@ -0,0 +1,67 @@
+package com.aaronicsubstances.cs_and_math.simulation;
+
+/**
+ * Base class of items stored in an {@link EventQueue}.
+ * <p>
+ * Events are ordered by scheduled time, and then by id. Ids are expected to increase in order
+ * of scheduling, so that events scheduled for the same time are retrieved in FIFO order.
+ */
+public class ScheduledEvent {
+    private long id;
+    private long scheduledAt;
+
+    // bookkeeping of the event queue containing this event, which
+    // enables removal of event without searching.
+    int queueIndex = -1;
+    ScheduledEvent queuePrevious;
+    ScheduledEvent queueNext;
+
+    public ScheduledEvent(long id, long scheduledAt) {
+        if (scheduledAt < 0) {
+            throw new IllegalArgumentException("negative scheduled time: " + scheduledAt);
+        }
+        this.id = id;
+        this.scheduledAt = scheduledAt;
+    }
+
+    /**
+     * Changes id and scheduled time, so that an event can be reused instead of allocating a new
+     * one. Must not be called while event is in an event queue.
+     */
+    protected void reschedule(long id, long scheduledAt) {
+        if (scheduledAt < 0) {
+            throw new IllegalArgumentException("negative scheduled time: " + scheduledAt);
+        }
+        this.id = id;
+        this.scheduledAt = scheduledAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getScheduledAt() {
+        return scheduledAt;
+    }
+
+    /**
+     * Determines whether an event comes before another in event queue order.
+     */
+    public static boolean isBefore(ScheduledEvent a, ScheduledEvent b) {
+        if (a.scheduledAt != b.scheduledAt) {
+            return a.scheduledAt < b.scheduledAt;
+        }
+        return a.id < b.id;
+    }
+
+    /**
+     * Compares events in event queue order.
+     */
+    public static int compare(ScheduledEvent a, ScheduledEvent b) {
+        int result = Long.compare(a.scheduledAt, b.scheduledAt);
+        if (result == 0) {
+            result = Long.compare(a.id, b.id);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,242 @@
+package com.aaronicsubstances.cs_and_math.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Event queue based on hierarchical timing wheels, with a tick of one time unit.
+ * <p>
+ * There are 11 levels of 64 slots, which together cover every non-negative long time. The
+ * wheel maintains a current time which never exceeds the scheduled time of any event in it.
+ * An event is placed at the level of the highest 6-bit digit in which its scheduled time
+ * differs from current time, in the slot given by that digit. Hence slots at the lowest level
+ * hold events for exactly one time, and slots at higher levels hold events for a range of
+ * times. Each slot is a doubly-linked list in order of insertion.
+ * <p>
+ * Addition and removal take O(1) time. Retrieval moves current time forward to the next
+ * non-empty slot, found with a bit scan per level, and cascades the events of a higher level
+ * slot into lower levels when current time moves into the slot's range. Each event is cascaded
+ * at most 10 times, so retrieval takes amortized O(1) time. Events cascaded from a slot arrive
+ * in lower levels before any event added directly, which preserves FIFO order of events
+ * scheduled for the same time.
+ * <p>
+ * Adding an event scheduled before current time (which happens when a simulation moves time
+ * backward) requires rebuilding the wheel in O(n log n) time.
+ * <p>
+ * Based on "Hashed and Hierarchical Timing Wheels" by George Varghese and Tony Lauck.
+ */
+public class TimingWheelEventQueue implements EventQueue {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS_PER_LEVEL = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS_PER_LEVEL - 1;
+    private static final int LEVEL_COUNT = (Long.SIZE - 1 + SLOT_BITS - 1) / SLOT_BITS;
+
+    private final ScheduledEvent[] slotHeads = new ScheduledEvent[LEVEL_COUNT * SLOTS_PER_LEVEL];
+    private final ScheduledEvent[] slotTails = new ScheduledEvent[LEVEL_COUNT * SLOTS_PER_LEVEL];
+    // bit set of non-empty slots at each level.
+    private final long[] occupiedSlots = new long[LEVEL_COUNT];
+    private long currentTime = 0;
+    private int size = 0;
+
+    public TimingWheelEventQueue() {
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void add(ScheduledEvent event) {
+        if (event.getScheduledAt() < currentTime) {
+            rewind(event.getScheduledAt());
+        }
+        insert(event);
+        size++;
+    }
+
+    @Override
+    public void remove(ScheduledEvent event) {
+        unlink(event);
+        size--;
+    }
+
+    @Override
+    public int removeIf(Predicate<? super ScheduledEvent> filter) {
+        int removedCount = 0;
+        for (int level = 0; level < LEVEL_COUNT; level++) {
+            long remainingSlots = occupiedSlots[level];
+            while (remainingSlots != 0) {
+                int slot = Long.numberOfTrailingZeros(remainingSlots);
+                remainingSlots &= remainingSlots - 1;
+                ScheduledEvent event = slotHeads[level * SLOTS_PER_LEVEL + slot];
+                while (event != null) {
+                    ScheduledEvent next = event.queueNext;
+                    if (filter.test(event)) {
+                        unlink(event);
+                        removedCount++;
+                    }
+                    event = next;
+                }
+            }
+        }
+        size -= removedCount;
+        return removedCount;
+    }
+
+    @Override
+    public ScheduledEvent pollDue(long maxScheduledAt) {
+        while (true) {
+            int digit = (int) currentTime & SLOT_MASK;
+            long candidateSlots = occupiedSlots[0] & (-1L << digit);
+            if (candidateSlots != 0) {
+                int slot = Long.numberOfTrailingZeros(candidateSlots);
+                long slotTime = (currentTime & ~SLOT_MASK) | slot;
+                if (slotTime > maxScheduledAt) {
+                    return null;
+                }
+                currentTime = slotTime;
+                ScheduledEvent earliest = slotHeads[slot];
+                unlink(earliest);
+                size--;
+                return earliest;
+            }
+            if (!cascadeNextSlot(maxScheduledAt)) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Gets a lower bound on the scheduled time of the earliest event in O(1) time, without
+     * cascading. The bound is exact if the earliest event is in the lowest level, and is
+     * otherwise the start of the earliest non-empty slot above the lowest level. Suits waiting
+     * for the earliest event in real time, since the wait ends no later than the event is due,
+     * and there are at most 10 such waits before the bound becomes exact.
+     * @return lower bound, or Long.MAX_VALUE if queue is empty.
+     */
+    public long getEarliestScheduledAtBound() {
+        int digit = (int) currentTime & SLOT_MASK;
+        long candidateSlots = occupiedSlots[0] & (-1L << digit);
+        if (candidateSlots != 0) {
+            return (currentTime & ~SLOT_MASK) | Long.numberOfTrailingZeros(candidateSlots);
+        }
+        for (int level = 1; level < LEVEL_COUNT; level++) {
+            int shift = level * SLOT_BITS;
+            digit = (int) (currentTime >>> shift) & SLOT_MASK;
+            candidateSlots = occupiedSlots[level] & (-2L << digit);
+            if (candidateSlots != 0) {
+                long higherDigitsMask = shift + SLOT_BITS < Long.SIZE ?
+                    -1L << (shift + SLOT_BITS) : 0;
+                return (currentTime & higherDigitsMask) |
+                    ((long) Long.numberOfTrailingZeros(candidateSlots) << shift);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Moves current time forward to the start of the earliest non-empty slot above the
+     * lowest level, and redistributes the slot's events into lower levels.
+     * @return false if there is no such slot, or slot starts after maxScheduledAt.
+     */
+    private boolean cascadeNextSlot(long maxScheduledAt) {
+        for (int level = 1; level < LEVEL_COUNT; level++) {
+            int shift = level * SLOT_BITS;
+            int digit = (int) (currentTime >>> shift) & SLOT_MASK;
+            // slot of current digit is always empty above lowest level.
+            long candidateSlots = occupiedSlots[level] & (-2L << digit);
+            if (candidateSlots == 0) {
+                continue;
+            }
+            int slot = Long.numberOfTrailingZeros(candidateSlots);
+            long higherDigitsMask = shift + SLOT_BITS < Long.SIZE ?
+                -1L << (shift + SLOT_BITS) : 0;
+            long slotStartTime = (currentTime & higherDigitsMask) | ((long) slot << shift);
+            if (slotStartTime > maxScheduledAt) {
+                return false;
+            }
+            currentTime = slotStartTime;
+
+            int slotIndex = level * SLOTS_PER_LEVEL + slot;
+            ScheduledEvent event = slotHeads[slotIndex];
+            slotHeads[slotIndex] = null;
+            slotTails[slotIndex] = null;
+            occupiedSlots[level] &= ~(1L << slot);
+            while (event != null) {
+                ScheduledEvent next = event.queueNext;
+                insert(event);
+                event = next;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void insert(ScheduledEvent event) {
+        long scheduledAt = event.getScheduledAt();
+        long differingBits = scheduledAt ^ currentTime;
+        int level = differingBits == 0 ? 0 :
+            (Long.SIZE - 1 - Long.numberOfLeadingZeros(differingBits)) / SLOT_BITS;
+        int slot = (int) (scheduledAt >>> (level * SLOT_BITS)) & SLOT_MASK;
+        int slotIndex = level * SLOTS_PER_LEVEL + slot;
+
+        event.queueIndex = slotIndex;
+        event.queueNext = null;
+        event.queuePrevious = slotTails[slotIndex];
+        if (slotTails[slotIndex] == null) {
+            slotHeads[slotIndex] = event;
+            occupiedSlots[level] |= 1L << slot;
+        }
+        else {
+            slotTails[slotIndex].queueNext = event;
+        }
+        slotTails[slotIndex] = event;
+    }
+
+    private void unlink(ScheduledEvent event) {
+        int slotIndex = event.queueIndex;
+        if (event.queuePrevious == null) {
+            slotHeads[slotIndex] = event.queueNext;
+        }
+        else {
+            event.queuePrevious.queueNext = event.queueNext;
+        }
+        if (event.queueNext == null) {
+            slotTails[slotIndex] = event.queuePrevious;
+        }
+        else {
+            event.queueNext.queuePrevious = event.queuePrevious;
+        }
+        if (slotHeads[slotIndex] == null) {
+            occupiedSlots[slotIndex / SLOTS_PER_LEVEL] &= ~(1L << (slotIndex & SLOT_MASK));
+        }
+        event.queueIndex = -1;
+        event.queuePrevious = null;
+        event.queueNext = null;
+    }
+
+    /**
+     * Moves current time backward by reinserting all events.
+     */
+    private void rewind(long newCurrentTime) {
+        List<ScheduledEvent> events = new ArrayList<>(size);
+        for (int i = 0; i < slotHeads.length; i++) {
+            for (ScheduledEvent event = slotHeads[i]; event != null; event = event.queueNext) {
+                events.add(event);
+            }
+            slotHeads[i] = null;
+            slotTails[i] = null;
+        }
+        for (int i = 0; i < LEVEL_COUNT; i++) {
+            occupiedSlots[i] = 0;
+        }
+        // sort to restore FIFO order within each slot.
+        events.sort(ScheduledEvent::compare);
+        currentTime = newCurrentTime;
+        for (ScheduledEvent event : events) {
+            insert(event);
+        }
+    }
+}
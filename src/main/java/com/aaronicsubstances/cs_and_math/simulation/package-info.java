@@ -0,0 +1,6 @@
+/**
+ * This package provides event sets for the discrete-event simulator implemented by
+ * {@link com.aaronicsubstances.cs_and_math.VirtualEventLoop} class, and utilities for
+ * running and analysing simulations.
+ */
+package com.aaronicsubstances.cs_and_math.simulation;
@@ -1,6 +1,7 @@
 package com.aaronicsubstances.cs_and_math.sorting;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
@@ -69,14 +70,9 @@ public class ExternalSort {
             // At least one chunk must be saved, 
             // regardless of maximum RAM usage setting.
             if (currentChunkSize >= bufferSize) {
-                sortedList.sort((a, b)->{
-                    return sortFunc.compare(a, b);
-                });
-                String chunkId = saveSortedChunk(sortedList.iterator(),
+                String chunkId = saveSortedChunk(sortChunk(sortedList, sortFunc),
                     bufferSize, storage);
                 sortedChunkIds.add(chunkId);
-
-                sortedList.clear();
                 currentChunkSize = 0;
             }
             sortedList.add(item);
@@ -84,25 +80,34 @@ public class ExternalSort {
         }
 
         // sort remaining items.
-        sortedList.sort((a, b)->{
-            return sortFunc.compare(a, b);
-        });
+        Iterator<T> remainingItems = sortChunk(sortedList, sortFunc);
 
         // perform optimization of avoiding external storage
         // completely, if we have not touched it up until
         // this stage.
         if (sortedChunkIds.isEmpty()) {
-            Iterator<T> finalSortResult = sortedList.iterator();
-            return new CreateSortedChunksRetResult<T>(null, finalSortResult);
+            return new CreateSortedChunksRetResult<T>(null, remainingItems);
         }
 
         // save remaining items.
-        String chunkId = saveSortedChunk(sortedList.iterator(),
+        String chunkId = saveSortedChunk(remainingItems,
             bufferSize, storage);
         sortedChunkIds.add(chunkId);
         return new CreateSortedChunksRetResult<T>(sortedChunkIds, null);
     }
 
+    /**
+     * Sorts chunk with all available cores, and clears chunk list so that it can be
+     * reused for the next chunk.
+     */
+    private static <T> Iterator<T> sortChunk(List<T> chunk, Comparator<T> sortFunc) {
+        @SuppressWarnings("unchecked")
+        T[] items = (T[])chunk.toArray();
+        chunk.clear();
+        MergeSort.parallelSort(items, sortFunc);
+        return Arrays.asList(items).iterator();
+    }
+
     private static <T> String performMultiWayMerge(List<String> sortedChunkIds, Comparator<T> sortFunc,
             SortConfiguration sortConfig, ExternalStorage storage) {                
         // calculate buffer sizes for input buffers and output buffer.
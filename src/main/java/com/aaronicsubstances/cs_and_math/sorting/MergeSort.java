@@ -0,0 +1,677 @@
+package com.aaronicsubstances.cs_and_math.sorting;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Stable merge sort with galloping merges, and an optional fork/join parallel mode.
+ * <p>
+ * Short ranges are sorted with the inner loop of insertion sort. Merges are skipped when
+ * runs are already in order, and otherwise switch to galloping (exponential search) when one
+ * run keeps winning, as done by timsort. Thus partially ordered data sorts in near-linear time.
+ * <p>
+ * A single scratch buffer as long as the range being sorted is allocated per sort. Every
+ * merge (including merges running in parallel) uses the part of the scratch buffer which
+ * corresponds to its own range in the input.
+ */
+public class MergeSort {
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+    private static final int MIN_GALLOP = 7;
+    private static final int MIN_PARALLEL_RANGE = 1 << 13;
+
+    public static <T> void sort(T[] a, Comparator<? super T> sortFunc) {
+        sort(a, 0, a.length, sortFunc);
+    }
+
+    public static <T> void sort(T[] a, int fromIndex, int toIndex, Comparator<? super T> sortFunc) {
+        Objects.requireNonNull(sortFunc, "sortFunc");
+        checkRange(a.length, fromIndex, toIndex);
+        Object[] scratch = new Object[toIndex - fromIndex];
+        sortRange(a, fromIndex, toIndex, scratch, fromIndex, castComparator(sortFunc));
+    }
+
+    public static <T> void parallelSort(T[] a, Comparator<? super T> sortFunc) {
+        parallelSort(a, 0, a.length, sortFunc);
+    }
+
+    public static <T> void parallelSort(T[] a, int fromIndex, int toIndex,
+            Comparator<? super T> sortFunc) {
+        Objects.requireNonNull(sortFunc, "sortFunc");
+        checkRange(a.length, fromIndex, toIndex);
+        Object[] scratch = new Object[toIndex - fromIndex];
+        int minRange = calculateMinParallelRange(toIndex - fromIndex);
+        if (minRange < 0) {
+            sortRange(a, fromIndex, toIndex, scratch, fromIndex, castComparator(sortFunc));
+        }
+        else {
+            ForkJoinPool.commonPool().invoke(new ObjectSortTask(a, fromIndex, toIndex,
+                scratch, fromIndex, castComparator(sortFunc), minRange));
+        }
+    }
+
+    public static <T> void sort(List<T> list, Comparator<? super T> sortFunc) {
+        Object[] a = list.toArray();
+        sort(a, castComparator(sortFunc));
+        writeBack(a, list);
+    }
+
+    public static <T> void parallelSort(List<T> list, Comparator<? super T> sortFunc) {
+        Object[] a = list.toArray();
+        parallelSort(a, castComparator(sortFunc));
+        writeBack(a, list);
+    }
+
+    public static void sort(int[] a) {
+        sort(a, 0, a.length);
+    }
+
+    public static void sort(int[] a, int fromIndex, int toIndex) {
+        checkRange(a.length, fromIndex, toIndex);
+        sortRange(a, fromIndex, toIndex, new int[toIndex - fromIndex], fromIndex);
+    }
+
+    public static void parallelSort(int[] a) {
+        parallelSort(a, 0, a.length);
+    }
+
+    public static void parallelSort(int[] a, int fromIndex, int toIndex) {
+        checkRange(a.length, fromIndex, toIndex);
+        int[] scratch = new int[toIndex - fromIndex];
+        int minRange = calculateMinParallelRange(toIndex - fromIndex);
+        if (minRange < 0) {
+            sortRange(a, fromIndex, toIndex, scratch, fromIndex);
+        }
+        else {
+            ForkJoinPool.commonPool().invoke(new IntSortTask(a, fromIndex, toIndex,
+                scratch, fromIndex, minRange));
+        }
+    }
+
+    public static void sort(long[] a) {
+        sort(a, 0, a.length);
+    }
+
+    public static void sort(long[] a, int fromIndex, int toIndex) {
+        checkRange(a.length, fromIndex, toIndex);
+        sortRange(a, fromIndex, toIndex, new long[toIndex - fromIndex], fromIndex);
+    }
+
+    public static void parallelSort(long[] a) {
+        parallelSort(a, 0, a.length);
+    }
+
+    public static void parallelSort(long[] a, int fromIndex, int toIndex) {
+        checkRange(a.length, fromIndex, toIndex);
+        long[] scratch = new long[toIndex - fromIndex];
+        int minRange = calculateMinParallelRange(toIndex - fromIndex);
+        if (minRange < 0) {
+            sortRange(a, fromIndex, toIndex, scratch, fromIndex);
+        }
+        else {
+            ForkJoinPool.commonPool().invoke(new LongSortTask(a, fromIndex, toIndex,
+                scratch, fromIndex, minRange));
+        }
+    }
+
+    private static void checkRange(int length, int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > length || fromIndex > toIndex) {
+            throw new IllegalArgumentException(String.format(
+                "invalid range [%d, %d) for length %d", fromIndex, toIndex, length));
+        }
+    }
+
+    /**
+     * Determines size of ranges which will be sorted sequentially in parallel mode.
+     * @return -1 if parallel mode is not worthwhile.
+     */
+    private static int calculateMinParallelRange(int n) {
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        if (parallelism <= 1 || n <= MIN_PARALLEL_RANGE) {
+            return -1;
+        }
+        // create a few more tasks than there are threads for load balancing.
+        return Math.max(MIN_PARALLEL_RANGE, n / (parallelism << 2));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparator<Object> castComparator(Comparator<?> sortFunc) {
+        return (Comparator<Object>) sortFunc;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void writeBack(Object[] a, List<T> list) {
+        ListIterator<T> it = list.listIterator();
+        for (Object item : a) {
+            it.next();
+            it.set((T) item);
+        }
+    }
+
+    private static void sortRange(Object[] a, int lo, int hi, Object[] scratch, int scratchBase,
+            Comparator<Object> sortFunc) {
+        if (hi - lo <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(a, lo, hi, sortFunc);
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        sortRange(a, lo, mid, scratch, scratchBase, sortFunc);
+        sortRange(a, mid, hi, scratch, scratchBase, sortFunc);
+        merge(a, lo, mid, hi, scratch, scratchBase, sortFunc);
+    }
+
+    private static void insertionSort(Object[] a, int lo, int hi, Comparator<Object> sortFunc) {
+        for (int i = lo + 1; i < hi; i++) {
+            Object item = a[i];
+            int j = i;
+            // strict comparison keeps sort stable.
+            while (j > lo && sortFunc.compare(a[j - 1], item) > 0) {
+                a[j] = a[j - 1];
+                j--;
+            }
+            a[j] = item;
+        }
+    }
+
+    /**
+     * Merges sorted a[lo..mid) and sorted a[mid..hi) into a[lo..hi).
+     */
+    private static void merge(Object[] a, int lo, int mid, int hi, Object[] scratch,
+            int scratchBase, Comparator<Object> sortFunc) {
+        // skip merge entirely if runs are already in order.
+        if (sortFunc.compare(a[mid - 1], a[mid]) <= 0) {
+            return;
+        }
+        // items of left run which don't exceed first item of right run
+        // are already in place. Similarly for items of right run which
+        // are not less than last item of left run.
+        lo = gallopRight(a[mid], a, lo, mid, sortFunc);
+        hi = gallopLeft(a[mid - 1], a, mid, hi, sortFunc);
+
+        // left run goes to scratch, at offset from scratchBase.
+        System.arraycopy(a, lo, scratch, lo - scratchBase, mid - lo);
+        int i = lo - scratchBase, leftEnd = mid - scratchBase, j = mid, dest = lo;
+        outer:
+        while (true) {
+            // one item at a time, until one run wins often enough.
+            int leftWins = 0, rightWins = 0;
+            do {
+                if (sortFunc.compare(a[j], scratch[i]) < 0) {
+                    a[dest++] = a[j++];
+                    rightWins++;
+                    leftWins = 0;
+                    if (j == hi) {
+                        break outer;
+                    }
+                }
+                else {
+                    a[dest++] = scratch[i++];
+                    leftWins++;
+                    rightWins = 0;
+                    if (i == leftEnd) {
+                        break outer;
+                    }
+                }
+            } while ((leftWins | rightWins) < MIN_GALLOP);
+
+            // gallop, until galloping stops paying off.
+            do {
+                int k = gallopRight(a[j], scratch, i, leftEnd, sortFunc);
+                leftWins = k - i;
+                System.arraycopy(scratch, i, a, dest, leftWins);
+                dest += leftWins;
+                i = k;
+                if (i == leftEnd) {
+                    break outer;
+                }
+                a[dest++] = a[j++];
+                if (j == hi) {
+                    break outer;
+                }
+
+                k = gallopLeft(scratch[i], a, j, hi, sortFunc);
+                rightWins = k - j;
+                System.arraycopy(a, j, a, dest, rightWins);
+                dest += rightWins;
+                j = k;
+                if (j == hi) {
+                    break outer;
+                }
+                a[dest++] = scratch[i++];
+                if (i == leftEnd) {
+                    break outer;
+                }
+            } while (leftWins >= MIN_GALLOP || rightWins >= MIN_GALLOP);
+        }
+        // any remaining items of right run are already in place.
+        System.arraycopy(scratch, i, a, dest, leftEnd - i);
+    }
+
+    /**
+     * Finds the first index in a[from..to) with an item greater than key.
+     */
+    private static int gallopRight(Object key, Object[] a, int from, int to,
+            Comparator<Object> sortFunc) {
+        int maxOfs = to - from;
+        int lastOfs = 0, ofs = 1;
+        if (sortFunc.compare(key, a[from]) < 0) {
+            return from;
+        }
+        while (ofs < maxOfs && sortFunc.compare(key, a[from + ofs]) >= 0) {
+            lastOfs = ofs;
+            ofs = (ofs << 1) + 1;
+            if (ofs <= 0) {
+                ofs = maxOfs;
+            }
+        }
+        int lo = from + lastOfs + 1, hi = from + Math.min(ofs, maxOfs);
+        while (lo < hi) {
+            int m = (lo + hi) >>> 1;
+            if (sortFunc.compare(key, a[m]) < 0) {
+                hi = m;
+            }
+            else {
+                lo = m + 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Finds the first index in a[from..to) with an item not less than key.
+     */
+    private static int gallopLeft(Object key, Object[] a, int from, int to,
+            Comparator<Object> sortFunc) {
+        int maxOfs = to - from;
+        int lastOfs = 0, ofs = 1;
+        if (sortFunc.compare(a[from], key) >= 0) {
+            return from;
+        }
+        while (ofs < maxOfs && sortFunc.compare(a[from + ofs], key) < 0) {
+            lastOfs = ofs;
+            ofs = (ofs << 1) + 1;
+            if (ofs <= 0) {
+                ofs = maxOfs;
+            }
+        }
+        int lo = from + lastOfs + 1, hi = from + Math.min(ofs, maxOfs);
+        while (lo < hi) {
+            int m = (lo + hi) >>> 1;
+            if (sortFunc.compare(a[m], key) < 0) {
+                lo = m + 1;
+            }
+            else {
+                hi = m;
+            }
+        }
+        return lo;
+    }
+
+    private static void sortRange(int[] a, int lo, int hi, int[] scratch, int scratchBase) {
+        if (hi - lo <= INSERTION_SORT_THRESHOLD) {
+            for (int i = lo + 1; i < hi; i++) {
+                int item = a[i];
+                int j = i;
+                while (j > lo && a[j - 1] > item) {
+                    a[j] = a[j - 1];
+                    j--;
+                }
+                a[j] = item;
+            }
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        sortRange(a, lo, mid, scratch, scratchBase);
+        sortRange(a, mid, hi, scratch, scratchBase);
+        merge(a, lo, mid, hi, scratch, scratchBase);
+    }
+
+    private static void merge(int[] a, int lo, int mid, int hi, int[] scratch, int scratchBase) {
+        if (a[mid - 1] <= a[mid]) {
+            return;
+        }
+        lo = gallopRight(a[mid], a, lo, mid);
+        hi = gallopLeft(a[mid - 1], a, mid, hi);
+
+        // left run goes to scratch, at offset from scratchBase.
+        System.arraycopy(a, lo, scratch, lo - scratchBase, mid - lo);
+        int i = lo - scratchBase, leftEnd = mid - scratchBase, j = mid, dest = lo;
+        outer:
+        while (true) {
+            int leftWins = 0, rightWins = 0;
+            do {
+                if (a[j] < scratch[i]) {
+                    a[dest++] = a[j++];
+                    rightWins++;
+                    leftWins = 0;
+                    if (j == hi) {
+                        break outer;
+                    }
+                }
+                else {
+                    a[dest++] = scratch[i++];
+                    leftWins++;
+                    rightWins = 0;
+                    if (i == leftEnd) {
+                        break outer;
+                    }
+                }
+            } while ((leftWins | rightWins) < MIN_GALLOP);
+
+            do {
+                int k = gallopRight(a[j], scratch, i, leftEnd);
+                leftWins = k - i;
+                System.arraycopy(scratch, i, a, dest, leftWins);
+                dest += leftWins;
+                i = k;
+                if (i == leftEnd) {
+                    break outer;
+                }
+                a[dest++] = a[j++];
+                if (j == hi) {
+                    break outer;
+                }
+
+                k = gallopLeft(scratch[i], a, j, hi);
+                rightWins = k - j;
+                System.arraycopy(a, j, a, dest, rightWins);
+                dest += rightWins;
+                j = k;
+                if (j == hi) {
+                    break outer;
+                }
+                a[dest++] = scratch[i++];
+                if (i == leftEnd) {
+                    break outer;
+                }
+            } while (leftWins >= MIN_GALLOP || rightWins >= MIN_GALLOP);
+        }
+        System.arraycopy(scratch, i, a, dest, leftEnd - i);
+    }
+
+    private static int gallopRight(int key, int[] a, int from, int to) {
+        int maxOfs = to - from;
+        int lastOfs = 0, ofs = 1;
+        if (key < a[from]) {
+            return from;
+        }
+        while (ofs < maxOfs && key >= a[from + ofs]) {
+            lastOfs = ofs;
+            ofs = (ofs << 1) + 1;
+            if (ofs <= 0) {
+                ofs = maxOfs;
+            }
+        }
+        int lo = from + lastOfs + 1, hi = from + Math.min(ofs, maxOfs);
+        while (lo < hi) {
+            int m = (lo + hi) >>> 1;
+            if (key < a[m]) {
+                hi = m;
+            }
+            else {
+                lo = m + 1;
+            }
+        }
+        return lo;
+    }
+
+    private static int gallopLeft(int key, int[] a, int from, int to) {
+        int maxOfs = to - from;
+        int lastOfs = 0, ofs = 1;
+        if (a[from] >= key) {
+            return from;
+        }
+        while (ofs < maxOfs && a[from + ofs] < key) {
+            lastOfs = ofs;
+            ofs = (ofs << 1) + 1;
+            if (ofs <= 0) {
+                ofs = maxOfs;
+            }
+        }
+        int lo = from + lastOfs + 1, hi = from + Math.min(ofs, maxOfs);
+        while (lo < hi) {
+            int m = (lo + hi) >>> 1;
+            if (a[m] < key) {
+                lo = m + 1;
+            }
+            else {
+                hi = m;
+            }
+        }
+        return lo;
+    }
+
+    private static void sortRange(long[] a, int lo, int hi, long[] scratch, int scratchBase) {
+        if (hi - lo <= INSERTION_SORT_THRESHOLD) {
+            for (int i = lo + 1; i < hi; i++) {
+                long item = a[i];
+                int j = i;
+                while (j > lo && a[j - 1] > item) {
+                    a[j] = a[j - 1];
+                    j--;
+                }
+                a[j] = item;
+            }
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        sortRange(a, lo, mid, scratch, scratchBase);
+        sortRange(a, mid, hi, scratch, scratchBase);
+        merge(a, lo, mid, hi, scratch, scratchBase);
+    }
+
+    private static void merge(long[] a, int lo, int mid, int hi, long[] scratch, int scratchBase) {
+        if (a[mid - 1] <= a[mid]) {
+            return;
+        }
+        lo = gallopRight(a[mid], a, lo, mid);
+        hi = gallopLeft(a[mid - 1], a, mid, hi);
+
+        // left run goes to scratch, at offset from scratchBase.
+        System.arraycopy(a, lo, scratch, lo - scratchBase, mid - lo);
+        int i = lo - scratchBase, leftEnd = mid - scratchBase, j = mid, dest = lo;
+        outer:
+        while (true) {
+            int leftWins = 0, rightWins = 0;
+            do {
+                if (a[j] < scratch[i]) {
+                    a[dest++] = a[j++];
+                    rightWins++;
+                    leftWins = 0;
+                    if (j == hi) {
+                        break outer;
+                    }
+                }
+                else {
+                    a[dest++] = scratch[i++];
+                    leftWins++;
+                    rightWins = 0;
+                    if (i == leftEnd) {
+                        break outer;
+                    }
+                }
+            } while ((leftWins | rightWins) < MIN_GALLOP);
+
+            do {
+                int k = gallopRight(a[j], scratch, i, leftEnd);
+                leftWins = k - i;
+                System.arraycopy(scratch, i, a, dest, leftWins);
+                dest += leftWins;
+                i = k;
+                if (i == leftEnd) {
+                    break outer;
+                }
+                a[dest++] = a[j++];
+                if (j == hi) {
+                    break outer;
+                }
+
+                k = gallopLeft(scratch[i], a, j, hi);
+                rightWins = k - j;
+                System.arraycopy(a, j, a, dest, rightWins);
+                dest += rightWins;
+                j = k;
+                if (j == hi) {
+                    break outer;
+                }
+                a[dest++] = scratch[i++];
+                if (i == leftEnd) {
+                    break outer;
+                }
+            } while (leftWins >= MIN_GALLOP || rightWins >= MIN_GALLOP);
+        }
+        System.arraycopy(scratch, i, a, dest, leftEnd - i);
+    }
+
+    private static int gallopRight(long key, long[] a, int from, int to) {
+        int maxOfs = to - from;
+        int lastOfs = 0, ofs = 1;
+        if (key < a[from]) {
+            return from;
+        }
+        while (ofs < maxOfs && key >= a[from + ofs]) {
+            lastOfs = ofs;
+            ofs = (ofs << 1) + 1;
+            if (ofs <= 0) {
+                ofs = maxOfs;
+            }
+        }
+        int lo = from + lastOfs + 1, hi = from + Math.min(ofs, maxOfs);
+        while (lo < hi) {
+            int m = (lo + hi) >>> 1;
+            if (key < a[m]) {
+                hi = m;
+            }
+            else {
+                lo = m + 1;
+            }
+        }
+        return lo;
+    }
+
+    private static int gallopLeft(long key, long[] a, int from, int to) {
+        int maxOfs = to - from;
+        int lastOfs = 0, ofs = 1;
+        if (a[from] >= key) {
+            return from;
+        }
+        while (ofs < maxOfs && a[from + ofs] < key) {
+            lastOfs = ofs;
+            ofs = (ofs << 1) + 1;
+            if (ofs <= 0) {
+                ofs = maxOfs;
+            }
+        }
+        int lo = from + lastOfs + 1, hi = from + Math.min(ofs, maxOfs);
+        while (lo < hi) {
+            int m = (lo + hi) >>> 1;
+            if (a[m] < key) {
+                lo = m + 1;
+            }
+            else {
+                hi = m;
+            }
+        }
+        return lo;
+    }
+
+    private static class ObjectSortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] a;
+        private final int lo, hi;
+        private final Object[] scratch;
+        private final int scratchBase;
+        private final Comparator<Object> sortFunc;
+        private final int minRange;
+
+        public ObjectSortTask(Object[] a, int lo, int hi, Object[] scratch, int scratchBase,
+                Comparator<Object> sortFunc, int minRange) {
+            this.a = a;
+            this.lo = lo;
+            this.hi = hi;
+            this.scratch = scratch;
+            this.scratchBase = scratchBase;
+            this.sortFunc = sortFunc;
+            this.minRange = minRange;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= minRange) {
+                sortRange(a, lo, hi, scratch, scratchBase, sortFunc);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new ObjectSortTask(a, lo, mid, scratch, scratchBase, sortFunc, minRange),
+                new ObjectSortTask(a, mid, hi, scratch, scratchBase, sortFunc, minRange));
+            merge(a, lo, mid, hi, scratch, scratchBase, sortFunc);
+        }
+    }
+
+    private static class IntSortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] a;
+        private final int lo, hi;
+        private final int[] scratch;
+        private final int scratchBase;
+        private final int minRange;
+
+        public IntSortTask(int[] a, int lo, int hi, int[] scratch, int scratchBase, int minRange) {
+            this.a = a;
+            this.lo = lo;
+            this.hi = hi;
+            this.scratch = scratch;
+            this.scratchBase = scratchBase;
+            this.minRange = minRange;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= minRange) {
+                sortRange(a, lo, hi, scratch, scratchBase);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new IntSortTask(a, lo, mid, scratch, scratchBase, minRange),
+                new IntSortTask(a, mid, hi, scratch, scratchBase, minRange));
+            merge(a, lo, mid, hi, scratch, scratchBase);
+        }
+    }
+
+    private static class LongSortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] a;
+        private final int lo, hi;
+        private final long[] scratch;
+        private final int scratchBase;
+        private final int minRange;
+
+        public LongSortTask(long[] a, int lo, int hi, long[] scratch, int scratchBase,
+                int minRange) {
+            this.a = a;
+            this.lo = lo;
+            this.hi = hi;
+            this.scratch = scratch;
+            this.scratchBase = scratchBase;
+            this.minRange = minRange;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= minRange) {
+                sortRange(a, lo, hi, scratch, scratchBase);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new LongSortTask(a, lo, mid, scratch, scratchBase, minRange),
+                new LongSortTask(a, mid, hi, scratch, scratchBase, minRange));
+            merge(a, lo, mid, hi, scratch, scratchBase);
+        }
+    }
+}
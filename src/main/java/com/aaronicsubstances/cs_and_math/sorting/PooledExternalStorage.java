@@ -0,0 +1,101 @@
+package com.aaronicsubstances.cs_and_math.sorting;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Decorates an external storage so that buckets are recycled across merge passes
+ * instead of being created and deleted every time.
+ * <p>
+ * Deleted buckets are kept in a pool, and handed out again by {@link #createBucket()}.
+ * Since {@link ExternalSort} always truncates a bucket before writing to it, a recycled
+ * bucket behaves exactly like a fresh one. Thus closing an {@link ExternalSortResult} returns its
+ * bucket to this pool. Call {@link #close()} to really delete pooled buckets once sorting
+ * is done.
+ */
+public class PooledExternalStorage implements ExternalStorage, AutoCloseable {
+    private final ExternalStorage wrapped;
+    private final int maximumPoolSize;
+    private final List<String> pooledBucketIds = new ArrayList<>();
+
+    public PooledExternalStorage(ExternalStorage wrapped) {
+        this(wrapped, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param wrapped storage which actually creates and deletes buckets
+     * @param maximumPoolSize maximum number of deleted buckets to keep for reuse. Buckets deleted
+     * when pool is full are deleted from wrapped storage.
+     */
+    public PooledExternalStorage(ExternalStorage wrapped, int maximumPoolSize) {
+        this.wrapped = Objects.requireNonNull(wrapped, "wrapped");
+        if (maximumPoolSize < 0) {
+            throw new IllegalArgumentException("negative maximum pool size: " + maximumPoolSize);
+        }
+        this.maximumPoolSize = maximumPoolSize;
+    }
+
+    public int getPooledBucketCount() {
+        return pooledBucketIds.size();
+    }
+
+    @Override
+    public String createBucket() {
+        // reuse most recently released bucket first, since it is the
+        // most likely to still be cached by the underlying storage.
+        if (!pooledBucketIds.isEmpty()) {
+            return pooledBucketIds.remove(pooledBucketIds.size() - 1);
+        }
+        return wrapped.createBucket();
+    }
+
+    @Override
+    public void deleteBucket(String bucketId) {
+        if (pooledBucketIds.size() < maximumPoolSize) {
+            pooledBucketIds.add(bucketId);
+        }
+        else {
+            wrapped.deleteBucket(bucketId);
+        }
+    }
+
+    /**
+     * Deletes all pooled buckets from wrapped storage.
+     */
+    @Override
+    public void close() {
+        for (String bucketId : pooledBucketIds) {
+            wrapped.deleteBucket(bucketId);
+        }
+        pooledBucketIds.clear();
+    }
+
+    @Override
+    public Object openStream(String bucketId, boolean openForWriting,
+            boolean truncateBeforeWriting, int bufferSize) {
+        return wrapped.openStream(bucketId, openForWriting, truncateBeforeWriting,
+            bufferSize);
+    }
+
+    @Override
+    public void closeStream(Object stream) {
+        wrapped.closeStream(stream);
+    }
+
+    @Override
+    public Object deserializeFrom(Object stream, Class<?> classOfItem) {
+        return wrapped.deserializeFrom(stream, classOfItem);
+    }
+
+    @Override
+    public void serializeTo(Object stream, Object item) {
+        wrapped.serializeTo(stream, item);
+    }
+
+    @Override
+    public int estimateSerializedSize(Object item) {
+        return wrapped.estimateSerializedSize(item);
+    }
+}
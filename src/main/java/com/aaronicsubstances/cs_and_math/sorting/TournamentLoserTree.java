@@ -2,12 +2,12 @@ package com.aaronicsubstances.cs_and_math.sorting;
 
 import java.util.Comparator;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
-import java.util.Queue;
 import java.util.stream.Collectors;
 
+import com.aaronicsubstances.cs_and_math.collections.ObjectDeque;
+
 /**
  * Based on https://en.wikipedia.org/wiki/K-way_merge_algorithm#Tournament_Tree
  */
@@ -29,9 +29,10 @@ public class TournamentLoserTree<T> {
     }
 
     public void restart(List<T> initialElements) {
-        Queue<Node<T>> leafNodes = new LinkedList<>();
+        ObjectDeque<Node<T>> leafNodes = new ObjectDeque<>(
+            Math.max(1, initialElements.size()), false);
         for (T item : initialElements) {
-            leafNodes.add(Node.createLeaf(item, false));
+            leafNodes.addLast(Node.createLeaf(item, false));
         }
         buildTree(leafNodes);
     }
@@ -48,28 +49,37 @@ public class TournamentLoserTree<T> {
         replayGames(winnerLeaf.parent);
     }
 
-    private void buildTree(Queue<Node<T>> initialLayer) {
-        Queue<Node<T>> currentLayer;
-        Queue<Node<T>> nextLayer = initialLayer;
+    private void buildTree(ObjectDeque<Node<T>> initialLayer) {
+        // parents of current layer are appended to the same deque behind it,
+        // so a single buffer serves all layers.
+        ObjectDeque<Node<T>> layers = initialLayer;
+        int currentLayerSize;
+        int nextLayerSize = layers.size();
         do {
-            currentLayer = nextLayer;
-            nextLayer = new LinkedList<>();
-            while (!currentLayer.isEmpty()) {
-                Node<T> firstElement = currentLayer.remove();
-                Node<T> secondElement = currentLayer.poll();
+            currentLayerSize = nextLayerSize;
+            nextLayerSize = 0;
+            while (currentLayerSize > 0) {
+                Node<T> firstElement = layers.removeFirst();
+                currentLayerSize--;
+                Node<T> secondElement = null;
+                if (currentLayerSize > 0) {
+                    secondElement = layers.removeFirst();
+                    currentLayerSize--;
+                }
                 if (secondElement == null) {
                     secondElement = makeInfinityNode();
                 }
                 GamePlayResult<T> result = playGame(firstElement, secondElement, true);
                 Node<T> parent = Node.createParent(firstElement, secondElement,
                     result.winner, result.loser);
-                nextLayer.add(parent);
+                layers.addLast(parent);
+                nextLayerSize++;
             }
-        } while (nextLayer.size() > 1);
+        } while (nextLayerSize > 1);
         
         // no need to save root, since replay games uses null parent to
         // detect top of tree.
-        Node<T> root = nextLayer.poll();
+        Node<T> root = layers.pollFirst();
         if (root != null) {
             winnerLeaf = root.winner;
             root.winner = null;
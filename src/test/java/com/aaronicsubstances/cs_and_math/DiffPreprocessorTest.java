@@ -0,0 +1,134 @@
+package com.aaronicsubstances.cs_and_math;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+public class DiffPreprocessorTest {
+
+    @DataProvider
+    public Object[][] createTestFindLongestIncreasingSubsequenceData() {
+        return new Object[][]{
+            { new int[0], new int[0] },
+            { new int[]{ 5 }, new int[]{ 0 } },
+            { new int[]{ 3, 2, 1 }, new int[]{ 2 } },
+            { new int[]{ 1, 2, 3 }, new int[]{ 0, 1, 2 } },
+            { new int[]{ 9, 4, 7, 2, 8, 3, 5, 6, 1 }, new int[]{ 3, 5, 6, 7 } },
+        };
+    }
+
+    @Test(dataProvider = "createTestFindLongestIncreasingSubsequenceData")
+    public void testFindLongestIncreasingSubsequence(int[] values, int[] expected) {
+        int[] actual = DiffPreprocessor.findLongestIncreasingSubsequence(values, values.length);
+        assertThat(actual, is(expected));
+    }
+
+    @Test
+    public void testFindLongestIncreasingSubsequenceAgainstDp() {
+        Random randGen = new Random();
+        for (int round = 0; round < 200; round++) {
+            int[] values = new int[randGen.nextInt(50)];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = i;
+            }
+            shuffle(values, randGen);
+            int[] actual = DiffPreprocessor.findLongestIncreasingSubsequence(values,
+                values.length);
+            for (int k = 1; k < actual.length; k++) {
+                assertThat(actual[k - 1], lessThan(actual[k]));
+                assertThat(values[actual[k - 1]], lessThan(values[actual[k]]));
+            }
+            // lengths[i] = length of longest increasing subsequence ending at i.
+            int[] lengths = new int[values.length];
+            int expectedLength = 0;
+            for (int i = 0; i < values.length; i++) {
+                lengths[i] = 1;
+                for (int h = 0; h < i; h++) {
+                    if (values[h] < values[i]) {
+                        lengths[i] = Math.max(lengths[i], lengths[h] + 1);
+                    }
+                }
+                expectedLength = Math.max(expectedLength, lengths[i]);
+            }
+            assertThat(actual.length, is(expectedLength));
+        }
+    }
+
+    private static void shuffle(int[] values, Random randGen) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = randGen.nextInt(i + 1);
+            int temp = values[i];
+            values[i] = values[j];
+            values[j] = temp;
+        }
+    }
+
+    @Test
+    public void testFindChangesAgainstLcs() {
+        Random randGen = new Random();
+        DiffOptions options = new DiffOptions();
+        for (int round = 0; round < 500; round++) {
+            // edit a random file, so that it shares prefix, suffix and unique lines with the
+            // result.
+            List<String> x = new ArrayList<>();
+            int alphabetSize = 1 + randGen.nextInt(30);
+            for (int i = randGen.nextInt(60); i > 0; i--) {
+                x.add(randGen.nextInt(alphabetSize) + "\n");
+            }
+            List<String> y = new ArrayList<>(x);
+            for (int i = randGen.nextInt(8); i > 0; i--) {
+                int index = randGen.nextInt(y.size() + 1);
+                if (index < y.size() && randGen.nextBoolean()) {
+                    y.remove(index);
+                }
+                else {
+                    y.add(index, randGen.nextInt(alphabetSize + 5) + "\n");
+                }
+            }
+            options.setAlgorithm(DiffAlgorithm.LCS);
+            options.setAnchorUniqueLines(false);
+            int expectedUnchangedCount = getUnchangedCount(x, y, options);
+            for (DiffAlgorithm algorithm : Arrays.asList(DiffAlgorithm.LCS,
+                    DiffAlgorithm.MYERS, DiffAlgorithm.MYERS_LINEAR_SPACE)) {
+                options.setAlgorithm(algorithm);
+                options.setAnchorUniqueLines(false);
+                assertThat(getUnchangedCount(x, y, options), is(expectedUnchangedCount));
+                // anchoring can only lose common lines.
+                options.setAnchorUniqueLines(true);
+                assertThat(getUnchangedCount(x, y, options),
+                    lessThanOrEqualTo(expectedUnchangedCount));
+            }
+        }
+    }
+
+    /**
+     * Checks that unchanged lines found form a common subsequence.
+     * @return length of common subsequence.
+     */
+    private static int getUnchangedCount(List<String> x, List<String> y, DiffOptions options) {
+        boolean[] xChanged = new boolean[x.size()];
+        boolean[] yChanged = new boolean[y.size()];
+        DiffPreprocessor.findChanges(x, y, options, xChanged, yChanged);
+        List<String> xUnchanged = new ArrayList<>();
+        for (int i = 0; i < x.size(); i++) {
+            if (!xChanged[i]) {
+                xUnchanged.add(x.get(i));
+            }
+        }
+        List<String> yUnchanged = new ArrayList<>();
+        for (int j = 0; j < y.size(); j++) {
+            if (!yChanged[j]) {
+                yUnchanged.add(y.get(j));
+            }
+        }
+        assertThat(xUnchanged, is(yUnchanged));
+        return xUnchanged.size();
+    }
+}
@@ -3,13 +3,25 @@ package com.aaronicsubstances.cs_and_math;
 import static org.testng.Assert.*;
 
 import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 public class DiffTest {
+    private static final DiffAlgorithm[] ALGORITHMS = {
+        DiffAlgorithm.LCS, DiffAlgorithm.MYERS, DiffAlgorithm.MYERS_LINEAR_SPACE,
+        DiffAlgorithm.MYERS_LINEAR_SPACE_PARALLEL, DiffAlgorithm.PATIENCE, DiffAlgorithm.HISTOGRAM
+    };
+    // algorithms which find a longest common subsequence.
+    private static final DiffAlgorithm[] LCS_ALGORITHMS = {
+        DiffAlgorithm.LCS, DiffAlgorithm.MYERS, DiffAlgorithm.MYERS_LINEAR_SPACE,
+        DiffAlgorithm.MYERS_LINEAR_SPACE_PARALLEL
+    };
 
     @Test(dataProvider = "createTestData")
     public void test(List<String> x, List<String> y, String expected) throws Exception {
@@ -19,6 +31,236 @@ public class DiffTest {
         assertEquals(actual, expected);
     }
 
+    @Test(dataProvider = "createTestData")
+    public void testWithAlgorithms(List<String> x, List<String> y, String expected) throws Exception {
+        for (DiffAlgorithm algorithm : ALGORITHMS) {
+            StringWriter actualWriter = new StringWriter();
+            Diff.printNormalDiff(x, y, actualWriter, algorithm);
+            String actual = actualWriter.toString();
+            assertEquals(actual, expected, algorithm.getClass().getSimpleName());
+        }
+    }
+
+    @Test(dataProvider = "createTestData")
+    public void testWithUniqueLineAnchoring(List<String> x, List<String> y, String expected) throws Exception {
+        DiffOptions options = new DiffOptions();
+        options.setAnchorUniqueLines(true);
+        for (DiffAlgorithm algorithm : ALGORITHMS) {
+            options.setAlgorithm(algorithm);
+            StringWriter actualWriter = new StringWriter();
+            Diff.printNormalDiff(x, y, actualWriter, options);
+            String actual = actualWriter.toString();
+            assertEquals(actual, expected);
+        }
+    }
+
+    @Test
+    public void testIgnoreCaseAndWhitespace() throws Exception {
+        List<String> x = Arrays.asList("int  a = 0;\n", "Int b = 1;\n", "int c = 2;\n");
+        List<String> y = Arrays.asList("int a=0;\r\n", "int b = 1;\n", "int C = 2;");
+        DiffOptions options = new DiffOptions();
+        String[] expected = {
+            String.format("1,3c1,3%n" +
+                "< int  a = 0;%n" +
+                "< Int b = 1;%n" +
+                "< int c = 2;%n" +
+                "---%n" +
+                "> int a=0;%n" +
+                "> int b = 1;%n" +
+                "> int C = 2;%n" +
+                "\\ No newline at end of file%n"),
+            String.format("1c1%n" +
+                "< int  a = 0;%n" +
+                "---%n" +
+                "> int a=0;%n" +
+                "3c3%n" +
+                "< int c = 2;%n" +
+                "---%n" +
+                "> int C = 2;%n" +
+                "\\ No newline at end of file%n"),
+            String.format("2,3c2,3%n" +
+                "< Int b = 1;%n" +
+                "< int c = 2;%n" +
+                "---%n" +
+                "> int b = 1;%n" +
+                "> int C = 2;%n" +
+                "\\ No newline at end of file%n"),
+            ""
+        };
+        for (int i = 0; i < expected.length; i++) {
+            options.setIgnoreCase((i & 1) != 0);
+            options.setIgnoreWhitespace((i & 2) != 0);
+            for (DiffAlgorithm algorithm : ALGORITHMS) {
+                options.setAlgorithm(algorithm);
+                StringWriter actualWriter = new StringWriter();
+                Diff.printNormalDiff(x, y, actualWriter, options);
+                assertEquals(actualWriter.toString(), expected[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testPatienceAndHistogramOnSwappedFunctions() throws Exception {
+        List<String> x = Arrays.asList("void f0() {\n", "    log();\n", "}\n", "\n",
+            "void f1() {\n", "    log();\n", "    i++;\n", "}\n");
+        List<String> y = Arrays.asList("void f1() {\n", "    log();\n", "    i++;\n", "}\n",
+            "\n", "void f0() {\n", "    log();\n", "}\n");
+        // shortest edit script interleaves both functions.
+        StringWriter actualWriter = new StringWriter();
+        Diff.printNormalDiff(x, y, actualWriter, DiffAlgorithm.MYERS);
+        assertEquals(actualWriter.toString(), String.format("1c1%n" +
+            "< void f0() {%n" +
+            "---%n" +
+            "> void f1() {%n" +
+            "2a3%n" +
+            ">     i++;%n" +
+            "5c6%n" +
+            "< void f1() {%n" +
+            "---%n" +
+            "> void f0() {%n" +
+            "7d7%n" +
+            "<     i++;%n"));
+        // unique lines keep functions whole.
+        String expected = String.format("1,4d0%n" +
+            "< void f0() {%n" +
+            "<     log();%n" +
+            "< }%n" +
+            "< %n" +
+            "8a5,8%n" +
+            "> %n" +
+            "> void f0() {%n" +
+            ">     log();%n" +
+            "> }%n");
+        for (DiffAlgorithm algorithm : new DiffAlgorithm[]{ DiffAlgorithm.PATIENCE,
+                DiffAlgorithm.HISTOGRAM }) {
+            actualWriter = new StringWriter();
+            Diff.printNormalDiff(x, y, actualWriter, algorithm);
+            assertEquals(actualWriter.toString(), expected, algorithm.getClass().getSimpleName());
+        }
+    }
+
+    @Test
+    public void testRandomAgainstLcs() {
+        Random randGen = new Random();
+        for (int round = 0; round < 500; round++) {
+            // small alphabet of lines, so that there are many common subsequences.
+            List<String> x = randomLines(randGen, randGen.nextInt(40), 1 + randGen.nextInt(6));
+            List<String> y = randomLines(randGen, randGen.nextInt(40), 1 + randGen.nextInt(6));
+            int expectedUnchangedCount = assertValidChanges(x, y, DiffAlgorithm.LCS);
+            for (DiffAlgorithm algorithm : ALGORITHMS) {
+                int actualUnchangedCount = assertValidChanges(x, y, algorithm);
+                if (Arrays.asList(LCS_ALGORITHMS).contains(algorithm)) {
+                    assertEquals(actualUnchangedCount, expectedUnchangedCount, algorithm + " " + x + " " + y);
+                }
+                else {
+                    assertTrue(actualUnchangedCount <= expectedUnchangedCount, algorithm + " " + x + " " + y);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLargeSimilarFiles() throws Exception {
+        // too large for an O(mn) table.
+        List<String> x = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            x.add("line " + i + "\n");
+        }
+        List<String> y = new ArrayList<>(x);
+        y.set(1000, "changed\n");
+        y.remove(150_000);
+        y.add(199_998, "inserted\n");
+        StringWriter actualWriter = new StringWriter();
+        Diff.printNormalDiff(x, y, actualWriter);
+        String expected = String.format("1001c1001%n" +
+            "< line 1000%n" +
+            "---%n" +
+            "> changed%n" +
+            "150001d150000%n" +
+            "< line 150000%n" +
+            "199999a199999%n" +
+            "> inserted%n");
+        assertEquals(actualWriter.toString(), expected);
+    }
+
+    @Test
+    public void testManyDifferences() {
+        // shortest edit script is too long for keeping a trace of every round.
+        List<String> x = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            x.add("line " + i + "\n");
+        }
+        List<String> y = new ArrayList<>(x);
+        Collections.reverse(y);
+        for (DiffAlgorithm algorithm : new DiffAlgorithm[]{ DiffAlgorithm.MYERS,
+                DiffAlgorithm.PATIENCE, DiffAlgorithm.HISTOGRAM }) {
+            assertEquals(assertValidChanges(x, y, algorithm), 1);
+        }
+    }
+
+    @Test
+    public void testLargeRandomEdits() {
+        // large enough for linear space algorithm to run subproblems in parallel.
+        Random randGen = new Random();
+        List<String> x = randomLines(randGen, 20_000, 26);
+        List<String> y = new ArrayList<>(x);
+        for (int i = 0; i < 500; i++) {
+            int index = randGen.nextInt(y.size());
+            if (randGen.nextBoolean()) {
+                y.remove(index);
+            }
+            else {
+                y.add(index, randomLines(randGen, 1, 26).get(0));
+            }
+        }
+        int expectedUnchangedCount = assertValidChanges(x, y, DiffAlgorithm.MYERS);
+        for (DiffAlgorithm algorithm : new DiffAlgorithm[]{ DiffAlgorithm.MYERS_LINEAR_SPACE,
+                DiffAlgorithm.MYERS_LINEAR_SPACE_PARALLEL }) {
+            int actualUnchangedCount = assertValidChanges(x, y, algorithm);
+            assertEquals(actualUnchangedCount, expectedUnchangedCount);
+        }
+        for (DiffAlgorithm algorithm : new DiffAlgorithm[]{ DiffAlgorithm.PATIENCE,
+                DiffAlgorithm.HISTOGRAM }) {
+            int actualUnchangedCount = assertValidChanges(x, y, algorithm);
+            assertTrue(actualUnchangedCount <= expectedUnchangedCount);
+        }
+    }
+
+    private static List<String> randomLines(Random randGen, int count, int alphabetSize) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            lines.add((char)('a' + randGen.nextInt(alphabetSize)) + "\n");
+        }
+        return lines;
+    }
+
+    /**
+     * Asserts that unchanged lines of x and y found by an algorithm form a common subsequence.
+     * @return length of common subsequence.
+     */
+    private static int assertValidChanges(List<String> x, List<String> y, DiffAlgorithm algorithm) {
+        LineInterner interner = new LineInterner(false, false);
+        int[] xIds = interner.internAll(x);
+        int[] yIds = interner.internAll(y);
+        boolean[] xChanged = new boolean[x.size()];
+        boolean[] yChanged = new boolean[y.size()];
+        algorithm.findChanges(xIds, yIds, xChanged, yChanged);
+        List<String> xUnchanged = new ArrayList<>();
+        for (int i = 0; i < x.size(); i++) {
+            if (!xChanged[i]) {
+                xUnchanged.add(x.get(i));
+            }
+        }
+        List<String> yUnchanged = new ArrayList<>();
+        for (int j = 0; j < y.size(); j++) {
+            if (!yChanged[j]) {
+                yUnchanged.add(y.get(j));
+            }
+        }
+        assertEquals(xUnchanged, yUnchanged, algorithm + " " + x + " " + y);
+        return xUnchanged.size();
+    }
+
     @DataProvider
     public Object[][] createTestData() {
         return new Object[][]{
@@ -0,0 +1,127 @@
+package com.aaronicsubstances.cs_and_math;
+
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.testng.Assert.*;
+
+public class EventLoopMetricsTest {
+
+    private static class SlowCallback implements Runnable {
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            while (System.nanoTime() - start < 1_000_000) {
+                // spin for a millisecond.
+            }
+        }
+    }
+
+    private static class FastCallback implements Runnable {
+        @Override
+        public void run() {
+        }
+    }
+
+    @Test
+    public void testBucketOf() {
+        assertEquals(EventLoopMetrics.bucketOf(0), 0);
+        assertEquals(EventLoopMetrics.bucketOf(1), 1);
+        assertEquals(EventLoopMetrics.bucketOf(2), 2);
+        assertEquals(EventLoopMetrics.bucketOf(3), 2);
+        assertEquals(EventLoopMetrics.bucketOf(4), 3);
+        assertEquals(EventLoopMetrics.bucketOf(Long.MAX_VALUE), 63);
+        for (int bucket = 0; bucket < 64; bucket++) {
+            assertEquals(EventLoopMetrics.bucketOf(EventLoopMetrics.getBucketLowerBound(bucket)),
+                bucket);
+        }
+    }
+
+    @Test
+    public void testMetrics() {
+        VirtualEventLoop instance = new VirtualEventLoop();
+        assertNull(instance.getMetrics());
+        // events before metrics are set are not counted.
+        instance.postCallback(new FastCallback());
+        instance.advanceTimeBy(0);
+
+        EventLoopMetrics metrics = new EventLoopMetrics();
+        instance.setMetrics(metrics);
+        assertSame(instance.getMetrics(), metrics);
+        assertTrue(Double.isNaN(metrics.getCancelledToFiredRatio()));
+        assertTrue(Double.isNaN(metrics.getFiredPerSecond()));
+
+        for (int i = 0; i < 3; i++) {
+            instance.setTimeout(new SlowCallback(), 10 + i);
+        }
+        for (int i = 0; i < 100; i++) {
+            Object handle = instance.setTimeout(new FastCallback(), i);
+            if (i % 4 == 0) {
+                instance.clearTimeout(handle);
+            }
+        }
+        int[] intervalCount = new int[1];
+        Object[] intervalHandle = new Object[1];
+        intervalHandle[0] = instance.setInterval(() -> {
+            if (++intervalCount[0] == 5) {
+                instance.clearInterval(intervalHandle[0]);
+            }
+            // nested advance should not be double counted.
+            instance.advanceTimeBy(0);
+        }, 7);
+        instance.advanceTimeTo(1000);
+
+        assertEquals(metrics.getFiredCount(), 3 + 75 + 5);
+        assertEquals(metrics.getCancelledCount(), 25 + 1);
+        assertThat(metrics.getCancelledToFiredRatio(), closeTo(26.0 / 83, 1e-9));
+        assertThat(metrics.getElapsedNanos(), greaterThanOrEqualTo(3_000_000L));
+        assertThat(metrics.getFiredPerSecond(), greaterThan(0.0));
+
+        long[] queueDepthHistogram = metrics.getQueueDepthHistogram();
+        assertEquals(queueDepthHistogram.length, 64);
+        assertEquals(queueDepthHistogram[0], 0);
+        // last callback is fired with only itself pending.
+        assertEquals(queueDepthHistogram[1], 1);
+        assertEquals(sum(queueDepthHistogram), 83);
+        long[] callbackNanosHistogram = metrics.getCallbackNanosHistogram();
+        assertEquals(sum(callbackNanosHistogram), 83);
+        assertThat(sum(callbackNanosHistogram, EventLoopMetrics.bucketOf(1_000_000)),
+            greaterThanOrEqualTo(3L));
+
+        List<EventLoopMetrics.CallbackClassStatistics> slowest = metrics.getSlowestCallbackClasses(2);
+        assertEquals(slowest.size(), 2);
+        assertEquals(slowest.get(0).getCallbackClass(), SlowCallback.class);
+        assertEquals(slowest.get(0).getCount(), 3);
+        assertThat(slowest.get(0).getTotalNanos(), greaterThanOrEqualTo(3_000_000L));
+        assertThat(slowest.get(0).getMaxNanos(), greaterThanOrEqualTo(1_000_000L));
+        assertThat(slowest.get(0).getMeanNanos(), greaterThanOrEqualTo(1e6));
+        assertThat(metrics.getSlowestCallbackClasses(10).size(), is(3));
+
+        metrics.reset();
+        assertEquals(metrics.getFiredCount(), 0);
+        assertEquals(metrics.getCancelledCount(), 0);
+        assertEquals(metrics.getElapsedNanos(), 0);
+        assertEquals(sum(metrics.getQueueDepthHistogram()), 0);
+        assertEquals(metrics.getSlowestCallbackClasses(10).size(), 0);
+
+        instance.setMetrics(null);
+        instance.postCallback(new FastCallback());
+        instance.advanceTimeBy(0);
+        assertEquals(metrics.getFiredCount(), 0);
+    }
+
+    private static long sum(long[] histogram) {
+        return sum(histogram, 0);
+    }
+
+    private static long sum(long[] histogram, int fromBucket) {
+        long total = 0;
+        for (int i = fromBucket; i < histogram.length; i++) {
+            total += histogram[i];
+        }
+        return total;
+    }
+}
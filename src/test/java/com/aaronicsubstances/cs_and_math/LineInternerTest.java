@@ -0,0 +1,57 @@
+package com.aaronicsubstances.cs_and_math;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+public class LineInternerTest {
+
+    @DataProvider
+    public Object[][] createTestInternData() {
+        List<String> lines = Arrays.asList("a b\n", "A B\n", "ab", " a\tb \r\n", "a b\n",
+            "", "\n", "b a\n", "\u0130\n", "i\n");
+        return new Object[][]{
+            { false, false, lines, new int[]{ 0, 1, 2, 3, 0, 4, 5, 6, 7, 8 } },
+            // dotted capital I and i are equal ignoring case, like in String.equalsIgnoreCase.
+            { true, false, lines, new int[]{ 0, 0, 1, 2, 0, 3, 4, 5, 6, 6 } },
+            { false, true, lines, new int[]{ 0, 1, 0, 0, 0, 2, 2, 3, 4, 5 } },
+            { true, true, lines, new int[]{ 0, 0, 0, 0, 0, 1, 1, 2, 3, 3 } },
+        };
+    }
+
+    @Test(dataProvider = "createTestInternData")
+    public void testIntern(boolean ignoreCase, boolean ignoreWhitespace, List<String> lines,
+            int[] expected) {
+        LineInterner instance = new LineInterner(ignoreCase, ignoreWhitespace);
+        assertThat(instance.internAll(lines), is(expected));
+        int expectedDistinctCount = Arrays.stream(expected).max().getAsInt() + 1;
+        assertThat(instance.getDistinctCount(), is(expectedDistinctCount));
+    }
+
+    @Test
+    public void testAgainstHashMap() {
+        Random randGen = new Random();
+        LineInterner instance = new LineInterner(false, false);
+        Map<String, Integer> expected = new HashMap<>();
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            String line = "line " + randGen.nextInt(20_000) + "\n";
+            lines.add(line);
+            expected.putIfAbsent(line, expected.size());
+        }
+        int[] actual = instance.internAll(lines);
+        for (int i = 0; i < lines.size(); i++) {
+            assertThat(actual[i], is(expected.get(lines.get(i))));
+        }
+        assertThat(instance.getDistinctCount(), is(expected.size()));
+    }
+}
@@ -0,0 +1,265 @@
+package com.aaronicsubstances.cs_and_math;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.testng.Assert.*;
+
+public class RealTimeEventLoopTest {
+
+    @Test
+    public void testForErrors() throws InterruptedException {
+        expectThrows(IllegalArgumentException.class,
+            () -> new RealTimeEventLoop(0, TimeUnit.MILLISECONDS));
+        RealTimeEventLoop instance = new RealTimeEventLoop();
+        try {
+            expectThrows(IllegalArgumentException.class, () -> instance.postCallback(null));
+            expectThrows(IllegalArgumentException.class, () -> instance.setTimeout(null, 0));
+            expectThrows(IllegalArgumentException.class, () -> instance.setTimeout(() -> {}, -1));
+            // invalid handles are ignored.
+            assertFalse(instance.clearTimeout(null));
+            assertFalse(instance.clearTimeout("invalid"));
+            // thread does not keep JVM alive.
+            assertTrue(instance.getThread().isDaemon());
+        }
+        finally {
+            instance.shutdown();
+        }
+        assertTrue(instance.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(instance.isShutdown());
+        expectThrows(IllegalStateException.class, () -> instance.setTimeout(() -> {}, 0));
+    }
+
+    @DataProvider
+    public Object[][] createTimeoutOrderData() {
+        return new Object[][]{
+            { 1, 50, false },
+            { 20, 50, false },
+            { 1, 50, true },
+            { 20, 50, true },
+        };
+    }
+
+    @Test(dataProvider = "createTimeoutOrderData")
+    public void testTimeoutOrder(int toleranceMillis, int maxDelay, boolean fromLoopThread)
+            throws InterruptedException {
+        RealTimeEventLoop instance = new RealTimeEventLoop(toleranceMillis, TimeUnit.MILLISECONDS);
+        try {
+            Random randGen = new Random();
+            int[] delays = new int[200];
+            for (int i = 0; i < delays.length; i++) {
+                delays[i] = randGen.nextInt(maxDelay);
+            }
+            List<Integer> firedIndices = Collections.synchronizedList(new ArrayList<>());
+            AtomicInteger earlyCount = new AtomicInteger();
+            CountDownLatch latch = new CountDownLatch(delays.length);
+            Runnable scheduler = () -> {
+                for (int i = 0; i < delays.length; i++) {
+                    int index = i;
+                    long deadline = System.nanoTime() + delays[i] * 1_000_000L;
+                    instance.setTimeout(() -> {
+                        if (System.nanoTime() < deadline) {
+                            earlyCount.incrementAndGet();
+                        }
+                        firedIndices.add(index);
+                        latch.countDown();
+                    }, delays[i]);
+                }
+            };
+            if (fromLoopThread) {
+                instance.postCallback(scheduler);
+            }
+            else {
+                scheduler.run();
+            }
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertThat(earlyCount.get(), is(0));
+
+            // callbacks with equal delays should run in order of scheduling.
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < delays.length; i++) {
+                expected.add(i);
+            }
+            List<Integer> actual = new ArrayList<>(firedIndices);
+            List<Integer> actualForDelay = new ArrayList<>();
+            for (int delay = 0; delay < maxDelay; delay++) {
+                actualForDelay.clear();
+                for (int index : actual) {
+                    if (delays[index] == delay) {
+                        actualForDelay.add(index);
+                    }
+                }
+                assertThat(actualForDelay, is(sortedCopy(actualForDelay)));
+            }
+            assertThat(sortedCopy(actual), is(expected));
+        }
+        finally {
+            instance.shutdown();
+        }
+        assertTrue(instance.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    private static List<Integer> sortedCopy(List<Integer> list) {
+        List<Integer> copy = new ArrayList<>(list);
+        Collections.sort(copy);
+        return copy;
+    }
+
+    @Test
+    public void testCoalescing() throws InterruptedException {
+        // a tolerance window long enough to span all deadlines, which are well within the
+        // first window since instance was just created.
+        RealTimeEventLoop instance = new RealTimeEventLoop(500, TimeUnit.MILLISECONDS);
+        try {
+            List<String> logs = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch latch = new CountDownLatch(1);
+            long startNanos = System.nanoTime();
+            instance.postCallback(() -> {
+                instance.setTimeout(() -> logs.add("30"), 30);
+                instance.setTimeout(() -> logs.add("10"), 10);
+                instance.setTimeout(() -> logs.add("20"), 20);
+                instance.setTimeout(latch::countDown, 0);
+            });
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            // all callbacks ran together at end of window, in order of scheduling.
+            assertThat(System.nanoTime() - startNanos, greaterThanOrEqualTo(
+                TimeUnit.MILLISECONDS.toNanos(400)));
+            assertThat(logs, is(Arrays.asList("30", "10", "20")));
+        }
+        finally {
+            instance.shutdown();
+        }
+        assertTrue(instance.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testClearTimeout() throws InterruptedException {
+        RealTimeEventLoop instance = new RealTimeEventLoop();
+        try {
+            List<String> logs = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch latch = new CountDownLatch(1);
+
+            // cancel from another thread.
+            Object handle = instance.setTimeout(() -> logs.add("cancelled"), 20);
+            assertTrue(instance.clearTimeout(handle));
+            assertFalse(instance.clearTimeout(handle));
+
+            // cancel from event loop thread, including a callback submitted by another thread.
+            Object submitted = instance.setTimeout(() -> logs.add("cancelled too"), 30);
+            instance.postCallback(() -> {
+                Object local = instance.setTimeout(() -> logs.add("cancelled also"), 10);
+                instance.clearTimeout(local);
+                instance.clearTimeout(submitted);
+                instance.setTimeout(() -> logs.add("kept"), 40);
+                instance.setTimeout(latch::countDown, 50);
+            });
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertThat(logs, is(Collections.singletonList("kept")));
+
+            // cancelling after execution has no effect.
+            assertFalse(instance.clearTimeout(submitted));
+
+            // handles of other instances are ignored.
+            RealTimeEventLoop other = new RealTimeEventLoop();
+            try {
+                CountDownLatch otherLatch = new CountDownLatch(1);
+                Object otherHandle = other.setTimeout(otherLatch::countDown, 20);
+                assertFalse(instance.clearTimeout(otherHandle));
+                assertTrue(otherLatch.await(10, TimeUnit.SECONDS));
+            }
+            finally {
+                other.shutdown();
+            }
+        }
+        finally {
+            instance.shutdown();
+        }
+        assertTrue(instance.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testCallbackFailureDoesNotStopLoop() throws InterruptedException {
+        RealTimeEventLoop instance = new RealTimeEventLoop();
+        try {
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            instance.getThread().setUncaughtExceptionHandler((t, ex) -> failure.set(ex));
+            CountDownLatch latch = new CountDownLatch(1);
+            instance.postCallback(() -> {
+                throw new RuntimeException("test");
+            });
+            instance.setTimeout(latch::countDown, 10);
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertThat(failure.get().getMessage(), is("test"));
+        }
+        finally {
+            instance.shutdown();
+        }
+        assertTrue(instance.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testManyTimersFromManyThreads() throws InterruptedException {
+        RealTimeEventLoop instance = new RealTimeEventLoop();
+        try {
+            int threadCount = 4, timersPerThread = 50_000;
+            AtomicInteger firedCount = new AtomicInteger();
+            AtomicInteger firedAfterClearCount = new AtomicInteger();
+            CountDownLatch latch = new CountDownLatch(threadCount * timersPerThread / 2);
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                Thread t = new Thread(() -> {
+                    Random randGen = new Random();
+                    for (int j = 0; j < timersPerThread; j++) {
+                        // cancel every other timer.
+                        if (j % 2 == 1) {
+                            // timer may legitimately fire before clearTimeout is called, but
+                            // not after clearTimeout reports that it cancelled the timer.
+                            AtomicBoolean cancelled = new AtomicBoolean();
+                            Object handle = instance.setTimeout(() -> {
+                                if (cancelled.get()) {
+                                    firedAfterClearCount.incrementAndGet();
+                                }
+                            }, randGen.nextInt(200));
+                            cancelled.set(instance.clearTimeout(handle));
+                        }
+                        else {
+                            instance.setTimeout(() -> {
+                                firedCount.incrementAndGet();
+                                latch.countDown();
+                            }, randGen.nextInt(200));
+                        }
+                    }
+                });
+                threads.add(t);
+                t.start();
+            }
+            for (Thread t : threads) {
+                t.join();
+            }
+            assertTrue(latch.await(30, TimeUnit.SECONDS));
+            // give any wrongly uncancelled timers time to fire.
+            CountDownLatch lastLatch = new CountDownLatch(1);
+            instance.setTimeout(lastLatch::countDown, 250);
+            assertTrue(lastLatch.await(10, TimeUnit.SECONDS));
+            assertThat(firedCount.get(), is(threadCount * timersPerThread / 2));
+            assertThat(firedAfterClearCount.get(), is(0));
+        }
+        finally {
+            instance.shutdown();
+        }
+        assertTrue(instance.awaitTermination(10, TimeUnit.SECONDS));
+    }
+}
@@ -2,7 +2,16 @@ package com.aaronicsubstances.cs_and_math;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.LongStream;
+
+import com.aaronicsubstances.cs_and_math.simulation.EventQueue;
+import com.aaronicsubstances.cs_and_math.simulation.HeapEventQueue;
+import com.aaronicsubstances.cs_and_math.simulation.ScheduledEvent;
 
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -13,6 +22,10 @@ import static org.testng.Assert.*;
 
 public class VirtualEventLoopTest {
 
+    protected VirtualEventLoop createInstance() {
+        return new VirtualEventLoop();
+    }
+
     private void advanceLoop(VirtualEventLoop instance, boolean callAdvanceBy, int delay) {
         if (callAdvanceBy) {
             instance.advanceTimeBy(delay);
@@ -26,34 +39,95 @@ public class VirtualEventLoopTest {
     public void testForErrors() {
         expectThrows(IllegalArgumentException.class,
             () -> {
-                VirtualEventLoop instance = new VirtualEventLoop();
+                VirtualEventLoop instance = createInstance();
                 instance.advanceTimeBy(-1);
             });
         expectThrows(IllegalArgumentException.class,
             () -> {
-                VirtualEventLoop instance = new VirtualEventLoop();
+                VirtualEventLoop instance = createInstance();
                 instance.advanceTimeTo(-1);
             });
         expectThrows(IllegalArgumentException.class,
             () -> {
-                VirtualEventLoop instance = new VirtualEventLoop();
+                VirtualEventLoop instance = createInstance();
                 instance.postCallback(null);
             });
         expectThrows(IllegalArgumentException.class,
             () -> {
-                VirtualEventLoop instance = new VirtualEventLoop();
+                VirtualEventLoop instance = createInstance();
                 instance.setTimeout(null, 0);
             });
         expectThrows(IllegalArgumentException.class,
             () -> {
-                VirtualEventLoop instance = new VirtualEventLoop();
+                VirtualEventLoop instance = createInstance();
                 instance.setTimeout(() -> {}, -1);
             });
+        expectThrows(IllegalArgumentException.class,
+            () -> {
+                VirtualEventLoop instance = createInstance();
+                instance.setInterval(() -> {}, 0);
+            });
+        expectThrows(IllegalArgumentException.class,
+            () -> {
+                VirtualEventLoop instance = createInstance();
+                instance.setInterval(() -> {}, -1, 1, true);
+            });
+        expectThrows(IllegalArgumentException.class,
+            () -> {
+                VirtualEventLoop instance = createInstance();
+                instance.setInterval(null, 1);
+            });
+        expectThrows(IllegalArgumentException.class,
+            () -> {
+                VirtualEventLoop instance = createInstance();
+                instance.submitCallback(null);
+            });
+        expectThrows(IllegalArgumentException.class,
+            () -> {
+                VirtualEventLoop instance = createInstance();
+                instance.scheduleAll(new long[2], new Runnable[]{ () -> {} });
+            });
+        expectThrows(IllegalArgumentException.class,
+            () -> {
+                VirtualEventLoop instance = createInstance();
+                instance.scheduleAll(new long[2], new Runnable[]{ () -> {}, null });
+            });
+        expectThrows(IllegalArgumentException.class,
+            () -> {
+                VirtualEventLoop instance = createInstance();
+                instance.advanceTimeTo(5);
+                instance.scheduleAll(new long[]{ 5, 4 }, new Runnable[]{ () -> {}, () -> {} });
+            });
+        expectThrows(IllegalArgumentException.class,
+            () -> {
+                VirtualEventLoop instance = createInstance();
+                instance.scheduleAll(LongStream.of(1, 2).iterator(),
+                    Arrays.<Runnable>asList(() -> {}).iterator());
+            });
+        expectThrows(IllegalArgumentException.class,
+            () -> {
+                VirtualEventLoop instance = createInstance();
+                instance.scheduleAll(LongStream.of(1).iterator(),
+                    Arrays.<Runnable>asList(() -> {}, () -> {}).iterator());
+            });
+        expectThrows(IllegalArgumentException.class,
+            () -> {
+                VirtualEventLoop instance = createInstance();
+                instance.submitTimeout(() -> {}, -1);
+            });
+        expectThrows(NullPointerException.class,
+            () -> new VirtualEventLoop(null));
+        expectThrows(IllegalArgumentException.class,
+            () -> {
+                EventQueue eventQueue = new HeapEventQueue();
+                eventQueue.add(new ScheduledEvent(0, 0));
+                new VirtualEventLoop(eventQueue);
+            });
     }
     
     @Test(dataProvider = "createTestAdvanceData")
     public void testAdvance(boolean callAdvanceBy) {
-        VirtualEventLoop instance = new VirtualEventLoop();
+        VirtualEventLoop instance = createInstance();
         assertEquals(instance.getCurrentTimestamp(), 0);
 
         List<String> callbackLogs = new ArrayList<String>();
@@ -210,7 +284,7 @@ public class VirtualEventLoopTest {
 
     @Test
     public void testNestedCallbackPosts() {
-        VirtualEventLoop instance = new VirtualEventLoop();
+        VirtualEventLoop instance = createInstance();
 
         assertEquals(instance.getCurrentTimestamp(), 0);
 
@@ -262,7 +336,7 @@ public class VirtualEventLoopTest {
 
     @Test
     public void testPerformanceForOverOneThousand() {
-        VirtualEventLoop instance = new VirtualEventLoop();
+        VirtualEventLoop instance = createInstance();
 
         int timeLimit = 10_000;
         for (int i = 0; i < timeLimit; i++) {
@@ -270,4 +344,289 @@ public class VirtualEventLoopTest {
         }
         instance.advanceTimeTo(timeLimit);
     }
+
+    @Test
+    public void testRandomSchedulingAndCancellation() {
+        Random randGen = new Random();
+        VirtualEventLoop instance = createInstance();
+        List<Object> handles = new ArrayList<>();
+        List<long[]> expected = new ArrayList<>();
+        Set<Integer> cancelled = new HashSet<>();
+        List<long[]> actual = new ArrayList<>();
+        int eventCount = 20_000;
+        for (int i = 0; i < eventCount; i++) {
+            int seq = i;
+            int delay = randGen.nextInt(100);
+            handles.add(instance.setTimeout(() ->
+                actual.add(new long[]{ instance.getCurrentTimestamp(), seq }), delay));
+            expected.add(new long[]{ delay, seq });
+        }
+        for (int i = 0; i < eventCount / 3; i++) {
+            int seq = randGen.nextInt(eventCount);
+            instance.clearTimeout(handles.get(seq));
+            cancelled.add(seq);
+        }
+        // cancelling twice or with foreign handle should be ignored.
+        instance.clearTimeout(handles.get(cancelled.iterator().next()));
+        instance.clearTimeout(createInstance().setTimeout(() -> { }, 0));
+        instance.clearTimeout(null);
+
+        expected.removeIf(e -> cancelled.contains((int) e[1]));
+        assertEquals(instance.getPendingEventCount(), expected.size());
+        // expect stable sort by time.
+        expected.sort((a, b) -> Long.compare(a[0], b[0]));
+
+        instance.advanceTimeTo(100);
+        assertEquals(instance.getPendingEventCount(), 0);
+        assertEquals(actual.size(), expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(actual.get(i), expected.get(i));
+        }
+
+        // handles of executed callbacks should be ignored.
+        instance.clearTimeout(handles.get(expected.size() - 1));
+        assertEquals(instance.getPendingEventCount(), 0);
+    }
+
+    @Test
+    public void testMostlyCancelledTimeouts() {
+        Random randGen = new Random();
+        VirtualEventLoop instance = createInstance();
+        List<Integer> expected = new ArrayList<>();
+        List<Integer> actual = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            int seq = i;
+            // like a retransmit timer which is usually cancelled by an acknowledgement.
+            Object handle = instance.setTimeout(() -> actual.add(seq), 1 + randGen.nextInt(1000));
+            if (randGen.nextInt(10) != 0) {
+                instance.clearTimeout(handle);
+                instance.clearTimeout(handle);
+            }
+            else {
+                expected.add(seq);
+            }
+            if (i % 100 == 99) {
+                instance.advanceTimeBy(1);
+            }
+            assertEquals(instance.getPendingEventCount(), expected.size() - actual.size());
+        }
+        instance.advanceTimeBy(1000);
+        assertEquals(instance.getPendingEventCount(), 0);
+        actual.sort(null);
+        assertThat(actual, is(expected));
+    }
+
+    @Test
+    public void testPerformanceForOverOneMillion() {
+        VirtualEventLoop instance = createInstance();
+        Random randGen = new Random();
+
+        int eventCount = 1_000_000;
+        for (int i = 0; i < eventCount; i++) {
+            instance.setTimeout(() -> { }, randGen.nextInt(eventCount));
+        }
+        assertEquals(instance.getPendingEventCount(), eventCount);
+        instance.advanceTimeTo(eventCount);
+        assertEquals(instance.getPendingEventCount(), 0);
+    }
+
+    @Test
+    public void testSubmissionFromManyThreads() throws InterruptedException {
+        VirtualEventLoop instance = createInstance();
+        int producerCount = 4, submissionCount = 20_000;
+        // only accessed by thread advancing time.
+        List<List<Integer>> logs = new ArrayList<>();
+        for (int i = 0; i < producerCount; i++) {
+            logs.add(new ArrayList<>());
+        }
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<>();
+        for (int i = 0; i < producerCount; i++) {
+            int producer = i;
+            Thread t = new Thread(() -> {
+                try {
+                    startSignal.await();
+                }
+                catch (InterruptedException ex) {
+                    return;
+                }
+                for (int j = 0; j < submissionCount; j++) {
+                    int seq = j;
+                    instance.submitTimeout(() -> logs.get(producer).add(seq), 10);
+                }
+            });
+            t.start();
+            producers.add(t);
+        }
+        startSignal.countDown();
+        // drain concurrently with producers.
+        while (producers.stream().anyMatch(Thread::isAlive)) {
+            instance.advanceTimeBy(1);
+        }
+        for (Thread t : producers) {
+            t.join();
+        }
+        instance.advanceTimeBy(0);
+        assertEquals(instance.getPendingEventCount(), producerCount * submissionCount -
+            logs.stream().mapToInt(List::size).sum());
+        instance.advanceTimeBy(10);
+        assertEquals(instance.getPendingEventCount(), 0);
+        for (List<Integer> log : logs) {
+            // same delay from non-decreasing times, so order of submission is retained.
+            assertEquals(log.size(), submissionCount);
+            for (int j = 0; j < submissionCount; j++) {
+                assertEquals((int) log.get(j), j);
+            }
+        }
+    }
+
+    @Test
+    public void testSubmissionFromCallback() {
+        VirtualEventLoop instance = createInstance();
+        List<String> log = new ArrayList<>();
+        instance.setTimeout(() -> {
+            log.add("a" + instance.getCurrentTimestamp());
+            instance.submitTimeout(() -> log.add("c" + instance.getCurrentTimestamp()), 3);
+            instance.submitCallback(() -> log.add("b" + instance.getCurrentTimestamp()));
+        }, 5);
+        instance.setTimeout(() -> log.add("d" + instance.getCurrentTimestamp()), 8);
+        instance.advanceTimeTo(4);
+        assertEquals(log, Arrays.asList());
+        instance.advanceTimeTo(20);
+        assertEquals(log, Arrays.asList("a5", "b5", "d8", "c8"));
+    }
+
+    @Test
+    public void testIntervals() {
+        VirtualEventLoop instance = createInstance();
+        List<String> callbackLogs = new ArrayList<>();
+
+        instance.setInterval(() -> callbackLogs.add("a" + instance.getCurrentTimestamp()), 3);
+        // callbacks advancing time by 1 to model service time.
+        instance.setInterval(() -> {
+            callbackLogs.add("r" + instance.getCurrentTimestamp());
+            instance.advanceTimeBy(1);
+        }, 2, 4, true);
+        instance.setInterval(() -> {
+            callbackLogs.add("d" + instance.getCurrentTimestamp());
+            instance.advanceTimeBy(1);
+        }, 2, 4, false);
+        Object[] selfCancellingHandle = new Object[1];
+        int[] selfCancellingCount = new int[1];
+        selfCancellingHandle[0] = instance.setInterval(() -> {
+            callbackLogs.add("s" + instance.getCurrentTimestamp());
+            if (++selfCancellingCount[0] == 2) {
+                instance.clearInterval(selfCancellingHandle[0]);
+            }
+        }, 5);
+        assertEquals(instance.getPendingEventCount(), 4);
+
+        // nested advance by "r" at 2 runs "d" at 2, whose nested advance runs "a" at 3.
+        // Thereafter "d" is scheduled a period after completing at 3, and "r" keeps to its rate.
+        instance.advanceTimeTo(12);
+        assertThat(callbackLogs, is(Arrays.asList(
+            "r2", "d2", "a3", "s5", "a6", "r6", "d7", "a9", "s10", "r10", "d12", "a12")));
+        assertEquals(instance.getPendingEventCount(), 3);
+    }
+
+    @Test
+    public void testIntervalCancellation() {
+        VirtualEventLoop instance = createInstance();
+        int[] counts = new int[2];
+        Object handle = instance.setInterval(() -> counts[0]++, 1);
+        instance.setInterval(() -> counts[1]++, 0, 2, false);
+        instance.advanceTimeTo(10);
+        assertThat(counts, is(new int[]{ 10, 6 }));
+        instance.clearInterval(handle);
+        instance.clearInterval(handle);
+        assertEquals(instance.getPendingEventCount(), 1);
+        instance.advanceTimeTo(20);
+        assertThat(counts, is(new int[]{ 10, 11 }));
+
+        // an interval whose callback fails is not rescheduled.
+        Object failingHandle = instance.setInterval(() -> {
+            throw new UnsupportedOperationException();
+        }, 1);
+        expectThrows(UnsupportedOperationException.class, () -> instance.advanceTimeBy(1));
+        assertEquals(instance.getPendingEventCount(), 1);
+        instance.clearInterval(failingHandle);
+        assertEquals(instance.getPendingEventCount(), 1);
+    }
+
+    @Test
+    public void testManyIntervals() {
+        VirtualEventLoop instance = createInstance();
+        Random randGen = new Random();
+        int intervalCount = 100_000, endTimestamp = 1000;
+        int[] counts = new int[intervalCount];
+        int[] periods = new int[intervalCount];
+        for (int i = 0; i < intervalCount; i++) {
+            int index = i;
+            periods[i] = 1 + randGen.nextInt(100);
+            instance.setInterval(() -> counts[index]++, periods[i]);
+        }
+        instance.advanceTimeTo(endTimestamp);
+        assertEquals(instance.getPendingEventCount(), intervalCount);
+        for (int i = 0; i < intervalCount; i++) {
+            assertEquals(counts[i], endTimestamp / periods[i]);
+        }
+    }
+
+    @Test
+    public void testScheduleAll() {
+        VirtualEventLoop instance = createInstance();
+        List<String> log = new ArrayList<>();
+        instance.advanceTimeTo(10);
+        instance.setTimeout(() -> log.add("a" + instance.getCurrentTimestamp()), 5);
+        Object[] handles = instance.scheduleAll(new long[]{ 20, 15, 10, 15, 30 },
+            new Runnable[]{
+                () -> log.add("b" + instance.getCurrentTimestamp()),
+                () -> log.add("c" + instance.getCurrentTimestamp()),
+                () -> log.add("d" + instance.getCurrentTimestamp()),
+                () -> log.add("e" + instance.getCurrentTimestamp()),
+                () -> log.add("f" + instance.getCurrentTimestamp()),
+            });
+        assertEquals(handles.length, 5);
+        assertEquals(instance.getPendingEventCount(), 6);
+        instance.clearTimeout(handles[3]);
+        List<Object> moreHandles = instance.scheduleAll(LongStream.of(15, 25).iterator(),
+            Arrays.<Runnable>asList(
+                () -> log.add("g" + instance.getCurrentTimestamp()),
+                () -> log.add("h" + instance.getCurrentTimestamp())).iterator());
+        assertEquals(moreHandles.size(), 2);
+        instance.clearTimeout(moreHandles.get(1));
+        assertEquals(instance.getPendingEventCount(), 6);
+        assertEquals(instance.scheduleAll(new long[0], new Runnable[0]).length, 0);
+
+        instance.advanceTimeTo(100);
+        assertThat(log, is(Arrays.asList("d10", "a15", "c15", "g15", "b20", "f30")));
+    }
+
+    @Test
+    public void testScheduleAllAgainstSetTimeout() {
+        Random randGen = new Random();
+        VirtualEventLoop instance = createInstance();
+        VirtualEventLoop expectedInstance = createInstance();
+        List<Integer> expected = new ArrayList<>();
+        List<Integer> actual = new ArrayList<>();
+        int seq = 0;
+        for (int batchSize : new int[]{ 100_000, 10, 1000, 50_000 }) {
+            long[] timestamps = new long[batchSize];
+            Runnable[] callbacks = new Runnable[batchSize];
+            for (int i = 0; i < batchSize; i++, seq++) {
+                int id = seq;
+                int delay = randGen.nextInt(10_000);
+                timestamps[i] = instance.getCurrentTimestamp() + delay;
+                callbacks[i] = () -> actual.add(id);
+                expectedInstance.setTimeout(() -> expected.add(id), delay);
+            }
+            instance.scheduleAll(timestamps, callbacks);
+            assertEquals(instance.getPendingEventCount(), expectedInstance.getPendingEventCount());
+            instance.advanceTimeBy(2000);
+            expectedInstance.advanceTimeBy(2000);
+        }
+        instance.advanceTimeBy(10_000);
+        expectedInstance.advanceTimeBy(10_000);
+        assertThat(actual, is(expected));
+    }
 }
@@ -0,0 +1,14 @@
+package com.aaronicsubstances.cs_and_math;
+
+import com.aaronicsubstances.cs_and_math.simulation.CalendarEventQueue;
+
+/**
+ * Runs all tests of {@link VirtualEventLoopTest} against a calendar queue.
+ */
+public class VirtualEventLoopWithCalendarQueueTest extends VirtualEventLoopTest {
+
+    @Override
+    protected VirtualEventLoop createInstance() {
+        return new VirtualEventLoop(new CalendarEventQueue());
+    }
+}
@@ -0,0 +1,115 @@
+package com.aaronicsubstances.cs_and_math;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.aaronicsubstances.cs_and_math.simulation.PersistentEventQueue;
+
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.testng.Assert.*;
+
+/**
+ * Runs all tests of {@link VirtualEventLoopTest} against a persistent event queue, and
+ * tests forking.
+ */
+public class VirtualEventLoopWithPersistentQueueTest extends VirtualEventLoopTest {
+
+    @Override
+    protected VirtualEventLoop createInstance() {
+        return new VirtualEventLoop(new PersistentEventQueue());
+    }
+
+    @Test
+    public void testFork() {
+        VirtualEventLoop instance = createInstance();
+        // callbacks log to the list of event loop running them.
+        Map<VirtualEventLoop, List<String>> logs = new HashMap<>();
+        VirtualEventLoop[] current = new VirtualEventLoop[1];
+        Runnable[] callbacks = new Runnable[10];
+        for (int i = 0; i < callbacks.length; i++) {
+            String name = "t" + i;
+            callbacks[i] = () -> logs.get(current[0]).add(current[0].getCurrentTimestamp() + name);
+        }
+        logs.put(instance, new ArrayList<>());
+        current[0] = instance;
+
+        List<Object> handles = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            handles.add(instance.setTimeout(callbacks[i], 10 * (i + 1)));
+        }
+        Object interval = instance.setInterval(callbacks[5], 15);
+        instance.advanceTimeTo(20);
+        assertThat(logs.get(instance), is(Arrays.asList("10t0", "15t5", "20t1")));
+
+        VirtualEventLoop.Snapshot snapshot = instance.snapshot();
+        assertEquals(snapshot.getCurrentTimestamp(), 20);
+        assertEquals(snapshot.getPendingEventCount(), 4);
+        VirtualEventLoop fork1 = snapshot.fork(), fork2 = snapshot.fork(), fork3 = instance.fork();
+        for (VirtualEventLoop fork : Arrays.asList(fork1, fork2, fork3)) {
+            assertEquals(fork.getCurrentTimestamp(), 20);
+            assertEquals(fork.getPendingEventCount(), 4);
+            logs.put(fork, new ArrayList<>());
+        }
+
+        // branches diverge.
+        instance.clearTimeout(handles.get(2));
+        fork1.clearInterval(interval);
+        fork1.setTimeout(callbacks[6], 5);
+        fork2.clearTimeout(handles.get(3));
+        fork2.clearTimeout(handles.get(0)); // already executed.
+        assertEquals(fork2.getPendingEventCount(), 3);
+        // handles created in a branch are not valid in another.
+        Object fork2Handle = fork2.setTimeout(callbacks[7], 7);
+        fork3.clearTimeout(fork2Handle);
+        assertEquals(fork3.getPendingEventCount(), 4);
+
+        for (VirtualEventLoop eventLoop : Arrays.asList(instance, fork1, fork2, fork3)) {
+            current[0] = eventLoop;
+            eventLoop.advanceTimeTo(60);
+        }
+        assertThat(logs.get(instance), is(Arrays.asList("10t0", "15t5", "20t1",
+            "30t5", "40t3", "45t5", "50t4", "60t5")));
+        assertThat(logs.get(fork1), is(Arrays.asList("25t6", "30t2", "40t3", "50t4")));
+        assertThat(logs.get(fork2), is(Arrays.asList("27t7", "30t2", "30t5", "45t5",
+            "50t4", "60t5")));
+        assertThat(logs.get(fork3), is(Arrays.asList("30t2", "30t5", "40t3", "45t5",
+            "50t4", "60t5")));
+
+        // snapshot is unaffected by its forks.
+        VirtualEventLoop fork4 = snapshot.fork();
+        logs.put(fork4, new ArrayList<>());
+        current[0] = fork4;
+        fork4.advanceTimeTo(35);
+        assertThat(logs.get(fork4), is(Arrays.asList("30t2", "30t5")));
+    }
+
+    @Test
+    public void testIntervalCancelledInFork() {
+        VirtualEventLoop instance = createInstance();
+        int[] count = new int[1];
+        Object interval = instance.setInterval(() -> count[0]++, 0, 10, false);
+        instance.advanceTimeTo(25);
+        assertEquals(count[0], 3);
+        VirtualEventLoop fork = instance.fork();
+        fork.clearInterval(interval);
+        fork.clearInterval(interval);
+        assertEquals(fork.getPendingEventCount(), 0);
+        fork.advanceTimeTo(100);
+        assertEquals(count[0], 3);
+        instance.advanceTimeTo(100);
+        assertEquals(count[0], 11);
+        assertEquals(instance.getPendingEventCount(), 1);
+    }
+
+    @Test
+    public void testForkRequiresPersistentQueue() {
+        expectThrows(IllegalStateException.class, () -> new VirtualEventLoop().snapshot());
+        expectThrows(IllegalStateException.class, () -> new VirtualEventLoop().fork());
+    }
+}
@@ -0,0 +1,14 @@
+package com.aaronicsubstances.cs_and_math;
+
+import com.aaronicsubstances.cs_and_math.simulation.TimingWheelEventQueue;
+
+/**
+ * Runs all tests of {@link VirtualEventLoopTest} against a timing wheel event queue.
+ */
+public class VirtualEventLoopWithTimingWheelTest extends VirtualEventLoopTest {
+
+    @Override
+    protected VirtualEventLoop createInstance() {
+        return new VirtualEventLoop(new TimingWheelEventQueue());
+    }
+}
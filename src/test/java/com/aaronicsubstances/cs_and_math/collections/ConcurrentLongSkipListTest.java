@@ -0,0 +1,215 @@
+package com.aaronicsubstances.cs_and_math.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.testng.Assert.*;
+
+public class ConcurrentLongSkipListTest {
+    private final Random randGen = new Random();
+
+    private static <V> List<String> toList(Iterator<LongSkipList.Entry<V>> it) {
+        List<String> list = new ArrayList<>();
+        while (it.hasNext()) {
+            LongSkipList.Entry<V> e = it.next();
+            list.add(e.getKey() + "=" + e.getValue());
+        }
+        return list;
+    }
+
+    private static <V> List<String> toList(Map<Long, V> map) {
+        List<String> list = new ArrayList<>();
+        for (Map.Entry<Long, V> e : map.entrySet()) {
+            list.add(e.getKey() + "=" + e.getValue());
+        }
+        return list;
+    }
+
+    @Test
+    public void testSequentialOperations() {
+        ConcurrentLongSkipList<String> instance = new ConcurrentLongSkipList<>();
+        TreeMap<Long, String> expected = new TreeMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            long key = randGen.nextInt(2_000) - 1_000;
+            int op = randGen.nextInt(10);
+            if (op < 4) {
+                String value = "v" + i;
+                assertEquals(instance.put(key, value), expected.put(key, value));
+            }
+            else if (op < 6) {
+                String value = "w" + i;
+                assertEquals(instance.putIfAbsent(key, value), expected.putIfAbsent(key, value));
+            }
+            else if (op < 9) {
+                assertEquals(instance.remove(key), expected.remove(key));
+            }
+            else {
+                assertEquals(instance.get(key), expected.get(key));
+                assertEquals(instance.containsKey(key), expected.containsKey(key));
+            }
+            assertEquals(instance.size(), expected.size());
+        }
+        assertThat(toList(instance.iterator()), is(toList(expected)));
+        assertThat(toList(instance.rangeIterator(-300, 300)),
+            is(toList(expected.subMap(-300L, 300L))));
+        assertRanks(instance, expected);
+    }
+
+    private static <V> void assertRanks(ConcurrentLongSkipList<V> instance,
+            TreeMap<Long, V> expected) {
+        int index = 0;
+        for (Map.Entry<Long, V> e : expected.entrySet()) {
+            assertEquals(instance.rank(e.getKey()), index);
+            assertEquals(instance.rank(e.getKey() + 1), index + 1);
+            LongSkipList.Entry<V> actual = instance.getEntryAt(index);
+            assertEquals(actual.getKey(), (long)e.getKey());
+            assertEquals(actual.getValue(), e.getValue());
+            index++;
+        }
+        assertEquals(instance.rank(Long.MIN_VALUE), 0);
+        expectThrows(IndexOutOfBoundsException.class, () -> instance.getEntryAt(-1));
+        expectThrows(IndexOutOfBoundsException.class,
+            () -> instance.getEntryAt(expected.size()));
+    }
+
+    @Test
+    public void testRank() {
+        ConcurrentLongSkipList<String> instance = new ConcurrentLongSkipList<>();
+        assertEquals(instance.rank(5), 0);
+        instance.put(20, "twenty");
+        instance.put(10, "ten");
+        instance.put(30, "thirty");
+        assertEquals(instance.rank(10), 0);
+        assertEquals(instance.rank(15), 1);
+        assertEquals(instance.rank(Long.MAX_VALUE), 3);
+        assertEquals(instance.getEntryAt(1).getValue(), "twenty");
+
+        instance.remove(10);
+        instance.put(20, "TWENTY");
+        assertEquals(instance.rank(20), 0);
+        assertEquals(instance.getEntryAt(0).getValue(), "TWENTY");
+        instance.put(10, "TEN");
+        assertEquals(instance.rank(20), 1);
+        assertEquals(instance.getEntryAt(0).getValue(), "TEN");
+    }
+
+    @Test
+    public void testEdgeKeys() {
+        ConcurrentLongSkipList<String> instance = new ConcurrentLongSkipList<>();
+        assertTrue(instance.isEmpty());
+        instance.put(Long.MAX_VALUE, "max");
+        instance.put(Long.MIN_VALUE, "min");
+        instance.put(0, "zero");
+        assertEquals(instance.get(Long.MIN_VALUE), "min");
+        assertThat(toList(instance.iterator()), is(Arrays.asList(
+            Long.MIN_VALUE + "=min", "0=zero", Long.MAX_VALUE + "=max")));
+        expectThrows(NullPointerException.class, () -> instance.put(1, null));
+    }
+
+    @Test
+    public void testConcurrentInsertion() throws Exception {
+        ConcurrentLongSkipList<Long> instance = new ConcurrentLongSkipList<>();
+        int threadCount = 4;
+        int keysPerThread = 20_000;
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            final int threadIndex = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    startSignal.await();
+                }
+                catch (InterruptedException ex) {
+                    throw new RuntimeException(ex);
+                }
+                // interleave keys of threads, and also race on some shared keys.
+                for (int i = 0; i < keysPerThread; i++) {
+                    long key = (long)i * threadCount + threadIndex;
+                    instance.put(key, key);
+                    instance.putIfAbsent(-1 - (i % 100), -1L);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        startSignal.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(instance.size(), threadCount * keysPerThread + 100);
+        long expectedKey = -100;
+        Iterator<LongSkipList.Entry<Long>> it = instance.iterator();
+        while (it.hasNext()) {
+            LongSkipList.Entry<Long> e = it.next();
+            assertEquals(e.getKey(), expectedKey);
+            assertEquals((long)e.getValue(), expectedKey < 0 ? -1 : expectedKey);
+            expectedKey++;
+        }
+        assertEquals(expectedKey, threadCount * keysPerThread);
+        assertEquals(instance.rank(0), 100);
+        assertEquals(instance.rank(Long.MAX_VALUE), threadCount * keysPerThread + 100);
+    }
+
+    @Test
+    public void testConcurrentRemoval() throws Exception {
+        ConcurrentLongSkipList<Long> instance = new ConcurrentLongSkipList<>();
+        int threadCount = 4;
+        int opsPerThread = 50_000;
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        List<TreeMap<Long, Long>> expectedPerThread = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            final int threadIndex = t;
+            TreeMap<Long, Long> expected = new TreeMap<>();
+            expectedPerThread.add(expected);
+            Thread thread = new Thread(() -> {
+                try {
+                    startSignal.await();
+                }
+                catch (InterruptedException ex) {
+                    throw new RuntimeException(ex);
+                }
+                // keys of threads are interleaved, so that removals of one thread
+                // unlink nodes next to those which other threads are inserting.
+                Random threadRandGen = new Random(threadIndex);
+                for (int i = 0; i < opsPerThread; i++) {
+                    long key = (long)threadRandGen.nextInt(500) * threadCount + threadIndex;
+                    if (threadRandGen.nextBoolean()) {
+                        assertEquals(instance.put(key, (long)i), expected.put(key, (long)i));
+                    }
+                    else {
+                        assertEquals(instance.remove(key), expected.remove(key));
+                    }
+                    if (i % 1000 == 0) {
+                        instance.rank(key);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        startSignal.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        TreeMap<Long, Long> expected = new TreeMap<>();
+        for (TreeMap<Long, Long> m : expectedPerThread) {
+            expected.putAll(m);
+        }
+        assertEquals(instance.size(), expected.size());
+        assertThat(toList(instance.iterator()), is(toList(expected)));
+        assertRanks(instance, expected);
+    }
+}
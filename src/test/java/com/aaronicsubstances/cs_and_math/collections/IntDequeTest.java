@@ -0,0 +1,127 @@
+package com.aaronicsubstances.cs_and_math.collections;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.testng.Assert.*;
+
+public class IntDequeTest {
+    private final Random randGen = new Random();
+
+    @Test
+    public void testStackAndQueueUsage() {
+        IntDeque instance = new IntDeque(2, false);
+        for (int i = 0; i < 5; i++) {
+            instance.addLast(i);
+        }
+        assertThat(instance.size(), is(5));
+        assertThat(instance.removeLast(), is(4));
+        assertThat(instance.removeLast(), is(3));
+        assertThat(instance.removeFirst(), is(0));
+        assertThat(instance.removeFirst(), is(1));
+        assertThat(instance.getFirst(), is(2));
+        assertThat(instance.getLast(), is(2));
+        assertThat(instance.removeFirst(), is(2));
+        assertTrue(instance.isEmpty());
+
+        instance.addFirst(7);
+        instance.addFirst(8);
+        instance.addLast(9);
+        assertEquals(instance.toArray(), new int[]{ 8, 7, 9 });
+        assertThat(instance.get(2), is(9));
+        instance.clear();
+        assertTrue(instance.isEmpty());
+        assertEquals(instance.toArray(), new int[0]);
+    }
+
+    @DataProvider
+    public Object[][] createTestAgainstArrayDequeData() {
+        return new Object[][]{
+            { 1, false, 1000 },
+            { 16, false, 1000 },
+            { 1, true, 1000 },
+            { 5, true, 1000 },
+            { 64, true, 10_000 },
+        };
+    }
+
+    @Test(dataProvider = "createTestAgainstArrayDequeData")
+    public void testAgainstArrayDeque(int capacity, boolean fixedCapacity, int opCount) {
+        IntDeque instance = new IntDeque(capacity, fixedCapacity);
+        LongDeque longInstance = new LongDeque(capacity, fixedCapacity);
+        Deque<Integer> expected = new ArrayDeque<>();
+        for (int i = 0; i < opCount; i++) {
+            int op = randGen.nextInt(4);
+            if (op == 0 || op == 1) {
+                boolean atFront = op == 0;
+                boolean expectedToFit = !fixedCapacity || expected.size() < capacity;
+                boolean added = atFront ? instance.offerFirst(i) : instance.offerLast(i);
+                boolean longAdded = atFront ? longInstance.offerFirst(i) : longInstance.offerLast(i);
+                assertThat(added, is(expectedToFit));
+                assertThat(longAdded, is(expectedToFit));
+                if (expectedToFit) {
+                    if (atFront) {
+                        expected.addFirst(i);
+                    }
+                    else {
+                        expected.addLast(i);
+                    }
+                }
+            }
+            else if (!expected.isEmpty()) {
+                if (op == 2) {
+                    int item = expected.removeFirst();
+                    assertThat(instance.removeFirst(), is(item));
+                    assertThat(longInstance.removeFirst(), is((long)item));
+                }
+                else {
+                    int item = expected.removeLast();
+                    assertThat(instance.removeLast(), is(item));
+                    assertThat(longInstance.removeLast(), is((long)item));
+                }
+            }
+            assertThat(instance.size(), is(expected.size()));
+            assertThat(longInstance.size(), is(expected.size()));
+            assertThat(instance.isFull(), is(fixedCapacity && expected.size() == capacity));
+        }
+        int[] expectedArray = expected.stream().mapToInt(Integer::intValue).toArray();
+        assertEquals(instance.toArray(), expectedArray);
+        assertEquals(longInstance.toArray(), expected.stream().mapToLong(Integer::longValue).toArray());
+        for (int i = 0; i < expectedArray.length; i++) {
+            assertThat(instance.get(i), is(expectedArray[i]));
+            assertThat(longInstance.get(i), is((long)expectedArray[i]));
+        }
+    }
+
+    @Test
+    public void testForErrors() {
+        expectThrows(IllegalArgumentException.class, () -> new IntDeque(0, false));
+        expectThrows(IllegalArgumentException.class, () -> new LongDeque(-1, true));
+
+        IntDeque instance = new IntDeque(3, true);
+        expectThrows(NoSuchElementException.class, () -> instance.removeFirst());
+        expectThrows(NoSuchElementException.class, () -> instance.removeLast());
+        expectThrows(NoSuchElementException.class, () -> instance.getFirst());
+        expectThrows(NoSuchElementException.class, () -> instance.getLast());
+        instance.addLast(1);
+        instance.addLast(2);
+        instance.addFirst(3);
+        expectThrows(IllegalStateException.class, () -> instance.addLast(4));
+        expectThrows(IllegalStateException.class, () -> instance.addFirst(4));
+        expectThrows(IndexOutOfBoundsException.class, () -> instance.get(3));
+        expectThrows(IndexOutOfBoundsException.class, () -> instance.get(-1));
+
+        LongDeque longInstance = new LongDeque(1, true);
+        longInstance.addLast(1);
+        expectThrows(IllegalStateException.class, () -> longInstance.addLast(2));
+        longInstance.removeFirst();
+        expectThrows(NoSuchElementException.class, () -> longInstance.removeLast());
+    }
+}
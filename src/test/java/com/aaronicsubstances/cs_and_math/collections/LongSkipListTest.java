@@ -0,0 +1,132 @@
+package com.aaronicsubstances.cs_and_math.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.testng.Assert.*;
+
+public class LongSkipListTest {
+    private final Random randGen = new Random();
+
+    private static <V> List<String> toList(Iterator<LongSkipList.Entry<V>> it) {
+        List<String> list = new ArrayList<>();
+        while (it.hasNext()) {
+            LongSkipList.Entry<V> e = it.next();
+            list.add(e.getKey() + "=" + e.getValue());
+        }
+        return list;
+    }
+
+    private static List<String> toList(Map<Long, String> map) {
+        List<String> list = new ArrayList<>();
+        for (Map.Entry<Long, String> e : map.entrySet()) {
+            list.add(e.getKey() + "=" + e.getValue());
+        }
+        return list;
+    }
+
+    @Test
+    public void testBasicOperations() {
+        LongSkipList<String> instance = new LongSkipList<>();
+        assertTrue(instance.isEmpty());
+        assertNull(instance.get(1));
+        assertNull(instance.remove(1));
+        assertEquals(instance.rank(5), 0);
+        assertThat(toList(instance.iterator()), is(Arrays.asList()));
+
+        assertNull(instance.put(20, "twenty"));
+        assertNull(instance.put(10, "ten"));
+        assertNull(instance.put(Long.MAX_VALUE, "max"));
+        assertNull(instance.put(Long.MIN_VALUE, "min"));
+        assertEquals(instance.put(10, "TEN"), "ten");
+        assertEquals(instance.size(), 4);
+
+        assertEquals(instance.get(10), "TEN");
+        assertTrue(instance.containsKey(Long.MAX_VALUE));
+        assertFalse(instance.containsKey(15));
+        assertEquals(instance.firstKey(), Long.MIN_VALUE);
+        assertEquals(instance.lastKey(), Long.MAX_VALUE);
+
+        assertEquals(instance.rank(Long.MIN_VALUE), 0);
+        assertEquals(instance.rank(10), 1);
+        assertEquals(instance.rank(15), 2);
+        assertEquals(instance.rank(20), 2);
+        assertEquals(instance.rank(Long.MAX_VALUE), 3);
+        assertEquals(instance.getEntryAt(2).getKey(), 20);
+        assertEquals(instance.getEntryAt(2).getValue(), "twenty");
+
+        assertThat(toList(instance.iterator()), is(Arrays.asList(
+            Long.MIN_VALUE + "=min", "10=TEN", "20=twenty", Long.MAX_VALUE + "=max")));
+        assertThat(toList(instance.rangeIterator(10, 20)), is(Arrays.asList("10=TEN")));
+        assertThat(toList(instance.rangeIterator(11, Long.MAX_VALUE)),
+            is(Arrays.asList("20=twenty")));
+        assertThat(toList(instance.iteratorFromIndex(3)),
+            is(Arrays.asList(Long.MAX_VALUE + "=max")));
+        assertThat(toList(instance.iteratorFromIndex(4)), is(Arrays.asList()));
+
+        assertEquals(instance.remove(Long.MIN_VALUE), "min");
+        assertEquals(instance.remove(Long.MAX_VALUE), "max");
+        assertNull(instance.remove(Long.MAX_VALUE));
+        assertThat(toList(instance.iterator()), is(Arrays.asList("10=TEN", "20=twenty")));
+        assertEquals(instance.getEntryAt(1).getKey(), 20);
+    }
+
+    @Test
+    public void testRandomOperations() {
+        LongSkipList<String> instance = new LongSkipList<>();
+        TreeMap<Long, String> expected = new TreeMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            long key = randGen.nextInt(2_000);
+            int op = randGen.nextInt(10);
+            if (op < 6) {
+                String value = "v" + i;
+                assertEquals(instance.put(key, value), expected.put(key, value));
+            }
+            else if (op < 9) {
+                assertEquals(instance.remove(key), expected.remove(key));
+            }
+            else {
+                assertEquals(instance.get(key), expected.get(key));
+            }
+            assertEquals(instance.size(), expected.size());
+        }
+
+        assertThat(toList(instance.iterator()), is(toList(expected)));
+        assertThat(toList(instance.rangeIterator(500, 1500)),
+            is(toList(expected.subMap(500L, 1500L))));
+        int index = 0;
+        for (Map.Entry<Long, String> e : expected.entrySet()) {
+            assertEquals(instance.rank(e.getKey()), index);
+            assertEquals(instance.rank(e.getKey() + 1), index + 1);
+            LongSkipList.Entry<String> actual = instance.getEntryAt(index);
+            assertEquals(actual.getKey(), (long)e.getKey());
+            assertEquals(actual.getValue(), e.getValue());
+            index++;
+        }
+        assertThat(toList(instance.iteratorFromIndex(expected.size() / 2)),
+            is(toList(expected.tailMap(instance.getEntryAt(expected.size() / 2).getKey()))));
+    }
+
+    @Test
+    public void testForErrors() {
+        LongSkipList<String> instance = new LongSkipList<>();
+        expectThrows(NoSuchElementException.class, () -> instance.firstKey());
+        expectThrows(NoSuchElementException.class, () -> instance.lastKey());
+        expectThrows(NoSuchElementException.class, () -> instance.iterator().next());
+        expectThrows(IndexOutOfBoundsException.class, () -> instance.getEntryAt(0));
+        expectThrows(IndexOutOfBoundsException.class, () -> instance.iteratorFromIndex(1));
+        instance.put(1, "one");
+        expectThrows(IndexOutOfBoundsException.class, () -> instance.getEntryAt(-1));
+        expectThrows(IndexOutOfBoundsException.class, () -> instance.getEntryAt(1));
+    }
+}
@@ -0,0 +1,127 @@
+package com.aaronicsubstances.cs_and_math.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.testng.Assert.*;
+
+public class MpscArrayQueueTest {
+
+    @Test
+    public void testSingleThreadedOperations() {
+        MpscArrayQueue<Integer> instance = new MpscArrayQueue<>(3);
+        assertThat(instance.capacity(), is(3));
+        assertTrue(instance.isEmpty());
+        assertNull(instance.poll());
+        assertNull(instance.peek());
+
+        for (int round = 0; round < 5; round++) {
+            assertTrue(instance.offer(round));
+            assertTrue(instance.offer(round + 1));
+            assertTrue(instance.offer(round + 2));
+            assertFalse(instance.offer(100));
+            assertThat(instance.size(), is(3));
+            assertThat(instance.peek(), is(round));
+            assertThat(instance.poll(), is(round));
+            assertThat(instance.poll(), is(round + 1));
+            assertThat(instance.poll(), is(round + 2));
+            assertNull(instance.poll());
+        }
+        assertTrue(instance.isEmpty());
+    }
+
+    @Test
+    public void testBatchOperations() {
+        MpscArrayQueue<String> instance = new MpscArrayQueue<>(4);
+        assertThat(instance.offerAll(Arrays.asList("a", "b", "c")), is(3));
+        assertThat(instance.offerAll(Arrays.asList("d", "e", "f")), is(1));
+        assertThat(instance.offerAll(Arrays.asList("g")), is(0));
+        assertThat(instance.offerAll(Arrays.asList()), is(0));
+
+        List<String> actual = new ArrayList<>();
+        assertThat(instance.drainTo(actual, 3), is(3));
+        assertThat(actual, is(Arrays.asList("a", "b", "c")));
+        assertThat(instance.offerAll(Arrays.asList("e", "f", "g", "h")), is(3));
+        assertThat(instance.drainTo(actual), is(4));
+        assertThat(actual, is(Arrays.asList("a", "b", "c", "d", "e", "f", "g")));
+        assertThat(instance.drainTo(actual), is(0));
+        assertTrue(instance.isEmpty());
+    }
+
+    @Test
+    public void testForErrors() {
+        expectThrows(IllegalArgumentException.class, () -> new MpscArrayQueue<>(-1));
+        MpscArrayQueue<String> instance = new MpscArrayQueue<>(2);
+        expectThrows(NullPointerException.class, () -> instance.offer(null));
+        expectThrows(NullPointerException.class, () -> instance.offerAll(Arrays.asList("a", null)));
+        assertTrue(instance.isEmpty());
+    }
+
+    @Test
+    public void testConcurrentProducers() throws Exception {
+        int producerCount = 4;
+        int itemsPerProducer = 50_000;
+        MpscArrayQueue<int[]> instance = new MpscArrayQueue<>(64);
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < producerCount; p++) {
+            int producerId = p;
+            Thread producer = new Thread(() -> {
+                List<int[]> batch = new ArrayList<>();
+                int i = 0;
+                while (i < itemsPerProducer) {
+                    if (producerId % 2 == 0) {
+                        if (instance.offer(new int[]{ producerId, i })) {
+                            i++;
+                        }
+                        else {
+                            Thread.yield();
+                        }
+                    }
+                    else {
+                        batch.clear();
+                        for (int j = i; j < Math.min(i + 5, itemsPerProducer); j++) {
+                            batch.add(new int[]{ producerId, j });
+                        }
+                        int offered = instance.offerAll(batch);
+                        if (offered == 0) {
+                            Thread.yield();
+                        }
+                        i += offered;
+                    }
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+
+        // items of each producer must arrive in order.
+        int[] nextExpected = new int[producerCount];
+        int receivedCount = 0;
+        List<int[]> batch = new ArrayList<>();
+        while (receivedCount < producerCount * itemsPerProducer) {
+            batch.clear();
+            int[] item = instance.poll();
+            if (item != null) {
+                batch.add(item);
+            }
+            if (instance.drainTo(batch, 8) == 0 && item == null) {
+                Thread.yield();
+            }
+            for (int[] received : batch) {
+                assertThat(received[1], is(nextExpected[received[0]]));
+                nextExpected[received[0]]++;
+                receivedCount++;
+            }
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        assertTrue(instance.isEmpty());
+        assertNull(instance.poll());
+    }
+}
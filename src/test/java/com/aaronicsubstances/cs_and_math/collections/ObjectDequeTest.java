@@ -0,0 +1,93 @@
+package com.aaronicsubstances.cs_and_math.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.testng.Assert.*;
+
+public class ObjectDequeTest {
+
+    private static <T> List<T> toList(ObjectDeque<T> deque) {
+        List<T> list = new ArrayList<>();
+        for (T item : deque) {
+            list.add(item);
+        }
+        return list;
+    }
+
+    @Test
+    public void testBasicOperations() {
+        ObjectDeque<String> instance = new ObjectDeque<>(4, false);
+        assertNull(instance.pollFirst());
+        assertNull(instance.pollLast());
+        assertNull(instance.peekFirst());
+        assertNull(instance.peekLast());
+
+        // wrap around before growing.
+        instance.addLast("c");
+        instance.addFirst("b");
+        instance.addFirst("a");
+        instance.addLast("d");
+        instance.addLast("e");
+        assertThat(toList(instance), is(Arrays.asList("a", "b", "c", "d", "e")));
+        assertThat(instance.get(1), is("b"));
+        assertThat(instance.peekFirst(), is("a"));
+        assertThat(instance.peekLast(), is("e"));
+
+        assertThat(instance.removeFirst(), is("a"));
+        assertThat(instance.pollLast(), is("e"));
+        assertThat(instance.pollFirst(), is("b"));
+        assertThat(toList(instance), is(Arrays.asList("c", "d")));
+        assertThat(instance.size(), is(2));
+
+        instance.clear();
+        assertTrue(instance.isEmpty());
+        assertThat(toList(instance), is(Arrays.asList()));
+        instance.addLast("f");
+        assertThat(toList(instance), is(Arrays.asList("f")));
+    }
+
+    @Test
+    public void testFixedCapacity() {
+        ObjectDeque<Integer> instance = new ObjectDeque<>(3, true);
+        assertTrue(instance.isFixedCapacity());
+        for (int round = 0; round < 5; round++) {
+            assertTrue(instance.offerLast(round));
+            assertTrue(instance.offerLast(round + 1));
+            assertTrue(instance.offerFirst(round - 1));
+            assertTrue(instance.isFull());
+            assertFalse(instance.offerLast(100));
+            assertFalse(instance.offerFirst(100));
+            assertThat(toList(instance), is(Arrays.asList(round - 1, round, round + 1)));
+            assertThat(instance.removeLast(), is(round + 1));
+            assertThat(instance.removeFirst(), is(round - 1));
+            assertThat(instance.removeFirst(), is(round));
+        }
+    }
+
+    @Test
+    public void testForErrors() {
+        expectThrows(IllegalArgumentException.class, () -> new ObjectDeque<>(0, true));
+        ObjectDeque<String> instance = new ObjectDeque<>(1, true);
+        expectThrows(NoSuchElementException.class, () -> instance.removeFirst());
+        expectThrows(NoSuchElementException.class, () -> instance.removeLast());
+        expectThrows(NullPointerException.class, () -> instance.addLast(null));
+        expectThrows(NullPointerException.class, () -> instance.offerFirst(null));
+        instance.addLast("a");
+        expectThrows(IllegalStateException.class, () -> instance.addFirst("b"));
+        expectThrows(IndexOutOfBoundsException.class, () -> instance.get(1));
+
+        Iterator<String> it = instance.iterator();
+        instance.removeFirst();
+        expectThrows(ConcurrentModificationException.class, () -> it.next());
+        expectThrows(NoSuchElementException.class, () -> instance.iterator().next());
+    }
+}
@@ -0,0 +1,82 @@
+package com.aaronicsubstances.cs_and_math.collections;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.testng.Assert.*;
+
+public class SkipListTest {
+    private final Random randGen = new Random();
+
+    private static <K, V> List<String> toList(Iterator<Map.Entry<K, V>> it) {
+        List<String> list = new ArrayList<>();
+        while (it.hasNext()) {
+            Map.Entry<K, V> e = it.next();
+            list.add(e.getKey() + "=" + e.getValue());
+        }
+        return list;
+    }
+
+    @Test
+    public void testRandomOperations() {
+        // use reverse order to verify that comparator is respected.
+        Comparator<String> sortFunc = Comparator.reverseOrder();
+        SkipList<String, Integer> instance = new SkipList<>(sortFunc);
+        TreeMap<String, Integer> expected = new TreeMap<>(sortFunc);
+        for (int i = 0; i < 20_000; i++) {
+            String key = "" + randGen.nextInt(2_000);
+            int op = randGen.nextInt(10);
+            if (op < 6) {
+                assertEquals(instance.put(key, i), expected.put(key, i));
+            }
+            else if (op < 9) {
+                assertEquals(instance.remove(key), expected.remove(key));
+            }
+            else {
+                assertEquals(instance.get(key), expected.get(key));
+                assertEquals(instance.containsKey(key), expected.containsKey(key));
+            }
+            assertEquals(instance.size(), expected.size());
+        }
+
+        assertThat(toList(instance.iterator()), is(toList(expected.entrySet().iterator())));
+        assertThat(toList(instance.rangeIterator("700", "300")),
+            is(toList(expected.subMap("700", "300").entrySet().iterator())));
+        assertEquals(instance.firstKey(), expected.firstKey());
+        assertEquals(instance.lastKey(), expected.lastKey());
+        int index = 0;
+        for (Map.Entry<String, Integer> e : expected.entrySet()) {
+            assertEquals(instance.rank(e.getKey()), index);
+            assertEquals(instance.getEntryAt(index), e);
+            index++;
+        }
+        int midIndex = expected.size() / 2;
+        assertThat(toList(instance.iteratorFromIndex(midIndex)),
+            is(toList(expected.tailMap(instance.getEntryAt(midIndex).getKey())
+                .entrySet().iterator())));
+
+        // test entry updates.
+        Map.Entry<String, Integer> first = instance.getEntryAt(0);
+        first.setValue(-1);
+        assertEquals(instance.get(first.getKey()), Integer.valueOf(-1));
+    }
+
+    @Test
+    public void testForErrors() {
+        expectThrows(NullPointerException.class, () -> new SkipList<String, String>(null));
+        SkipList<String, String> instance = new SkipList<>(Comparator.naturalOrder());
+        expectThrows(NoSuchElementException.class, () -> instance.firstKey());
+        expectThrows(NoSuchElementException.class, () -> instance.lastKey());
+        expectThrows(IndexOutOfBoundsException.class, () -> instance.getEntryAt(0));
+    }
+}
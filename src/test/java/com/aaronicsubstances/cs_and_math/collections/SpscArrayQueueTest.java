@@ -0,0 +1,124 @@
+package com.aaronicsubstances.cs_and_math.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.testng.Assert.*;
+
+public class SpscArrayQueueTest {
+
+    @Test
+    public void testSingleThreadedOperations() {
+        SpscArrayQueue<Integer> instance = new SpscArrayQueue<>(3);
+        assertThat(instance.capacity(), is(3));
+        assertTrue(instance.isEmpty());
+        assertNull(instance.poll());
+        assertNull(instance.peek());
+
+        // go round the array a few times.
+        for (int round = 0; round < 5; round++) {
+            assertTrue(instance.offer(round));
+            assertTrue(instance.offer(round + 1));
+            assertTrue(instance.offer(round + 2));
+            assertFalse(instance.offer(100));
+            assertThat(instance.size(), is(3));
+            assertThat(instance.peek(), is(round));
+            assertThat(instance.poll(), is(round));
+            assertThat(instance.poll(), is(round + 1));
+            assertThat(instance.poll(), is(round + 2));
+            assertNull(instance.poll());
+        }
+        assertTrue(instance.isEmpty());
+    }
+
+    @Test
+    public void testBatchOperations() {
+        SpscArrayQueue<String> instance = new SpscArrayQueue<>(5);
+        assertThat(instance.offerAll(Arrays.asList("a", "b", "c")), is(3));
+        assertThat(instance.offerAll(Arrays.asList("d", "e", "f")), is(2));
+        assertThat(instance.offerAll(Arrays.asList("g")), is(0));
+        assertThat(instance.offerAll(Arrays.asList()), is(0));
+
+        List<String> actual = new ArrayList<>();
+        assertThat(instance.drainTo(actual, 2), is(2));
+        assertThat(actual, is(Arrays.asList("a", "b")));
+        assertThat(instance.offerAll(Arrays.asList("f", "g", "h")), is(2));
+        assertThat(instance.drainTo(actual), is(5));
+        assertThat(actual, is(Arrays.asList("a", "b", "c", "d", "e", "f", "g")));
+        assertThat(instance.drainTo(actual), is(0));
+        assertTrue(instance.isEmpty());
+    }
+
+    @Test
+    public void testForErrors() {
+        expectThrows(IllegalArgumentException.class, () -> new SpscArrayQueue<>(0));
+        SpscArrayQueue<String> instance = new SpscArrayQueue<>(2);
+        expectThrows(NullPointerException.class, () -> instance.offer(null));
+        expectThrows(NullPointerException.class, () -> instance.offerAll(Arrays.asList("a", null)));
+        assertTrue(instance.isEmpty());
+    }
+
+    @Test
+    public void testConcurrentHandOff() throws Exception {
+        int itemCount = 200_000;
+        SpscArrayQueue<Integer> instance = new SpscArrayQueue<>(100);
+        Thread producer = new Thread(() -> {
+            List<Integer> batch = new ArrayList<>();
+            int i = 0;
+            while (i < itemCount) {
+                // alternate between single and batch offers.
+                if (i % 2 == 0) {
+                    if (instance.offer(i)) {
+                        i++;
+                    }
+                    else {
+                        Thread.yield();
+                    }
+                }
+                else {
+                    batch.clear();
+                    for (int j = i; j < Math.min(i + 7, itemCount); j++) {
+                        batch.add(j);
+                    }
+                    int offered = instance.offerAll(batch);
+                    if (offered == 0) {
+                        Thread.yield();
+                    }
+                    i += offered;
+                }
+            }
+        });
+        producer.start();
+
+        List<Integer> received = new ArrayList<>();
+        List<Integer> batch = new ArrayList<>();
+        while (received.size() < itemCount) {
+            if (received.size() % 3 == 0) {
+                Integer item = instance.poll();
+                if (item != null) {
+                    received.add(item);
+                }
+                else {
+                    Thread.yield();
+                }
+            }
+            else {
+                batch.clear();
+                if (instance.drainTo(batch, 10) == 0) {
+                    Thread.yield();
+                }
+                received.addAll(batch);
+            }
+        }
+        producer.join();
+        assertTrue(instance.isEmpty());
+        for (int i = 0; i < itemCount; i++) {
+            assertThat(received.get(i), is(i));
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.aaronicsubstances.cs_and_math.searching;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+public class BinarySearchTest {
+    private final Random randGen = new Random();
+
+    static int expectedLowerBound(long[] a, long key) {
+        int i = 0;
+        while (i < a.length && a[i] < key) {
+            i++;
+        }
+        return i;
+    }
+
+    static int expectedUpperBound(long[] a, long key) {
+        int i = 0;
+        while (i < a.length && a[i] <= key) {
+            i++;
+        }
+        return i;
+    }
+
+    @DataProvider
+    public Object[][] createTestData() {
+        return new Object[][]{
+            { new int[0] },
+            { new int[]{ 5 } },
+            { new int[]{ 5, 5 } },
+            { new int[]{ 1, 3 } },
+            { new int[]{ 1, 3, 3, 3, 7 } },
+            { new int[]{ 1, 2, 3, 4, 5, 6, 7, 8 } },
+            { new int[]{ 2, 4, 6, 8, 10, 12, 14, 16, 18 } },
+            { new int[]{ Integer.MIN_VALUE, -1, 0, 0, 1, Integer.MAX_VALUE } },
+        };
+    }
+
+    private static long[] toLongs(int[] a) {
+        long[] longs = new long[a.length];
+        for (int i = 0; i < a.length; i++) {
+            longs[i] = a[i];
+        }
+        return longs;
+    }
+
+    private static int[] generateKeys(int[] a) {
+        List<Integer> keys = new ArrayList<>(Arrays.asList(
+            Integer.MIN_VALUE, -2, 0, 4, 17, 20, Integer.MAX_VALUE));
+        for (int item : a) {
+            keys.add(item);
+            if (item > Integer.MIN_VALUE) {
+                keys.add(item - 1);
+            }
+            if (item < Integer.MAX_VALUE) {
+                keys.add(item + 1);
+            }
+        }
+        Collections.sort(keys);
+        return keys.stream().mapToInt(x -> x).toArray();
+    }
+
+    @Test(dataProvider = "createTestData")
+    public void testSearch(int[] a) {
+        long[] longs = toLongs(a);
+        List<Integer> list = new ArrayList<>();
+        for (int item : a) {
+            list.add(item);
+        }
+        Comparator<Integer> sortFunc = Comparator.naturalOrder();
+        for (int key : generateKeys(a)) {
+            int lower = expectedLowerBound(longs, key);
+            int upper = expectedUpperBound(longs, key);
+            String msg = "key=" + key;
+
+            assertEquals(BinarySearch.lowerBound(a, key), lower, msg);
+            assertEquals(BinarySearch.upperBound(a, key), upper, msg);
+            assertEquals(BinarySearch.lowerBoundBranchFree(a, key), lower, msg);
+            assertEquals(BinarySearch.upperBoundBranchFree(a, key), upper, msg);
+
+            assertEquals(BinarySearch.lowerBound(longs, key), lower, msg);
+            assertEquals(BinarySearch.upperBound(longs, key), upper, msg);
+            assertEquals(BinarySearch.lowerBoundBranchFree(longs, key), lower, msg);
+            assertEquals(BinarySearch.upperBoundBranchFree(longs, key), upper, msg);
+
+            assertEquals(BinarySearch.lowerBound(list, key, sortFunc), lower, msg);
+            assertEquals(BinarySearch.upperBound(list, key, sortFunc), upper, msg);
+
+            assertEquals(BinarySearch.binarySearch(0, a.length,
+                    i -> Integer.compare(a[i], key)),
+                Collections.binarySearch(list, key), msg);
+        }
+    }
+
+    @Test(dataProvider = "createTestData")
+    public void testBatchSearch(int[] a) {
+        long[] longs = toLongs(a);
+        int[] keys = generateKeys(a);
+        int[] expectedLower = new int[keys.length];
+        int[] expectedUpper = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            expectedLower[i] = expectedLowerBound(longs, keys[i]);
+            expectedUpper[i] = expectedUpperBound(longs, keys[i]);
+        }
+
+        int[] actual = new int[keys.length];
+        BinarySearch.lowerBounds(a, keys, actual);
+        assertEquals(actual, expectedLower);
+        BinarySearch.upperBounds(a, keys, actual);
+        assertEquals(actual, expectedUpper);
+
+        BinarySearch.lowerBounds(longs, toLongs(keys), actual);
+        assertEquals(actual, expectedLower);
+        BinarySearch.upperBounds(longs, toLongs(keys), actual);
+        assertEquals(actual, expectedUpper);
+
+        // test that results can overwrite keys.
+        int[] keysAndResults = keys.clone();
+        BinarySearch.lowerBounds(a, keysAndResults, keysAndResults);
+        assertEquals(keysAndResults, expectedLower);
+    }
+
+    @Test
+    public void testSearchRange() {
+        int[] a = { 9, 1, 2, 2, 3, 0 };
+        assertEquals(BinarySearch.lowerBound(a, 1, 5, 2), 2);
+        assertEquals(BinarySearch.upperBound(a, 1, 5, 2), 4);
+        assertEquals(BinarySearch.lowerBoundBranchFree(a, 1, 5, 10), 5);
+        assertEquals(BinarySearch.upperBoundBranchFree(a, 1, 5, 0), 1);
+        assertEquals(BinarySearch.lowerBoundBranchFree(a, 3, 3, 0), 3);
+        assertEquals(BinarySearch.binarySearch(1, 5, i -> Integer.compare(a[i], 3)), 4);
+        assertEquals(BinarySearch.binarySearch(1, 5, i -> Integer.compare(a[i], 4)), -6);
+    }
+
+    @Test
+    public void testRandomSearch() {
+        int[] a = new int[10_000];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = randGen.nextInt(20_000);
+        }
+        Arrays.sort(a);
+        long[] longs = toLongs(a);
+        int[] keys = new int[500];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = randGen.nextInt(21_000) - 500;
+        }
+        Arrays.sort(keys);
+        int[] actualLower = new int[keys.length];
+        int[] actualUpper = new int[keys.length];
+        BinarySearch.lowerBounds(a, keys, actualLower);
+        BinarySearch.upperBounds(a, keys, actualUpper);
+        for (int i = 0; i < keys.length; i++) {
+            int key = keys[i];
+            int lower = expectedLowerBound(longs, key);
+            int upper = expectedUpperBound(longs, key);
+            assertEquals(actualLower[i], lower);
+            assertEquals(actualUpper[i], upper);
+            assertEquals(BinarySearch.lowerBound(a, key), lower);
+            assertEquals(BinarySearch.upperBound(a, key), upper);
+            assertEquals(BinarySearch.lowerBoundBranchFree(a, key), lower);
+            assertEquals(BinarySearch.upperBoundBranchFree(a, key), upper);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.aaronicsubstances.cs_and_math.searching;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+public class EytzingerArrayTest {
+    private static final Random RAND_GEN = new Random();
+
+    @DataProvider
+    public Object[][] createTestData() {
+        return new Object[][]{
+            { new int[0] },
+            { new int[]{ 5 } },
+            { new int[]{ 5, 5 } },
+            { new int[]{ 1, 3 } },
+            { new int[]{ 1, 3, 3, 3, 7 } },
+            { new int[]{ 1, 2, 3, 4, 5, 6, 7 } },
+            { new int[]{ 1, 2, 3, 4, 5, 6, 7, 8 } },
+            { new int[]{ 2, 4, 6, 8, 10, 12, 14, 16, 18 } },
+            { new int[]{ Integer.MIN_VALUE, -1, 0, 0, 1, Integer.MAX_VALUE } },
+            { generateRandomSortedArray(1000) },
+            { generateRandomSortedArray(1023) },
+            { generateRandomSortedArray(1024) },
+        };
+    }
+
+    private static int[] generateRandomSortedArray(int size) {
+        int[] a = new int[size];
+        for (int i = 0; i < size; i++) {
+            a[i] = RAND_GEN.nextInt(size * 2);
+        }
+        Arrays.sort(a);
+        return a;
+    }
+
+    @Test(dataProvider = "createTestData")
+    public void testIntArray(int[] a) {
+        EytzingerIntArray instance = new EytzingerIntArray(a);
+        assertEquals(instance.size(), a.length);
+        for (int i = 0; i < a.length; i++) {
+            assertEquals(instance.get(i), a[i]);
+        }
+        for (int i = 0; i < a.length; i++) {
+            for (long k = a[i] - 1L; k <= a[i] + 1L; k++) {
+                int key = (int)k;
+                assertEquals(instance.lowerBound(key), BinarySearch.lowerBound(a, key), "key=" + key);
+                assertEquals(instance.upperBound(key), BinarySearch.upperBound(a, key), "key=" + key);
+                assertEquals(instance.contains(key), Arrays.binarySearch(a, key) >= 0, "key=" + key);
+            }
+        }
+        assertEquals(instance.lowerBound(Integer.MIN_VALUE), 0);
+        assertEquals(instance.upperBound(Integer.MAX_VALUE), a.length);
+    }
+
+    @Test(dataProvider = "createTestData")
+    public void testLongArray(int[] ints) {
+        long[] a = new long[ints.length];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = ints[i] * 3L;
+        }
+        EytzingerLongArray instance = new EytzingerLongArray(a);
+        assertEquals(instance.size(), a.length);
+        for (int i = 0; i < a.length; i++) {
+            assertEquals(instance.get(i), a[i]);
+        }
+        for (int i = 0; i < a.length; i++) {
+            for (long key = a[i] - 1; key <= a[i] + 1; key++) {
+                assertEquals(instance.lowerBound(key), BinarySearch.lowerBound(a, key), "key=" + key);
+                assertEquals(instance.upperBound(key), BinarySearch.upperBound(a, key), "key=" + key);
+                assertEquals(instance.contains(key), Arrays.binarySearch(a, key) >= 0, "key=" + key);
+            }
+        }
+        assertEquals(instance.lowerBound(Long.MIN_VALUE), 0);
+        assertEquals(instance.upperBound(Long.MAX_VALUE), a.length);
+    }
+
+    @Test
+    public void testAllSmallSizes() {
+        // covers every shape of last level of tree, for conversion of indices.
+        for (int size = 0; size <= 130; size++) {
+            int[] a = new int[size];
+            for (int i = 0; i < size; i++) {
+                a[i] = 2 * i;
+            }
+            EytzingerIntArray instance = new EytzingerIntArray(a);
+            for (int i = 0; i < size; i++) {
+                assertEquals(instance.get(i), a[i]);
+                assertEquals(instance.lowerBound(a[i]), i);
+                assertEquals(instance.lowerBound(a[i] + 1), i + 1);
+                assertEquals(instance.upperBound(a[i] - 1), i);
+            }
+        }
+    }
+
+    @Test
+    public void testForErrors() {
+        EytzingerIntArray instance = new EytzingerIntArray(new int[]{ 1, 2 });
+        expectThrows(IndexOutOfBoundsException.class, () -> instance.get(-1));
+        expectThrows(IndexOutOfBoundsException.class, () -> instance.get(2));
+        EytzingerLongArray instance2 = new EytzingerLongArray(new long[0]);
+        expectThrows(IndexOutOfBoundsException.class, () -> instance2.get(0));
+    }
+}
@@ -0,0 +1,230 @@
+package com.aaronicsubstances.cs_and_math.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.testng.Assert.*;
+
+public class EventQueueTest {
+    private final Random randGen = new Random();
+
+    @DataProvider
+    public Object[][] createEventQueueData() {
+        return new Object[][]{
+            { (Supplier<EventQueue>) HeapEventQueue::new },
+            { (Supplier<EventQueue>) TimingWheelEventQueue::new },
+            { (Supplier<EventQueue>) CalendarEventQueue::new },
+            { (Supplier<EventQueue>) PersistentEventQueue::new },
+        };
+    }
+
+    @Test(dataProvider = "createEventQueueData")
+    public void testFifoWithinSameTime(Supplier<EventQueue> queueFactory) {
+        EventQueue instance = queueFactory.get();
+        List<ScheduledEvent> events = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ScheduledEvent event = new ScheduledEvent(i, i % 2 == 0 ? 70 : 5000);
+            events.add(event);
+            instance.add(event);
+        }
+        assertThat(instance.size(), is(10));
+        assertNull(instance.pollDue(69));
+
+        for (int i = 0; i < 10; i += 2) {
+            assertThat(instance.pollDue(70), sameInstance(events.get(i)));
+        }
+        assertNull(instance.pollDue(70));
+        instance.remove(events.get(3));
+
+        // add more at same time after some cascading.
+        ScheduledEvent late = new ScheduledEvent(10, 5000);
+        instance.add(late);
+        ScheduledEvent latest = new ScheduledEvent(11, Long.MAX_VALUE);
+        instance.add(latest);
+        ScheduledEvent secondLatest = new ScheduledEvent(12, Long.MAX_VALUE - 1);
+        instance.add(secondLatest);
+        for (int i = 1; i < 10; i += 2) {
+            if (i != 3) {
+                assertThat(instance.pollDue(5000), sameInstance(events.get(i)));
+            }
+        }
+        assertThat(instance.pollDue(5000), sameInstance(late));
+        assertNull(instance.pollDue(Long.MAX_VALUE - 2));
+        assertThat(instance.pollDue(Long.MAX_VALUE), sameInstance(secondLatest));
+        assertThat(instance.pollDue(Long.MAX_VALUE), sameInstance(latest));
+        assertThat(instance.size(), is(0));
+        assertNull(instance.pollDue(Long.MAX_VALUE));
+    }
+
+    @Test(dataProvider = "createEventQueueData")
+    public void testAgainstTreeSet(Supplier<EventQueue> queueFactory) {
+        EventQueue instance = queueFactory.get();
+        TreeSet<ScheduledEvent> expected = new TreeSet<>(ScheduledEvent::compare);
+        List<ScheduledEvent> pending = new ArrayList<>();
+        long idSeq = 0;
+        long now = 0;
+        for (int i = 0; i < 50_000; i++) {
+            int op = randGen.nextInt(10);
+            if (op < 5) {
+                ScheduledEvent event = new ScheduledEvent(idSeq++, now + randomDelay());
+                instance.add(event);
+                expected.add(event);
+                pending.add(event);
+            }
+            else if (op < 7) {
+                if (!pending.isEmpty()) {
+                    // remove with swap to keep pending list compact.
+                    int index = randGen.nextInt(pending.size());
+                    ScheduledEvent event = pending.get(index);
+                    pending.set(index, pending.get(pending.size() - 1));
+                    pending.remove(pending.size() - 1);
+                    if (expected.remove(event)) {
+                        instance.remove(event);
+                    }
+                }
+            }
+            else {
+                // occasionally move time backward.
+                long limit = op == 9 && now > 0 ? randGen.nextInt((int) Math.min(now, 1000)) :
+                    now + randomDelay();
+                ScheduledEvent actual;
+                while ((actual = instance.pollDue(limit)) != null) {
+                    assertThat(actual, sameInstance(expected.pollFirst()));
+                }
+                assertTrue(expected.isEmpty() || expected.first().getScheduledAt() > limit);
+                now = limit;
+            }
+            assertThat(instance.size(), is(expected.size()));
+        }
+        ScheduledEvent actual;
+        while ((actual = instance.pollDue(Long.MAX_VALUE)) != null) {
+            assertThat(actual, sameInstance(expected.pollFirst()));
+        }
+        assertTrue(expected.isEmpty());
+    }
+
+    @Test(dataProvider = "createEventQueueData")
+    public void testRemoveIf(Supplier<EventQueue> queueFactory) {
+        EventQueue instance = queueFactory.get();
+        TreeSet<ScheduledEvent> expected = new TreeSet<>(ScheduledEvent::compare);
+        long now = 0;
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 2000; i++) {
+                ScheduledEvent event = new ScheduledEvent(round * 2000 + i, now + randomDelay());
+                instance.add(event);
+                expected.add(event);
+            }
+            int removedCount = instance.removeIf(e -> e.getId() % 3 != 0);
+            int expectedRemovedCount = expected.size();
+            expected.removeIf(e -> e.getId() % 3 != 0);
+            expectedRemovedCount -= expected.size();
+            assertThat(removedCount, is(expectedRemovedCount));
+            assertThat(instance.size(), is(expected.size()));
+            assertThat(instance.removeIf(e -> false), is(0));
+
+            // remaining events should still be removable individually.
+            ScheduledEvent last = expected.pollLast();
+            instance.remove(last);
+
+            now += randomDelay();
+            ScheduledEvent actual;
+            while ((actual = instance.pollDue(now)) != null) {
+                assertThat(actual, sameInstance(expected.pollFirst()));
+            }
+            assertTrue(expected.isEmpty() || expected.first().getScheduledAt() > now);
+        }
+        assertThat(instance.removeIf(e -> true), is(expected.size()));
+        assertThat(instance.size(), is(0));
+        assertNull(instance.pollDue(Long.MAX_VALUE));
+    }
+
+    private long randomDelay() {
+        // mostly short delays, with occasional very long ones.
+        switch (randGen.nextInt(4)) {
+            case 0:
+                return randGen.nextInt(64);
+            case 1:
+                return randGen.nextInt(5000);
+            case 2:
+                return randGen.nextInt(1 << 24);
+            default:
+                return randGen.nextLong() >>> (24 + randGen.nextInt(40));
+        }
+    }
+
+    @Test
+    public void testForErrors() {
+        expectThrows(IllegalArgumentException.class, () -> new ScheduledEvent(0, -1));
+    }
+
+    @Test(dataProvider = "createEventQueueData")
+    public void testAddAll(Supplier<EventQueue> queueFactory) {
+        EventQueue instance = queueFactory.get();
+        TreeSet<ScheduledEvent> expected = new TreeSet<>(ScheduledEvent::compare);
+        long now = 0;
+        int idSeq = 0;
+        // batches both smaller and larger than queue.
+        int[] batchSizes = { 0, 1, 1000, 10, 5000, 100, 20_000 };
+        for (int batchSize : batchSizes) {
+            ScheduledEvent[] batch = new ScheduledEvent[batchSize + 2];
+            for (int i = 1; i <= batchSize; i++) {
+                batch[i] = new ScheduledEvent(idSeq++, now + randomDelay());
+                expected.add(batch[i]);
+            }
+            instance.addAll(batch, 1, batchSize + 1);
+            assertThat(instance.size(), is(expected.size()));
+
+            // events should still be removable individually.
+            if (!expected.isEmpty()) {
+                ScheduledEvent last = expected.pollLast();
+                instance.remove(last);
+            }
+
+            now += randomDelay() >>> 1;
+            ScheduledEvent actual;
+            while ((actual = instance.pollDue(now)) != null) {
+                assertThat(actual, sameInstance(expected.pollFirst()));
+            }
+            assertThat(instance.size(), is(expected.size()));
+        }
+        ScheduledEvent actual;
+        while ((actual = instance.pollDue(Long.MAX_VALUE)) != null) {
+            assertThat(actual, sameInstance(expected.pollFirst()));
+        }
+        assertTrue(expected.isEmpty());
+    }
+
+    @Test
+    public void testTimingWheelEarliestScheduledAtBound() {
+        TimingWheelEventQueue instance = new TimingWheelEventQueue();
+        assertThat(instance.getEarliestScheduledAtBound(), is(Long.MAX_VALUE));
+        TreeSet<ScheduledEvent> expected = new TreeSet<>(ScheduledEvent::compare);
+        for (int i = 0; i < 1000; i++) {
+            ScheduledEvent event = new ScheduledEvent(i, randomDelay());
+            instance.add(event);
+            expected.add(event);
+        }
+        long now = 0;
+        while (!expected.isEmpty()) {
+            long bound = instance.getEarliestScheduledAtBound();
+            assertThat(bound, lessThanOrEqualTo(expected.first().getScheduledAt()));
+            assertThat(bound, greaterThanOrEqualTo(now));
+            // polling up to bound yields earliest event if and only if bound is exact.
+            ScheduledEvent actual = instance.pollDue(bound);
+            if (actual != null) {
+                assertThat(actual, sameInstance(expected.pollFirst()));
+                assertThat(actual.getScheduledAt(), is(bound));
+            }
+            now = bound;
+        }
+        assertThat(instance.getEarliestScheduledAtBound(), is(Long.MAX_VALUE));
+    }
+}
@@ -0,0 +1,84 @@
+package com.aaronicsubstances.cs_and_math.simulation;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+public class EventTraceReaderTest {
+
+    private static void writeTrace(Path path, long[][] records) throws IOException {
+        try (EventTraceWriter writer = new EventTraceWriter(path)) {
+            for (long[] record : records) {
+                writer.write(record[0], record[1], (int) record[2]);
+            }
+        }
+    }
+
+    @Test
+    public void testFindFirstDifference() throws IOException {
+        Path path1 = Files.createTempFile("event-trace", ".bin");
+        Path path2 = Files.createTempFile("event-trace", ".bin");
+        try {
+            long[][] records = new long[10_000][];
+            for (int i = 0; i < records.length; i++) {
+                records[i] = new long[]{ i / 3, i, i % 7 };
+            }
+            writeTrace(path1, records);
+            writeTrace(path2, records);
+            assertEquals(EventTraceReader.findFirstDifference(path1, path2), -1);
+
+            for (int field = 0; field < 3; field++) {
+                records[5000][field]++;
+                writeTrace(path2, records);
+                assertEquals(EventTraceReader.findFirstDifference(path1, path2), 5000);
+                assertEquals(EventTraceReader.findFirstDifference(path2, path1), 5000);
+                records[5000][field]--;
+            }
+
+            long[][] prefix = new long[9000][];
+            System.arraycopy(records, 0, prefix, 0, prefix.length);
+            writeTrace(path2, prefix);
+            assertEquals(EventTraceReader.findFirstDifference(path1, path2), 9000);
+            assertEquals(EventTraceReader.findFirstDifference(path2, path1), 9000);
+
+            writeTrace(path2, new long[0][]);
+            assertEquals(EventTraceReader.findFirstDifference(path1, path2), 0);
+            writeTrace(path1, new long[0][]);
+            assertEquals(EventTraceReader.findFirstDifference(path1, path2), -1);
+        }
+        finally {
+            Files.delete(path1);
+            Files.delete(path2);
+        }
+    }
+
+    @Test
+    public void testForErrors() throws IOException {
+        Path path = Files.createTempFile("event-trace", ".bin");
+        try {
+            Files.write(path, new byte[0]);
+            expectThrows(IOException.class, () -> new EventTraceReader(path));
+            Files.write(path, "not a trace file".getBytes("utf-8"));
+            expectThrows(IOException.class, () -> new EventTraceReader(path));
+
+            // incomplete last record.
+            writeTrace(path, new long[][]{ { 1, 2, 3 }, { 4, 5, 6 } });
+            Files.write(path, new byte[]{ 1, 2, 3 }, StandardOpenOption.APPEND);
+            try (EventTraceReader reader = new EventTraceReader(path)) {
+                assertEquals(reader.getRecordCount(), 2);
+                assertTrue(reader.next());
+                assertTrue(reader.next());
+                expectThrows(EOFException.class, () -> reader.next());
+            }
+        }
+        finally {
+            Files.delete(path);
+        }
+    }
+}
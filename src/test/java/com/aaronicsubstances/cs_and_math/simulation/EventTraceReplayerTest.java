@@ -0,0 +1,100 @@
+package com.aaronicsubstances.cs_and_math.simulation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.aaronicsubstances.cs_and_math.VirtualEventLoop;
+
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.testng.Assert.*;
+
+public class EventTraceReplayerTest {
+
+    @Test
+    public void testReplay() throws IOException {
+        Path path = Files.createTempFile("event-trace", ".bin");
+        try {
+            try (EventTraceWriter writer = new EventTraceWriter(path)) {
+                writer.write(3, 0, 10);
+                writer.write(3, 1, 11);
+                writer.write(7, 2, 12);
+                // backward movement of time.
+                writer.write(5, 3, 13);
+                // beyond reach of a single timeout.
+                writer.write(3L * Integer.MAX_VALUE, 4, 14);
+            }
+
+            VirtualEventLoop eventLoop = new VirtualEventLoop();
+            List<String> log = new ArrayList<>();
+            try (EventTraceReader reader = new EventTraceReader(path)) {
+                EventTraceReplayer instance = new EventTraceReplayer(reader, eventLoop,
+                    (scheduledAt, id, tag) -> {
+                        log.add(eventLoop.getCurrentTimestamp() + ":" + scheduledAt + ":" +
+                            id + ":" + tag);
+                        // model reacting to replayed event.
+                        eventLoop.setTimeout(() -> log.add("reaction to " + id), 1);
+                    });
+                instance.start();
+                assertEquals(eventLoop.getPendingEventCount(), 1);
+                eventLoop.advanceTimeTo(2);
+                assertThat(log, is(Arrays.asList()));
+                eventLoop.advanceTimeTo(100);
+                assertThat(log, is(Arrays.asList(
+                    "3:3:0:10", "3:3:1:11", "reaction to 0", "reaction to 1",
+                    "7:7:2:12", "7:5:3:13", "reaction to 2", "reaction to 3")));
+                log.clear();
+                eventLoop.advanceTimeTo(Long.MAX_VALUE >> 1);
+                assertThat(log, is(Arrays.asList(
+                    (3L * Integer.MAX_VALUE) + ":" + (3L * Integer.MAX_VALUE) + ":4:14",
+                    "reaction to 4")));
+                assertEquals(eventLoop.getPendingEventCount(), 0);
+            }
+        }
+        finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testRecordAndReplay() throws IOException {
+        Path recorded = Files.createTempFile("event-trace", ".bin");
+        Path replayed = Files.createTempFile("event-trace", ".bin");
+        try {
+            VirtualEventLoop eventLoop = new VirtualEventLoop();
+            try (EventTraceWriter writer = new EventTraceWriter(recorded, cb -> 1)) {
+                eventLoop.setTraceWriter(writer);
+                for (int i = 0; i < 1000; i++) {
+                    eventLoop.setTimeout(() -> { }, (i * 37) % 101);
+                }
+                eventLoop.advanceTimeTo(1000);
+            }
+
+            // replaying and recording tags should reproduce times and tags.
+            VirtualEventLoop replayLoop = new VirtualEventLoop();
+            try (EventTraceReader reader = new EventTraceReader(recorded);
+                    EventTraceWriter writer = new EventTraceWriter(replayed)) {
+                new EventTraceReplayer(reader, replayLoop,
+                    (scheduledAt, id, tag) -> writer.write(scheduledAt, id, tag)).start();
+                replayLoop.advanceTimeTo(1000);
+            }
+            assertEquals(EventTraceReader.findFirstDifference(recorded, replayed), -1);
+        }
+        finally {
+            Files.delete(recorded);
+            Files.delete(replayed);
+        }
+    }
+
+    @Test
+    public void testForErrors() {
+        expectThrows(NullPointerException.class,
+            () -> new EventTraceReplayer(null, new VirtualEventLoop(), (t, id, tag) -> { }));
+    }
+}
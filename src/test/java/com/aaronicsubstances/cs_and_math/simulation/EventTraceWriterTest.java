@@ -0,0 +1,131 @@
+package com.aaronicsubstances.cs_and_math.simulation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.aaronicsubstances.cs_and_math.VirtualEventLoop;
+
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.testng.Assert.*;
+
+public class EventTraceWriterTest {
+
+    private static class TaggedCallback implements Runnable {
+        final int tag;
+
+        TaggedCallback(int tag) {
+            this.tag = tag;
+        }
+
+        @Override
+        public void run() {
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Path path = Files.createTempFile("event-trace", ".bin");
+        try {
+            // enough records to span many buffers.
+            int recordCount = 100_000;
+            Random randGen = new Random();
+            long[] expected = new long[recordCount * 3];
+            try (EventTraceWriter instance = new EventTraceWriter(path)) {
+                for (int i = 0; i < recordCount; i++) {
+                    expected[3 * i] = randGen.nextLong() >>> 1;
+                    expected[3 * i + 1] = randGen.nextLong();
+                    expected[3 * i + 2] = randGen.nextInt();
+                    instance.write(expected[3 * i], expected[3 * i + 1], (int) expected[3 * i + 2]);
+                }
+                assertEquals(instance.getRecordCount(), recordCount);
+            }
+            assertEquals(Files.size(path), 8 + 20L * recordCount);
+
+            try (EventTraceReader reader = new EventTraceReader(path)) {
+                assertEquals(reader.getRecordCount(), recordCount);
+                assertEquals(reader.getRecordIndex(), -1);
+                for (int i = 0; i < recordCount; i++) {
+                    assertTrue(reader.next());
+                    assertEquals(reader.getRecordIndex(), i);
+                    assertEquals(reader.getScheduledAt(), expected[3 * i]);
+                    assertEquals(reader.getId(), expected[3 * i + 1]);
+                    assertEquals(reader.getTag(), (int) expected[3 * i + 2]);
+                }
+                assertFalse(reader.next());
+                assertFalse(reader.next());
+            }
+        }
+        finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testRecordingEventLoop() throws IOException {
+        Path path = Files.createTempFile("event-trace", ".bin");
+        try {
+            VirtualEventLoop eventLoop = new VirtualEventLoop();
+            List<long[]> expected = new ArrayList<>();
+            try (EventTraceWriter instance = new EventTraceWriter(path,
+                    cb -> cb instanceof TaggedCallback ? ((TaggedCallback) cb).tag : -1)) {
+                eventLoop.setTraceWriter(instance);
+                assertSame(eventLoop.getTraceWriter(), instance);
+                eventLoop.setTimeout(new TaggedCallback(3), 5);
+                eventLoop.setTimeout(new TaggedCallback(1), 2);
+                eventLoop.clearTimeout(eventLoop.setTimeout(new TaggedCallback(2), 3));
+                eventLoop.setTimeout(() -> eventLoop.postCallback(new TaggedCallback(4)), 5);
+                eventLoop.advanceTimeTo(10);
+                expected.add(new long[]{ 2, 1, 1 });
+                expected.add(new long[]{ 5, 0, 3 });
+                expected.add(new long[]{ 5, 3, -1 });
+                expected.add(new long[]{ 5, 4, 4 });
+
+                eventLoop.setTraceWriter(null);
+                eventLoop.postCallback(new TaggedCallback(5));
+                eventLoop.advanceTimeBy(0);
+                assertEquals(instance.getRecordCount(), 4);
+            }
+
+            List<long[]> actual = new ArrayList<>();
+            try (EventTraceReader reader = new EventTraceReader(path)) {
+                while (reader.next()) {
+                    actual.add(new long[]{ reader.getScheduledAt(), reader.getId(), reader.getTag() });
+                }
+            }
+            assertEquals(actual.size(), expected.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertThat(actual.get(i), is(expected.get(i)));
+            }
+        }
+        finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testDefaultTags() throws IOException {
+        Path path = Files.createTempFile("event-trace", ".bin");
+        try {
+            try (EventTraceWriter instance = new EventTraceWriter(path)) {
+                instance.write(0, 0, new TaggedCallback(1));
+                instance.write(0, 1, new TaggedCallback(2));
+            }
+            try (EventTraceReader reader = new EventTraceReader(path)) {
+                reader.next();
+                assertEquals(reader.getTag(), 0);
+                reader.next();
+                assertEquals(reader.getTag(), 0);
+            }
+        }
+        finally {
+            Files.delete(path);
+        }
+    }
+}
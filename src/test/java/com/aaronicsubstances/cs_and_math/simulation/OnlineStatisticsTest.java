@@ -0,0 +1,86 @@
+package com.aaronicsubstances.cs_and_math.simulation;
+
+import java.util.Random;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.testng.Assert.*;
+
+public class OnlineStatisticsTest {
+
+    @Test
+    public void testEmpty() {
+        OnlineStatistics instance = new OnlineStatistics();
+        assertEquals(instance.getCount(), 0);
+        assertTrue(Double.isNaN(instance.getMean()));
+        assertTrue(Double.isNaN(instance.getVariance()));
+        assertTrue(Double.isNaN(instance.getMin()));
+        assertTrue(Double.isNaN(instance.getMax()));
+
+        instance.add(5);
+        assertEquals(instance.getCount(), 1);
+        assertEquals(instance.getMean(), 5.0);
+        assertTrue(Double.isNaN(instance.getVariance()));
+        assertEquals(instance.getMin(), 5.0);
+        assertEquals(instance.getMax(), 5.0);
+    }
+
+    @DataProvider
+    public Object[][] createTestAgainstTwoPassData() {
+        return new Object[][]{
+            { 2, 0.0 },
+            { 10, 1.0 },
+            { 1000, 1e9 },
+            { 100_000, -3.5 },
+        };
+    }
+
+    @Test(dataProvider = "createTestAgainstTwoPassData")
+    public void testAgainstTwoPass(int count, double offset) {
+        Random randGen = new Random();
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = offset + randGen.nextGaussian() * 10;
+        }
+        double sum = 0, min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+        for (double v : values) {
+            sum += v;
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+        double mean = sum / count;
+        double squaredDeviations = 0;
+        for (double v : values) {
+            squaredDeviations += (v - mean) * (v - mean);
+        }
+        double variance = squaredDeviations / (count - 1);
+
+        // merging parts should give the same result as adding all values to one instance.
+        OnlineStatistics whole = new OnlineStatistics();
+        OnlineStatistics merged = new OnlineStatistics();
+        OnlineStatistics part = new OnlineStatistics();
+        for (int i = 0; i < count; i++) {
+            whole.add(values[i]);
+            part.add(values[i]);
+            if (randGen.nextInt(10) == 0) {
+                merged.merge(part);
+                part = new OnlineStatistics();
+            }
+        }
+        merged.merge(part);
+        merged.merge(new OnlineStatistics());
+
+        for (OnlineStatistics instance : new OnlineStatistics[]{ whole, merged }) {
+            assertEquals(instance.getCount(), count);
+            assertThat(instance.getMean(), closeTo(mean, 1e-9 * Math.max(1, Math.abs(mean))));
+            assertThat(instance.getVariance(), closeTo(variance, 1e-6 * variance));
+            assertThat(instance.getStandardError(),
+                closeTo(Math.sqrt(variance / count), 1e-6 * Math.sqrt(variance / count)));
+            assertEquals(instance.getMin(), min);
+            assertEquals(instance.getMax(), max);
+        }
+    }
+}
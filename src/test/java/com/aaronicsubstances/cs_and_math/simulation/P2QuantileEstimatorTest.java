@@ -0,0 +1,80 @@
+package com.aaronicsubstances.cs_and_math.simulation;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.testng.Assert.*;
+
+public class P2QuantileEstimatorTest {
+
+    @Test
+    public void testFewValues() {
+        P2QuantileEstimator instance = new P2QuantileEstimator(0.5);
+        assertTrue(Double.isNaN(instance.getEstimate()));
+        double[] values = { 7, 3, 9, 1, 5 };
+        double[] expected = { 7, 3, 7, 3, 5 };
+        for (int i = 0; i < values.length; i++) {
+            instance.add(values[i]);
+            assertEquals(instance.getEstimate(), expected[i], "" + i);
+        }
+        assertEquals(instance.getCount(), 5);
+    }
+
+    @DataProvider
+    public Object[][] createTestAgainstSortingData() {
+        return new Object[][]{
+            { 0.5, "uniform" },
+            { 0.9, "uniform" },
+            { 0.99, "uniform" },
+            { 0.5, "exponential" },
+            { 0.95, "exponential" },
+            { 0.05, "gaussian" },
+            { 0.5, "gaussian" },
+        };
+    }
+
+    @Test(dataProvider = "createTestAgainstSortingData")
+    public void testAgainstSorting(double quantile, String distribution) {
+        Random randGen = new Random();
+        int count = 100_000;
+        double[] values = new double[count];
+        P2QuantileEstimator instance = new P2QuantileEstimator(quantile);
+        for (int i = 0; i < count; i++) {
+            double u = randGen.nextDouble();
+            switch (distribution) {
+                case "uniform":
+                    values[i] = u * 100;
+                    break;
+                case "exponential":
+                    values[i] = -Math.log(1 - u) * 10;
+                    break;
+                default:
+                    values[i] = randGen.nextGaussian() * 10;
+                    break;
+            }
+            instance.add(values[i]);
+        }
+        Arrays.sort(values);
+        // compare ranks rather than values, since estimates are only accurate
+        // to within a small fraction of the distribution.
+        double estimate = instance.getEstimate();
+        int rank = Arrays.binarySearch(values, estimate);
+        if (rank < 0) {
+            rank = -(rank + 1);
+        }
+        assertThat((double) rank / count, closeTo(quantile, 0.01));
+        assertEquals(instance.getQuantile(), quantile);
+    }
+
+    @Test
+    public void testForErrors() {
+        expectThrows(IllegalArgumentException.class, () -> new P2QuantileEstimator(-0.1));
+        expectThrows(IllegalArgumentException.class, () -> new P2QuantileEstimator(1.1));
+        expectThrows(IllegalArgumentException.class, () -> new P2QuantileEstimator(Double.NaN));
+    }
+}
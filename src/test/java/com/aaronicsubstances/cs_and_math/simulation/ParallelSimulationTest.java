@@ -0,0 +1,199 @@
+package com.aaronicsubstances.cs_and_math.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.aaronicsubstances.cs_and_math.VirtualEventLoop;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.testng.Assert.*;
+
+public class ParallelSimulationTest {
+
+    /**
+     * Token passing model. Every logical process starts with a token, and on receiving a
+     * token, logs it and forwards it to another logical process until it has made enough hops.
+     */
+    private static class TokenModel {
+        final int lpCount;
+        final int lookahead;
+        final int maxHops;
+        final List<List<String>> logs = new ArrayList<>();
+
+        TokenModel(int lpCount, int lookahead, int maxHops) {
+            this.lpCount = lpCount;
+            this.lookahead = lookahead;
+            this.maxHops = maxHops;
+            for (int i = 0; i < lpCount; i++) {
+                logs.add(new ArrayList<>());
+            }
+        }
+
+        int nextLp(int lp, int hops) {
+            return (lp + 1 + hops % 3) % lpCount;
+        }
+
+        int delay(int lp, int hops) {
+            return lookahead + (hops * 7 + lp) % 5;
+        }
+
+        void receive(int lp, long timestamp, int tokenId, int hops) {
+            logs.get(lp).add(timestamp + ":" + tokenId + ":" + hops);
+        }
+    }
+
+    private static void runParallel(TokenModel model, ParallelSimulation instance,
+            long endTimestamp) throws InterruptedException {
+        for (int i = 0; i < model.lpCount; i++) {
+            int lp = i;
+            VirtualEventLoop eventLoop = instance.getLogicalProcess(lp);
+            eventLoop.setTimeout(() -> forwardParallel(model, instance, lp, lp, 0), lp);
+        }
+        instance.runUntil(endTimestamp);
+    }
+
+    private static void forwardParallel(TokenModel model, ParallelSimulation instance,
+            int lp, int tokenId, int hops) {
+        model.receive(lp, instance.getLogicalProcess(lp).getCurrentTimestamp(), tokenId, hops);
+        if (hops < model.maxHops) {
+            int nextLp = model.nextLp(lp, hops);
+            instance.send(lp, nextLp, model.delay(lp, hops),
+                () -> forwardParallel(model, instance, nextLp, tokenId, hops + 1));
+        }
+    }
+
+    private static void runSequential(TokenModel model, long endTimestamp) {
+        VirtualEventLoop eventLoop = new VirtualEventLoop();
+        for (int i = 0; i < model.lpCount; i++) {
+            int lp = i;
+            eventLoop.setTimeout(() -> forwardSequential(model, eventLoop, lp, lp, 0), lp);
+        }
+        eventLoop.advanceTimeTo(endTimestamp);
+    }
+
+    private static void forwardSequential(TokenModel model, VirtualEventLoop eventLoop,
+            int lp, int tokenId, int hops) {
+        model.receive(lp, eventLoop.getCurrentTimestamp(), tokenId, hops);
+        if (hops < model.maxHops) {
+            int nextLp = model.nextLp(lp, hops);
+            eventLoop.setTimeout(() -> forwardSequential(model, eventLoop, nextLp, tokenId, hops + 1),
+                model.delay(lp, hops));
+        }
+    }
+
+    private static List<VirtualEventLoop> createEventLoops(int count) {
+        List<VirtualEventLoop> eventLoops = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            eventLoops.add(new VirtualEventLoop());
+        }
+        return eventLoops;
+    }
+
+    @DataProvider
+    public Object[][] createTestAgainstSequentialData() {
+        return new Object[][]{
+            { 1, 1, 50, 1000 },
+            { 2, 1, 50, 1000 },
+            { 4, 3, 200, 10_000 },
+            { 4, 10, 200, 300 },
+            { 7, 5, 1000, 100_000 },
+        };
+    }
+
+    @Test(dataProvider = "createTestAgainstSequentialData")
+    public void testAgainstSequential(int lpCount, int lookahead, int maxHops,
+            long endTimestamp) throws InterruptedException {
+        TokenModel expected = new TokenModel(lpCount, lookahead, maxHops);
+        runSequential(expected, endTimestamp);
+
+        TokenModel actual = new TokenModel(lpCount, lookahead, maxHops);
+        ParallelSimulation instance = new ParallelSimulation(createEventLoops(lpCount), lookahead);
+        runParallel(actual, instance, endTimestamp);
+        assertThat(instance.getCurrentTimestamp(), is(endTimestamp));
+
+        for (int i = 0; i < lpCount; i++) {
+            assertThat(instance.getLogicalProcess(i).getCurrentTimestamp(), is(endTimestamp));
+            // same-time events may run in different order, but otherwise
+            // logs should be identical.
+            List<String> expectedLog = expected.logs.get(i);
+            List<String> actualLog = actual.logs.get(i);
+            Collections.sort(expectedLog);
+            Collections.sort(actualLog);
+            assertThat(actualLog, is(expectedLog));
+        }
+    }
+
+    @Test
+    public void testRunInSteps() throws InterruptedException {
+        TokenModel expected = new TokenModel(3, 4, 100);
+        runSequential(expected, 10_000);
+
+        TokenModel actual = new TokenModel(3, 4, 100);
+        ParallelSimulation instance = new ParallelSimulation(createEventLoops(3), 4);
+        runParallel(actual, instance, 0);
+        for (long t = 1; t <= 10_000; t += 37) {
+            instance.runUntil(t);
+        }
+        instance.runUntil(10_000);
+        for (int i = 0; i < 3; i++) {
+            Collections.sort(expected.logs.get(i));
+            Collections.sort(actual.logs.get(i));
+            assertThat(actual.logs.get(i), is(expected.logs.get(i)));
+        }
+    }
+
+    @Test
+    public void testMessageSentBetweenRuns() throws InterruptedException {
+        ParallelSimulation instance = new ParallelSimulation(createEventLoops(2), 5);
+        instance.runUntil(10);
+        List<String> log = Collections.synchronizedList(new ArrayList<>());
+        // callback scheduled at current time between runs, whose message
+        // is due at end of first full window.
+        instance.getLogicalProcess(0).postCallback(() ->
+            instance.send(0, 1, 5, () -> log.add("" + instance.getLogicalProcess(1).getCurrentTimestamp())));
+        instance.runUntil(20);
+        assertThat(log, is(Arrays.asList("15")));
+    }
+
+    @Test
+    public void testFailure() throws InterruptedException {
+        ParallelSimulation instance = new ParallelSimulation(createEventLoops(3), 2);
+        instance.getLogicalProcess(2).setTimeout(() -> {
+            throw new UnsupportedOperationException("test");
+        }, 7);
+        UnsupportedOperationException ex = expectThrows(UnsupportedOperationException.class,
+            () -> instance.runUntil(100));
+        assertThat(ex.getMessage(), is("test"));
+        assertThat(instance.getCurrentTimestamp(), is(0L));
+    }
+
+    @Test
+    public void testForErrors() {
+        expectThrows(IllegalArgumentException.class,
+            () -> new ParallelSimulation(createEventLoops(0), 1));
+        expectThrows(IllegalArgumentException.class,
+            () -> new ParallelSimulation(createEventLoops(2), 0));
+        expectThrows(IllegalArgumentException.class,
+            () -> {
+                List<VirtualEventLoop> eventLoops = createEventLoops(2);
+                eventLoops.get(1).advanceTimeTo(1);
+                new ParallelSimulation(eventLoops, 1);
+            });
+
+        ParallelSimulation instance = new ParallelSimulation(createEventLoops(2), 3);
+        expectThrows(IllegalArgumentException.class,
+            () -> instance.runUntil(-1));
+        expectThrows(IllegalStateException.class,
+            () -> instance.send(0, 1, 3, () -> { }));
+        expectThrows(IllegalArgumentException.class,
+            () -> instance.send(0, 1, 2, () -> { }));
+        expectThrows(IllegalArgumentException.class,
+            () -> instance.send(0, 2, 3, () -> { }));
+    }
+}
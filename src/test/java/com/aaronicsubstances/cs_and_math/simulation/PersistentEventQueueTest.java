@@ -0,0 +1,110 @@
+package com.aaronicsubstances.cs_and_math.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.testng.Assert.*;
+
+public class PersistentEventQueueTest {
+
+    private static List<ScheduledEvent> drain(PersistentEventQueue queue) {
+        List<ScheduledEvent> events = new ArrayList<>();
+        ScheduledEvent event;
+        while ((event = queue.pollDue(Long.MAX_VALUE)) != null) {
+            events.add(event);
+        }
+        return events;
+    }
+
+    @Test
+    public void testSnapshots() {
+        Random randGen = new Random();
+        PersistentEventQueue instance = new PersistentEventQueue();
+        TreeSet<ScheduledEvent> expected = new TreeSet<>(ScheduledEvent::compare);
+        List<PersistentEventQueue> snapshots = new ArrayList<>();
+        List<List<ScheduledEvent>> expectedSnapshots = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            int op = randGen.nextInt(10);
+            if (op < 6 || expected.isEmpty()) {
+                ScheduledEvent event = new ScheduledEvent(i, randGen.nextInt(1000));
+                instance.add(event);
+                expected.add(event);
+            }
+            else if (op < 8) {
+                ScheduledEvent event = instance.pollDue(Long.MAX_VALUE);
+                assertSame(event, expected.pollFirst());
+            }
+            else {
+                ScheduledEvent event = expected.ceiling(new ScheduledEvent(-1, randGen.nextInt(1000)));
+                if (event != null) {
+                    assertTrue(instance.contains(event));
+                    assertSame(instance.find(event.getScheduledAt(), event.getId()), event);
+                    instance.remove(event);
+                    expected.remove(event);
+                    assertFalse(instance.contains(event));
+                    assertNull(instance.find(event.getScheduledAt(), event.getId()));
+                    // removing absent event does nothing.
+                    instance.remove(event);
+                }
+            }
+            assertEquals(instance.size(), expected.size());
+            if (i % 2000 == 0) {
+                snapshots.add(instance.snapshot());
+                expectedSnapshots.add(new ArrayList<>(expected));
+            }
+        }
+        // snapshots should be unaffected by later changes, and by each other.
+        for (int i = 0; i < snapshots.size(); i++) {
+            assertEquals(snapshots.get(i).size(), expectedSnapshots.get(i).size());
+            assertThat(drain(snapshots.get(i)), is(expectedSnapshots.get(i)));
+        }
+        assertThat(drain(instance), is(new ArrayList<>(expected)));
+    }
+
+    @Test
+    public void testContainsChecksIdentity() {
+        PersistentEventQueue instance = new PersistentEventQueue();
+        ScheduledEvent event = new ScheduledEvent(1, 5);
+        instance.add(event);
+        ScheduledEvent lookalike = new ScheduledEvent(1, 5);
+        assertTrue(instance.contains(event));
+        assertFalse(instance.contains(lookalike));
+        instance.remove(lookalike);
+        assertEquals(instance.size(), 1);
+    }
+
+    @Test
+    public void testRemoveIfKeepsSnapshots() {
+        PersistentEventQueue instance = new PersistentEventQueue();
+        List<ScheduledEvent> events = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            ScheduledEvent event = new ScheduledEvent(i, (i * 7919) % 1000);
+            events.add(event);
+            instance.add(event);
+        }
+        events.sort(ScheduledEvent::compare);
+        PersistentEventQueue snapshot = instance.snapshot();
+        assertEquals(instance.removeIf(e -> e.getId() % 3 == 0), 334);
+        assertEquals(instance.size(), 666);
+
+        // rebuilt treap should still support all operations.
+        ScheduledEvent extra = new ScheduledEvent(1000, 500);
+        instance.add(extra);
+        List<ScheduledEvent> expected = new ArrayList<>();
+        for (ScheduledEvent e : events) {
+            if (e.getId() % 3 != 0) {
+                expected.add(e);
+            }
+        }
+        expected.add(extra);
+        expected.sort(ScheduledEvent::compare);
+        assertThat(drain(instance), is(expected));
+        assertThat(drain(snapshot), is(events));
+    }
+}
@@ -0,0 +1,122 @@
+package com.aaronicsubstances.cs_and_math.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import com.aaronicsubstances.cs_and_math.VirtualEventLoop;
+
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.testng.Assert.*;
+
+public class ReplicationRunnerTest {
+
+    /**
+     * Single server queue with random arrivals and service times. Returns number of customers
+     * served and mean waiting time.
+     */
+    private static double[] runQueueModel(VirtualEventLoop eventLoop, SplittableRandom random) {
+        int endTimestamp = 10_000;
+        List<Long> waitingArrivals = new ArrayList<>();
+        long[] busyUntil = new long[1];
+        double[] totals = new double[2];
+        for (long t = random.nextInt(1, 20); t < endTimestamp; t += random.nextInt(1, 20)) {
+            long arrival = t;
+            eventLoop.setTimeout(() -> {
+                long start = Math.max(arrival, busyUntil[0]);
+                busyUntil[0] = start + random.nextInt(1, 15);
+                waitingArrivals.add(arrival);
+                eventLoop.setTimeout(() -> {
+                    waitingArrivals.remove(0);
+                    totals[0]++;
+                    totals[1] += start - arrival;
+                }, (int) (busyUntil[0] - arrival));
+            }, (int) t);
+        }
+        eventLoop.advanceTimeTo(Long.MAX_VALUE);
+        return new double[]{ totals[0], totals[1] / totals[0] };
+    }
+
+    @Test
+    public void testAgainstSequential() {
+        int replicationCount = 200;
+        long seed = 42;
+        ReplicationRunner instance = new ReplicationRunner(0.5, 0.9);
+        ReplicationRunner.Summary summary = instance.run(replicationCount, seed, 2,
+            ReplicationRunnerTest::runQueueModel);
+
+        // replicate sequentially with generators split in the same way.
+        SplittableRandom seedGenerator = new SplittableRandom(seed);
+        OnlineStatistics[] expected = { new OnlineStatistics(), new OnlineStatistics() };
+        P2QuantileEstimator medianEstimator = new P2QuantileEstimator(0.5);
+        for (int i = 0; i < replicationCount; i++) {
+            double[] metrics = runQueueModel(new VirtualEventLoop(), seedGenerator.split());
+            expected[0].add(metrics[0]);
+            expected[1].add(metrics[1]);
+            medianEstimator.add(metrics[1]);
+        }
+
+        assertEquals(summary.getReplicationCount(), replicationCount);
+        assertEquals(summary.getMetricCount(), 2);
+        for (int i = 0; i < 2; i++) {
+            OnlineStatistics actual = summary.getStatistics(i);
+            assertEquals(actual.getCount(), replicationCount);
+            assertThat(actual.getMean(), closeTo(expected[i].getMean(), 1e-9 * expected[i].getMean()));
+            assertThat(actual.getVariance(),
+                closeTo(expected[i].getVariance(), 1e-9 * expected[i].getVariance()));
+            assertEquals(actual.getMin(), expected[i].getMin());
+            assertEquals(actual.getMax(), expected[i].getMax());
+        }
+        double median = summary.getQuantile(1, 0.5);
+        assertThat(median, greaterThanOrEqualTo(expected[1].getMin()));
+        assertThat(median, lessThanOrEqualTo(expected[1].getMax()));
+        assertThat(summary.getQuantile(1, 0.9), greaterThanOrEqualTo(median));
+        expectThrows(IllegalArgumentException.class, () -> summary.getQuantile(1, 0.95));
+    }
+
+    @Test
+    public void testCustomPoolAndEventLoops() {
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            ReplicationRunner instance = new ReplicationRunner(pool,
+                () -> new VirtualEventLoop(new CalendarEventQueue()));
+            ReplicationRunner.Summary summary = instance.run(50, 7, 1,
+                (eventLoop, random) -> {
+                    assertTrue(Thread.currentThread().getName().startsWith("ForkJoinPool"));
+                    return new double[]{ random.nextInt(1, 7) };
+                });
+            assertEquals(summary.getReplicationCount(), 50);
+            OnlineStatistics statistics = summary.getStatistics(0);
+            assertThat(statistics.getMin(), greaterThanOrEqualTo(1.0));
+            assertThat(statistics.getMax(), lessThanOrEqualTo(6.0));
+
+            ReplicationRunner.Summary empty = instance.run(0, 7, 1, (eventLoop, random) -> null);
+            assertEquals(empty.getReplicationCount(), 0);
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testForErrors() {
+        expectThrows(IllegalArgumentException.class, () -> new ReplicationRunner(1.5));
+        expectThrows(NullPointerException.class, () -> new ReplicationRunner(null,
+            VirtualEventLoop::new));
+        ReplicationRunner instance = new ReplicationRunner();
+        expectThrows(IllegalArgumentException.class,
+            () -> instance.run(-1, 0, 1, (eventLoop, random) -> new double[1]));
+        expectThrows(IllegalStateException.class,
+            () -> instance.run(10, 0, 2, (eventLoop, random) -> new double[1]));
+        UnsupportedOperationException ex = expectThrows(UnsupportedOperationException.class,
+            () -> instance.run(10, 0, 1, (eventLoop, random) -> {
+                throw new UnsupportedOperationException("test");
+            }));
+        // fork/join pool may rethrow a copy of exception from another thread, which wraps it.
+        assertThat(ex.getMessage(), endsWith("test"));
+    }
+}
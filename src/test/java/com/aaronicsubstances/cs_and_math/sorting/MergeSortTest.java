@@ -0,0 +1,196 @@
+package com.aaronicsubstances.cs_and_math.sorting;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.testng.Assert.*;
+
+public class MergeSortTest {
+    private final Random randGen = new Random();
+
+    @DataProvider
+    public Object[][] createTestSortData() {
+        return new Object[][]{
+            { 0, "random" },
+            { 1, "random" },
+            { 2, "random" },
+            { 31, "random" },
+            { 33, "random" },
+            { 100, "random" },
+            { 1000, "random" },
+            { 1000, "sorted" },
+            { 1000, "reversed" },
+            { 1000, "partiallySorted" },
+            { 1000, "fewDistinct" },
+            { 100_000, "random" },
+            { 100_000, "sorted" },
+            { 100_000, "reversed" },
+            { 100_000, "partiallySorted" },
+            { 100_000, "fewDistinct" },
+        };
+    }
+
+    private int[] generateInput(int size, String ordering) {
+        int[] input = new int[size];
+        for (int i = 0; i < size; i++) {
+            switch (ordering) {
+                case "sorted":
+                    input[i] = i;
+                    break;
+                case "reversed":
+                    input[i] = size - i;
+                    break;
+                case "partiallySorted":
+                    input[i] = randGen.nextInt(10) == 0 ? randGen.nextInt(size) : i;
+                    break;
+                case "fewDistinct":
+                    input[i] = randGen.nextInt(5);
+                    break;
+                default:
+                    input[i] = randGen.nextInt();
+                    break;
+            }
+        }
+        return input;
+    }
+
+    @Test(dataProvider = "createTestSortData")
+    public void testSortForStability(int size, String ordering) {
+        int[] keys = generateInput(size, ordering);
+        // sort by key only, and record original positions to
+        // verify stability.
+        int[][] input = new int[size][];
+        for (int i = 0; i < size; i++) {
+            input[i] = new int[]{ keys[i], i };
+        }
+        Comparator<int[]> sortFunc = (a, b) -> Integer.compare(a[0], b[0]);
+
+        int[][] expected = input.clone();
+        Arrays.sort(expected, sortFunc);
+
+        int[][] actual = input.clone();
+        MergeSort.sort(actual, sortFunc);
+        assertEquals(actual, expected);
+
+        actual = input.clone();
+        MergeSort.parallelSort(actual, sortFunc);
+        assertEquals(actual, expected);
+    }
+
+    @Test(dataProvider = "createTestSortData")
+    public void testSortInts(int size, String ordering) {
+        int[] input = generateInput(size, ordering);
+        int[] expected = input.clone();
+        Arrays.sort(expected);
+
+        int[] actual = input.clone();
+        MergeSort.sort(actual);
+        assertEquals(actual, expected);
+
+        actual = input.clone();
+        MergeSort.parallelSort(actual);
+        assertEquals(actual, expected);
+    }
+
+    @Test(dataProvider = "createTestSortData")
+    public void testSortLongs(int size, String ordering) {
+        int[] keys = generateInput(size, ordering);
+        long[] input = new long[size];
+        for (int i = 0; i < size; i++) {
+            input[i] = keys[i] * (long)Integer.MAX_VALUE;
+        }
+        long[] expected = input.clone();
+        Arrays.sort(expected);
+
+        long[] actual = input.clone();
+        MergeSort.sort(actual);
+        assertEquals(actual, expected);
+
+        actual = input.clone();
+        MergeSort.parallelSort(actual);
+        assertEquals(actual, expected);
+    }
+
+    @Test
+    public void testSortList() {
+        List<String> input = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            input.add("" + randGen.nextInt(100));
+        }
+        List<String> expected = new ArrayList<>(input);
+        expected.sort(Comparator.naturalOrder());
+
+        List<String> actual = new ArrayList<>(input);
+        MergeSort.sort(actual, Comparator.naturalOrder());
+        assertThat(actual, is(expected));
+
+        actual = new ArrayList<>(input);
+        MergeSort.parallelSort(actual, Comparator.naturalOrder());
+        assertThat(actual, is(expected));
+    }
+
+    @Test
+    public void testSortRange() {
+        int[] actual = { 9, 8, 7, 6, 5, 4, 3, 2, 1, 0 };
+        MergeSort.sort(actual, 2, 7);
+        assertEquals(actual, new int[]{ 9, 8, 3, 4, 5, 6, 7, 2, 1, 0 });
+
+        long[] actualLongs = { 9, 8, 7, 6, 5, 4, 3, 2, 1, 0 };
+        MergeSort.parallelSort(actualLongs, 0, 3);
+        assertEquals(actualLongs, new long[]{ 7, 8, 9, 6, 5, 4, 3, 2, 1, 0 });
+
+        Integer[] actualObjects = { 9, 8, 7, 6, 5, 4, 3, 2, 1, 0 };
+        MergeSort.sort(actualObjects, 5, 10, Comparator.naturalOrder());
+        assertEquals(actualObjects, new Integer[]{ 9, 8, 7, 6, 5, 0, 1, 2, 3, 4 });
+    }
+
+    @Test
+    public void testSortLargeRange() {
+        Random random = new Random(17);
+        int[] input = random.ints(50_000, -1000, 1000).toArray();
+        int fromIndex = 12_345, toIndex = 45_678;
+
+        int[] expected = input.clone();
+        Arrays.sort(expected, fromIndex, toIndex);
+        int[] actual = input.clone();
+        MergeSort.sort(actual, fromIndex, toIndex);
+        assertEquals(actual, expected);
+        actual = input.clone();
+        MergeSort.parallelSort(actual, fromIndex, toIndex);
+        assertEquals(actual, expected);
+
+        long[] longInput = Arrays.stream(input).asLongStream().toArray();
+        long[] expectedLongs = longInput.clone();
+        Arrays.sort(expectedLongs, fromIndex, toIndex);
+        long[] actualLongs = longInput.clone();
+        MergeSort.parallelSort(actualLongs, fromIndex, toIndex);
+        assertEquals(actualLongs, expectedLongs);
+
+        Integer[] objectInput = Arrays.stream(input).boxed().toArray(Integer[]::new);
+        Integer[] expectedObjects = objectInput.clone();
+        Arrays.sort(expectedObjects, fromIndex, toIndex);
+        Integer[] actualObjects = objectInput.clone();
+        MergeSort.parallelSort(actualObjects, fromIndex, toIndex, Comparator.naturalOrder());
+        assertEquals(actualObjects, expectedObjects);
+    }
+
+    @Test
+    public void testForErrors() {
+        expectThrows(IllegalArgumentException.class,
+            () -> MergeSort.sort(new int[3], 2, 1));
+        expectThrows(IllegalArgumentException.class,
+            () -> MergeSort.parallelSort(new long[3], -1, 1));
+        expectThrows(IllegalArgumentException.class,
+            () -> MergeSort.sort(new Integer[3], 0, 4, Comparator.naturalOrder()));
+        expectThrows(NullPointerException.class,
+            () -> MergeSort.sort(new Integer[3], null));
+    }
+}
@@ -0,0 +1,95 @@
+package com.aaronicsubstances.cs_and_math.sorting;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.testng.Assert.*;
+
+public class PooledExternalStorageTest {
+    private final Random randGen = new Random();
+
+    @Test(dataProvider = "createTestSortData")
+    public void testSort(int inputSize, int maximumPoolSize, int expectedCreatedCount)
+            throws Exception {
+        // arrange
+        Comparator<Integer> sortFunc = (a, b) -> Integer.compare(a, b);
+        SortConfiguration sortConfig = new SortConfiguration(50, 10);
+        List<String> logs = new ArrayList<>();
+        TestStorage testStorage = new TestStorage(logs);
+        PooledExternalStorage storage = new PooledExternalStorage(testStorage,
+            maximumPoolSize);
+
+        List<Integer> input = new ArrayList<>();
+        for (int i = 0; i < inputSize; i++) {
+            input.add(randGen.nextInt());
+        }
+
+        // act
+        CloseableIterator<Integer> result = ExternalSort.sort(
+            input.iterator(), sortFunc, sortConfig, storage);
+        List<Integer> actual = SortingUtils.iteratorToList(result);
+        result.close();
+
+        // assert
+        List<Integer> expected = new ArrayList<>(input);
+        expected.sort(sortFunc);
+        assertThat(actual, is(expected));
+        long actualCreatedCount = logs.stream().filter(x -> x.endsWith(".created")).count();
+        assertEquals(actualCreatedCount, expectedCreatedCount);
+        assertTrue(storage.getPooledBucketCount() <= maximumPoolSize);
+
+        storage.close();
+        assertEquals(storage.getPooledBucketCount(), 0);
+        assertEquals(testStorage.getBucketCount(), 0);
+    }
+
+    @DataProvider
+    public Object[][] createTestSortData() {
+        return new Object[][]{
+            { 0, Integer.MAX_VALUE, 0 },
+            { 50, Integer.MAX_VALUE, 0 },
+            { 100, Integer.MAX_VALUE, 3 },
+            // 20 initial chunks, merged 5 at a time into 4 chunks,
+            // and then into 1 chunk. only first merge output needs a new bucket.
+            { 1000, Integer.MAX_VALUE, 21 },
+            { 1000, 0, 25 },
+            { 1000, 1, 21 },
+        };
+    }
+
+    @Test
+    public void testBucketReuse() {
+        TestStorage testStorage = new TestStorage(new ArrayList<>());
+        PooledExternalStorage storage = new PooledExternalStorage(testStorage);
+        String first = storage.createBucket();
+        String second = storage.createBucket();
+        assertNotEquals(first, second);
+        storage.deleteBucket(first);
+        storage.deleteBucket(second);
+        assertEquals(storage.getPooledBucketCount(), 2);
+        assertEquals(testStorage.getBucketCount(), 2);
+
+        // most recently deleted should be reused first.
+        assertEquals(storage.createBucket(), second);
+        assertEquals(storage.createBucket(), first);
+        assertEquals(storage.getPooledBucketCount(), 0);
+
+        storage.deleteBucket(first);
+        storage.close();
+        assertEquals(testStorage.getBucketCount(), 1);
+    }
+
+    @Test
+    public void testForErrors() {
+        expectThrows(NullPointerException.class, () -> new PooledExternalStorage(null));
+        expectThrows(IllegalArgumentException.class,
+            () -> new PooledExternalStorage(new TestStorage(new ArrayList<>()), -1));
+    }
+}